@@ -42,6 +42,7 @@ import javax.swing.JDialog;
 import javax.swing.JOptionPane;
 import org.girod.ontobrowser.gui.CustomGraphStyles;
 import org.girod.ontobrowser.gui.errors.ErrorLevel;
+import org.girod.ontobrowser.gui.layout.LayoutEngine;
 import org.girod.ontobrowser.model.OntModelSpecTypes;
 import org.girod.ontobrowser.model.PackagesConfiguration;
 import org.girod.ontobrowser.model.SchemasRepository;
@@ -56,7 +57,7 @@ import org.girod.ontobrowser.parsers.graph.LayoutOptions;
 /**
  * The browser configuration.
  *
- * @version 0.14
+ * @version 0.16
  */
 public class BrowserConfiguration implements Configuration {
    private static BrowserConfiguration conf = null;
@@ -100,12 +101,21 @@ public class BrowserConfiguration implements Configuration {
    public boolean showInterPackageConnections = true;
    public int maximumRadius = 1;
    public short layoutOptions = LayoutOptions.ANY_POSITION;
+   public short layoutEngine = LayoutEngine.BARNES_HUT;
+   public boolean progressiveLayout = true;
+   public boolean useLayoutsCache = true;
    /*
     * Parsing configuration
     */
    public boolean includeIndividuals = false;
    public boolean addThingClass = true;
    public boolean strictMode = false;
+   public boolean parallelExtraction = true;
+   public boolean useSchemasCache = true;
+   public boolean resolveImports = true;
+   public boolean persistentDataset = false;
+   public boolean detachModel = false;
+   public boolean reloadModifiedFiles = true;
    public String modelSpec = OntModelSpecTypes.OWL_MEM;
 
    /*
@@ -244,6 +254,33 @@ public class BrowserConfiguration implements Configuration {
       return defaultDir;
    }
 
+   /**
+    * Return the directory of the schemas cache.
+    *
+    * @return the directory of the schemas cache
+    */
+   public File getSchemasCacheDirectory() {
+      return new File(System.getProperty("user.home"), ".ontoBrowser" + File.separator + "cache");
+   }
+
+   /**
+    * Return the directory of the cache of the layouts of the diagrams.
+    *
+    * @return the directory of the layouts cache
+    */
+   public File getLayoutsCacheDirectory() {
+      return new File(getSchemasCacheDirectory(), "layouts");
+   }
+
+   /**
+    * Return the directory of the cache of the parsed imported Ontologies.
+    *
+    * @return the directory of the imports cache
+    */
+   public File getImportsCacheDirectory() {
+      return new File(getSchemasCacheDirectory(), "imports");
+   }
+
    /**
     * Return the graph styles Schema.
     *
@@ -498,12 +535,21 @@ public class BrowserConfiguration implements Configuration {
       p.putBoolean("showAlias", showAlias);
       p.putInt("maximumRadius", maximumRadius);
       p.putInt("superClassPosition", (int)layoutOptions);
+      p.putInt("layoutEngine", (int)layoutEngine);
+      p.putBoolean("progressiveLayout", progressiveLayout);
+      p.putBoolean("useLayoutsCache", useLayoutsCache);
 
       // parsing
       p.putBoolean("includeIndividuals", includeIndividuals);
       p.putBoolean("includeForeignDisconnectedElements", includeForeignDisconnectedElements);
       p.putBoolean("addThingClass", addThingClass);
       p.putBoolean("strictMode", strictMode);
+      p.putBoolean("parallelExtraction", parallelExtraction);
+      p.putBoolean("useSchemasCache", useSchemasCache);
+      p.putBoolean("resolveImports", resolveImports);
+      p.putBoolean("persistentDataset", persistentDataset);
+      p.putBoolean("detachModel", detachModel);
+      p.putBoolean("reloadModifiedFiles", reloadModifiedFiles);
       p.put("modelSpec", modelSpec);
 
       // schemas
@@ -562,11 +608,20 @@ public class BrowserConfiguration implements Configuration {
       maximumRadius = p.getInt("maximumRadius", maximumRadius);
       showInterPackageConnections = p.getBoolean("showInterPackageConnections", showInterPackageConnections);
       layoutOptions = (short)p.getInt("superClassPosition", layoutOptions);
+      layoutEngine = (short)p.getInt("layoutEngine", layoutEngine);
+      progressiveLayout = p.getBoolean("progressiveLayout", progressiveLayout);
+      useLayoutsCache = p.getBoolean("useLayoutsCache", useLayoutsCache);
 
       // parsing
       includeIndividuals = p.getBoolean("includeIndividuals", includeIndividuals);
       addThingClass = p.getBoolean("addThingClass", addThingClass);
       strictMode = p.getBoolean("strictMode", strictMode);
+      parallelExtraction = p.getBoolean("parallelExtraction", parallelExtraction);
+      useSchemasCache = p.getBoolean("useSchemasCache", useSchemasCache);
+      resolveImports = p.getBoolean("resolveImports", resolveImports);
+      persistentDataset = p.getBoolean("persistentDataset", persistentDataset);
+      detachModel = p.getBoolean("detachModel", detachModel);
+      reloadModifiedFiles = p.getBoolean("reloadModifiedFiles", reloadModifiedFiles);
       modelSpec = p.get("modelSpec", modelSpec);
 
       // schemas
@@ -46,6 +46,7 @@ import javax.swing.JTextField;
 import javax.swing.SpinnerNumberModel;
 import javax.swing.event.ChangeEvent;
 import org.girod.ontobrowser.gui.errors.ErrorLevel;
+import org.girod.ontobrowser.gui.layout.LayoutEngine;
 import org.girod.ontobrowser.model.OntModelSpecTypes;
 import org.mdiutil.swing.JFileSelector;
 import org.mdiutil.swing.JMultipleFileSelector;
@@ -55,7 +56,7 @@ import org.girod.ontobrowser.parsers.graph.LayoutOptions;
 /**
  * This class encapsulates the settings.
  *
- * @version 0.14
+ * @version 0.16
  */
 public class BrowserSettings {
    private static BrowserSettings settings = null;
@@ -85,6 +86,12 @@ public class BrowserSettings {
    private JCheckBox includeIndividualsCb;
    private JCheckBox addThingClassCb;
    private JCheckBox strictModeCb;
+   private JCheckBox parallelExtractionCb;
+   private JCheckBox useSchemasCacheCb;
+   private JCheckBox resolveImportsCb;
+   private JCheckBox persistentDatasetCb;
+   private JCheckBox detachModelCb;
+   private JCheckBox reloadModifiedFilesCb;
    private JComboBox modelSpecCb;
    // diagrams
    private JCheckBox showAliasCb;
@@ -112,6 +119,9 @@ public class BrowserSettings {
    private JSpinner padHeightSpinner;
    private JFileSelector customStylesFs;
    private JComboBox layoutOptionCb;
+   private JComboBox layoutEngineCb;
+   private JCheckBox progressiveLayoutCb;
+   private JCheckBox useLayoutsCacheCb;
    // yEd
    private JFileSelector yedExeDirectoryFs;
    private JFileSelector packagesConfigurationFs;
@@ -252,6 +262,12 @@ public class BrowserSettings {
       includeIndividualsCb.setSelected(conf.includeIndividuals);
       addThingClassCb.setSelected(conf.addThingClass);
       strictModeCb.setSelected(conf.strictMode);
+      parallelExtractionCb.setSelected(conf.parallelExtraction);
+      useSchemasCacheCb.setSelected(conf.useSchemasCache);
+      resolveImportsCb.setSelected(conf.resolveImports);
+      persistentDatasetCb.setSelected(conf.persistentDataset);
+      detachModelCb.setSelected(conf.detachModel);
+      reloadModifiedFilesCb.setSelected(conf.reloadModifiedFiles);
       modelSpecCb.setSelectedItem(conf.modelSpec);
 
       // Styles
@@ -264,6 +280,9 @@ public class BrowserSettings {
          customStylesFs.setCurrentDirectory(dir);
       }
       layoutOptionCb.setSelectedItem(this.getLayoutOption(conf.layoutOptions));
+      layoutEngineCb.setSelectedItem(this.getLayoutEngine(conf.layoutEngine));
+      progressiveLayoutCb.setSelected(conf.progressiveLayout);
+      useLayoutsCacheCb.setSelected(conf.useLayoutsCache);
 
       // Packages
       showPackagesCb.setSelected(conf.showPackages);
@@ -407,6 +426,28 @@ public class BrowserSettings {
             conf.layoutOptions = getLayoutOption(layoutOptionCb.getSelectedItem().toString());
          }
       });
+
+      String[] engineType = {"Organic", "Barnes-Hut Force-Directed"};
+      layoutEngineCb = new JComboBox<>(engineType);
+      layoutEngineCb.setSelectedItem(getLayoutEngine(conf.layoutEngine));
+
+      layoutEngineCb.addItemListener(new ItemListener() {
+         public void itemStateChanged(ItemEvent e) {
+            conf.layoutEngine = getLayoutEngine(layoutEngineCb.getSelectedItem().toString());
+         }
+      });
+
+      progressiveLayoutCb = new JCheckBox("", conf.progressiveLayout);
+      progressiveLayoutCb.setBackground(Color.WHITE);
+      progressiveLayoutCb.addActionListener((ActionEvent e) -> {
+         conf.progressiveLayout = progressiveLayoutCb.isSelected();
+      });
+
+      useLayoutsCacheCb = new JCheckBox("", conf.useLayoutsCache);
+      useLayoutsCacheCb.setBackground(Color.WHITE);
+      useLayoutsCacheCb.addActionListener((ActionEvent e) -> {
+         conf.useLayoutsCache = useLayoutsCacheCb.isSelected();
+      });
    }
 
    /**
@@ -580,6 +621,42 @@ public class BrowserSettings {
          conf.strictMode = strictModeCb.isSelected();
       });
 
+      parallelExtractionCb = new JCheckBox("", conf.parallelExtraction);
+      parallelExtractionCb.setBackground(Color.WHITE);
+      parallelExtractionCb.addActionListener((ActionEvent e) -> {
+         conf.parallelExtraction = parallelExtractionCb.isSelected();
+      });
+
+      useSchemasCacheCb = new JCheckBox("", conf.useSchemasCache);
+      useSchemasCacheCb.setBackground(Color.WHITE);
+      useSchemasCacheCb.addActionListener((ActionEvent e) -> {
+         conf.useSchemasCache = useSchemasCacheCb.isSelected();
+      });
+
+      resolveImportsCb = new JCheckBox("", conf.resolveImports);
+      resolveImportsCb.setBackground(Color.WHITE);
+      resolveImportsCb.addActionListener((ActionEvent e) -> {
+         conf.resolveImports = resolveImportsCb.isSelected();
+      });
+
+      persistentDatasetCb = new JCheckBox("", conf.persistentDataset);
+      persistentDatasetCb.setBackground(Color.WHITE);
+      persistentDatasetCb.addActionListener((ActionEvent e) -> {
+         conf.persistentDataset = persistentDatasetCb.isSelected();
+      });
+
+      detachModelCb = new JCheckBox("", conf.detachModel);
+      detachModelCb.setBackground(Color.WHITE);
+      detachModelCb.addActionListener((ActionEvent e) -> {
+         conf.detachModel = detachModelCb.isSelected();
+      });
+
+      reloadModifiedFilesCb = new JCheckBox("", conf.reloadModifiedFiles);
+      reloadModifiedFilesCb.setBackground(Color.WHITE);
+      reloadModifiedFilesCb.addActionListener((ActionEvent e) -> {
+         conf.reloadModifiedFiles = reloadModifiedFilesCb.isSelected();
+      });
+
       // model spec
       String[] modelSpecType = {OntModelSpecTypes.OWL_DL_MEM, OntModelSpecTypes.OWL_DL_MEM_RDFS_INF, OntModelSpecTypes.OWL_DL_MEM_RULE_INF, OntModelSpecTypes.OWL_DL_MEM_TRANS_INF,
          OntModelSpecTypes.OWL_LITE_MEM, OntModelSpecTypes.OWL_LITE_MEM_RDFS_INF, OntModelSpecTypes.OWL_LITE_MEM_RULES_INF, OntModelSpecTypes.OWL_LITE_MEM_TRANS_INF,
@@ -722,6 +799,24 @@ public class BrowserSettings {
       }
    }
 
+   private short getLayoutEngine(String engine) {
+      switch (engine) {
+         case "Organic":
+            return LayoutEngine.ORGANIC;
+         default:
+            return LayoutEngine.BARNES_HUT;
+      }
+   }
+
+   private String getLayoutEngine(short engine) {
+      switch (engine) {
+         case LayoutEngine.ORGANIC:
+            return "Organic";
+         default:
+            return "Barnes-Hut Force-Directed";
+      }
+   }
+
    /**
     * Initialize the package Settings.
     */
@@ -801,6 +896,12 @@ public class BrowserSettings {
       parsingSettings.addProperty(includeForeignDisconnectedElementsCb, "", "Include Foreign Disconnected Elements");
       parsingSettings.addProperty(addThingClassCb, "", "Add Thing Class");
       parsingSettings.addProperty(strictModeCb, "", "Strict Mode");
+      parsingSettings.addProperty(parallelExtractionCb, "", "Parallel Extraction");
+      parsingSettings.addProperty(useSchemasCacheCb, "", "Use Schemas Cache");
+      parsingSettings.addProperty(resolveImportsCb, "", "Resolve Imports in Parallel");
+      parsingSettings.addProperty(persistentDatasetCb, "", "Open as Persistent Dataset");
+      parsingSettings.addProperty(detachModelCb, "", "Release the Model after Extraction");
+      parsingSettings.addProperty(reloadModifiedFilesCb, "", "Reload Modified Files");
       parsingSettings.addProperty(modelSpecCb, "", "Model Specification");
       parsingSettings.setVisible(true);
 
@@ -820,6 +921,9 @@ public class BrowserSettings {
       styleSettings.addProperty(padHeightSpinner, "", "Height Padding");
       styleSettings.addProperty(customStylesFs, "", "Custom Styles");
       styleSettings.addProperty(layoutOptionCb, "", "Layout Option");
+      styleSettings.addProperty(layoutEngineCb, "", "Layout Engine");
+      styleSettings.addProperty(progressiveLayoutCb, "", "Refine Layout in Background");
+      styleSettings.addProperty(useLayoutsCacheCb, "", "Use Layouts Cache");
       styleSettings.setVisible(true);
 
       packageSettings.addProperty(showPackagesCb, "", "Show Packages");
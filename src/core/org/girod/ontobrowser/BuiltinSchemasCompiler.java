@@ -0,0 +1,84 @@
+/*
+Copyright (c) 2024 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+
+/**
+ * Precompiles the builtin schemas in the RDF Thrift format. It is called by the build after the compilation, with the classes directory
+ * as argument. The precompiled schemas are written next to the original resources.
+ *
+ * @since 0.16
+ */
+public class BuiltinSchemasCompiler {
+   private BuiltinSchemasCompiler() {
+   }
+
+   /**
+    * Precompile the builtin schemas.
+    *
+    * @param classesDir the classes directory
+    * @throws IOException if a schema could not be read or written
+    */
+   public static void compile(File classesDir) throws IOException {
+      File dir = new File(classesDir, "org/girod/ontobrowser/standard");
+      if (!dir.exists() && !dir.mkdirs()) {
+         throw new IOException("Could not create the directory " + dir);
+      }
+      SchemasResolvers resolvers = SchemasResolvers.getInstance();
+      String[] names = SchemasResolvers.getBuiltinNames();
+      for (int i = 0; i < names.length; i++) {
+         String name = names[i];
+         Model model = resolvers.parseBuiltinModel(name);
+         File file = new File(dir, name + SchemasResolvers.COMPILED_EXTENSION);
+         try (OutputStream stream = new BufferedOutputStream(new FileOutputStream(file))) {
+            RDFDataMgr.write(stream, model, Lang.RDFTHRIFT);
+         }
+      }
+   }
+
+   public static void main(String[] args) throws IOException {
+      if (args.length != 1) {
+         System.err.println("Usage: BuiltinSchemasCompiler <classes directory>");
+         System.exit(1);
+      }
+      compile(new File(args[0]));
+   }
+}
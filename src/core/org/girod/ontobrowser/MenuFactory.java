@@ -81,7 +81,7 @@ import org.mdiutil.swing.GenericDialog;
 /**
  * This class creates the Menus for the application.
  *
- * @version 0.13
+ * @version 0.16
  */
 public class MenuFactory extends AbstractMDIMenuFactory {
    private final JMenu filemenu = new JMenu("File");
@@ -137,6 +137,12 @@ public class MenuFactory extends AbstractMDIMenuFactory {
          }
       };
 
+      AbstractAction cancelLoadingAction = new AbstractAction("Cancel Loading") {
+         public void actionPerformed(ActionEvent ae) {
+            ((OntoBrowserGUI) appli).cancelLoading();
+         }
+      };
+
       AbstractAction saveAction = new AbstractAction("Save Model") {
          public void actionPerformed(ActionEvent ae) {
             saveModel();
@@ -238,6 +244,7 @@ public class MenuFactory extends AbstractMDIMenuFactory {
       toolsmenu.addSeparator();
 
       JMenuItem openItem = new JMenuItem(openAction);
+      JMenuItem cancelLoadingItem = new JMenuItem(cancelLoadingAction);
       JMenuItem saveItem = new JMenuItem(saveAction);
       JMenuItem exportItem = new JMenuItem(exportAction);
       JMenuItem openInYedItem = new JMenuItem(openInYedAction);
@@ -274,6 +281,7 @@ public class MenuFactory extends AbstractMDIMenuFactory {
 
       // create main menus
       filemenu.add(openItem);
+      filemenu.add(cancelLoadingItem);
       filemenu.add(saveItem);
       filemenu.add(exportItem);
       filemenu.add(openInYedItem);
@@ -572,7 +580,7 @@ public class MenuFactory extends AbstractMDIMenuFactory {
          if (file != null) {
             String longDesc = "Open Model";
             OpenModelAction action = new OpenModelAction(appli, "Open Model", longDesc, file);
-            appli.executeAction(action);
+            ((OntoBrowserGUI) appli).executeLoadAction(action);
             bconf.setDefaultDirectory(file.getParentFile());
          }
       }
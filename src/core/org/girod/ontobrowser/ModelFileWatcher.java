@@ -0,0 +1,271 @@
+/*
+Copyright (c) 2024 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+
+/**
+ * Watches the files of the opened Ontologies, and notifies a listener on the Event Dispatch Thread when one of these files has been modified.
+ *
+ * <p>The editors often write a file in several steps, so the modifications of a file are coalesced: the listener is only notified when the file
+ * has not been modified during {@link #SETTLE_DELAY} milliseconds, and its size and date have not changed since the last check.</p>
+ *
+ * @since 0.16
+ */
+public class ModelFileWatcher {
+   /**
+    * The delay without any modification after which a file is considered to be settled, in milliseconds.
+    */
+   public static final long SETTLE_DELAY = 1000;
+   /**
+    * The delay between two checks of the files which have been modified, in milliseconds.
+    */
+   private static final long POLL_DELAY = 200;
+   private final Consumer<File> listener;
+   private WatchService watchService = null;
+   private Thread thread = null;
+   private final Map<Path, WatchKey> directoryKeys = new HashMap<>();
+   private final Map<Path, Integer> watchedFiles = new HashMap<>();
+   private final Map<Path, PendingFile> pendingFiles = new HashMap<>();
+
+   /**
+    * Constructor.
+    *
+    * @param listener the listener which is notified when a file has been modified
+    */
+   public ModelFileWatcher(Consumer<File> listener) {
+      this.listener = listener;
+   }
+
+   /**
+    * Start to watch a file. A file can be watched several times, if it is opened in several diagrams.
+    *
+    * @param file the file
+    * @return true if the file is watched
+    */
+   public synchronized boolean watch(File file) {
+      Path path = file.getAbsoluteFile().toPath();
+      Path dir = path.getParent();
+      if (dir == null) {
+         return false;
+      }
+      try {
+         if (watchService == null) {
+            watchService = FileSystems.getDefault().newWatchService();
+            thread = new Thread(this::watchLoop, "Ontology files watcher");
+            thread.setDaemon(true);
+            thread.start();
+         }
+         if (!directoryKeys.containsKey(dir)) {
+            WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            directoryKeys.put(dir, key);
+         }
+      } catch (IOException ex) {
+         return false;
+      }
+      Integer count = watchedFiles.get(path);
+      watchedFiles.put(path, count == null ? 1 : count + 1);
+      return true;
+   }
+
+   /**
+    * Stop to watch a file.
+    *
+    * @param file the file
+    */
+   public synchronized void unwatch(File file) {
+      Path path = file.getAbsoluteFile().toPath();
+      Integer count = watchedFiles.get(path);
+      if (count == null) {
+         return;
+      } else if (count > 1) {
+         watchedFiles.put(path, count - 1);
+         return;
+      }
+      watchedFiles.remove(path);
+      pendingFiles.remove(path);
+      Path dir = path.getParent();
+      Iterator<Path> it = watchedFiles.keySet().iterator();
+      while (it.hasNext()) {
+         if (dir.equals(it.next().getParent())) {
+            return;
+         }
+      }
+      WatchKey key = directoryKeys.remove(dir);
+      if (key != null) {
+         key.cancel();
+      }
+   }
+
+   /**
+    * Stop to watch all the files.
+    */
+   public synchronized void close() {
+      if (watchService != null) {
+         try {
+            watchService.close();
+         } catch (IOException ex) {
+         }
+         watchService = null;
+         thread = null;
+      }
+      directoryKeys.clear();
+      watchedFiles.clear();
+      pendingFiles.clear();
+   }
+
+   private void watchLoop() {
+      WatchService service;
+      synchronized (this) {
+         service = watchService;
+      }
+      try {
+         while (true) {
+            WatchKey key = service.poll(POLL_DELAY, TimeUnit.MILLISECONDS);
+            if (key != null) {
+               addPendingFiles(key);
+            }
+            List<File> settledFiles = getSettledFiles();
+            Iterator<File> it = settledFiles.iterator();
+            while (it.hasNext()) {
+               File file = it.next();
+               SwingUtilities.invokeLater(() -> listener.accept(file));
+            }
+         }
+      } catch (InterruptedException | ClosedWatchServiceException ex) {
+         // the watcher has been closed
+      }
+   }
+
+   private synchronized void addPendingFiles(WatchKey key) {
+      Path dir = (Path) key.watchable();
+      long now = System.currentTimeMillis();
+      Iterator<WatchEvent<?>> it = key.pollEvents().iterator();
+      while (it.hasNext()) {
+         WatchEvent<?> event = it.next();
+         if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+            // some events have been lost, so all the files of the directory are checked
+            Iterator<Path> it2 = watchedFiles.keySet().iterator();
+            while (it2.hasNext()) {
+               Path path = it2.next();
+               if (dir.equals(path.getParent())) {
+                  addPendingFile(path, now);
+               }
+            }
+         } else {
+            Path path = dir.resolve((Path) event.context());
+            if (watchedFiles.containsKey(path)) {
+               addPendingFile(path, now);
+            }
+         }
+      }
+      key.reset();
+   }
+
+   private void addPendingFile(Path path, long now) {
+      PendingFile pending = pendingFiles.get(path);
+      if (pending == null) {
+         pendingFiles.put(path, new PendingFile(path.toFile(), now));
+      } else {
+         pending.lastEvent = now;
+      }
+   }
+
+   private synchronized List<File> getSettledFiles() {
+      List<File> settledFiles = new ArrayList<>();
+      long now = System.currentTimeMillis();
+      Iterator<PendingFile> it = pendingFiles.values().iterator();
+      while (it.hasNext()) {
+         PendingFile pending = it.next();
+         if (now - pending.lastEvent >= SETTLE_DELAY) {
+            if (pending.updateStamp()) {
+               // the file is still written
+               pending.lastEvent = now;
+            } else {
+               it.remove();
+               if (pending.file.exists()) {
+                  settledFiles.add(pending.file);
+               }
+            }
+         }
+      }
+      return settledFiles;
+   }
+
+   /**
+    * A file which has been modified, and which is not settled yet.
+    */
+   private static class PendingFile {
+      private final File file;
+      private long lastEvent;
+      private long length;
+      private long lastModified;
+
+      private PendingFile(File file, long lastEvent) {
+         this.file = file;
+         this.lastEvent = lastEvent;
+         this.length = file.length();
+         this.lastModified = file.lastModified();
+      }
+
+      /**
+       * Update the size and date of the file.
+       *
+       * @return true if they have changed since the last check
+       */
+      private boolean updateStamp() {
+         long newLength = file.length();
+         long newLastModified = file.lastModified();
+         boolean changed = newLength != length || newLastModified != lastModified;
+         length = newLength;
+         lastModified = newLastModified;
+         return changed;
+      }
+   }
+}
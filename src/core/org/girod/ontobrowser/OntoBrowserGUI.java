@@ -34,13 +34,17 @@ package org.girod.ontobrowser;
 
 import java.io.File;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.prefs.BackingStoreException;
 import java.util.prefs.Preferences;
 import org.apache.log4j.BasicConfigurator;
 import org.apache.log4j.Level;
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
+import org.girod.ontobrowser.actions.AbstractOpenModelAction;
 import org.girod.ontobrowser.actions.RefreshModelAction;
 import org.girod.ontobrowser.actions.RefreshTreeAction;
 import org.girod.ontobrowser.actions.SearchAction;
@@ -48,16 +52,20 @@ import org.girod.ontobrowser.gui.GraphPanel;
 import org.girod.ontobrowser.gui.search.SearchOptions;
 import org.mdi.app.LauncherConf;
 import org.mdi.app.swing.AbstractMDIApplication;
+import org.mdi.bootstrap.FileProperties;
+import org.mdi.bootstrap.swing.MDIApplicationListener;
 import org.mdi.bootstrap.swing.SwingFileProperties;
 import org.mdiutil.prefs.NetworkPreferencesFactory;
 
 /**
  * The main class of the application.
  *
- * @version 0.13
+ * @version 0.16
  */
 public class OntoBrowserGUI extends AbstractMDIApplication {
    private Preferences pref = null;
+   private final Set<AbstractOpenModelAction> loadingActions = ConcurrentHashMap.newKeySet();
+   private final ModelFileWatcher fileWatcher = new ModelFileWatcher(this::reloadModel);
 
    public OntoBrowserGUI() {
       this(true);
@@ -83,6 +91,44 @@ public class OntoBrowserGUI extends AbstractMDIApplication {
          mfactory = new MenuFactory(this);
          super.preparePanels(8, true, true, mfactory);
          this.message.manageClipBoard(true);
+         this.addApplicationListener(new MDIApplicationListener() {
+            @Override
+            public void fireTabRemoved(FileProperties prop) {
+               Object o = prop.getObject();
+               if (o instanceof OwlDiagram) {
+                  fileWatcher.unwatch(((OwlDiagram) o).getFile());
+               }
+            }
+         });
+      }
+   }
+
+   /**
+    * Return the watcher of the files of the opened Ontologies.
+    *
+    * @return the watcher
+    */
+   public ModelFileWatcher getFileWatcher() {
+      return fileWatcher;
+   }
+
+   /**
+    * Reload the diagrams of a file which has been modified. The diagrams are refreshed in the background.
+    *
+    * @param file the file
+    */
+   private void reloadModel(File file) {
+      if (!((BrowserConfiguration) conf).reloadModifiedFiles) {
+         return;
+      }
+      Iterator<SwingFileProperties> it = getTabPropertiesList().values().iterator();
+      while (it.hasNext()) {
+         SwingFileProperties prop = it.next();
+         Object o = prop.getObject();
+         if (o instanceof OwlDiagram && file.equals(((OwlDiagram) o).getFile())) {
+            RefreshModelAction action = new RefreshModelAction(this, "Reload", "Reload " + file.getName(), prop);
+            executeLoadAction(action);
+         }
       }
    }
 
@@ -108,9 +154,32 @@ public class OntoBrowserGUI extends AbstractMDIApplication {
          String longDesc = "Refresh";
          SwingFileProperties prop = getSelectedProperties();
          RefreshModelAction action = new RefreshModelAction(this, "Refresh", longDesc, prop);
-         executeAction(action);
+         executeLoadAction(action);
       }
-   }   
+   }
+
+   /**
+    * Execute an action which loads a model. The action can be cancelled by {@link #cancelLoading()} until the loading is finished.
+    *
+    * @param action the action
+    */
+   public void executeLoadAction(AbstractOpenModelAction action) {
+      loadingActions.add(action);
+      action.setFinishedListener(() -> loadingActions.remove(action));
+      executeAction(action);
+   }
+
+   /**
+    * Cancel all the models which are currently loading.
+    */
+   public void cancelLoading() {
+      Iterator<AbstractOpenModelAction> it = loadingActions.iterator();
+      while (it.hasNext()) {
+         AbstractOpenModelAction action = it.next();
+         action.cancel();
+         it.remove();
+      }
+   }
    
    public void refreshTree(OwlDiagram diagram) {
       if (diagram != null) {
@@ -33,27 +33,37 @@ the project website at the project page on https://github.com/hervegirod/ontolog
 package org.girod.ontobrowser;
 
 import com.mxgraph.model.mxCell;
+import com.mxgraph.model.mxGeometry;
 import com.mxgraph.swing.mxGraphComponent;
+import com.mxgraph.util.mxPoint;
 import com.mxgraph.view.mxGraph;
 import java.io.File;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import org.girod.ontobrowser.gui.layout.BackgroundLayout;
 import org.girod.ontobrowser.model.ElementKey;
 import org.girod.ontobrowser.model.OwlRepresentationType;
 import org.girod.ontobrowser.model.OwlSchema;
 
 /**
- * An Owl diagram shown in the browser.
+ * An Owl diagram shown in the browser. The schema of the diagram is read-only, and is replaced atomically by a new version of the
+ * schema, so that readers which have started with a version keep a consistent view of the schema.
  *
- * @version 0.13
+ * @version 0.16
  */
 public class OwlDiagram {
    private mxGraph graph = null;
    private mxGraphComponent comp = null;
    private Map<ElementKey, mxCell> keyToCell = null;
+   private Map<ElementKey, mxCell> keyToPropertyCell = null;
+   private Map<ElementKey, mxCell> keyToIndividualCell = null;
    private String name = null;
    private File file;
    private short representationType = OwlRepresentationType.TYPE_OWL_XML;
-   private OwlSchema schema = null;
+   private final AtomicReference<OwlSchema> schema = new AtomicReference<>();
+   private BackgroundLayout backgroundLayout = null;
 
    /**
     * Constructor.
@@ -101,21 +111,34 @@ public class OwlDiagram {
    }
 
    /**
-    * Set the schema.
+    * Set the schema. The schema is made read-only.
     *
     * @param schema the schema
     */
    public void setSchema(OwlSchema schema) {
-      this.schema = schema;
+      schema.setReadOnly();
+      this.schema.set(schema);
    }
 
    /**
-    * Return the schema.
+    * Replace the schema by a new version, if the current schema is still the expected one. The new version is made read-only.
+    *
+    * @param expectedSchema the expected current schema
+    * @param newSchema the new version of the schema
+    * @return true if the schema was replaced
+    */
+   public boolean swapSchema(OwlSchema expectedSchema, OwlSchema newSchema) {
+      newSchema.setReadOnly();
+      return schema.compareAndSet(expectedSchema, newSchema);
+   }
+
+   /**
+    * Return the current version of the schema.
     *
     * @return the schema
     */
    public OwlSchema getSchema() {
-      return schema;
+      return schema.get();
    }
 
    /**
@@ -124,7 +147,7 @@ public class OwlDiagram {
     * @return true if there are packages in the model
     */
    public boolean hasPackages() {
-      return schema.hasPackages();
+      return schema.get().hasPackages();
    }
 
    /**
@@ -145,6 +168,33 @@ public class OwlDiagram {
       this.graph = graph;
    }
 
+   /**
+    * Set the layout which refines the positions of the cells of the graph in the background.
+    *
+    * @param backgroundLayout the layout (may be null)
+    */
+   public void setBackgroundLayout(BackgroundLayout backgroundLayout) {
+      this.backgroundLayout = backgroundLayout;
+   }
+
+   /**
+    * Return the layout which refines the positions of the cells of the graph in the background.
+    *
+    * @return the layout (may be null)
+    */
+   public BackgroundLayout getBackgroundLayout() {
+      return backgroundLayout;
+   }
+
+   /**
+    * Cancel the layout which refines the positions of the cells of the graph in the background, if there is one.
+    */
+   public void cancelBackgroundLayout() {
+      if (backgroundLayout != null) {
+         backgroundLayout.cancel();
+      }
+   }
+
    /**
     * Set the diagram associated graph component.
     *
@@ -172,6 +222,62 @@ public class OwlDiagram {
       return keyToCell;
    }
 
+   /**
+    * Set the map from datatype property keys to the cell.
+    *
+    * @param keyToPropertyCell the map
+    */
+   public void setKeyToPropertyCell(Map<ElementKey, mxCell> keyToPropertyCell) {
+      this.keyToPropertyCell = keyToPropertyCell;
+   }
+
+   /**
+    * Set the map from individual keys to the cell.
+    *
+    * @param keyToIndividualCell the map
+    */
+   public void setKeyToIndividualCell(Map<ElementKey, mxCell> keyToIndividualCell) {
+      this.keyToIndividualCell = keyToIndividualCell;
+   }
+
+   /**
+    * Return the positions of the cells of the classes, datatype properties, and individuals.
+    *
+    * @return the positions
+    */
+   public Map<ElementKey, mxPoint> getPositions() {
+      Map<ElementKey, mxPoint> positions = new HashMap<>();
+      addPositions(positions, keyToCell);
+      addPositions(positions, keyToPropertyCell);
+      addPositions(positions, keyToIndividualCell);
+      return positions;
+   }
+
+   private void addPositions(Map<ElementKey, mxPoint> positions, Map<ElementKey, mxCell> cells) {
+      if (cells == null) {
+         return;
+      }
+      Iterator<Map.Entry<ElementKey, mxCell>> it = cells.entrySet().iterator();
+      while (it.hasNext()) {
+         Map.Entry<ElementKey, mxCell> entry = it.next();
+         mxGeometry geometry = entry.getValue().getGeometry();
+         positions.put(entry.getKey(), new mxPoint(geometry.getX(), geometry.getY()));
+      }
+   }
+
+   /**
+    * Return the cell of a datatype property.
+    *
+    * @param key the datatype property key
+    * @return the cell, or null if there is no cell for this property
+    */
+   public mxCell getPropertyCell(ElementKey key) {
+      if (keyToPropertyCell == null) {
+         return null;
+      }
+      return keyToPropertyCell.get(key);
+   }
+
    /**
     * Return the cell for a key.
     *
@@ -32,22 +32,71 @@ the project website at the project page on https://github.com/hervegirod/owlToGr
  */
 package org.girod.ontobrowser;
 
+import java.io.BufferedInputStream;
 import java.io.File;
-import java.net.URISyntaxException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.RiotException;
 import org.apache.jena.riot.system.stream.JenaIOEnvironment;
 import org.apache.jena.riot.system.stream.LocationMapper;
 import org.mdiutil.lang.ResourceLoader;
 
 /**
- * The schemas resolver.
+ * The schemas resolver. The builtin schemas are precompiled in the RDF Thrift format by the build (see {@link BuiltinSchemasCompiler}), and
+ * their Models are only loaded the first time they are imported.
  *
- * @version 0.10
+ * @version 0.16
  */
 public class SchemasResolvers {
+   /**
+    * The extension of the precompiled builtin schemas.
+    */
+   public static final String COMPILED_EXTENSION = ".rt";
+   /**
+    * The builtin schemas, with the URIs under which they can be imported. The first URI is used as the base URI of the schema.
+    */
+   private static final String[][] BUILTIN_SCHEMAS = {
+      {"owl-time.owl", "http://www.w3.org/2006/time", "http://www.w3.org/2006/time#2016", "http://www.w3.org/2006/time#"},
+      {"dublin_core_terms.rdf", "http://purl.org/dc/terms/", "http://purl.org/dc/terms"},
+      {"dublin_core_abstract_model.rdf", "http://purl.org/dc/dcam/", "http://purl.org/dc/dcam"},
+      {"dublin_core_elements.rdf", "http://purl.org/dc/elements/1.1/", "http://purl.org/dc/elements/1.1"},
+      {"geo.ttl", "http://www.opengis.net/ont/geosparql", "http://www.opengis.net/ont/geosparql/1.1", "http://www.opengis.net/ont/geosparql#"},
+      {"bfo.owl", "http://purl.obolibrary.org/obo/bfo.owl", "http://purl.obolibrary.org/obo/bfo/2019-08-26/bfo.owl"},
+      {"cc.rdf", "http://web.resource.org/cc/", "http://web.resource.org/cc", "http://creativecommons.org/ns"},
+      {"foaf.rdf", "http://xmlns.com/foaf/0.1/", "http://xmlns.com/foaf/0.1"},
+      {"sosa.ttl", "http://www.w3.org/ns/sosa/", "http://www.w3.org/ns/sosa"},
+      {"ssn.ttl", "http://www.w3.org/ns/ssn/", "http://www.w3.org/ns/ssn"},
+      {"vann-vocab-20100607.rdf", "http://purl.org/vocab/vann/", "http://purl.org/vocab/vann"},
+      {"voaf_v2.3.rdf", "http://purl.org/vocommons/voaf", "http://purl.org/vocommons/voaf#"},
+      {"wot.rdf", "http://xmlns.com/wot/0.1/", "http://xmlns.com/wot/0.1"},
+      {"frbr-core-20050810.rdf", "http://purl.org/vocab/frbr/core", "http://purl.org/vocab/frbr/core#"}
+   };
    private static SchemasResolvers resolvers = null;
+   private final ResourceLoader loader = new ResourceLoader("org/girod/ontobrowser/standard");
+   private final Map<String, String> builtinNames = new HashMap<>();
+   private final Map<String, String> builtinBases = new HashMap<>();
+   private final Map<String, Model> builtinModels = new ConcurrentHashMap<>();
+   private volatile boolean useBuiltinSchemas = false;
 
    private SchemasResolvers() {
+      for (int i = 0; i < BUILTIN_SCHEMAS.length; i++) {
+         String[] schema = BUILTIN_SCHEMAS[i];
+         builtinBases.put(schema[0], schema[1]);
+         for (int j = 1; j < schema.length; j++) {
+            builtinNames.put(schema[j], schema[0]);
+         }
+      }
    }
 
    public static SchemasResolvers getInstance() {
@@ -72,6 +121,7 @@ public class SchemasResolvers {
     * @param useBuiltinSchemas true fi built-in shcemas are used
     */
    public void setAlternateLocations(File[] alternateLocations, boolean useBuiltinSchemas) {
+      this.useBuiltinSchemas = useBuiltinSchemas;
       LocationMapper mapper = new LocationMapper();
       JenaIOEnvironment.setGlobalLocationMapper(mapper);
       if (useBuiltinSchemas) {
@@ -86,37 +136,111 @@ public class SchemasResolvers {
    }
 
    private void setBuiltinLocations(LocationMapper mapper) {
-      ResourceLoader loader = new ResourceLoader("org/girod/ontobrowser/standard");
+      Map<String, String> locations = new HashMap<>();
+      for (int i = 0; i < BUILTIN_SCHEMAS.length; i++) {
+         String name = BUILTIN_SCHEMAS[i][0];
+         URL url = loader.getURL(name);
+         if (url != null) {
+            locations.put(name, url.toString());
+         }
+      }
+      // map the URIs of the schemas on the bundled files, for the imports which are resolved by Jena
+      Iterator<Map.Entry<String, String>> it = builtinNames.entrySet().iterator();
+      while (it.hasNext()) {
+         Map.Entry<String, String> entry = it.next();
+         String location = locations.get(entry.getValue());
+         if (location != null) {
+            mapper.addAltEntry(entry.getKey(), location);
+         }
+      }
+   }
+
+   /**
+    * Return the names of the builtin schemas resources by their URIs.
+    *
+    * @return the names of the builtin schemas by their URIs
+    */
+   public Map<String, String> getBuiltinSchemas() {
+      return Collections.unmodifiableMap(builtinNames);
+   }
+
+   /**
+    * Return true if an URI is the URI of a builtin schema. Return false if the builtin schemas are not used.
+    *
+    * @param uri the URI
+    * @return true if the URI is the URI of a builtin schema
+    */
+   public boolean isBuiltinSchema(String uri) {
+      return useBuiltinSchemas && builtinNames.containsKey(uri);
+   }
+
+   /**
+    * Return the Model of a builtin schema. The Model is loaded from its precompiled form the first time it is requested, and is shared
+    * by all the Ontologies which import it. Return null if the URI is not the URI of a builtin schema, or if the builtin schemas are not used.
+    *
+    * @param uri the URI of the schema
+    * @return the Model
+    */
+   public Model getBuiltinModel(String uri) {
+      if (!useBuiltinSchemas) {
+         return null;
+      }
+      String name = builtinNames.get(uri);
+      if (name == null) {
+         return null;
+      }
+      return builtinModels.computeIfAbsent(name, this::loadBuiltinModel);
+   }
+
+   private Model loadBuiltinModel(String name) {
+      URL compiledURL = loader.getURL(name + COMPILED_EXTENSION);
+      if (compiledURL != null) {
+         Model model = ModelFactory.createDefaultModel();
+         try (InputStream stream = new BufferedInputStream(compiledURL.openStream())) {
+            RDFParser.create().source(stream).lang(Lang.RDFTHRIFT).parse(model.getGraph());
+            return model;
+         } catch (IOException | RiotException ex) {
+            // the original schema is parsed if its precompiled form could not be read
+            model.close();
+         }
+      }
       try {
-         URL url = loader.getURL("owl-time.owl");
-         mapper.altMapping(url.toURI().toString());
-         url = loader.getURL("dublin_core_terms.rdf");
-         mapper.altMapping(url.toURI().toString());
-         url = loader.getURL("dublin_core_abstract_model.rdf");
-         mapper.altMapping(url.toURI().toString());
-         url = loader.getURL("dublin_core_elements.rdf");
-         mapper.altMapping(url.toURI().toString());
-         url = loader.getURL("geo.ttl");
-         mapper.altMapping(url.toURI().toString());
-         url = loader.getURL("bfo.owl");
-         mapper.altMapping(url.toURI().toString());
-         url = loader.getURL("cc.rdf");
-         mapper.altMapping(url.toURI().toString());
-         url = loader.getURL("foaf.rdf");
-         mapper.altMapping(url.toURI().toString());
-         url = loader.getURL("sosa.ttl");
-         mapper.altMapping(url.toURI().toString());
-         url = loader.getURL("ssn.ttl");
-         mapper.altMapping(url.toURI().toString());
-         url = loader.getURL("vann-vocab-20100607.rdf");
-         mapper.altMapping(url.toURI().toString());
-         url = loader.getURL("voaf_v2.3.rdf");
-         mapper.altMapping(url.toURI().toString());
-         url = loader.getURL("wot.rdf");
-         mapper.altMapping(url.toURI().toString());
-         url = loader.getURL("frbr-core-20050810.rdf");
-         mapper.altMapping(url.toURI().toString());
-      } catch (URISyntaxException ex) {
+         return parseBuiltinModel(name);
+      } catch (IOException | RiotException ex) {
+         return null;
+      }
+   }
+
+   /**
+    * Parse the original file of a builtin schema.
+    *
+    * @param name the name of the schema resource
+    * @return the Model
+    * @throws IOException if the schema could not be read
+    */
+   Model parseBuiltinModel(String name) throws IOException {
+      URL url = loader.getURL(name);
+      if (url == null) {
+         throw new IOException("Could not find the builtin schema " + name);
+      }
+      Lang lang = RDFLanguages.filenameToLang(name, Lang.RDFXML);
+      Model model = ModelFactory.createDefaultModel();
+      try (InputStream stream = new BufferedInputStream(url.openStream())) {
+         RDFParser.create().source(stream).lang(lang).base(builtinBases.get(name)).parse(model.getGraph());
+      }
+      return model;
+   }
+
+   /**
+    * Return the names of the builtin schemas resources.
+    *
+    * @return the names
+    */
+   static String[] getBuiltinNames() {
+      String[] names = new String[BUILTIN_SCHEMAS.length];
+      for (int i = 0; i < BUILTIN_SCHEMAS.length; i++) {
+         names[i] = BUILTIN_SCHEMAS[i][0];
       }
+      return names;
    }
 }
@@ -35,40 +35,58 @@ package org.girod.ontobrowser.actions;
 import org.girod.ontobrowser.model.OwlRepresentationType;
 import com.mxgraph.view.mxGraph;
 import java.io.File;
-import java.net.URI;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import javax.swing.JOptionPane;
 import javax.xml.namespace.QName;
 import org.apache.jena.ontology.OntModel;
 import org.apache.jena.ontology.OntModelSpec;
 import org.apache.jena.ontology.OntologyException;
-import org.apache.jena.ontology.impl.OntModelImpl;
+import org.apache.jena.query.Dataset;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
 import org.apache.jena.rdf.model.ResourceRequiredException;
+import org.apache.jena.riot.Lang;
 import org.apache.jena.riot.RiotException;
 import org.apache.jena.riot.system.ErrorHandlerFactory;
-import org.apache.jena.util.FileManager;
+import org.apache.jena.sparql.core.Transactional;
+import org.apache.jena.system.Txn;
 import org.girod.ontobrowser.BrowserConfiguration;
 import org.girod.ontobrowser.OwlDiagram;
 import org.girod.ontobrowser.parsers.graph.GraphExtractor;
+import org.girod.ontobrowser.parsers.graph.ImportsCache;
+import org.girod.ontobrowser.parsers.graph.ImportsResolver;
+import org.girod.ontobrowser.parsers.graph.LoadCancelledException;
+import org.girod.ontobrowser.parsers.graph.LoadMonitor;
+import org.girod.ontobrowser.parsers.graph.ModelLoader;
+import org.girod.ontobrowser.parsers.graph.SchemaCache;
 import org.girod.ontobrowser.gui.GraphPanel;
 import org.girod.ontobrowser.gui.errors.SwingErrorLogger;
+import org.girod.ontobrowser.gui.layout.BackgroundLayout;
+import org.girod.ontobrowser.model.OntModelProvider;
 import org.girod.ontobrowser.model.OntModelSpecTypes;
+import org.girod.ontobrowser.model.OwlSchema;
 import org.mdi.bootstrap.MDIApplication;
 import org.mdi.bootstrap.swing.GUIApplication;
 import org.mdi.bootstrap.swing.SwingFileProperties;
+import org.mdi.gui.swing.StatusBar;
 import org.mdiutil.io.FileUtilities;
 import org.mdiutil.xml.XMLRootDetector;
 
 /**
  * The Action that opens owl/rdf schemas.
  *
- * @version 0.13
+ * @version 0.16
  */
 public abstract class AbstractOpenModelAction extends AbstractUpdateModelAction {
    protected File file = null;
    protected String name = null;
    private short owlRepresentationType = OwlRepresentationType.TYPE_UNDEFINED;
+   private volatile boolean cancelled = false;
+   private Runnable finishedListener = null;
 
    /**
     * Constructor.
@@ -146,8 +164,32 @@ public abstract class AbstractOpenModelAction extends AbstractUpdateModelAction
       }
    }
 
+   /**
+    * Set the listener which is called when the loading of the model is finished, whether it succeeded, failed, or was cancelled.
+    *
+    * @param listener the listener
+    */
+   public void setFinishedListener(Runnable listener) {
+      this.finishedListener = listener;
+   }
+
    @Override
-   public void run() throws Exception {
+   public final void run() throws Exception {
+      try {
+         load();
+      } finally {
+         if (finishedListener != null) {
+            finishedListener.run();
+         }
+      }
+   }
+
+   /**
+    * Load the model.
+    *
+    * @throws Exception if the model could not be loaded
+    */
+   protected void load() throws Exception {
       owlRepresentationType = getOwlRepresentationType(file);
       switch (owlRepresentationType) {
          case OwlRepresentationType.TYPE_UNDEFINED:
@@ -166,46 +208,106 @@ public abstract class AbstractOpenModelAction extends AbstractUpdateModelAction
       }
    }
 
+   /**
+    * Cancel the loading of the model. The schema which may have been partially built will be discarded.
+    */
+   public void cancel() {
+      cancelled = true;
+   }
+
+   /**
+    * Return true if the loading of the model has been cancelled.
+    *
+    * @return true if the loading of the model has been cancelled
+    */
+   public boolean isCancelled() {
+      return cancelled;
+   }
+
    private void parseImpl(short owlType) {
       BrowserConfiguration conf = BrowserConfiguration.getInstance();
-      URI uri = file.toURI();
       OntoErrorHandler errorHandler = new OntoErrorHandler((GUIApplication) app);
       ErrorHandlerFactory.setDefaultErrorHandler(errorHandler);
-      OntModel model = createModel("OWL_MEM");
+      StatusBar statusBar = ((GUIApplication) app).getStatusBar();
+      LoadMonitor monitor = createLoadMonitor();
+      // the layout of the diagram which was opened before is not refined anymore
+      BackgroundLayout.cancelCurrent();
       try {
-         // see https://web-semantique.developpez.com/tutoriels/jena/io/#LV-A
-         switch (owlType) {
-            case OwlRepresentationType.TYPE_OWL_XML:
-               FileManager.get().readModel(model, uri.toString(), "N-TRIPLES");
-               break;
-            case OwlRepresentationType.TYPE_OWL_TURTLE:
-               FileManager.get().readModel(model, uri.toString(), "TURTLE");
-               break;
+         Lang lang = Lang.RDFXML;
+         if (owlType == OwlRepresentationType.TYPE_OWL_TURTLE) {
+            lang = Lang.TURTLE;
          }
-         // getting a raw model is necessary because if we don't do that, we will use the reasoner when getting the individuals, and if can take a
-         // very long time
-         // see https://stackoverflow.com/questions/27645110/method-listindividual-takes-more-than-15-mins-with-dbpedia-2014-owl-2mb-siz
-         Model _model = model.getRawModel();
-         model = new OntModelImpl(OntModelSpecTypes.getOntModelSpec(conf.modelSpec), _model);
-         model.setStrictMode(conf.strictMode);
-
-         boolean addThingClass = conf.addThingClass;
-         boolean showPackages = conf.showPackages;
-         GraphExtractor extractor = new GraphExtractor(file, model, addThingClass, showPackages);
-         schema = extractor.getGraph();
-         diagram = new OwlDiagram(file.getName());
-         diagram.setRepresentationType(owlRepresentationType);
-         diagram.setFile(file);
-         diagram.setSchema(schema);
-         mxGraph graph = createGraph(schema);
-         diagram.setGraph(graph);
-         diagram.setKeyToCell(cell4Class);
+         Lang fileLang = ModelLoader.getLang(file, lang);
+         OntModelSpec spec = OntModelSpecTypes.getOntModelSpec(conf.modelSpec);
+         boolean strictMode = conf.strictMode;
+         SchemaCache cache = null;
+         String cacheKey = null;
+         OwlSchema theSchema = null;
+         GraphExtractor extractor = null;
+         ImportsCache importsCache = null;
+         if (conf.useSchemasCache) {
+            cache = new SchemaCache(conf.getSchemasCacheDirectory());
+            importsCache = new ImportsCache(conf.getImportsCacheDirectory());
+            cacheKey = cache.getKey(file);
+            theSchema = cache.getSchema(cacheKey);
+         }
+         if (theSchema != null) {
+            // the model is only loaded if it is needed, for example for SPARQL requests, scripts, or to save the model
+            theSchema.setFile(file);
+            FileModelProvider provider = new FileModelProvider(null, fileLang, spec, strictMode, conf.persistentDataset);
+            provider.setImportsResolution(conf.resolveImports, importsCache);
+            theSchema.setOntModelProvider(provider);
+         } else {
+            FileModelProvider provider = new FileModelProvider(monitor, fileLang, spec, strictMode, conf.persistentDataset);
+            provider.setImportsResolution(conf.resolveImports, importsCache);
+            OntModel model = provider.loadOntModel();
+            provider.showUnresolvedImports();
+            boolean addThingClass = conf.addThingClass;
+            boolean showPackages = conf.showPackages;
+            extractor = new GraphExtractor(file, model, addThingClass, showPackages);
+            extractor.setMonitor(monitor);
+            extractor.setTransactional(provider.getTransactional());
+            theSchema = extractor.getGraph();
+            // the schemas with extraction errors are not cached, so that the errors are shown each time the file is opened
+            List<File> dependencies = null;
+            if (cache != null && !extractor.hasErrors()) {
+               List<File> files = new ArrayList<>();
+               theSchema.executeRead(() -> files.addAll(ImportsResolver.getImportedFiles(file, model)));
+               dependencies = files;
+            }
+            if (conf.detachModel) {
+               // the model is released, and only loaded again if it is needed, for example for SPARQL requests, scripts, or to save the model
+               FileModelProvider reloadProvider = new FileModelProvider(null, fileLang, spec, strictMode, conf.persistentDataset);
+               reloadProvider.setImportsResolution(conf.resolveImports, importsCache);
+               theSchema.detach(reloadProvider);
+            }
+            if (dependencies != null) {
+               // the schema is not modified anymore, so it is written on a background thread rather than before the diagram is shown
+               cache.putSchemaLater(cacheKey, theSchema, dependencies);
+            }
+         }
+         OwlDiagram theDiagram = new OwlDiagram(file.getName());
+         theDiagram.setRepresentationType(owlRepresentationType);
+         theDiagram.setFile(file);
+         theDiagram.setSchema(theSchema);
+         mxGraph graph = createGraph(theSchema, null, getCachedPositions(file));
+         theDiagram.setGraph(graph);
+         theDiagram.setKeyToCell(cell4Class);
+         theDiagram.setKeyToPropertyCell(cell4Property);
+         theDiagram.setKeyToIndividualCell(cell4Individual);
+         theDiagram.setBackgroundLayout(backgroundLayout);
+         if (cancelled) {
+            throw new LoadCancelledException();
+         }
+         schema = theSchema;
+         diagram = theDiagram;
+         cacheLayout(diagram);
 
          if (graphPanel == null) {
             graphPanel = new GraphPanel((GUIApplication) app);
          }
          graphPanel.setDiagram(diagram);
-         if (extractor.hasErrors()) {
+         if (extractor != null && extractor.hasErrors()) {
             SwingErrorLogger logger = new SwingErrorLogger();
             logger.showParserExceptions(extractor.getErrors());
          }
@@ -221,47 +323,172 @@ public abstract class AbstractOpenModelAction extends AbstractUpdateModelAction
             }
             JOptionPane.showMessageDialog(((GUIApplication) app).getApplicationWindow(), message, "Warning when parsing model", JOptionPane.WARNING_MESSAGE);
          }
-      } catch (OntologyException ex) {
+      } catch (LoadCancelledException ex) {
+         schema = null;
+         diagram = null;
+         ((GUIApplication) app).getMessageArea().append("Loading of " + file.getName() + " cancelled", "red");
+      } catch (IOException | OntologyException | RiotException | ResourceRequiredException ex) {
+         showLoadError(ex);
+      } finally {
+         if (statusBar != null) {
+            statusBar.resetProgress();
+         }
+      }
+   }
+
+   /**
+    * Show an error which happened when loading the model.
+    *
+    * @param ex the exception
+    */
+   protected void showLoadError(Exception ex) {
+      if (ex instanceof OntologyException) {
          JOptionPane.showMessageDialog(((GUIApplication) app).getApplicationWindow(), ex.getMessage(), "Error when getting model graph", JOptionPane.ERROR_MESSAGE);
-      } catch (RiotException ex) {
-         JOptionPane.showMessageDialog(((GUIApplication) app).getApplicationWindow(), "RiotException: " + ex.getMessage(), "Error when parsing model", JOptionPane.ERROR_MESSAGE);
-      } catch (ResourceRequiredException ex) {
-         JOptionPane.showMessageDialog(((GUIApplication) app).getApplicationWindow(), "ResourceRequiredException: " + ex.getMessage(), "Error when parsing model", JOptionPane.ERROR_MESSAGE);
+      } else {
+         String message = ex.getClass().getSimpleName() + ": " + ex.getMessage();
+         JOptionPane.showMessageDialog(((GUIApplication) app).getApplicationWindow(), message, "Error when parsing model", JOptionPane.ERROR_MESSAGE);
       }
    }
 
-   private OntModel createModel(String ontologyModel) {
-      switch (ontologyModel) {
-         case "OWL_MEM_RDFS_INF":
-            return ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM_RDFS_INF);
-         case "OWL_DL_MEM_RULE_INF":
-            return ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM_RULE_INF);
-         case "OWL_DL_MEM_TRANS_INF":
-            return ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM_TRANS_INF);
-         case "OWL_LITE_MEM":
-            return ModelFactory.createOntologyModel(OntModelSpec.OWL_LITE_MEM);
-         case "OWL_LITE_MEM_RDFS_INF":
-            return ModelFactory.createOntologyModel(OntModelSpec.OWL_LITE_MEM_RDFS_INF);
-         case "OWL_LITE_MEM_RULES_INF":
-            return ModelFactory.createOntologyModel(OntModelSpec.OWL_LITE_MEM_RULES_INF);
-         case "OWL_LITE_MEM_TRANS_INF":
-            return ModelFactory.createOntologyModel(OntModelSpec.OWL_LITE_MEM_TRANS_INF);
-         case "OWL_MEM_MICRO_RULE_INF":
-            return ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM_MICRO_RULE_INF);
-         case "OWL_MEM_MINI_RULE_INF":
-            return ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM_MINI_RULE_INF);
-         case "OWL_MEM_TRANS_INF":
-            return ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM_TRANS_INF);
-         case "RDFS_MEM_RDFS_INF":
-            return ModelFactory.createOntologyModel(OntModelSpec.RDFS_MEM_RDFS_INF);
-         case "RDFS_MEM_TRANS_INF":
-            return ModelFactory.createOntologyModel(OntModelSpec.RDFS_MEM_TRANS_INF);
-         case "OWL_DL_MEM":
-            return ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM);
-         case "PELLET":
-         case "OWL_MEM":
-         default:
-            return ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM);
+   /**
+    * Create the monitor which shows the loading progress in the application status bar.
+    *
+    * @return the monitor
+    */
+   protected LoadMonitor createLoadMonitor() {
+      return new StatusBarMonitor(((GUIApplication) app).getStatusBar());
+   }
+
+   /**
+    * Provides the OntModel of the file. The model is either loaded in memory, or backed by a persistent TDB2 dataset next to the file.
+    * The imports of the model can be resolved in parallel before the creation of the OntModel.
+    */
+   private class FileModelProvider implements OntModelProvider {
+      private final LoadMonitor monitor;
+      private final Lang lang;
+      private final OntModelSpec spec;
+      private final boolean strictMode;
+      private final boolean persistent;
+      private boolean resolveImports = false;
+      private ImportsCache importsCache = null;
+      private ImportsResolver resolver = null;
+      private Dataset dataset = null;
+
+      private FileModelProvider(LoadMonitor monitor, Lang lang, OntModelSpec spec, boolean strictMode, boolean persistent) {
+         this.monitor = monitor;
+         this.lang = lang;
+         this.spec = spec;
+         this.strictMode = strictMode;
+         this.persistent = persistent;
+      }
+
+      private void setImportsResolution(boolean resolveImports, ImportsCache importsCache) {
+         this.resolveImports = resolveImports;
+         this.importsCache = importsCache;
+      }
+
+      /**
+       * Show the imports which could not be resolved in the message area.
+       */
+      private void showUnresolvedImports() {
+         if (resolver == null || !resolver.hasFailures()) {
+            return;
+         }
+         Iterator<Map.Entry<String, Exception>> it = resolver.getFailures().entrySet().iterator();
+         while (it.hasNext()) {
+            Map.Entry<String, Exception> entry = it.next();
+            ((GUIApplication) app).getMessageArea().append("Could not resolve import " + entry.getKey() + ": " + entry.getValue().getMessage(), "red");
+         }
+      }
+
+      @Override
+      public OntModel loadOntModel() throws IOException {
+         // the triples are streamed directly in the raw graph
+         ModelLoader loader = new ModelLoader(monitor);
+         if (persistent) {
+            dataset = loader.loadDataset(file, lang);
+            // the OntModel reads the imports of the model when it is created
+            return Txn.calculateRead(dataset, () -> createOntModel(dataset.getDefaultModel()));
+         } else {
+            return createOntModel(loader.load(file, lang));
+         }
+      }
+
+      @Override
+      public Transactional getTransactional() {
+         return dataset;
+      }
+
+      private OntModel createOntModel(Model _model) {
+         // using a raw model is necessary because if we don't do that, we will use the reasoner when getting the individuals, and if can take a
+         // very long time
+         // see https://stackoverflow.com/questions/27645110/method-listindividual-takes-more-than-15-mins-with-dbpedia-2014-owl-2mb-siz
+         OntModelSpec theSpec = spec;
+         if (resolveImports) {
+            // the imports are registered in the document manager of the OntModel, so that Jena does not fetch them again
+            resolver = new ImportsResolver(file, importsCache);
+            resolver.setMonitor(monitor);
+            resolver.resolve(_model, spec);
+            theSpec = resolver.createSpec(spec);
+         }
+         OntModel model = ModelFactory.createOntologyModel(theSpec, _model);
+         model.setStrictMode(strictMode);
+         return model;
+      }
+   }
+
+   private static String formatBytes(double bytes) {
+      if (bytes >= 1024 * 1024) {
+         return String.format("%.1f MB", bytes / (1024 * 1024));
+      } else if (bytes >= 1024) {
+         return String.format("%.1f kB", bytes / 1024);
+      } else {
+         return String.format("%.0f B", bytes);
+      }
+   }
+
+   /**
+    * The monitor which shows the loading progress in the application status bar.
+    */
+   private class StatusBarMonitor implements LoadMonitor {
+      private final StatusBar statusBar;
+
+      private StatusBarMonitor(StatusBar statusBar) {
+         this.statusBar = statusBar;
+      }
+
+      @Override
+      public boolean isCancelled() {
+         return cancelled;
+      }
+
+      @Override
+      public void loadProgress(long bytesRead, long totalBytes, long triples, long elapsed) {
+         if (statusBar == null) {
+            return;
+         }
+         double seconds = Math.max(elapsed, 1) / 1000d;
+         double bytesPerSecond = bytesRead / seconds;
+         long triplesPerSecond = (long) (triples / seconds);
+         StringBuilder buf = new StringBuilder();
+         buf.append("Parsing: ").append(formatBytes(bytesPerSecond)).append("/s, ");
+         buf.append(triples).append(" triples (").append(triplesPerSecond).append("/s)");
+         if (totalBytes > 0) {
+            int percent = (int) Math.min(100, bytesRead * 100 / totalBytes);
+            statusBar.setProgressValue(percent);
+            if (bytesPerSecond > 0 && bytesRead < totalBytes) {
+               long eta = (long) Math.ceil((totalBytes - bytesRead) / bytesPerSecond);
+               buf.append(", ETA ").append(eta).append(" s");
+            }
+         }
+         statusBar.setMessage(buf.toString());
+      }
+
+      @Override
+      public void extractionPhase(String phase) {
+         if (statusBar != null) {
+            statusBar.setMessage("Extracting " + phase);
+         }
       }
    }
 
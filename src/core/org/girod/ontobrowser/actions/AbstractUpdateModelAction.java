@@ -32,16 +32,19 @@ the project website at the project page on https://github.com/hervegirod/ontolog
  */
 package org.girod.ontobrowser.actions;
 
-import com.mxgraph.layout.mxOrganicLayout;
 import com.mxgraph.model.mxCell;
 import com.mxgraph.model.mxGeometry;
 import com.mxgraph.util.mxConstants;
+import com.mxgraph.util.mxEvent;
+import com.mxgraph.util.mxEventObject;
 import com.mxgraph.util.mxPoint;
 import com.mxgraph.util.mxRectangle;
 import com.mxgraph.view.mxGraph;
 import com.mxgraph.view.mxStylesheet;
 import java.awt.Dimension;
 import java.awt.Rectangle;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -54,6 +57,12 @@ import org.girod.ontobrowser.BrowserConfiguration;
 import org.girod.ontobrowser.OwlDiagram;
 import org.girod.ontobrowser.gui.CustomGraphStyles;
 import org.girod.ontobrowser.gui.GraphPanel;
+import org.girod.ontobrowser.gui.layout.BackgroundLayout;
+import org.girod.ontobrowser.gui.layout.BarnesHutLayoutEngine;
+import org.girod.ontobrowser.gui.layout.LayeredLayoutEngine;
+import org.girod.ontobrowser.gui.layout.LayoutCache;
+import org.girod.ontobrowser.gui.layout.LayoutEngine;
+import org.girod.ontobrowser.gui.layout.OrganicLayoutEngine;
 import org.girod.ontobrowser.model.ElementKey;
 import org.girod.ontobrowser.model.OwlClass;
 import org.girod.ontobrowser.model.OwlDatatypeProperty;
@@ -61,6 +70,7 @@ import org.girod.ontobrowser.model.OwlIndividual;
 import org.girod.ontobrowser.model.OwlObjectProperty;
 import org.girod.ontobrowser.model.OwlProperty;
 import org.girod.ontobrowser.model.OwlSchema;
+import org.girod.ontobrowser.parsers.graph.LayoutOptions;
 import org.girod.ontobrowser.utils.LabelUtils;
 import org.mdi.bootstrap.MDIApplication;
 import org.mdi.bootstrap.swing.AbstractMDIAction;
@@ -69,7 +79,7 @@ import org.mdi.bootstrap.swing.SwingFileProperties;
 /**
  * The Action that updates owl/rdf schemas.
  *
- * @version 0.15
+ * @version 0.16
  */
 public abstract class AbstractUpdateModelAction extends AbstractMDIAction {
    protected OwlSchema schema = null;
@@ -78,6 +88,8 @@ public abstract class AbstractUpdateModelAction extends AbstractMDIAction {
    protected GraphPanel graphPanel = null;
    protected Map<ElementKey, mxCell> cell4Class = null;
    protected Map<ElementKey, mxCell> cell4Property = null;   
+   protected Map<ElementKey, mxCell> cell4Individual = null;
+   protected BackgroundLayout backgroundLayout = null;
    private static final String FONT_FAMILY = "Dialog";
    private static final int FONT_SIZE = 11;   
    private boolean showAlias = false;
@@ -206,6 +218,36 @@ public abstract class AbstractUpdateModelAction extends AbstractMDIAction {
     * @return the graph
     */
    protected mxGraph createGraph(OwlSchema schema) {
+      return createGraph(schema, null, null);
+   }
+
+   /**
+    * Creates the graph for a schema. If there is a previous diagram for the same file, the cells which already existed in the previous diagram
+    * keep their position.
+    *
+    * @param schema the schema
+    * @param previousDiagram the previous diagram (may be null)
+    * @return the graph
+    */
+   protected mxGraph createGraph(OwlSchema schema, OwlDiagram previousDiagram) {
+      return createGraph(schema, previousDiagram, null);
+   }
+
+   /**
+    * Creates the graph for a schema. If there is a previous diagram for the same file, the cells which already existed in the previous diagram
+    * keep their position. Else the cells keep their cached position if there is one. The layout is only executed for all the cells if there are
+    * too many new cells. Else only the new cells are placed near their neighbors.
+    *
+    * <p>If the layout is refined in the background, the cells only have their initial position in the returned graph, and the
+    * {@link #backgroundLayout} must be set on the diagram, so that the layout is started when the diagram is shown.</p>
+    *
+    * @param schema the schema
+    * @param previousDiagram the previous diagram (may be null)
+    * @param cachedPositions the cached positions of the cells (may be null)
+    * @return the graph
+    */
+   protected mxGraph createGraph(OwlSchema schema, OwlDiagram previousDiagram, Map<ElementKey, mxPoint> cachedPositions) {
+      backgroundLayout = null;
       mxGraph graph = new mxGraph();
       graph.setDisconnectOnMove(false);
       graph.setAutoOrigin(true);
@@ -217,28 +259,41 @@ public abstract class AbstractUpdateModelAction extends AbstractMDIAction {
       Map<ElementKey, OwlDatatypeProperty> owlDatatypeProperties = schema.getOwlDatatypeProperties();
       cell4Class = new HashMap<>();
       cell4Property = new HashMap<>();
+      cell4Individual = new HashMap<>();
       Map<ElementKey, mxCell> cell4Dataproperty = new HashMap<>();
       List<mxCell> allCells = new ArrayList<>();
+      List<mxCell> newCells = new ArrayList<>();
+      Dimension[] dimensions = getLabelDimensions(owlClasses, owlDatatypeProperties);
+      int labelIndex = 0;
 
       Iterator<OwlClass> it = owlClasses.values().iterator();
       while (it.hasNext()) {
          OwlClass owlClass = it.next();
-         Dimension d = LabelUtils.getDimension(owlClass.getDisplayedName(), FONT_SIZE, FONT_FAMILY);
+         Dimension d = dimensions[labelIndex++];
          mxCell classCell = (mxCell) graph.insertVertex(parent, null, owlClass.getDisplayedName(), 0, 100, d.width, d.height);
          classCell.setStyle("class");
          allCells.add(classCell);
          ElementKey key = owlClass.getKey();
-         owlClasses.put(key, owlClass);
          cell4Class.put(key, classCell);
+         mxCell previousClassCell = previousDiagram != null ? previousDiagram.getCell(key) : null;
+         if (!copyPosition(previousClassCell, classCell) && !copyPosition(cachedPositions, key, classCell)) {
+            newCells.add(classCell);
+         }
 
          // individuals
          if (owlClass.hasIndividuals()) {
             Iterator<OwlIndividual> it2 = owlClass.getIndividuals().values().iterator();
             while (it2.hasNext()) {
                OwlIndividual individual = it2.next();
-               d = LabelUtils.getDimension(individual.getDisplayedName(), FONT_SIZE, FONT_FAMILY);
+               d = dimensions[labelIndex++];
                mxCell individualCell = (mxCell) graph.insertVertex(parent, null, individual.getDisplayedName(), 0, 100, d.width, d.height);
                individualCell.setStyle("individual");
+               allCells.add(individualCell);
+               cell4Individual.put(individual.getKey(), individualCell);
+               if (!copyPosition(getIndividualCell(previousClassCell, individual.getDisplayedName()), individualCell)
+                  && !copyPosition(cachedPositions, individual.getKey(), individualCell)) {
+                  newCells.add(individualCell);
+               }
                mxCell edge = (mxCell) graph.insertEdge(parent, null, "", classCell, individualCell);
                edge.setStyle("property");
             }
@@ -283,13 +338,17 @@ public abstract class AbstractUpdateModelAction extends AbstractMDIAction {
       Iterator<OwlDatatypeProperty> it3 = owlDatatypeProperties.values().iterator();
       while (it3.hasNext()) {
          OwlDatatypeProperty datatypeProperty = it3.next();
-         Dimension d = LabelUtils.getDimension(datatypeProperty.getDisplayedName(), FONT_SIZE, FONT_FAMILY);
+         Dimension d = dimensions[labelIndex++];
          mxCell propertyCell = (mxCell) graph.insertVertex(parent, null, datatypeProperty.getDisplayedName(), 0, 100, d.width, d.height);
          allCells.add(propertyCell);
          propertyCell.setStyle("dataProperty");
          ElementKey key = datatypeProperty.getKey();
          cell4Dataproperty.put(key, propertyCell);
          cell4Property.put(key, propertyCell);
+         mxCell previousPropertyCell = previousDiagram != null ? previousDiagram.getPropertyCell(key) : null;
+         if (!copyPosition(previousPropertyCell, propertyCell) && !copyPosition(cachedPositions, key, propertyCell)) {
+            newCells.add(propertyCell);
+         }
       }
 
       Map<EdgeKey, EdgeValue> edges = new HashMap<>();
@@ -370,9 +429,24 @@ public abstract class AbstractUpdateModelAction extends AbstractMDIAction {
          }
       }
 
-      mxOrganicLayout layout = new mxOrganicLayout(graph);
-      layout.setMinMoveRadius(100);
-      layout.execute(parent);
+      boolean hasPositions = previousDiagram != null || cachedPositions != null;
+      if (!hasPositions || newCells.size() * 2 > graph.getChildVertices(parent).length) {
+         LayoutEngine layout = createLayoutEngine();
+         if (layout instanceof BarnesHutLayoutEngine && BrowserConfiguration.getInstance().progressiveLayout) {
+            backgroundLayout = new BackgroundLayout(graph, parent, (BarnesHutLayoutEngine) layout);
+         } else {
+            layout.execute(graph, parent);
+         }
+      } else if (!newCells.isEmpty()) {
+         placeNewCells(graph, newCells);
+         LayoutEngine layout = createLayoutEngine();
+         if (layout instanceof BarnesHutLayoutEngine) {
+            // only the new cells are moved, from their position near a neighbor
+            BarnesHutLayoutEngine barnesHutLayout = (BarnesHutLayoutEngine) layout;
+            barnesHutLayout.setMovableCells(newCells);
+            barnesHutLayout.execute(graph, parent);
+         }
+      }
       updateEdges(graph, edges);
       updateGraphBounds(graph, allCells);
 
@@ -380,6 +454,217 @@ public abstract class AbstractUpdateModelAction extends AbstractMDIAction {
       return graph;
    }
 
+   /**
+    * Create the layout engine used to place the cells of the diagram. The engine depends on the configuration. If the layout options
+    * impose the sub-classes to be under their super-classes, the diagram is laid out in layers.
+    *
+    * @return the layout engine
+    */
+   protected LayoutEngine createLayoutEngine() {
+      BrowserConfiguration conf = BrowserConfiguration.getInstance();
+      if (conf.layoutOptions == LayoutOptions.SUBCLASS_SOUTH_POSITION) {
+         return new LayeredLayoutEngine(false);
+      } else if (conf.layoutOptions == LayoutOptions.CHILDREN_SOUTH_POSITION) {
+         return new LayeredLayoutEngine(true);
+      } else if (conf.layoutEngine == LayoutEngine.ORGANIC) {
+         return new OrganicLayoutEngine();
+      } else {
+         return new BarnesHutLayoutEngine();
+      }
+   }
+
+   /**
+    * Return the cached positions of the cells of the diagram of a file.
+    *
+    * @param file the file
+    * @return the positions, or null if the layouts cache is not used or if there are no valid positions for the file
+    */
+   protected Map<ElementKey, mxPoint> getCachedPositions(File file) {
+      BrowserConfiguration conf = BrowserConfiguration.getInstance();
+      if (!conf.useLayoutsCache || file == null) {
+         return null;
+      }
+      LayoutCache cache = new LayoutCache(conf.getLayoutsCacheDirectory());
+      try {
+         return cache.getPositions(cache.getKey(file));
+      } catch (IOException ex) {
+         return null;
+      }
+   }
+
+   /**
+    * Save the positions of the cells of a diagram in the layouts cache. If the layout is refined in the background, the positions are only
+    * saved when the layout has finished. The positions are saved again when cells are moved in the diagram. The positions are written on
+    * a background thread, and only once for several moves which happen in a short time.
+    *
+    * <p>This method must be called before the diagram is shown.</p>
+    *
+    * @param diagram the diagram
+    */
+   protected void cacheLayout(OwlDiagram diagram) {
+      BrowserConfiguration conf = BrowserConfiguration.getInstance();
+      if (!conf.useLayoutsCache || diagram.getFile() == null) {
+         return;
+      }
+      LayoutCache cache = new LayoutCache(conf.getLayoutsCacheDirectory());
+      String key;
+      try {
+         key = cache.getKey(diagram.getFile());
+      } catch (IOException ex) {
+         return;
+      }
+      Runnable saveLayout = () -> cache.putPositionsLater(key, diagram.getPositions());
+      BackgroundLayout layout = diagram.getBackgroundLayout();
+      if (layout != null) {
+         layout.setFinishedListener(saveLayout);
+      } else {
+         saveLayout.run();
+      }
+      diagram.getGraph().addListener(mxEvent.CELLS_MOVED, (Object sender, mxEventObject evt) -> saveLayout.run());
+   }
+
+   /**
+    * Return the dimensions of the labels of the vertices, measured at once. The dimensions are in the order in which the vertices are
+    * created: each class followed by its individuals, then the datatype properties.
+    *
+    * @param owlClasses the classes
+    * @param owlDatatypeProperties the datatype properties
+    * @return the dimensions
+    */
+   private Dimension[] getLabelDimensions(Map<ElementKey, OwlClass> owlClasses, Map<ElementKey, OwlDatatypeProperty> owlDatatypeProperties) {
+      List<String> labels = new ArrayList<>();
+      Iterator<OwlClass> it = owlClasses.values().iterator();
+      while (it.hasNext()) {
+         OwlClass owlClass = it.next();
+         labels.add(owlClass.getDisplayedName());
+         if (owlClass.hasIndividuals()) {
+            Iterator<OwlIndividual> it2 = owlClass.getIndividuals().values().iterator();
+            while (it2.hasNext()) {
+               labels.add(it2.next().getDisplayedName());
+            }
+         }
+      }
+      Iterator<OwlDatatypeProperty> it3 = owlDatatypeProperties.values().iterator();
+      while (it3.hasNext()) {
+         labels.add(it3.next().getDisplayedName());
+      }
+      return LabelUtils.getDimensions(labels, FONT_SIZE, FONT_FAMILY);
+   }
+
+   /**
+    * Copy a cached position.
+    *
+    * @param cachedPositions the cached positions (may be null)
+    * @param key the key of the element of the cell
+    * @param cell the cell
+    * @return true if the position has been copied
+    */
+   private boolean copyPosition(Map<ElementKey, mxPoint> cachedPositions, ElementKey key, mxCell cell) {
+      if (cachedPositions == null) {
+         return false;
+      }
+      mxPoint position = cachedPositions.get(key);
+      if (position == null) {
+         return false;
+      }
+      mxGeometry geometry = cell.getGeometry();
+      geometry.setX(position.getX());
+      geometry.setY(position.getY());
+      return true;
+   }
+
+   /**
+    * Copy the position of a cell of the previous diagram.
+    *
+    * @param previousCell the cell of the previous diagram (may be null)
+    * @param cell the cell
+    * @return true if the position has been copied
+    */
+   private boolean copyPosition(mxCell previousCell, mxCell cell) {
+      if (previousCell == null) {
+         return false;
+      }
+      mxGeometry previousGeometry = previousCell.getGeometry();
+      mxGeometry geometry = cell.getGeometry();
+      geometry.setX(previousGeometry.getX());
+      geometry.setY(previousGeometry.getY());
+      return true;
+   }
+
+   /**
+    * Return the cell of an individual in the previous diagram, which is connected to the cell of its class.
+    *
+    * @param previousClassCell the cell of the class in the previous diagram (may be null)
+    * @param name the displayed name of the individual
+    * @return the cell, or null if it is not found
+    */
+   private mxCell getIndividualCell(mxCell previousClassCell, String name) {
+      if (previousClassCell == null) {
+         return null;
+      }
+      int count = previousClassCell.getEdgeCount();
+      for (int i = 0; i < count; i++) {
+         mxCell edge = (mxCell) previousClassCell.getEdgeAt(i);
+         mxCell target = (mxCell) edge.getTarget();
+         if (edge.getSource() == previousClassCell && target != null && "individual".equals(target.getStyle()) && name.equals(target.getValue())) {
+            return target;
+         }
+      }
+      return null;
+   }
+
+   /**
+    * Place the cells which did not exist in the previous diagram next to a connected cell which already existed, or under the other cells if
+    * they are not connected to any of these cells.
+    *
+    * @param graph the graph
+    * @param newCells the new cells
+    */
+   private void placeNewCells(mxGraph graph, List<mxCell> newCells) {
+      Set<mxCell> toPlace = new HashSet<>(newCells);
+      double maxy = 0;
+      Object[] vertices = graph.getChildVertices(graph.getDefaultParent());
+      for (int i = 0; i < vertices.length; i++) {
+         mxCell vertex = (mxCell) vertices[i];
+         if (!toPlace.contains(vertex)) {
+            mxGeometry geometry = vertex.getGeometry();
+            maxy = Math.max(maxy, geometry.getY() + geometry.getHeight());
+         }
+      }
+      double x = 0;
+      Map<mxCell, Integer> placedNextTo = new HashMap<>();
+      Iterator<mxCell> it = newCells.iterator();
+      while (it.hasNext()) {
+         mxCell cell = it.next();
+         mxGeometry geometry = cell.getGeometry();
+         mxCell neighbor = getPlacedNeighbor(graph, cell, toPlace);
+         if (neighbor != null) {
+            mxGeometry neighborGeometry = neighbor.getGeometry();
+            int index = placedNextTo.containsKey(neighbor) ? placedNextTo.get(neighbor) + 1 : 0;
+            placedNextTo.put(neighbor, index);
+            geometry.setX(neighborGeometry.getX() + neighborGeometry.getWidth() + 40);
+            geometry.setY(neighborGeometry.getY() + index * (geometry.getHeight() + 10));
+         } else {
+            geometry.setX(x);
+            geometry.setY(maxy + 40);
+            x += geometry.getWidth() + 20;
+         }
+         toPlace.remove(cell);
+      }
+   }
+
+   private mxCell getPlacedNeighbor(mxGraph graph, mxCell cell, Set<mxCell> toPlace) {
+      Object[] edges = graph.getEdges(cell);
+      for (int i = 0; i < edges.length; i++) {
+         mxCell edge = (mxCell) edges[i];
+         mxCell other = (mxCell) (edge.getSource() == cell ? edge.getTarget() : edge.getSource());
+         if (other != null && !toPlace.contains(other)) {
+            return other;
+         }
+      }
+      return null;
+   }
+
    private void updateGraphBounds(mxGraph graph, List<mxCell> allCells) {
       double minx = 0;
       double miny = 0;
@@ -34,6 +34,7 @@ package org.girod.ontobrowser.actions;
 
 import java.io.File;
 import java.net.MalformedURLException;
+import org.girod.ontobrowser.OntoBrowserGUI;
 import org.mdi.app.swing.AbstractMDIApplication;
 import org.mdi.bootstrap.MDIApplication;
 import org.mdi.bootstrap.swing.SwingFileProperties;
@@ -41,7 +42,7 @@ import org.mdi.bootstrap.swing.SwingFileProperties;
 /**
  * The Action that opens owl/rdf schemas.
  *
- * @version 0.13
+ * @version 0.16
  */
 public class OpenModelAction extends AbstractOpenModelAction {
 
@@ -95,6 +96,9 @@ public class OpenModelAction extends AbstractOpenModelAction {
          } catch (MalformedURLException ex) {
          }
          ((AbstractMDIApplication) app).addTab(graphPanel, prop);
+         if (app instanceof OntoBrowserGUI) {
+            ((OntoBrowserGUI) app).getFileWatcher().watch(file);
+         }
       }
    }
 }
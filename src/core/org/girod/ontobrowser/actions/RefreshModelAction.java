@@ -32,17 +32,52 @@ the project website at the project page on https://github.com/hervegirod/ontolog
  */
 package org.girod.ontobrowser.actions;
 
+import java.io.IOException;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntologyException;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ResourceRequiredException;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RiotException;
+import org.girod.ontobrowser.BrowserConfiguration;
+import org.girod.ontobrowser.OwlDiagram;
 import org.girod.ontobrowser.gui.GraphPanel;
+import org.girod.ontobrowser.gui.GraphPanelState;
+import org.girod.ontobrowser.gui.errors.SwingErrorLogger;
+import org.girod.ontobrowser.model.OwlRepresentationType;
+import org.girod.ontobrowser.model.OwlSchema;
+import org.girod.ontobrowser.parsers.graph.AnnotationsPatch;
+import org.girod.ontobrowser.parsers.graph.GraphExtractor;
+import org.girod.ontobrowser.parsers.graph.ImportsResolver;
+import org.girod.ontobrowser.parsers.graph.LoadCancelledException;
+import org.girod.ontobrowser.parsers.graph.LoadMonitor;
+import org.girod.ontobrowser.parsers.graph.ModelDiff;
+import org.girod.ontobrowser.parsers.graph.ModelLoader;
+import org.girod.ontobrowser.parsers.graph.SchemaCache;
 import org.mdi.bootstrap.MDIApplication;
+import org.mdi.bootstrap.swing.GUIApplication;
 import org.mdi.bootstrap.swing.SwingFileProperties;
+import org.mdi.gui.swing.StatusBar;
 
 /**
- * The Action that opens owl/rdf schemas.
+ * The Action that refreshes owl/rdf schemas.
  *
- * @since 0.13
+ * <p>If the model of the previous schema is in memory, the refresh is incremental: the new version of the file is compared with the previous
+ * model, only the changed triples are applied on the previous model, and the cells which already existed in the previous diagram keep their
+ * position. If the changed triples only change the annotations of existing classes or properties (see {@link AnnotationsPatch}), the
+ * previous schema and diagram are kept, and only the annotations of the changed elements are created again. Otherwise the schema is still
+ * extracted again from the whole patched model, and the diagram is created again. If the refresh does not succeed, the changes are
+ * reverted on the model, which is still used by the previous schema. In all cases, the expanded and selected elements in the trees are
+ * kept.</p>
+ *
+ * @version 0.16
  */
 public class RefreshModelAction extends AbstractOpenModelAction {
    private int selectedTab = 0;
+   private final OwlDiagram previousDiagram;
+   private final GraphPanelState previousState;
+   private boolean unchanged = false;
+   private boolean patched = false;
 
    /**
     * Constructor.
@@ -57,24 +92,140 @@ public class RefreshModelAction extends AbstractOpenModelAction {
       this.graphPanel = (GraphPanel) prop.getComponent();
       this.file = graphPanel.getSchema().getFile();
       this.selectedTab = graphPanel.getSelectedTab();
+      this.previousDiagram = graphPanel.getDiagram();
+      this.previousState = graphPanel.getState();
    }
-   
+
    @Override
-   public void run() throws Exception {
-      graphPanel.reset();
-      super.run();
+   protected void load() throws Exception {
+      OwlSchema previousSchema = previousDiagram != null ? previousDiagram.getSchema() : null;
+      // the models which are backed by a persistent dataset are reloaded by the dataset itself
+      if (previousSchema != null && previousSchema.hasOntModel() && previousSchema.getTransactional() == null) {
+         refreshIncrementally(previousSchema);
+      } else {
+         if (previousDiagram != null) {
+            previousDiagram.cancelBackgroundLayout();
+         }
+         graphPanel.reset();
+         super.load();
+      }
+   }
+
+   private void refreshIncrementally(OwlSchema previousSchema) {
+      BrowserConfiguration conf = BrowserConfiguration.getInstance();
+      StatusBar statusBar = ((GUIApplication) app).getStatusBar();
+      LoadMonitor monitor = createLoadMonitor();
+      OntModel model = previousSchema.getOntModel();
+      Model baseModel = model.getBaseModel();
+      ModelDiff diff = null;
+      boolean succeeded = false;
+      try {
+         Lang lang = Lang.RDFXML;
+         if (getOwlRepresentationType(file) == OwlRepresentationType.TYPE_OWL_TURTLE) {
+            lang = Lang.TURTLE;
+         }
+         ModelLoader loader = new ModelLoader(monitor);
+         Model currentModel = loader.load(file, ModelLoader.getLang(file, lang));
+         ModelDiff theDiff = new ModelDiff(baseModel, currentModel);
+         currentModel.close();
+         if (theDiff.isEmpty()) {
+            unchanged = true;
+            return;
+         }
+         // the previous model is patched rather than replaced, so that its imports are not loaded again
+         AnnotationsPatch patch = new AnnotationsPatch(previousSchema, theDiff);
+         theDiff.apply(baseModel);
+         model.rebind();
+         diff = theDiff;
+         if (patch.isApplicable()) {
+            patch.apply();
+            patched = true;
+            succeeded = true;
+            if (conf.useSchemasCache) {
+               SchemaCache cache = new SchemaCache(conf.getSchemasCacheDirectory());
+               cache.putSchemaLater(cache.getKey(file), previousSchema, ImportsResolver.getImportedFiles(file, model));
+            }
+            return;
+         }
+         previousDiagram.cancelBackgroundLayout();
+
+         GraphExtractor extractor = new GraphExtractor(file, model, conf.addThingClass, conf.showPackages);
+         extractor.setMonitor(monitor);
+         OwlSchema theSchema = extractor.getGraph();
+         OwlDiagram theDiagram = new OwlDiagram(file.getName());
+         theDiagram.setRepresentationType(previousDiagram.getRepresentationType());
+         theDiagram.setFile(file);
+         theDiagram.setSchema(theSchema);
+         theDiagram.setGraph(createGraph(theSchema, previousDiagram));
+         theDiagram.setKeyToCell(cell4Class);
+         theDiagram.setKeyToPropertyCell(cell4Property);
+         theDiagram.setKeyToIndividualCell(cell4Individual);
+         theDiagram.setBackgroundLayout(backgroundLayout);
+         if (isCancelled()) {
+            throw new LoadCancelledException();
+         }
+         schema = theSchema;
+         diagram = theDiagram;
+         cacheLayout(diagram);
+         if (extractor.hasErrors()) {
+            SwingErrorLogger logger = new SwingErrorLogger();
+            logger.showParserExceptions(extractor.getErrors());
+         } else if (conf.useSchemasCache) {
+            SchemaCache cache = new SchemaCache(conf.getSchemasCacheDirectory());
+            cache.putSchemaLater(cache.getKey(file), theSchema, ImportsResolver.getImportedFiles(file, model));
+         }
+         succeeded = true;
+      } catch (LoadCancelledException ex) {
+         ((GUIApplication) app).getMessageArea().append("Refresh of " + file.getName() + " cancelled", "red");
+      } catch (IOException | OntologyException | RiotException | ResourceRequiredException ex) {
+         showLoadError(ex);
+      } finally {
+         if (!succeeded) {
+            // any failure, including the unexpected ones, must not leave the model of the previous schema changed
+            revert(diff, model);
+         }
+         if (statusBar != null) {
+            statusBar.resetProgress();
+         }
+      }
+   }
+
+   private void revert(ModelDiff diff, OntModel model) {
+      schema = null;
+      diagram = null;
+      if (diff != null) {
+         // the previous diagram is shown again, so its model must be restored
+         diff.revert(model.getBaseModel());
+         model.rebind();
+      }
    }
-   
+
    @Override
    public void endAction() {
+      if (unchanged) {
+         ((GUIApplication) app).getMessageArea().append(file.getName() + " has not changed");
+         return;
+      }
+      if (patched) {
+         ((GUIApplication) app).getMessageArea().append("Annotations of " + file.getName() + " refreshed");
+         graphPanel.updateSelectedElement();
+         return;
+      }
       if (diagram == null) {
+         // the refresh has been cancelled or has failed, show the previous diagram again
+         if (isCancelled() && previousDiagram != null) {
+            graphPanel.reset();
+            graphPanel.setDiagram(previousDiagram, previousState);
+            graphPanel.revalidate();
+            graphPanel.setSelectedTab(selectedTab);
+         }
          return;
       }
-      
+
       graphPanel.reset();
-      graphPanel.setDiagram(diagram);      
+      graphPanel.setDiagram(diagram, previousState);
       graphPanel.revalidate();
       graphPanel.setSelectedTab(selectedTab);
       prop.setObject(diagram);
-   }   
+   }
 }
@@ -38,6 +38,7 @@ import org.girod.ontobrowser.BrowserConfiguration;
 import org.girod.ontobrowser.OwlDiagram;
 import org.girod.ontobrowser.gui.GraphPanel;
 import org.girod.ontobrowser.gui.errors.SwingErrorLogger;
+import org.girod.ontobrowser.model.OwlSchema;
 import org.girod.ontobrowser.parsers.graph.GraphExtractor;
 import org.mdi.bootstrap.MDIApplication;
 import org.mdi.bootstrap.swing.GUIApplication;
@@ -46,7 +47,7 @@ import org.mdi.bootstrap.swing.SwingFileProperties;
 /**
  * The Action that refresh only the tree.
  *
- * @since 0.13
+ * @version 0.16
  */
 public class RefreshTreeAction extends AbstractUpdateModelAction {
    private int selectedTab = 0;
@@ -66,18 +67,26 @@ public class RefreshTreeAction extends AbstractUpdateModelAction {
 
    @Override
    public void run() throws Exception {
+      diagram.cancelBackgroundLayout();
       graphPanel.reset();
       BrowserConfiguration conf = BrowserConfiguration.getInstance();
       File file = diagram.getFile();
 
       boolean addThingClass = conf.addThingClass;
       boolean showPackages = conf.showPackages;
-      GraphExtractor extractor = new GraphExtractor(file, diagram.getSchema().getOntModel(), addThingClass, showPackages);
+      OwlSchema previousSchema = diagram.getSchema();
+      GraphExtractor extractor = new GraphExtractor(file, previousSchema.getOntModel(), addThingClass, showPackages);
+      extractor.setTransactional(previousSchema.getTransactional());
       schema = extractor.getGraph();
       diagram.setSchema(schema);
-      mxGraph graph = createGraph(schema);
+      // the cells keep the position they had in the previous graph
+      mxGraph graph = createGraph(schema, diagram);
       diagram.setGraph(graph);
       diagram.setKeyToCell(cell4Class);
+      diagram.setKeyToPropertyCell(cell4Property);
+      diagram.setKeyToIndividualCell(cell4Individual);
+      diagram.setBackgroundLayout(backgroundLayout);
+      cacheLayout(diagram);
 
       if (graphPanel == null) {
          graphPanel = new GraphPanel((GUIApplication) app);
@@ -72,7 +72,7 @@ public class SaveModelAction extends AbstractMDIAction {
          OwlSchema schema = diagram.getSchema();
          OntModel model = schema.getOntModel();
          FileOutputStream outputFile = new FileOutputStream(file);
-         RDFDataMgr.write(outputFile, model, Lang.RDFXML);
+         schema.executeRead(() -> RDFDataMgr.write(outputFile, model, Lang.RDFXML));
       } catch (FileNotFoundException ex) {
       }
    }
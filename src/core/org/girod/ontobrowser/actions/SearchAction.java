@@ -67,7 +67,7 @@ import org.mdi.bootstrap.swing.GUIApplication;
 /**
  * The Action that search for elements.
  *
- * @version 0.12
+ * @version 0.16
  */
 public class SearchAction extends AbstractMDIAction {
    private final String category;
@@ -204,19 +204,10 @@ public class SearchAction extends AbstractMDIAction {
          OwlClass owlClass = it.next();
          list.add(owlClass);
          if (indirectRelations) {
-            if (owlClass.hasAliasClasses()) {
-               Iterator<OwlClass> it2 = owlClass.getAliasClasses().values().iterator();
-               while (it2.hasNext()) {
-                  OwlClass theClass = it2.next();
-                  list.add(theClass);
-               }
-            }
-            if (owlClass.hasFromAliasedClasses()) {
-               Iterator<OwlClass> it2 = owlClass.getFromAliasClasses().values().iterator();
-               while (it2.hasNext()) {
-                  OwlClass theClass = it2.next();
-                  list.add(theClass);
-               }
+            Iterator<OwlClass> it2 = schema.getEquivalentClasses(owlClass).values().iterator();
+            while (it2.hasNext()) {
+               OwlClass theClass = it2.next();
+               list.add(theClass);
             }
          }
       }
@@ -235,19 +226,10 @@ public class SearchAction extends AbstractMDIAction {
    }
 
    private void addAliasedProperties(List<NamedOwlElement> list, OwlProperty property) {
-      if (property.hasAliasProperties()) {
-         Iterator<OwlProperty> it2 = property.getAliasProperties().values().iterator();
-         while (it2.hasNext()) {
-            OwlProperty theProperty = it2.next();
-            list.add(theProperty);
-         }
-      }
-      if (property.hasFromAliasedProperties()) {
-         Iterator<OwlProperty> it2 = property.getFromAliasProperties().values().iterator();
-         while (it2.hasNext()) {
-            OwlProperty theProperty = it2.next();
-            list.add(theProperty);
-         }
+      Iterator<OwlProperty> it2 = schema.getEquivalentProperties(property).values().iterator();
+      while (it2.hasNext()) {
+         OwlProperty theProperty = it2.next();
+         list.add(theProperty);
       }
    }
 
@@ -35,6 +35,7 @@ package org.girod.ontobrowser.actions.script;
 import java.io.File;
 import org.girod.ontobrowser.OwlDiagram;
 import org.girod.ontobrowser.gui.GraphPanel;
+import org.girod.ontobrowser.model.ElementIndex;
 import org.girod.ontobrowser.model.ElementKey;
 import org.girod.ontobrowser.model.ElementVisitor;
 import org.girod.ontobrowser.model.NamedElement;
@@ -55,7 +56,7 @@ import org.scripthelper.swing.SwingExceptionListener;
 /**
  * An absract script avtion, used for running and debugging scripts.
  *
- * @since 0.13
+ * @version 0.16
  */
 public abstract class AbstractScriptAction extends AbstractMDIAction implements ElementVisitor, ScriptLoggerHyperLinkListener, LinkIndexConverter {
    protected File scriptFile = null;
@@ -109,6 +110,14 @@ public abstract class AbstractScriptAction extends AbstractMDIAction implements
       return true;
    }
 
+   /**
+    * End the Script context. If the Script has modified the schema, the graph panel shows the new version of the schema.
+    */
+   protected void endContext() {
+      context.end();
+      graphPanel.updateSchema();
+   }
+
    protected boolean isScriptAborted() {
       if (!endAtFirstException) {
          return false;
@@ -176,6 +185,14 @@ public abstract class AbstractScriptAction extends AbstractMDIAction implements
       }
    }
 
+   private ElementIndex.Entry getEntry(String iri) {
+      ElementIndex elementIndex = schema.getElementIndex();
+      if (elementIndex == null) {
+         return null;
+      }
+      return elementIndex.getEntry(iri);
+   }
+
    @Override
    public Object getObjectFromLink(String linkDesc) {
       int index = linkDesc.indexOf('$');
@@ -184,24 +201,22 @@ public abstract class AbstractScriptAction extends AbstractMDIAction implements
          String linkValue = linkDesc.substring(index + 1);
          switch (objectType) {
             case "CLASS":
-               ElementKey theKey = ElementKey.createFromURI(linkValue);
-               return schema.getOwlClass(theKey);
+               ElementIndex.Entry entry = getEntry(linkValue);
+               return entry == null ? null : entry.getOwlClass();
             case "PROPERTY":
-               theKey = ElementKey.createFromURI(linkValue);
-               return schema.getOwlProperty(theKey);
+               entry = getEntry(linkValue);
+               return entry == null ? null : entry.getOwlProperty();
             case "INDIVIDUAL":
-               theKey = ElementKey.createFromURI(linkValue);
-               return schema.getIndividual(theKey);
+               entry = getEntry(linkValue);
+               return entry == null ? null : entry.getIndividual();
             case "PROPERTYVALUE":
                index = linkValue.indexOf('$');
                if (index != -1) {
-                  String elementLink = linkValue.substring(0, index);
-                  String propertyLink = linkValue.substring(index + 1);
-                  theKey = ElementKey.createFromURI(elementLink);
-                  ElementKey propertyKey = ElementKey.createFromURI(propertyLink);
-                  OwlIndividual theIndividual = schema.getIndividual(theKey);
-                  if (theIndividual != null) {
-                     return theIndividual.getPropertyValues(propertyKey).get(0);
+                  entry = getEntry(linkValue.substring(0, index));
+                  ElementIndex.Entry propertyEntry = getEntry(linkValue.substring(index + 1));
+                  if (entry != null && entry.getIndividual() != null && propertyEntry != null && propertyEntry.getOwlProperty() != null) {
+                     OwlIndividual theIndividual = entry.getIndividual();
+                     return theIndividual.getPropertyValues(propertyEntry.getOwlProperty().getKey()).get(0);
                   } else {
                      return null;
                   }
@@ -52,7 +52,7 @@ import org.scripthelper.swing.debug.SwingDebugScriptWindow;
 /**
  * The apply debug Script Action.
  *
- * @version 0.13
+ * @version 0.16
  */
 public class ApplyDebugScriptAction extends AbstractScriptAction {
    private SwingDebugScriptWindow debugWindow = null;
@@ -108,7 +108,7 @@ public class ApplyDebugScriptAction extends AbstractScriptAction {
       });
       debugWindow.setVisible(true);
       session.startSession();
-      context.end();
+      endContext();
    }
 
    private void startSession() {
@@ -117,9 +117,9 @@ public class ApplyDebugScriptAction extends AbstractScriptAction {
          schema.accept(this);
          endScript();
          debugWindow.finishedScript();
-         context.end();
+         endContext();
       } else {
-         context.end();
+         endContext();
       }
    }
 }
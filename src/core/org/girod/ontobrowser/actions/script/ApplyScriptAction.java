@@ -48,7 +48,7 @@ import org.scripthelper.swing.SwingExceptionListener;
 /**
  * The apply Script Action.
  *
- * @version 0.13
+ * @version 0.16
  */
 public class ApplyScriptAction extends AbstractScriptAction {
 
@@ -106,9 +106,9 @@ public class ApplyScriptAction extends AbstractScriptAction {
             }
             endScript();
             logger.finishedScript();
-            context.end();
+            endContext();
          } else {
-            context.end();
+            endContext();
          }
       }
    }
@@ -65,7 +65,7 @@ import org.mdiutil.io.FileUtilities;
 /**
  * A Sparql action, which executes a SPARQL query.
  *
- * @version 0.13
+ * @version 0.16
  */
 public class ExecuteSPARQLAction extends AbstractMDIAction {
    private final OwlSchema schema;
@@ -107,10 +107,13 @@ public class ExecuteSPARQLAction extends AbstractMDIAction {
       }
       try {
          Query query = QueryFactory.create(queryAsString);
-         try ( QueryExecution qexec = QueryExecutionFactory.create(query, model)) {
-            ResultSet resultsSet = qexec.execSelect();
-            resultAsString = ResultSetFormatter.asText(resultsSet);
-         }     
+         // the results are formatted in the read transaction, because the result set is lazily read from the model
+         schema.executeRead(() -> {
+            try ( QueryExecution qexec = QueryExecutionFactory.create(query, model)) {
+               ResultSet resultsSet = qexec.execSelect();
+               resultAsString = ResultSetFormatter.asText(resultsSet);
+            }
+         });
       } catch (QueryParseException e) {
          SPARQLErrorWindow error = new SPARQLErrorWindow(sparql, offset, e);
          error.setVisible(true);
@@ -40,6 +40,7 @@ import com.mxgraph.view.mxGraph;
 import com.mxgraph.view.mxStylesheet;
 import java.awt.BorderLayout;
 import java.awt.Color;
+import java.awt.Point;
 import java.awt.Toolkit;
 import java.awt.datatransfer.Clipboard;
 import java.awt.datatransfer.StringSelection;
@@ -50,6 +51,7 @@ import java.awt.event.MouseEvent;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -84,6 +86,7 @@ import org.girod.ontobrowser.actions.ExportImportGraphAction;
 import org.girod.ontobrowser.actions.ExportPackageGraphAction;
 import org.girod.ontobrowser.actions.OpenClassInYedAction;
 import org.girod.ontobrowser.actions.OpenPackageInYedAction;
+import org.girod.ontobrowser.gui.layout.BackgroundLayout;
 import org.girod.ontobrowser.gui.tree.ModelTreeRenderer;
 import org.girod.ontobrowser.gui.tree.OntologyTreeRenderer;
 import org.girod.ontobrowser.gui.tree.OwlElementRep;
@@ -91,6 +94,7 @@ import org.girod.ontobrowser.gui.tree.OwlImportedSchemaRep;
 import org.girod.ontobrowser.gui.tree.OwlOntologyRep;
 import org.girod.ontobrowser.gui.tree.OwlOntologyTreeRep;
 import org.girod.ontobrowser.gui.tree.OwlPrefixRep;
+import org.girod.ontobrowser.model.ClassHierarchy;
 import org.girod.ontobrowser.model.ElementKey;
 import org.girod.ontobrowser.model.ElementTypes;
 import org.girod.ontobrowser.model.NamedOwlElement;
@@ -402,13 +406,19 @@ public class GraphPanel extends JSplitPane implements GUITabTypes {
    }
 
    public void setDiagram(OwlDiagram diagram) {
+      setDiagram(diagram, null);
+   }
+
+   /**
+    * Set the diagram, and restore the state of the view which was saved before the panel was refreshed.
+    *
+    * @param diagram the diagram
+    * @param state the state of the view (may be null)
+    */
+   public void setDiagram(OwlDiagram diagram, GraphPanelState state) {
       this.diagram = diagram;
-      this.schema = diagram.getSchema();
       this.allowBold = BrowserConfiguration.getInstance().showOwnElementsInBold;
-      prefixRoot = new DefaultMutableTreeNode(new OwlOntologyRep(schema));
-      prefixTreeModel = new DefaultTreeModel(prefixRoot);
-      prefixTree = new JTree(prefixTreeModel);
-      panelFactory = new ComponentPanelFactory(this, schema);
+      setSchema(diagram.getSchema());
 
       mxGraph graph = diagram.getGraph();
       mxStylesheet stylesheet = graph.getStylesheet();
@@ -420,15 +430,189 @@ public class GraphPanel extends JSplitPane implements GUITabTypes {
       graphComp.zoom(1.5f);
       graph.getModel().setGeometry(graph.getDefaultParent(), new mxGeometry(-300, -300, 300, 300));
       diagramPanel.add(graphComp, BorderLayout.CENTER);
+      BackgroundLayout backgroundLayout = diagram.getBackgroundLayout();
+      if (backgroundLayout != null) {
+         backgroundLayout.start();
+      }
 
       SwingUtilities.invokeLater(new Runnable() {
          @Override
          public void run() {
             setupTrees();
+            if (state != null) {
+               restoreState(state);
+            }
+         }
+      });
+   }
+
+   private void setSchema(OwlSchema schema) {
+      this.schema = schema;
+      prefixRoot = new DefaultMutableTreeNode(new OwlOntologyRep(schema));
+      prefixTreeModel = new DefaultTreeModel(prefixRoot);
+      prefixTree = new JTree(prefixTreeModel);
+      panelFactory = new ComponentPanelFactory(this, schema);
+   }
+
+   /**
+    * Show the current version of the schema of the diagram, if it has been replaced by a new version. The diagram graph is kept, and the
+    * state of the view is restored.
+    */
+   public void updateSchema() {
+      SwingUtilities.invokeLater(new Runnable() {
+         @Override
+         public void run() {
+            OwlSchema currentSchema = diagram.getSchema();
+            if (currentSchema == schema) {
+               return;
+            }
+            GraphPanelState state = getState();
+            reset();
+            setSchema(currentSchema);
+            SwingUtilities.invokeLater(new Runnable() {
+               @Override
+               public void run() {
+                  setupTrees();
+                  restoreState(state);
+               }
+            });
+            revalidate();
          }
       });
    }
 
+   /**
+    * Return the current state of the view: the expanded and selected paths in the trees, the selected tab, and the zoom and position of the
+    * diagram.
+    *
+    * @return the state
+    */
+   public GraphPanelState getState() {
+      GraphPanelState state = new GraphPanelState();
+      if (modelTab == null) {
+         return state;
+      }
+      state.setSelectedTab(modelTab.getSelectedIndex());
+      saveTreeState(state, CLASSES_NAME, classTree);
+      saveTreeState(state, PROPERTIES_NAME, propertiesTree);
+      saveTreeState(state, INDIVIDUALS_NAME, individualsTree);
+      saveTreeState(state, ANNOTATIONS_NAME, annotationsTree);
+      saveTreeState(state, DATATYPES_NAME, datatypesTree);
+      if (graphComp != null) {
+         state.setView(graphComp.getGraph().getView().getScale(), graphComp.getViewport().getViewPosition());
+      }
+      return state;
+   }
+
+   private void saveTreeState(GraphPanelState state, String name, JTree tree) {
+      DefaultMutableTreeNode root = (DefaultMutableTreeNode) tree.getModel().getRoot();
+      Enumeration<TreePath> expanded = tree.getExpandedDescendants(new TreePath(root));
+      if (expanded != null) {
+         while (expanded.hasMoreElements()) {
+            state.addExpandedPath(name, getPathKeys(expanded.nextElement()));
+         }
+      }
+      TreePath[] selected = tree.getSelectionPaths();
+      if (selected != null) {
+         for (int i = 0; i < selected.length; i++) {
+            state.addSelectedPath(name, getPathKeys(selected[i]));
+         }
+      }
+   }
+
+   private void restoreState(GraphPanelState state) {
+      restoreTreeState(state, CLASSES_NAME, classTree);
+      restoreTreeState(state, PROPERTIES_NAME, propertiesTree);
+      restoreTreeState(state, INDIVIDUALS_NAME, individualsTree);
+      restoreTreeState(state, ANNOTATIONS_NAME, annotationsTree);
+      restoreTreeState(state, DATATYPES_NAME, datatypesTree);
+      if (state.getSelectedTab() >= 0 && state.getSelectedTab() < modelTab.getTabCount()) {
+         autoSelectTab(state.getSelectedTab());
+      }
+      if (state.getScale() > 0) {
+         graphComp.zoomTo(state.getScale(), false);
+         Point viewPosition = state.getViewPosition();
+         // the position can only be restored after the graph component has been laid out with its new scale
+         SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+               graphComp.getViewport().setViewPosition(viewPosition);
+            }
+         });
+      }
+   }
+
+   private void restoreTreeState(GraphPanelState state, String name, JTree tree) {
+      DefaultMutableTreeNode root = (DefaultMutableTreeNode) tree.getModel().getRoot();
+      Iterator<List<Object>> it = state.getExpandedPaths(name).iterator();
+      while (it.hasNext()) {
+         TreePath path = findPath(root, it.next());
+         if (path != null) {
+            tree.expandPath(path);
+         }
+      }
+      List<TreePath> selected = new ArrayList<>();
+      it = state.getSelectedPaths(name).iterator();
+      while (it.hasNext()) {
+         TreePath path = findPath(root, it.next());
+         if (path != null) {
+            selected.add(path);
+         }
+      }
+      if (!selected.isEmpty()) {
+         tree.setSelectionPaths(selected.toArray(new TreePath[selected.size()]));
+      }
+   }
+
+   private static Object getNodeKey(DefaultMutableTreeNode node) {
+      Object o = node.getUserObject();
+      if (o instanceof OwlElementRep) {
+         return ((OwlElementRep) o).getOwlElement().getKey();
+      } else {
+         return String.valueOf(o);
+      }
+   }
+
+   private static List<Object> getPathKeys(TreePath path) {
+      List<Object> keys = new ArrayList<>();
+      Object[] nodes = path.getPath();
+      for (int i = 0; i < nodes.length; i++) {
+         keys.add(getNodeKey((DefaultMutableTreeNode) nodes[i]));
+      }
+      return keys;
+   }
+
+   /**
+    * Find the path in a tree which has the same element keys as a path of the previous tree.
+    *
+    * @param root the root of the tree
+    * @param keys the keys of the path
+    * @return the path, or null if there is no such path in the tree
+    */
+   private static TreePath findPath(DefaultMutableTreeNode root, List<Object> keys) {
+      if (keys.isEmpty() || !keys.get(0).equals(getNodeKey(root))) {
+         return null;
+      }
+      DefaultMutableTreeNode node = root;
+      for (int i = 1; i < keys.size(); i++) {
+         Object key = keys.get(i);
+         DefaultMutableTreeNode child = null;
+         int count = node.getChildCount();
+         for (int j = 0; j < count; j++) {
+            DefaultMutableTreeNode theChild = (DefaultMutableTreeNode) node.getChildAt(j);
+            if (key.equals(getNodeKey(theChild))) {
+               child = theChild;
+               break;
+            }
+         }
+         if (child == null) {
+            return null;
+         }
+         node = child;
+      }
+      return new TreePath(node.getPath());
+   }
+
    private void addIndividualsTab(boolean includeIndividuals) {
       if (includeIndividuals) {
          modelTab.add(INDIVIDUALS_NAME, new JScrollPane(individualsTree));
@@ -1100,6 +1284,20 @@ public class GraphPanel extends JSplitPane implements GUITabTypes {
       contentpanel.setDividerLocation(location);
    }
 
+   /**
+    * Show again the description of the selected element, for example after its annotations have been refreshed.
+    */
+   public void updateSelectedElement() {
+      SwingUtilities.invokeLater(new Runnable() {
+         @Override
+         public void run() {
+            if (selectedElement != null) {
+               updateComponentPanel(selectedElement);
+            }
+         }
+      });
+   }
+
    private void updateComponentPanel(OwlElementRep selectedElement) {
       int location = contentpanel.getDividerLocation();
       JComponent panel = panelFactory.getComponentPanel(selectedElement);
@@ -1443,7 +1641,7 @@ public class GraphPanel extends JSplitPane implements GUITabTypes {
             Iterator<ElementKey> it2 = superClasses.keySet().iterator();
             while (it2.hasNext()) {
                ElementKey parentKey = it2.next();
-               if (parentKey.equals(thingKey)) {
+               if (parentKey.equals(thingKey) || isInCycle(theClass, superClasses.get(parentKey), nodesMap)) {
                   DefaultMutableTreeNode node = createClassNode(theClass, false);
                   list.add(node);
                   thingRoot.add(node);
@@ -1472,6 +1670,23 @@ public class GraphPanel extends JSplitPane implements GUITabTypes {
       }
    }
 
+   /**
+    * Return true if the tree nodes of a superclass have not been created yet and the superclass is also a subclass of the class.
+    * The class is then added under the root of the tree rather than under the superclass, else the tree would never be complete.
+    *
+    * @param theClass the class
+    * @param parentClass the superclass
+    * @param nodesMap the nodes which have already been created
+    * @return true if the class and its superclass are in a cycle of the hierarchy
+    */
+   private boolean isInCycle(OwlClass theClass, OwlClass parentClass, Map<ElementKey, List<DefaultMutableTreeNode>> nodesMap) {
+      if (nodesMap.containsKey(parentClass.getKey())) {
+         return false;
+      }
+      ClassHierarchy hierarchy = schema.getClassHierarchy();
+      return hierarchy != null && hierarchy.isSubClassOf(parentClass, theClass);
+   }
+
    private List<DefaultMutableTreeNode> computeClassTree(OwlClass theClass, Map<ElementKey, List<DefaultMutableTreeNode>> nodesMap) {
       List<DefaultMutableTreeNode> nodes = new ArrayList<>();
       ElementKey key = theClass.getKey();
@@ -1488,7 +1703,7 @@ public class GraphPanel extends JSplitPane implements GUITabTypes {
          Iterator<ElementKey> it2 = superClasses.keySet().iterator();
          while (it2.hasNext()) {
             ElementKey parentKey = it2.next();
-            if (parentKey.equals(thingKey)) {
+            if (parentKey.equals(thingKey) || isInCycle(theClass, superClasses.get(parentKey), nodesMap)) {
                DefaultMutableTreeNode node = createClassNode(theClass, false);
                nodes.add(node);
                thingRoot.add(node);
@@ -0,0 +1,115 @@
+/*
+Copyright (c) 2024 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.gui;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The state of the view of a {@link GraphPanel}, which is kept when the panel is refreshed. The paths in the trees are identified by the keys
+ * of their elements, so that they can be found again in the trees of a new schema.
+ *
+ * @since 0.16
+ */
+public class GraphPanelState {
+   private final Map<String, List<List<Object>>> expandedPaths = new HashMap<>();
+   private final Map<String, List<List<Object>>> selectedPaths = new HashMap<>();
+   private int selectedTab = -1;
+   private double scale = -1;
+   private Point viewPosition = null;
+
+   /**
+    * Constructor.
+    */
+   public GraphPanelState() {
+   }
+
+   void addExpandedPath(String tree, List<Object> path) {
+      addPath(expandedPaths, tree, path);
+   }
+
+   List<List<Object>> getExpandedPaths(String tree) {
+      return getPaths(expandedPaths, tree);
+   }
+
+   void addSelectedPath(String tree, List<Object> path) {
+      addPath(selectedPaths, tree, path);
+   }
+
+   List<List<Object>> getSelectedPaths(String tree) {
+      return getPaths(selectedPaths, tree);
+   }
+
+   private void addPath(Map<String, List<List<Object>>> paths, String tree, List<Object> path) {
+      List<List<Object>> list = paths.get(tree);
+      if (list == null) {
+         list = new ArrayList<>();
+         paths.put(tree, list);
+      }
+      list.add(path);
+   }
+
+   private List<List<Object>> getPaths(Map<String, List<List<Object>>> paths, String tree) {
+      List<List<Object>> list = paths.get(tree);
+      if (list == null) {
+         return Collections.emptyList();
+      } else {
+         return list;
+      }
+   }
+
+   void setSelectedTab(int selectedTab) {
+      this.selectedTab = selectedTab;
+   }
+
+   int getSelectedTab() {
+      return selectedTab;
+   }
+
+   void setView(double scale, Point viewPosition) {
+      this.scale = scale;
+      this.viewPosition = viewPosition;
+   }
+
+   double getScale() {
+      return scale;
+   }
+
+   Point getViewPosition() {
+      return viewPosition;
+   }
+}
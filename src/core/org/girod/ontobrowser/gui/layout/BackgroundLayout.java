@@ -0,0 +1,229 @@
+/*
+Copyright (c) 2021, 2023 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.gui.layout;
+
+import com.mxgraph.model.mxCell;
+import com.mxgraph.model.mxGeometry;
+import com.mxgraph.model.mxIGraphModel;
+import com.mxgraph.util.mxEvent;
+import com.mxgraph.util.mxEventObject;
+import com.mxgraph.util.mxEventSource;
+import com.mxgraph.view.mxGraph;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.swing.SwingUtilities;
+
+/**
+ * Refines the layout of a diagram on a background thread, so that the diagram can be shown immediately with the initial placement of
+ * its vertices. The positions of the vertices are pushed to the diagram in batches, at most every {@link #BATCH_INTERVAL} milliseconds.
+ * <ul>
+ * <li>Only one background layout runs at a time: starting a layout cancels the layout which was running before</li>
+ * <li>The layout is cancelled if the user moves cells in the diagram</li>
+ * </ul>
+ *
+ * @since 0.16
+ */
+public class BackgroundLayout {
+   /**
+    * The minimum interval in milliseconds between two updates of the diagram.
+    */
+   public static final long BATCH_INTERVAL = 100;
+   private static final AtomicReference<BackgroundLayout> CURRENT = new AtomicReference<>();
+   private final mxGraph graph;
+   private final BarnesHutLayoutEngine engine;
+   private final AtomicBoolean pendingBatch = new AtomicBoolean(false);
+   private final mxEventSource.mxIEventListener movedListener;
+   private volatile boolean cancelled = false;
+   private Runnable finishedListener = null;
+   private boolean started = false;
+
+   /**
+    * Constructor. The initial positions of the vertices are computed and written in their geometries, but the layout is only refined
+    * after {@link #start()} has been called.
+    *
+    * @param graph the graph
+    * @param parent the parent cell
+    * @param engine the layout engine
+    */
+   public BackgroundLayout(mxGraph graph, Object parent, BarnesHutLayoutEngine engine) {
+      this.graph = graph;
+      this.engine = engine;
+      engine.initialize(graph, parent);
+      engine.writePositions();
+      movedListener = new mxEventSource.mxIEventListener() {
+         @Override
+         public void invoke(Object sender, mxEventObject evt) {
+            cancel();
+         }
+      };
+      graph.addListener(mxEvent.CELLS_MOVED, movedListener);
+   }
+
+   /**
+    * Set the listener which is notified on the event thread when the layout has finished and its last positions have been applied. The
+    * listener is not notified if the layout has been cancelled.
+    *
+    * @param finishedListener the listener
+    */
+   public void setFinishedListener(Runnable finishedListener) {
+      this.finishedListener = finishedListener;
+   }
+
+   /**
+    * Cancel the layout which is currently running, if there is one.
+    */
+   public static void cancelCurrent() {
+      BackgroundLayout layout = CURRENT.getAndSet(null);
+      if (layout != null) {
+         layout.cancel();
+      }
+   }
+
+   /**
+    * Start to refine the layout in the background. Does nothing if the layout has already been started.
+    */
+   public synchronized void start() {
+      if (started || cancelled) {
+         return;
+      }
+      started = true;
+      BackgroundLayout previous = CURRENT.getAndSet(this);
+      if (previous != null) {
+         previous.cancel();
+      }
+      Thread thread = new Thread(this::run, "Diagram layout");
+      thread.setDaemon(true);
+      thread.setPriority(Thread.MIN_PRIORITY);
+      thread.start();
+   }
+
+   /**
+    * Cancel the layout. The positions which have already been pushed to the diagram are kept.
+    */
+   public void cancel() {
+      cancelled = true;
+      CURRENT.compareAndSet(this, null);
+      removeMovedListener();
+   }
+
+   /**
+    * Remove the listener which cancels the layout when cells are moved. The listener is removed later on the event thread, because the
+    * listeners of the graph are not thread-safe, and the listener may be called while the graph is dispatching an event.
+    */
+   private void removeMovedListener() {
+      SwingUtilities.invokeLater(new Runnable() {
+         @Override
+         public void run() {
+            graph.removeListener(movedListener);
+         }
+      });
+   }
+
+   /**
+    * Return true if the layout has been cancelled.
+    *
+    * @return true if the layout has been cancelled
+    */
+   public boolean isCancelled() {
+      return cancelled;
+   }
+
+   private void run() {
+      int maximumIterations = engine.getMaximumIterations();
+      long lastBatch = System.currentTimeMillis();
+      boolean converged = false;
+      for (int i = 0; i < maximumIterations && !converged; i++) {
+         if (cancelled) {
+            return;
+         }
+         converged = !engine.step();
+         long time = System.currentTimeMillis();
+         // a new batch is only pushed when the previous one has been applied, so that the event queue is never flooded
+         if (time - lastBatch >= BATCH_INTERVAL && !pendingBatch.get()) {
+            pushBatch(false);
+            lastBatch = time;
+         }
+      }
+      pushBatch(true);
+      CURRENT.compareAndSet(this, null);
+   }
+
+   private void pushBatch(boolean isLast) {
+      int count = engine.getCount();
+      double[] centerX = new double[count];
+      double[] centerY = new double[count];
+      engine.copyPositions(centerX, centerY);
+      pendingBatch.set(true);
+      SwingUtilities.invokeLater(new Runnable() {
+         @Override
+         public void run() {
+            pendingBatch.set(false);
+            applyBatch(centerX, centerY);
+            if (isLast && !cancelled) {
+               graph.removeListener(movedListener);
+               if (finishedListener != null) {
+                  finishedListener.run();
+               }
+            }
+         }
+      });
+   }
+
+   private void applyBatch(double[] centerX, double[] centerY) {
+      if (cancelled) {
+         return;
+      }
+      mxCell[] vertices = engine.getVertices();
+      int count = engine.getCount();
+      // the positions are translated so that the diagram starts at the origin, as the initial placement
+      double minx = Double.MAX_VALUE;
+      double miny = Double.MAX_VALUE;
+      for (int i = 0; i < count; i++) {
+         mxGeometry geometry = vertices[i].getGeometry();
+         minx = Math.min(minx, centerX[i] - geometry.getWidth() / 2);
+         miny = Math.min(miny, centerY[i] - geometry.getHeight() / 2);
+      }
+      mxIGraphModel model = graph.getModel();
+      model.beginUpdate();
+      try {
+         for (int i = 0; i < count; i++) {
+            mxGeometry geometry = (mxGeometry) vertices[i].getGeometry().clone();
+            geometry.setX(centerX[i] - geometry.getWidth() / 2 - minx);
+            geometry.setY(centerY[i] - geometry.getHeight() / 2 - miny);
+            model.setGeometry(vertices[i], geometry);
+         }
+      } finally {
+         model.endUpdate();
+      }
+   }
+}
@@ -0,0 +1,406 @@
+/*
+Copyright (c) 2021, 2023 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.gui.layout;
+
+import com.mxgraph.model.mxCell;
+import com.mxgraph.model.mxGeometry;
+import com.mxgraph.view.mxGraph;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A force-directed layout engine. The vertices repulse each other, the connected vertices attract each other, and a weak gravity keeps
+ * the disconnected parts of the diagram together.
+ * <ul>
+ * <li>The repulsive forces are approximated with a Barnes-Hut quadtree, so that each iteration costs O(n log(n)) rather than
+ * O(n<sup>2</sup>)</li>
+ * <li>The forces are computed in parallel over partitions of the vertices</li>
+ * <li>The forces take the size of the vertices into account, so that the boxes of the vertices do not overlap</li>
+ * </ul>
+ * The initial positions are deterministic, so that the same diagram has always the same layout. The layout can also be refined
+ * progressively in the background with a {@link BackgroundLayout}.
+ *
+ * <p>If only some of the vertices are movable, the other vertices keep their position, and the movable vertices start from their current
+ * position. This allows to place new vertices near their neighbors in a diagram which has already been laid out.</p>
+ *
+ * @since 0.16
+ */
+public class BarnesHutLayoutEngine implements LayoutEngine {
+   /**
+    * The number of vertices under which the computation of the forces is not split anymore.
+    */
+   private static final int THRESHOLD = 256;
+   private static final double GOLDEN_ANGLE = Math.PI * (3 - Math.sqrt(5));
+   private static final double GRAVITY = 0.02d;
+   private static final double MINIMUM_MOVE = 0.5d;
+   private int maximumIterations = 300;
+   private double theta = 0.8d;
+   private double spacing = 60d;
+   private ForkJoinPool pool = ForkJoinPool.commonPool();
+   private Set<Object> movableCells = null;
+   private int[] active;
+   private mxCell[] vertices;
+   private int count = 0;
+   private double[] x;
+   private double[] y;
+   private double[] radius;
+   private double[] dispX;
+   private double[] dispY;
+   private int[] offsets;
+   private int[] adjacency;
+   private double k;
+   private double k2;
+   private double temperature;
+   private double cooling;
+   private QuadTree tree;
+
+   /**
+    * Constructor.
+    */
+   public BarnesHutLayoutEngine() {
+   }
+
+   /**
+    * Set the maximum number of iterations.
+    *
+    * @param maximumIterations the maximum number of iterations
+    */
+   public void setMaximumIterations(int maximumIterations) {
+      this.maximumIterations = maximumIterations;
+   }
+
+   /**
+    * Set the Barnes-Hut threshold. A cell of the quadtree is approximated by its center of mass if its size divided by its distance is less
+    * than this threshold. The default is 0.8.
+    *
+    * @param theta the threshold
+    */
+   public void setTheta(double theta) {
+      this.theta = theta;
+   }
+
+   /**
+    * Set the spacing between the boxes of two connected vertices. The default is 60.
+    *
+    * @param spacing the spacing
+    */
+   public void setSpacing(double spacing) {
+      this.spacing = spacing;
+   }
+
+   /**
+    * Set the pool used to compute the forces in parallel. The default is the common pool.
+    *
+    * @param pool the pool
+    */
+   public void setPool(ForkJoinPool pool) {
+      this.pool = pool;
+   }
+
+   /**
+    * Set the vertices which can be moved by the layout. The other vertices keep their position. By default all the vertices are movable.
+    *
+    * @param cells the movable vertices (null if all the vertices are movable)
+    */
+   public void setMovableCells(Collection<?> cells) {
+      if (cells == null) {
+         this.movableCells = null;
+      } else {
+         this.movableCells = Collections.newSetFromMap(new IdentityHashMap<>());
+         this.movableCells.addAll(cells);
+      }
+   }
+
+   @Override
+   public void execute(mxGraph graph, Object parent) {
+      initialize(graph, parent);
+      if (count == 0) {
+         return;
+      }
+      for (int i = 0; i < maximumIterations; i++) {
+         if (!step()) {
+            break;
+         }
+      }
+      writePositions();
+   }
+
+   /**
+    * Return the maximum number of iterations.
+    *
+    * @return the maximum number of iterations
+    */
+   int getMaximumIterations() {
+      return maximumIterations;
+   }
+
+   /**
+    * Return the number of vertices.
+    *
+    * @return the number of vertices
+    */
+   int getCount() {
+      return count;
+   }
+
+   /**
+    * Return the vertices.
+    *
+    * @return the vertices
+    */
+   mxCell[] getVertices() {
+      return vertices;
+   }
+
+   /**
+    * Initialize the layout and compute the initial positions of the vertices. The geometries of the vertices are not updated.
+    *
+    * @param graph the graph
+    * @param parent the parent cell
+    */
+   void initialize(mxGraph graph, Object parent) {
+      Object[] cells = graph.getChildVertices(parent);
+      count = cells.length;
+      vertices = new mxCell[count];
+      x = new double[count];
+      y = new double[count];
+      radius = new double[count];
+      dispX = new double[count];
+      dispY = new double[count];
+      Map<Object, Integer> cellToId = new IdentityHashMap<>();
+      double sumRadius = 0;
+      for (int i = 0; i < count; i++) {
+         mxCell cell = (mxCell) cells[i];
+         vertices[i] = cell;
+         cellToId.put(cell, i);
+         mxGeometry geometry = cell.getGeometry();
+         radius[i] = (geometry.getWidth() + geometry.getHeight()) / 4;
+         sumRadius += radius[i];
+      }
+      createAdjacency(graph.getChildEdges(parent), cellToId);
+      double meanRadius = count == 0 ? 0 : sumRadius / count;
+      k = spacing + 2 * meanRadius;
+      k2 = k * k;
+      tree = new QuadTree(theta);
+      if (movableCells == null) {
+         active = new int[count];
+         for (int i = 0; i < count; i++) {
+            active[i] = i;
+         }
+         temperature = k * Math.max(2, Math.sqrt(count) / 2);
+         placeInitially();
+      } else {
+         int activeCount = 0;
+         active = new int[count];
+         for (int i = 0; i < count; i++) {
+            mxGeometry geometry = vertices[i].getGeometry();
+            x[i] = geometry.getX() + geometry.getWidth() / 2;
+            y[i] = geometry.getY() + geometry.getHeight() / 2;
+            if (movableCells.contains(vertices[i])) {
+               active[activeCount++] = i;
+            }
+         }
+         active = Arrays.copyOf(active, activeCount);
+         // the movable vertices already start near their final position
+         temperature = k;
+      }
+      cooling = temperature / (maximumIterations + 1);
+   }
+
+   private void createAdjacency(Object[] edges, Map<Object, Integer> cellToId) {
+      int[] sources = new int[edges.length];
+      int[] targets = new int[edges.length];
+      int edgesCount = 0;
+      offsets = new int[count + 1];
+      for (int i = 0; i < edges.length; i++) {
+         mxCell edge = (mxCell) edges[i];
+         Integer source = cellToId.get(edge.getSource());
+         Integer target = cellToId.get(edge.getTarget());
+         if (source != null && target != null && !source.equals(target)) {
+            sources[edgesCount] = source;
+            targets[edgesCount] = target;
+            edgesCount++;
+            offsets[source + 1]++;
+            offsets[target + 1]++;
+         }
+      }
+      for (int i = 0; i < count; i++) {
+         offsets[i + 1] += offsets[i];
+      }
+      adjacency = new int[offsets[count]];
+      int[] position = new int[count];
+      System.arraycopy(offsets, 0, position, 0, count);
+      for (int i = 0; i < edgesCount; i++) {
+         adjacency[position[sources[i]]++] = targets[i];
+         adjacency[position[targets[i]]++] = sources[i];
+      }
+   }
+
+   /**
+    * Place the vertices on a spiral, in the breadth-first order of the graph, so that connected vertices start near each other.
+    */
+   private void placeInitially() {
+      boolean[] visited = new boolean[count];
+      int[] queue = new int[count];
+      int tail = 0;
+      for (int root = 0; root < count; root++) {
+         if (visited[root]) {
+            continue;
+         }
+         visited[root] = true;
+         int head = tail;
+         queue[tail++] = root;
+         while (head < tail) {
+            int vertex = queue[head++];
+            for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+               int neighbor = adjacency[i];
+               if (!visited[neighbor]) {
+                  visited[neighbor] = true;
+                  queue[tail++] = neighbor;
+               }
+            }
+         }
+      }
+      for (int i = 0; i < count; i++) {
+         double r = k * Math.sqrt(i);
+         double angle = i * GOLDEN_ANGLE;
+         x[queue[i]] = r * Math.cos(angle);
+         y[queue[i]] = r * Math.sin(angle);
+      }
+   }
+
+   /**
+    * Execute one iteration of the layout.
+    *
+    * @return false if the layout has converged
+    */
+   boolean step() {
+      tree.build(x, y, count);
+      if (pool != null && active.length > 2 * THRESHOLD) {
+         pool.invoke(new ForcesAction(0, active.length));
+      } else {
+         computeForces(0, active.length);
+      }
+      double maxMove = 0;
+      for (int a = 0; a < active.length; a++) {
+         int i = active[a];
+         double d = Math.sqrt(dispX[i] * dispX[i] + dispY[i] * dispY[i]);
+         if (d > 0) {
+            double move = Math.min(d, temperature);
+            x[i] += dispX[i] / d * move;
+            y[i] += dispY[i] / d * move;
+            maxMove = Math.max(maxMove, move);
+         }
+      }
+      temperature = Math.max(temperature - cooling, MINIMUM_MOVE);
+      return maxMove > MINIMUM_MOVE;
+   }
+
+   private void computeForces(int from, int to) {
+      double[] force = new double[2];
+      // there is no gravity if only some of the vertices are movable, because the fixed vertices are not centered on the origin
+      double gravity = movableCells == null ? GRAVITY : 0;
+      for (int a = from; a < to; a++) {
+         int i = active[a];
+         force[0] = -gravity * x[i];
+         force[1] = -gravity * y[i];
+         tree.addRepulsion(i, radius, k2, force);
+         // attractive forces between the connected vertices
+         for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+            int neighbor = adjacency[j];
+            double dx = x[neighbor] - x[i];
+            double dy = y[neighbor] - y[i];
+            double d = Math.sqrt(dx * dx + dy * dy);
+            double free = d - radius[i] - radius[neighbor];
+            if (free > 0) {
+               double f = free * free / (k * d);
+               force[0] += dx * f;
+               force[1] += dy * f;
+            }
+         }
+         dispX[i] = force[0];
+         dispY[i] = force[1];
+      }
+   }
+
+   /**
+    * Copy the current centers of the vertices.
+    *
+    * @param centerX the array of the X coordinates
+    * @param centerY the array of the Y coordinates
+    */
+   void copyPositions(double[] centerX, double[] centerY) {
+      System.arraycopy(x, 0, centerX, 0, count);
+      System.arraycopy(y, 0, centerY, 0, count);
+   }
+
+   /**
+    * Write the current positions in the geometries of the vertices.
+    */
+   void writePositions() {
+      for (int i = 0; i < count; i++) {
+         mxGeometry geometry = vertices[i].getGeometry();
+         geometry.setX(x[i] - geometry.getWidth() / 2);
+         geometry.setY(y[i] - geometry.getHeight() / 2);
+      }
+   }
+
+   /**
+    * The action which computes the forces for a range of vertices.
+    */
+   private class ForcesAction extends RecursiveAction {
+      private final int from;
+      private final int to;
+
+      private ForcesAction(int from, int to) {
+         this.from = from;
+         this.to = to;
+      }
+
+      @Override
+      protected void compute() {
+         if (to - from <= THRESHOLD) {
+            computeForces(from, to);
+         } else {
+            int middle = (from + to) >>> 1;
+            invokeAll(new ForcesAction(from, middle), new ForcesAction(middle, to));
+         }
+      }
+   }
+}
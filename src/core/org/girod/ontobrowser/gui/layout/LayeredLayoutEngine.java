@@ -0,0 +1,96 @@
+/*
+Copyright (c) 2021, 2023 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.gui.layout;
+
+import com.mxgraph.model.mxCell;
+import com.mxgraph.model.mxGeometry;
+import com.mxgraph.view.mxGraph;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import org.girod.ontobrowser.parsers.graph.LayeredLayout;
+
+/**
+ * A layout engine which places the sub-classes under their super-classes, with a {@link LayeredLayout}. The super-classes are the targets
+ * of the edges with the "parent" style. The data properties and the individuals can also be placed under their classes.
+ *
+ * @since 0.16
+ */
+public class LayeredLayoutEngine implements LayoutEngine {
+   private final boolean hasChildrenLayout;
+
+   /**
+    * Constructor.
+    *
+    * @param hasChildrenLayout true if the data properties and the individuals must be placed under their classes
+    */
+   public LayeredLayoutEngine(boolean hasChildrenLayout) {
+      this.hasChildrenLayout = hasChildrenLayout;
+   }
+
+   @Override
+   public void execute(mxGraph graph, Object parent) {
+      Object[] vertices = graph.getChildVertices(parent);
+      LayeredLayout layout = new LayeredLayout(vertices.length);
+      Map<Object, Integer> cellToId = new IdentityHashMap<>();
+      for (int i = 0; i < vertices.length; i++) {
+         mxGeometry geometry = ((mxCell) vertices[i]).getGeometry();
+         layout.setSize(i, geometry.getWidth(), geometry.getHeight());
+         cellToId.put(vertices[i], i);
+      }
+      Object[] edges = graph.getChildEdges(parent);
+      for (int i = 0; i < edges.length; i++) {
+         mxCell edge = (mxCell) edges[i];
+         Integer source = cellToId.get(edge.getSource());
+         Integer target = cellToId.get(edge.getTarget());
+         if (source == null || target == null) {
+            continue;
+         }
+         if ("parent".equals(edge.getStyle())) {
+            layout.addEdge(target, source);
+         } else if (hasChildrenLayout && isChild((mxCell) edge.getTarget())) {
+            layout.addEdge(source, target);
+         }
+      }
+      layout.apply();
+      for (int i = 0; i < vertices.length; i++) {
+         mxGeometry geometry = ((mxCell) vertices[i]).getGeometry();
+         geometry.setX(layout.getX(i));
+         geometry.setY(layout.getY(i));
+      }
+   }
+
+   private boolean isChild(mxCell cell) {
+      String style = cell.getStyle();
+      return "dataProperty".equals(style) || "individual".equals(style);
+   }
+}
@@ -0,0 +1,291 @@
+/*
+Copyright (c) 2021, 2023 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.gui.layout;
+
+import com.mxgraph.util.mxPoint;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.girod.ontobrowser.BrowserConfiguration;
+import org.girod.ontobrowser.model.ElementKey;
+
+/**
+ * A cache of the positions of the cells of the diagrams. The positions are stored for each Ontology file, and are keyed by the
+ * {@link ElementKey} of the elements, so that the positions of the elements which did not change are still valid after the file has been
+ * modified. The positions are discarded if the configuration which has an impact on the layout has changed.
+ *
+ * @since 0.16
+ */
+public class LayoutCache {
+   /**
+    * The version of the format of the cached layouts. It must be changed if the format is not compatible anymore.
+    */
+   private static final int FORMAT_VERSION = 1;
+   private static final String EXTENSION = ".layout";
+   /**
+    * The delay in milliseconds before the positions put by {@link #putPositionsLater(String, Map)} are written.
+    */
+   public static final long SAVE_DELAY = 1000;
+   private static final ScheduledExecutorService WRITER = Executors.newSingleThreadScheduledExecutor((Runnable r) -> {
+      Thread thread = new Thread(r, "Layouts cache");
+      thread.setDaemon(true);
+      return thread;
+   });
+   private static final Map<File, SaveTask> PENDING_SAVES = new HashMap<>();
+   private final File directory;
+
+   /**
+    * Constructor.
+    *
+    * @param directory the cache directory
+    */
+   public LayoutCache(File directory) {
+      this.directory = directory;
+   }
+
+   /**
+    * Return the cache directory.
+    *
+    * @return the cache directory
+    */
+   public File getDirectory() {
+      return directory;
+   }
+
+   /**
+    * Return the key of a file in the cache. The key only depends on the path of the file.
+    *
+    * @param file the Ontology file
+    * @return the key
+    * @throws IOException if the path of the file could not be resolved
+    */
+   public String getKey(File file) throws IOException {
+      MessageDigest digest;
+      try {
+         digest = MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException ex) {
+         throw new IOException(ex);
+      }
+      byte[] hash = digest.digest(file.getCanonicalPath().getBytes(StandardCharsets.UTF_8));
+      StringBuilder key = new StringBuilder();
+      for (int i = 0; i < hash.length; i++) {
+         key.append(String.format("%02x", hash[i] & 0xff));
+      }
+      return key.toString();
+   }
+
+   /**
+    * Return the part of the configuration which has an impact on the layout of a diagram.
+    *
+    * @return the configuration
+    */
+   private String getConfigurationDigest() {
+      BrowserConfiguration conf = BrowserConfiguration.getInstance();
+      StringBuilder buf = new StringBuilder();
+      buf.append("format=").append(FORMAT_VERSION);
+      buf.append(";layoutEngine=").append(conf.layoutEngine);
+      buf.append(";layoutOptions=").append(conf.layoutOptions);
+      buf.append(";showAlias=").append(conf.showAlias);
+      buf.append(";includeIndividuals=").append(conf.includeIndividuals);
+      buf.append(";addThingClass=").append(conf.addThingClass);
+      buf.append(";showPackages=").append(conf.showPackages);
+      return buf.toString();
+   }
+
+   private File getFile(String key) {
+      return new File(directory, key + EXTENSION);
+   }
+
+   /**
+    * Return the positions in the cache for a key.
+    *
+    * @param key the key
+    * @return the positions, or null if there are no positions for the key, if they have been computed with another configuration, or if
+    * they could not be read
+    */
+   public Map<ElementKey, mxPoint> getPositions(String key) {
+      File file = getFile(key);
+      if (!file.exists()) {
+         return null;
+      }
+      try (DataInputStream stream = new DataInputStream(new GZIPInputStream(new BufferedInputStream(new FileInputStream(file))))) {
+         if (!getConfigurationDigest().equals(stream.readUTF())) {
+            return null;
+         }
+         int count = stream.readInt();
+         Map<ElementKey, mxPoint> positions = new HashMap<>(count * 4 / 3 + 1);
+         for (int i = 0; i < count; i++) {
+            String namespace = stream.readBoolean() ? stream.readUTF() : null;
+            String name = stream.readUTF();
+            double x = stream.readDouble();
+            double y = stream.readDouble();
+            positions.put(new ElementKey(namespace, name), new mxPoint(x, y));
+         }
+         return positions;
+      } catch (IOException ex) {
+         // the cached layout is corrupted, it will be replaced
+         file.delete();
+         return null;
+      }
+   }
+
+   /**
+    * Put the positions of a diagram in the cache on a background thread, after a delay of {@link #SAVE_DELAY} milliseconds. If other
+    * positions are put for the same key before they have been written, only the last positions are written.
+    *
+    * @param key the key
+    * @param positions the positions, which must not be modified afterwards
+    * @return the future of the save, which is cancelled if other positions are put for the same key before the positions are written
+    */
+   public Future<?> putPositionsLater(String key, Map<ElementKey, mxPoint> positions) {
+      File file = getFile(key);
+      synchronized (PENDING_SAVES) {
+         SaveTask previous = PENDING_SAVES.get(file);
+         if (previous != null) {
+            previous.future.cancel(false);
+         }
+         SaveTask task = new SaveTask(file, key, positions);
+         task.future = WRITER.schedule(task, SAVE_DELAY, TimeUnit.MILLISECONDS);
+         PENDING_SAVES.put(file, task);
+         return task.future;
+      }
+   }
+
+   /**
+    * Put the positions of a diagram in the cache. The file is first written in a temporary file, so that an incomplete file is never read.
+    * The positions of the elements without name are not kept.
+    *
+    * @param key the key
+    * @param positions the positions
+    * @return true if the positions could be put in the cache
+    */
+   public boolean putPositions(String key, Map<ElementKey, mxPoint> positions) {
+      if (!directory.exists() && !directory.mkdirs()) {
+         return false;
+      }
+      File file = getFile(key);
+      File tmpFile = new File(directory, key + ".tmp");
+      int count = 0;
+      Iterator<ElementKey> it2 = positions.keySet().iterator();
+      while (it2.hasNext()) {
+         if (it2.next().getName() != null) {
+            count++;
+         }
+      }
+      try (DataOutputStream stream = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile))))) {
+         stream.writeUTF(getConfigurationDigest());
+         stream.writeInt(count);
+         Iterator<Map.Entry<ElementKey, mxPoint>> it = positions.entrySet().iterator();
+         while (it.hasNext()) {
+            Map.Entry<ElementKey, mxPoint> entry = it.next();
+            ElementKey elementKey = entry.getKey();
+            if (elementKey.getName() == null) {
+               continue;
+            }
+            String namespace = elementKey.getNamespace();
+            stream.writeBoolean(namespace != null);
+            if (namespace != null) {
+               stream.writeUTF(namespace);
+            }
+            stream.writeUTF(elementKey.getName());
+            stream.writeDouble(entry.getValue().getX());
+            stream.writeDouble(entry.getValue().getY());
+         }
+      } catch (IOException ex) {
+         tmpFile.delete();
+         return false;
+      }
+      file.delete();
+      return tmpFile.renameTo(file);
+   }
+
+   /**
+    * Remove all the layouts from the cache.
+    */
+   public void clear() {
+      File[] files = directory.listFiles();
+      if (files != null) {
+         for (int i = 0; i < files.length; i++) {
+            File file = files[i];
+            if (file.getName().endsWith(EXTENSION)) {
+               file.delete();
+            }
+         }
+      }
+   }
+
+   /**
+    * The task which writes the positions put by {@link #putPositionsLater(String, Map)}.
+    */
+   private class SaveTask implements Runnable {
+      private final File file;
+      private final String key;
+      private final Map<ElementKey, mxPoint> positions;
+      private Future<?> future = null;
+
+      private SaveTask(File file, String key, Map<ElementKey, mxPoint> positions) {
+         this.file = file;
+         this.key = key;
+         this.positions = positions;
+      }
+
+      @Override
+      public void run() {
+         synchronized (PENDING_SAVES) {
+            // other positions have been put for the same key in the meantime
+            if (PENDING_SAVES.get(file) != this) {
+               return;
+            }
+            PENDING_SAVES.remove(file);
+         }
+         putPositions(key, positions);
+      }
+   }
+}
@@ -0,0 +1,275 @@
+/*
+Copyright (c) 2021, 2023 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.gui.layout;
+
+/**
+ * A quadtree over the positions of the vertices, which keeps the number of vertices and their center of mass in each cell. The tree is
+ * stored in arrays, and is built again at each iteration of the layout. Once built the tree is only read, so that the repulsive forces
+ * on the vertices can be computed in parallel.
+ *
+ * @since 0.16
+ */
+final class QuadTree {
+   /**
+    * The maximum depth of the tree. The vertices which are still in the same cell at this depth are kept together in a leaf.
+    */
+   private static final int MAX_DEPTH = 24;
+   private static final int EMPTY = -1;
+   private static final int MULTIPLE = -2;
+   private static final double EPSILON = 1e-6d;
+   private final double theta2;
+   private int[] children;
+   private int[] bodies;
+   private double[] mass;
+   private double[] centerX;
+   private double[] centerY;
+   private double[] minX;
+   private double[] minY;
+   private double[] size;
+   private int count = 0;
+   private double[] x;
+   private double[] y;
+
+   /**
+    * Constructor.
+    *
+    * @param theta the Barnes-Hut threshold: a cell is approximated by its center of mass if its size divided by its distance is less
+    * than this threshold
+    */
+   QuadTree(double theta) {
+      this.theta2 = theta * theta;
+      allocate(64);
+   }
+
+   private void allocate(int capacity) {
+      children = new int[capacity * 4];
+      bodies = new int[capacity];
+      mass = new double[capacity];
+      centerX = new double[capacity];
+      centerY = new double[capacity];
+      minX = new double[capacity];
+      minY = new double[capacity];
+      size = new double[capacity];
+   }
+
+   private void grow() {
+      int capacity = bodies.length * 2;
+      int[] newChildren = new int[capacity * 4];
+      System.arraycopy(children, 0, newChildren, 0, count * 4);
+      children = newChildren;
+      bodies = copy(bodies, capacity);
+      mass = copy(mass, capacity);
+      centerX = copy(centerX, capacity);
+      centerY = copy(centerY, capacity);
+      minX = copy(minX, capacity);
+      minY = copy(minY, capacity);
+      size = copy(size, capacity);
+   }
+
+   private static int[] copy(int[] array, int capacity) {
+      int[] newArray = new int[capacity];
+      System.arraycopy(array, 0, newArray, 0, array.length);
+      return newArray;
+   }
+
+   private static double[] copy(double[] array, int capacity) {
+      double[] newArray = new double[capacity];
+      System.arraycopy(array, 0, newArray, 0, array.length);
+      return newArray;
+   }
+
+   private int createCell(double cellX, double cellY, double cellSize) {
+      if (count == bodies.length) {
+         grow();
+      }
+      int cell = count++;
+      children[cell * 4] = EMPTY;
+      children[cell * 4 + 1] = EMPTY;
+      children[cell * 4 + 2] = EMPTY;
+      children[cell * 4 + 3] = EMPTY;
+      bodies[cell] = EMPTY;
+      mass[cell] = 0;
+      minX[cell] = cellX;
+      minY[cell] = cellY;
+      size[cell] = cellSize;
+      return cell;
+   }
+
+   /**
+    * Build the tree for the positions of the vertices.
+    *
+    * @param x the x coordinates of the vertices
+    * @param y the y coordinates of the vertices
+    * @param vertices the number of vertices
+    */
+   void build(double[] x, double[] y, int vertices) {
+      this.x = x;
+      this.y = y;
+      double xmin = Double.MAX_VALUE;
+      double ymin = Double.MAX_VALUE;
+      double xmax = -Double.MAX_VALUE;
+      double ymax = -Double.MAX_VALUE;
+      for (int i = 0; i < vertices; i++) {
+         xmin = Math.min(xmin, x[i]);
+         ymin = Math.min(ymin, y[i]);
+         xmax = Math.max(xmax, x[i]);
+         ymax = Math.max(ymax, y[i]);
+      }
+      count = 0;
+      createCell(xmin, ymin, Math.max(xmax - xmin, ymax - ymin) + 1);
+      for (int i = 0; i < vertices; i++) {
+         insert(i);
+      }
+   }
+
+   private int getQuadrant(int cell, double px, double py) {
+      double half = size[cell] / 2;
+      int quadrant = 0;
+      if (px >= minX[cell] + half) {
+         quadrant = 1;
+      }
+      if (py >= minY[cell] + half) {
+         quadrant += 2;
+      }
+      return quadrant;
+   }
+
+   private int createChild(int cell, int quadrant, int body) {
+      double half = size[cell] / 2;
+      double cellX = (quadrant & 1) == 0 ? minX[cell] : minX[cell] + half;
+      double cellY = (quadrant & 2) == 0 ? minY[cell] : minY[cell] + half;
+      int child = createCell(cellX, cellY, half);
+      children[cell * 4 + quadrant] = child;
+      bodies[child] = body;
+      mass[child] = 1;
+      centerX[child] = x[body];
+      centerY[child] = y[body];
+      return child;
+   }
+
+   private void insert(int body) {
+      double px = x[body];
+      double py = y[body];
+      int cell = 0;
+      int depth = 0;
+      while (true) {
+         double m = mass[cell];
+         if (m == 0) {
+            bodies[cell] = body;
+            mass[cell] = 1;
+            centerX[cell] = px;
+            centerY[cell] = py;
+            return;
+         }
+         centerX[cell] = (centerX[cell] * m + px) / (m + 1);
+         centerY[cell] = (centerY[cell] * m + py) / (m + 1);
+         mass[cell] = m + 1;
+         int other = bodies[cell];
+         if (other == MULTIPLE) {
+            return;
+         } else if (other != EMPTY) {
+            // split the leaf
+            if (depth >= MAX_DEPTH) {
+               bodies[cell] = MULTIPLE;
+               return;
+            }
+            bodies[cell] = EMPTY;
+            createChild(cell, getQuadrant(cell, x[other], y[other]), other);
+         }
+         int quadrant = getQuadrant(cell, px, py);
+         int child = children[cell * 4 + quadrant];
+         if (child == EMPTY) {
+            createChild(cell, quadrant, body);
+            return;
+         }
+         cell = child;
+         depth++;
+      }
+   }
+
+   /**
+    * Add the repulsive force exerted by all the other vertices on a vertex. The force between two vertices is the square of the ideal
+    * distance divided by the free distance between their boxes. The force exerted by a distant cell is approximated by the force of its
+    * center of mass.
+    *
+    * @param vertex the vertex
+    * @param radius the radius of the vertices
+    * @param k2 the square of the ideal distance
+    * @param force the force, where the x and y components are added
+    */
+   void addRepulsion(int vertex, double[] radius, double k2, double[] force) {
+      int[] stack = new int[4 * MAX_DEPTH + 4];
+      int top = 0;
+      stack[top++] = 0;
+      double px = x[vertex];
+      double py = y[vertex];
+      double fx = 0;
+      double fy = 0;
+      while (top > 0) {
+         int cell = stack[--top];
+         int body = bodies[cell];
+         if (body == vertex || mass[cell] == 0) {
+            continue;
+         }
+         double dx = px - centerX[cell];
+         double dy = py - centerY[cell];
+         double d2 = dx * dx + dy * dy;
+         if (body >= 0) {
+            double d = Math.sqrt(d2);
+            if (d < EPSILON) {
+               continue;
+            }
+            double free = Math.max(d - radius[vertex] - radius[body], 1);
+            double f = k2 / (free * d);
+            fx += dx * f;
+            fy += dy * f;
+         } else if (body == MULTIPLE || size[cell] * size[cell] < theta2 * d2) {
+            if (d2 < EPSILON) {
+               continue;
+            }
+            double f = mass[cell] * k2 / d2;
+            fx += dx * f;
+            fy += dy * f;
+         } else {
+            for (int q = 0; q < 4; q++) {
+               int child = children[cell * 4 + q];
+               if (child != EMPTY) {
+                  stack[top++] = child;
+               }
+            }
+         }
+      }
+      force[0] += fx;
+      force[1] += fy;
+   }
+}
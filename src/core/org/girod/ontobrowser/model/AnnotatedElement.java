@@ -32,15 +32,20 @@ the project website at the project page on https://github.com/hervegirod/ontolog
  */
 package org.girod.ontobrowser.model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
- * An annotated element.
+ * An annotated element. The annotations of the element can be materialized on demand by an {@link AnnotationsMaterializer}, in that case
+ * they are only created the first time they are accessed. The label of the element is always set at extraction.
  *
- * @version 0.13
+ * @version 0.16
  */
-public abstract class AnnotatedElement {
+public abstract class AnnotatedElement implements Serializable {
    public static final ElementKey DUBLINCORE_DESCRIPTION = ElementKey.create("http://purl.org/dc/terms/", "description");
    public static final ElementKey DUBLINCORE_DESCRIPTION2 = ElementKey.create("http://purl.org/dc/elements/1.1/", "description");
    public static final ElementKey COMMENT = ElementKey.create("http://www.w3.org/2000/01/rdf-schema/", "comment");
@@ -55,8 +60,12 @@ public abstract class AnnotatedElement {
    public static final OwlAnnotation DEFINED_BY_ANNOTATION = new OwlAnnotation(DEFINED_BY);
    public static final OwlAnnotation VERSION_INFO_ANNOTATION = new OwlAnnotation(VERSION_INFO);
    public static final OwlAnnotation LABEL_ANNOTATION = new OwlAnnotation(LABEL);
-   public final Map<ElementKey, AnnotationValue> annotations = new HashMap<>();
+   private Map<ElementKey, AnnotationValue> annotations = new HashMap<>();
    private ElementDocumentation elementDoc = null;
+   private transient AnnotationsMaterializer materializer = null;
+   private transient volatile boolean pendingAnnotations = false;
+   private transient boolean materializing = false;
+   private transient boolean pinnedAnnotations = false;
    /**
     * The element label.
     */
@@ -65,13 +74,173 @@ public abstract class AnnotatedElement {
    public AnnotatedElement() {
    }
 
+   /**
+    * Set the materializer of the annotations. The annotations will be created the first time they are accessed.
+    *
+    * @param materializer the materializer
+    */
+   public synchronized void setAnnotationsMaterializer(AnnotationsMaterializer materializer) {
+      this.materializer = materializer;
+      this.pendingAnnotations = materializer != null;
+   }
+
+   /**
+    * Return true if the annotations of the element have not been materialized yet.
+    *
+    * @return true if the annotations have not been materialized yet
+    */
+   public boolean hasPendingAnnotations() {
+      return pendingAnnotations;
+   }
+
+   /**
+    * Materialize the annotations of the element if they have not been materialized yet.
+    */
+   public void materializeAnnotations() {
+      if (!pendingAnnotations) {
+         return;
+      }
+      AnnotationsMaterializer theMaterializer;
+      synchronized (this) {
+         theMaterializer = materializer;
+         if (!materializeImpl()) {
+            return;
+         }
+      }
+      // called outside of the lock, because the materializer may evict the annotations of other elements
+      theMaterializer.materialized(this);
+   }
+
+   private boolean materializeImpl() {
+      if (!pendingAnnotations || materializing) {
+         return false;
+      }
+      materializing = true;
+      try {
+         materializer.materialize(this);
+      } finally {
+         materializing = false;
+         materializer = null;
+         pendingAnnotations = false;
+      }
+      return true;
+   }
+
+   /**
+    * Materialize the annotations of the element, and prevent them from being evicted afterwards.
+    */
+   public void pinAnnotations() {
+      materializeAnnotations();
+      synchronized (this) {
+         pinnedAnnotations = true;
+      }
+   }
+
+   /**
+    * Evict the materialized annotations of the element. They will be materialized again the next time they are accessed. The label of the
+    * element is kept.
+    *
+    * @param materializer the materializer
+    */
+   public synchronized void evictAnnotations(AnnotationsMaterializer materializer) {
+      if (pendingAnnotations || materializing || pinnedAnnotations) {
+         return;
+      }
+      // a new map is created rather than clearing the existing one, which may still be used
+      annotations = new HashMap<>();
+      elementDoc = null;
+      this.materializer = materializer;
+      this.pendingAnnotations = true;
+   }
+
+   /**
+    * Create again the annotations of the element after the statements of the element have changed in the model. Contrary to
+    * {@link #evictAnnotations(AnnotationsMaterializer)}, this also applies to pinned annotations. The label of the element is kept.
+    *
+    * @param materializer the materializer
+    */
+   public void refreshAnnotations(AnnotationsMaterializer materializer) {
+      synchronized (this) {
+         if (pendingAnnotations) {
+            // the annotations will be created from the changed model anyway
+            return;
+         }
+         annotations = new HashMap<>();
+         elementDoc = null;
+         this.materializer = materializer;
+         this.pendingAnnotations = true;
+      }
+      materializeAnnotations();
+   }
+
+   /**
+    * Return the materialized annotations. The map is read under the lock of the element, because the annotations may be evicted by
+    * another thread after they have been materialized. A materialized map is never modified afterwards, because the eviction creates a
+    * new map.
+    *
+    * @return the annotations
+    */
+   private Map<ElementKey, AnnotationValue> getMaterializedAnnotations() {
+      while (true) {
+         materializeAnnotations();
+         synchronized (this) {
+            if (!pendingAnnotations) {
+               return annotations;
+            }
+         }
+      }
+   }
+
+   /**
+    * Return the materialized documentation, see {@link #getMaterializedAnnotations()}.
+    *
+    * @return the documentation
+    */
+   private ElementDocumentation getMaterializedDocumentation() {
+      while (true) {
+         materializeAnnotations();
+         synchronized (this) {
+            if (!pendingAnnotations) {
+               return elementDoc;
+            }
+         }
+      }
+   }
+
+   private void writeObject(ObjectOutputStream out) throws IOException {
+      if (out instanceof OwlSchema.VersionOutputStream) {
+         // a new version of the schema keeps the annotations which have not been materialized yet pending
+         synchronized (this) {
+            out.defaultWriteObject();
+            out.writeInt(pendingAnnotations ? ((OwlSchema.VersionOutputStream) out).getMaterializerIndex(materializer) : -1);
+         }
+         return;
+      }
+      materializeAnnotations();
+      synchronized (this) {
+         // the annotations may have been evicted in the meantime
+         materializeImpl();
+         out.defaultWriteObject();
+      }
+   }
+
+   private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+      in.defaultReadObject();
+      if (in instanceof OwlSchema.VersionInputStream) {
+         int index = in.readInt();
+         if (index >= 0) {
+            ((OwlSchema.VersionInputStream) in).addPendingElement(this, index);
+         }
+      }
+   }
+
    /**
     * Return the element documentation.
     *
     * @return the element documentation
     */
    public ElementDocumentation getDocumentation() {
-      return elementDoc;
+      return getMaterializedDocumentation();
    }
 
    protected ElementDocumentation createDocumentation() {
@@ -95,7 +264,7 @@ public abstract class AnnotatedElement {
     * @return true if there is an annotation for the key
     */
    public boolean hasAnnotation(ElementKey key) {
-      return annotations.containsKey(key);
+      return getMaterializedAnnotations().containsKey(key);
    }
 
    /**
@@ -105,7 +274,7 @@ public abstract class AnnotatedElement {
     * @return the annotation of a specific key
     */
    public AnnotationValue getAnnotation(ElementKey key) {
-      return annotations.get(key);
+      return getMaterializedAnnotations().get(key);
    }
 
    /**
@@ -114,7 +283,7 @@ public abstract class AnnotatedElement {
     * @return the element annotations
     */
    public Map<ElementKey, AnnotationValue> getAnnotations() {
-      return annotations;
+      return getMaterializedAnnotations();
    }
    
    /**
@@ -123,7 +292,7 @@ public abstract class AnnotatedElement {
     * @return true if the element has annotations
     */
    public boolean hasAnnotations() {
-      return !annotations.isEmpty();
+      return !getMaterializedAnnotations().isEmpty();
    }   
 
    /**
@@ -190,10 +359,11 @@ public abstract class AnnotatedElement {
     * @return the description
     */
    public String getDescription() {
-      if (elementDoc == null) {
+      ElementDocumentation doc = getMaterializedDocumentation();
+      if (doc == null) {
          return null;
       } else {
-         return elementDoc.getDescription();
+         return doc.getDescription();
       }
    }
 
@@ -203,10 +373,11 @@ public abstract class AnnotatedElement {
     * @return the description or comments
     */
    public String getDescriptionOrComments() {
-      if (elementDoc == null) {
+      ElementDocumentation doc = getMaterializedDocumentation();
+      if (doc == null) {
          return null;
       } else {
-         return elementDoc.getDescriptionOrComments();
+         return doc.getDescriptionOrComments();
       }
    }
 
@@ -216,10 +387,11 @@ public abstract class AnnotatedElement {
     * @return the comments
     */
    public String getComments() {
-      if (elementDoc == null) {
+      ElementDocumentation doc = getMaterializedDocumentation();
+      if (doc == null) {
          return null;
       } else {
-         return elementDoc.getComments();
+         return doc.getComments();
       }
    }
 
@@ -229,10 +401,11 @@ public abstract class AnnotatedElement {
     * @return true if the element has comments
     */
    public boolean hasDescriptionOrComments() {
-      if (elementDoc == null) {
+      ElementDocumentation doc = getMaterializedDocumentation();
+      if (doc == null) {
          return false;
       } else {
-         return elementDoc.hasDescriptionOrComments();
+         return doc.hasDescriptionOrComments();
       }
    }
 
@@ -242,10 +415,11 @@ public abstract class AnnotatedElement {
     * @return true if the element has comments
     */
    public boolean hasComments() {
-      if (elementDoc == null) {
+      ElementDocumentation doc = getMaterializedDocumentation();
+      if (doc == null) {
          return false;
       } else {
-         return elementDoc.hasComments();
+         return doc.hasComments();
       }
    }
 
@@ -286,10 +460,11 @@ public abstract class AnnotatedElement {
     * @return the description
     */
    public String getVersion() {
-      if (elementDoc == null) {
+      ElementDocumentation doc = getMaterializedDocumentation();
+      if (doc == null) {
          return null;
       } else {
-         return elementDoc.getVersionInfo();
+         return doc.getVersionInfo();
       }
    }   
    
@@ -299,10 +474,11 @@ public abstract class AnnotatedElement {
     * @return true if the element has a version information
     */
    public boolean hasVersion() {
-      if (elementDoc == null) {
+      ElementDocumentation doc = getMaterializedDocumentation();
+      if (doc == null) {
          return false;
       } else {
-         return elementDoc.hasVersionInfo();
+         return doc.hasVersionInfo();
       }
    }      
 
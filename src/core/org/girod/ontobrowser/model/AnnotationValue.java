@@ -32,14 +32,15 @@ the project website at the project page on https://github.com/hervegirod/ontolog
  */
 package org.girod.ontobrowser.model;
 
+import java.io.Serializable;
 import java.net.URI;
 
 /**
  * The value of an annotation on an element.
  *
- * @version 0.13
+ * @version 0.16
  */
-public interface AnnotationValue {
+public interface AnnotationValue extends Serializable {
    public static final short LITERAL_TYPE = 0;
    public static final short ELEMENT_TYPE = 1;
    public static final short URI_TYPE = 2;
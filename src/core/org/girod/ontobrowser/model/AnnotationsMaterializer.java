@@ -0,0 +1,69 @@
+/*
+Copyright (c) 2024 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.model;
+
+/**
+ * Materializes the annotations of elements on demand. The annotations of an element which has a materializer are only created the first
+ * time they are accessed.
+ *
+ * @since 0.16
+ */
+public interface AnnotationsMaterializer {
+   /**
+    * Create the annotations of an element. This method is called at most once for each element, unless the annotations of the element
+    * have been evicted in the meantime.
+    *
+    * @param element the element
+    */
+   public void materialize(AnnotatedElement element);
+
+   /**
+    * Called after the annotations of an element have been materialized. The materializer can evict the annotations of elements which have
+    * not been used recently.
+    *
+    * @param element the element
+    */
+   public default void materialized(AnnotatedElement element) {
+   }
+
+   /**
+    * Return the materializer to use for the elements of a new version of a schema, see {@link OwlSchema#newVersion()}. Return this
+    * materializer by default.
+    *
+    * @param schema the new version of the schema
+    * @return the materializer
+    */
+   public default AnnotationsMaterializer forVersion(OwlSchema schema) {
+      return this;
+   }
+}
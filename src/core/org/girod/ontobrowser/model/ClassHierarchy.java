@@ -0,0 +1,502 @@
+/*
+Copyright (c) 2021, 2023 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The transitive closure of the class hierarchy of a schema. The classes of each cycle of the hierarchy are merged in a component,
+ * and each component is labelled with its post-order number in a depth-first traversal of the subclasses, and with the sorted
+ * intervals of post-order numbers of its descendants. A component is then a descendant of another component if its number is in
+ * one of the intervals of the other component, so that {@link #isSubClassOf(OwlClass, OwlClass)} is answered with a binary
+ * search. For a tree there is only one interval for each component, and the number of intervals only grows with the multiple
+ * inheritance which is not covered by the traversal, so that the labels are linear in the number of classes for most schemas.
+ *
+ * The labels are computed the first time the index is queried. They are computed again on the next query when a superclass is
+ * added to a class.
+ *
+ * @since 0.16
+ */
+public class ClassHierarchy implements Serializable {
+   private static final long serialVersionUID = 1L;
+   private OwlClass[] classes;
+   private int count = 0;
+   private transient volatile Labels labels = null;
+
+   private ClassHierarchy(int size) {
+      this.classes = new OwlClass[Math.max(size, 16)];
+   }
+
+   /**
+    * Create the index for a collection of classes, and bind the classes to the index.
+    *
+    * @param classes the classes
+    * @return the index
+    */
+   static ClassHierarchy create(Collection<OwlClass> classes) {
+      ClassHierarchy hierarchy = new ClassHierarchy(classes.size());
+      Iterator<OwlClass> it = classes.iterator();
+      while (it.hasNext()) {
+         OwlClass theClass = it.next();
+         if (theClass.getClassHierarchy() != hierarchy) {
+            hierarchy.register(theClass);
+         }
+      }
+      return hierarchy;
+   }
+
+   /**
+    * Return the number of classes in the index.
+    *
+    * @return the number of classes
+    */
+   public synchronized int getClassesCount() {
+      return count;
+   }
+
+   /**
+    * Return true if a class is in the index.
+    *
+    * @param theClass the class
+    * @return true if the class is in the index
+    */
+   public boolean contains(OwlClass theClass) {
+      return theClass.getClassHierarchy() == this;
+   }
+
+   private int getId(OwlClass theClass) {
+      if (theClass.getClassHierarchy() == this) {
+         return theClass.getClassHierarchyId();
+      } else {
+         return -1;
+      }
+   }
+
+   /**
+    * Return true if a class is a direct or indirect subclass of another class. A class is only a subclass of itself if it is part
+    * of a cycle in the hierarchy.
+    *
+    * @param subClass the subclass
+    * @param superClass the superclass
+    * @return true if the class is a subclass of the other class
+    */
+   public boolean isSubClassOf(OwlClass subClass, OwlClass superClass) {
+      Labels theLabels = getLabels();
+      int subId = getId(subClass);
+      int superId = getId(superClass);
+      if (subId == -1 || superId == -1) {
+         return false;
+      }
+      return theLabels.isSubClassOf(subId, superId);
+   }
+
+   /**
+    * Return true if a class is part of a cycle in the hierarchy.
+    *
+    * @param theClass the class
+    * @return true if the class is part of a cycle
+    */
+   public boolean isInCycle(OwlClass theClass) {
+      return isSubClassOf(theClass, theClass);
+   }
+
+   /**
+    * Return the direct and indirect superclasses of a class.
+    *
+    * @param theClass the class
+    * @return the superclasses
+    */
+   public List<OwlClass> getAncestors(OwlClass theClass) {
+      Labels theLabels = getLabels();
+      int id = getId(theClass);
+      List<OwlClass> list = new ArrayList<>();
+      if (id != -1) {
+         theLabels.addAncestors(id, list);
+      }
+      return list;
+   }
+
+   /**
+    * Return the direct and indirect subclasses of a class.
+    *
+    * @param theClass the class
+    * @return the subclasses
+    */
+   public List<OwlClass> getDescendants(OwlClass theClass) {
+      Labels theLabels = getLabels();
+      int id = getId(theClass);
+      List<OwlClass> list = new ArrayList<>();
+      if (id != -1) {
+         theLabels.addDescendants(id, list);
+      }
+      return list;
+   }
+
+   private void register(OwlClass theClass) {
+      if (count == classes.length) {
+         classes = Arrays.copyOf(classes, classes.length * 2);
+      }
+      classes[count] = theClass;
+      theClass.setClassHierarchy(this, count);
+      count++;
+   }
+
+   /**
+    * Add a class to the index, with all its direct and indirect subclasses which are not already in the index. Its superclasses
+    * are added when the labels are computed.
+    *
+    * @param theClass the class
+    */
+   private void addClass(OwlClass theClass) {
+      int first = count;
+      register(theClass);
+      for (int i = first; i < count; i++) {
+         Iterator<OwlClass> it = classes[i].getSubClasses().values().iterator();
+         while (it.hasNext()) {
+            OwlClass subClass = it.next();
+            if (!contains(subClass)) {
+               register(subClass);
+            }
+         }
+      }
+   }
+
+   /**
+    * Update the index after a superclass has been added to a class. The classes which are not already in the index are added to
+    * the index, and the labels are computed again on the next query if the class was not already a subclass of the superclass.
+    *
+    * @param subClass the subclass
+    * @param superClass the superclass
+    */
+   synchronized void addSubClassOf(OwlClass subClass, OwlClass superClass) {
+      if (!contains(subClass)) {
+         addClass(subClass);
+      }
+      if (!contains(superClass)) {
+         addClass(superClass);
+      }
+      Labels theLabels = labels;
+      if (theLabels != null && !theLabels.isSubClassOf(getId(subClass), getId(superClass))) {
+         labels = null;
+      }
+   }
+
+   private Labels getLabels() {
+      Labels theLabels = labels;
+      if (theLabels == null) {
+         synchronized (this) {
+            theLabels = labels;
+            if (theLabels == null) {
+               theLabels = computeLabels();
+               labels = theLabels;
+            }
+         }
+      }
+      return theLabels;
+   }
+
+   /**
+    * Compute the labels of the classes of the index. The superclasses which are not already in the index are added first.
+    *
+    * @return the labels
+    */
+   private Labels computeLabels() {
+      for (int i = 0; i < count; i++) {
+         Iterator<OwlClass> it = classes[i].getSuperClasses().values().iterator();
+         while (it.hasNext()) {
+            OwlClass superClass = it.next();
+            if (!contains(superClass)) {
+               register(superClass);
+            }
+         }
+      }
+      int[] offsets = new int[count + 1];
+      int[] targets = new int[count];
+      int size = 0;
+      for (int i = 0; i < count; i++) {
+         Iterator<OwlClass> it = classes[i].getSuperClasses().values().iterator();
+         while (it.hasNext()) {
+            if (size == targets.length) {
+               targets = Arrays.copyOf(targets, Math.max(16, size * 2));
+            }
+            targets[size++] = getId(it.next());
+         }
+         offsets[i + 1] = size;
+      }
+      return new Labels(Arrays.copyOf(classes, count), offsets, Arrays.copyOf(targets, size));
+   }
+
+   /**
+    * The labels of the classes of the index at a given time. The labels are not modified after their creation.
+    */
+   private static final class Labels {
+      private final OwlClass[] classes;
+      // the superclasses of each class, in the CSR format
+      private final int[] offsets;
+      private final int[] targets;
+      private final int[] component;
+      private final boolean[] isCyclic;
+      // the classes of each component, in the CSR format
+      private final int[] memberOffsets;
+      private final int[] members;
+      private final int[] post;
+      private final int[] componentAtPost;
+      // the intervals of each component are in bounds[2 * intervalStart[c]...2 * intervalEnd[c]]
+      private final int[] intervalStart;
+      private final int[] intervalEnd;
+      private int[] bounds;
+      private int boundsSize = 0;
+
+      private Labels(OwlClass[] classes, int[] offsets, int[] targets) {
+         this.classes = classes;
+         this.offsets = offsets;
+         this.targets = targets;
+         int count = classes.length;
+         component = GraphClosure.getComponents(count, offsets, targets);
+         int componentsCount = GraphClosure.getComponentsCount(component);
+         memberOffsets = new int[componentsCount + 1];
+         members = GraphClosure.getMembers(component, componentsCount, memberOffsets);
+         isCyclic = new boolean[componentsCount];
+         for (int c = 0; c < componentsCount; c++) {
+            isCyclic[c] = memberOffsets[c + 1] - memberOffsets[c] > 1;
+         }
+         // the subclasses of each component, in the CSR format
+         int[] subOffsets = new int[componentsCount + 1];
+         for (int i = 0; i < count; i++) {
+            for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+               if (targets[j] == i) {
+                  isCyclic[component[i]] = true;
+               } else if (component[targets[j]] != component[i]) {
+                  subOffsets[component[targets[j]] + 1]++;
+               }
+            }
+         }
+         for (int c = 0; c < componentsCount; c++) {
+            subOffsets[c + 1] += subOffsets[c];
+         }
+         int[] subTargets = new int[subOffsets[componentsCount]];
+         int[] next = Arrays.copyOf(subOffsets, componentsCount);
+         for (int i = 0; i < count; i++) {
+            for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+               int superComponent = component[targets[j]];
+               if (superComponent != component[i]) {
+                  subTargets[next[superComponent]++] = component[i];
+               }
+            }
+         }
+         post = new int[componentsCount];
+         componentAtPost = new int[componentsCount];
+         intervalStart = new int[componentsCount];
+         intervalEnd = new int[componentsCount];
+         bounds = new int[Math.max(16, 2 * componentsCount)];
+         computeIntervals(componentsCount, subOffsets, subTargets);
+      }
+
+      /**
+       * Traverse the subclasses of the components depth-first, and compute the intervals of each component when it is finished.
+       * All the subclasses of a component are finished before the component because the graph of the components has no cycle.
+       */
+      private void computeIntervals(int componentsCount, int[] subOffsets, int[] subTargets) {
+         int[] first = new int[componentsCount];
+         int[] nextEdge = new int[componentsCount];
+         boolean[] visited = new boolean[componentsCount];
+         int[] stack = new int[componentsCount];
+         long[] buffer = new long[16];
+         int nextPost = 0;
+         // the components are numbered in reverse topological order, so the roots of the hierarchy are visited first
+         for (int root = componentsCount - 1; root >= 0; root--) {
+            if (visited[root]) {
+               continue;
+            }
+            int stackSize = 0;
+            stack[stackSize++] = root;
+            visited[root] = true;
+            first[root] = nextPost;
+            nextEdge[root] = subOffsets[root];
+            while (stackSize > 0) {
+               int c = stack[stackSize - 1];
+               if (nextEdge[c] < subOffsets[c + 1]) {
+                  int sub = subTargets[nextEdge[c]++];
+                  if (!visited[sub]) {
+                     visited[sub] = true;
+                     first[sub] = nextPost;
+                     nextEdge[sub] = subOffsets[sub];
+                     stack[stackSize++] = sub;
+                  }
+               } else {
+                  stackSize--;
+                  post[c] = nextPost;
+                  componentAtPost[nextPost] = c;
+                  nextPost++;
+                  int size = 1;
+                  for (int j = subOffsets[c]; j < subOffsets[c + 1]; j++) {
+                     size += intervalEnd[subTargets[j]] - intervalStart[subTargets[j]];
+                  }
+                  if (buffer.length < size) {
+                     buffer = new long[Math.max(size, buffer.length * 2)];
+                  }
+                  buffer[0] = toInterval(first[c], post[c]);
+                  int index = 1;
+                  for (int j = subOffsets[c]; j < subOffsets[c + 1]; j++) {
+                     int sub = subTargets[j];
+                     for (int k = intervalStart[sub]; k < intervalEnd[sub]; k++) {
+                        int low = bounds[2 * k];
+                        // the intervals which start in the traversal of the component are already covered
+                        if (low < first[c]) {
+                           buffer[index++] = toInterval(low, bounds[2 * k + 1]);
+                        }
+                     }
+                  }
+                  addIntervals(c, buffer, index);
+               }
+            }
+         }
+      }
+
+      private static long toInterval(int low, int high) {
+         return ((long) low << 32) | high;
+      }
+
+      /**
+       * Sort and merge the intervals of a component, and add them to the bounds.
+       */
+      private void addIntervals(int c, long[] buffer, int size) {
+         if (size > 1) {
+            Arrays.sort(buffer, 0, size);
+         }
+         intervalStart[c] = boundsSize / 2;
+         int low = (int) (buffer[0] >>> 32);
+         int high = (int) buffer[0];
+         for (int i = 1; i < size; i++) {
+            int nextLow = (int) (buffer[i] >>> 32);
+            int nextHigh = (int) buffer[i];
+            if (nextLow <= high + 1) {
+               high = Math.max(high, nextHigh);
+            } else {
+               addBounds(low, high);
+               low = nextLow;
+               high = nextHigh;
+            }
+         }
+         addBounds(low, high);
+         intervalEnd[c] = boundsSize / 2;
+      }
+
+      private void addBounds(int low, int high) {
+         if (boundsSize + 2 > bounds.length) {
+            bounds = Arrays.copyOf(bounds, bounds.length * 2);
+         }
+         bounds[boundsSize++] = low;
+         bounds[boundsSize++] = high;
+      }
+
+      /**
+       * Return true if a post-order number is in one of the intervals of a component.
+       */
+      private boolean isInIntervals(int c, int value) {
+         int low = intervalStart[c];
+         int high = intervalEnd[c] - 1;
+         while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (bounds[2 * middle] > value) {
+               high = middle - 1;
+            } else if (bounds[2 * middle + 1] < value) {
+               low = middle + 1;
+            } else {
+               return true;
+            }
+         }
+         return false;
+      }
+
+      private boolean isSubClassOf(int subId, int superId) {
+         if (subId >= component.length || superId >= component.length) {
+            return false;
+         }
+         int subComponent = component[subId];
+         int superComponent = component[superId];
+         if (subComponent == superComponent) {
+            return isCyclic[subComponent];
+         } else {
+            return isInIntervals(superComponent, post[subComponent]);
+         }
+      }
+
+      private void addAncestors(int id, List<OwlClass> list) {
+         if (id >= classes.length) {
+            return;
+         }
+         BitSet visited = new BitSet();
+         int[] stack = new int[16];
+         int stackSize = 0;
+         stack[stackSize++] = id;
+         while (stackSize > 0) {
+            int current = stack[--stackSize];
+            for (int j = offsets[current]; j < offsets[current + 1]; j++) {
+               int target = targets[j];
+               if (!visited.get(target)) {
+                  visited.set(target);
+                  list.add(classes[target]);
+                  if (stackSize == stack.length) {
+                     stack = Arrays.copyOf(stack, stackSize * 2);
+                  }
+                  stack[stackSize++] = target;
+               }
+            }
+         }
+      }
+
+      private void addDescendants(int id, List<OwlClass> list) {
+         if (id >= classes.length) {
+            return;
+         }
+         int c = component[id];
+         for (int k = intervalStart[c]; k < intervalEnd[c]; k++) {
+            for (int p = bounds[2 * k]; p <= bounds[2 * k + 1]; p++) {
+               int descendant = componentAtPost[p];
+               if (descendant != c || isCyclic[c]) {
+                  for (int i = memberOffsets[descendant]; i < memberOffsets[descendant + 1]; i++) {
+                     list.add(classes[members[i]]);
+                  }
+               }
+            }
+         }
+      }
+   }
+}
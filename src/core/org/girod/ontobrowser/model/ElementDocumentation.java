@@ -32,12 +32,14 @@ the project website at the project page on https://github.com/hervegirod/ontolog
  */
 package org.girod.ontobrowser.model;
 
+import java.io.Serializable;
+
 /**
  * Represents any element documentation.
  *
- * @version 0.13
+ * @version 0.16
  */
-public class ElementDocumentation {
+public class ElementDocumentation implements Serializable {
    private String desc = null;
    private String comments = null;
    private String label = null;
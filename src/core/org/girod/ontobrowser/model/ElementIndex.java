@@ -0,0 +1,227 @@
+/*
+Copyright (c) 2021, 2023 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.model;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import org.apache.jena.rdf.model.Resource;
+
+/**
+ * The index of the classes, properties, and individuals of a schema, from their full IRI and from their prefixed name. The index
+ * does not depend on how the IRIs are split between their namespace and their local name, so it works for <code>/</code>
+ * namespaces as well as for <code>#</code> namespaces.
+ *
+ * @since 0.16
+ */
+public class ElementIndex implements Serializable {
+   private static final long serialVersionUID = 1L;
+   /**
+    * The kind of the classes.
+    */
+   public static final short CLASS = 1;
+   /**
+    * The kind of the properties.
+    */
+   public static final short PROPERTY = 2;
+   /**
+    * The kind of the individuals.
+    */
+   public static final short INDIVIDUAL = 4;
+   private final Map<String, Entry> entriesFromIRI = new HashMap<>();
+   private final Map<String, Entry> entriesFromPrefixedName = new HashMap<>();
+
+   ElementIndex() {
+   }
+
+   /**
+    * Create the index for the elements of a schema.
+    *
+    * @param schema the schema
+    * @return the index
+    */
+   static ElementIndex create(OwlSchema schema) {
+      ElementIndex index = new ElementIndex();
+      Iterator<OwlClass> it = schema.getOwlClasses().values().iterator();
+      while (it.hasNext()) {
+         index.add(schema, it.next());
+      }
+      Iterator<OwlProperty> it2 = schema.getOwlProperties().values().iterator();
+      while (it2.hasNext()) {
+         index.add(schema, it2.next());
+      }
+      Iterator<OwlIndividual> it3 = schema.getIndividuals().values().iterator();
+      while (it3.hasNext()) {
+         index.add(schema, it3.next());
+      }
+      return index;
+   }
+
+   /**
+    * Add an element to the index.
+    *
+    * @param schema the schema
+    * @param element the element
+    */
+   synchronized void add(OwlSchema schema, NamedOwlElement element) {
+      ElementKey key = element.getKey();
+      if (key.getNamespace() != null) {
+         add(entriesFromIRI, key.getNamespace() + key.getName(), element);
+      }
+      Resource resource = element.getResource();
+      if (resource != null && resource.isURIResource()) {
+         add(entriesFromIRI, resource.getURI(), element);
+      }
+      add(entriesFromPrefixedName, key.getPrefixedName(schema), element);
+   }
+
+   private void add(Map<String, Entry> map, String iri, NamedOwlElement element) {
+      Entry entry = map.get(iri);
+      if (entry == null) {
+         entry = new Entry();
+         map.put(iri, entry);
+      }
+      entry.set(element);
+   }
+
+   /**
+    * Return the entry for a full IRI.
+    *
+    * @param iri the IRI
+    * @return the entry, or null if there is no element for this IRI
+    */
+   public synchronized Entry getEntry(String iri) {
+      return entriesFromIRI.get(iri);
+   }
+
+   /**
+    * Return the entry for a prefixed name, such as <code>owl:Thing</code>. The names of the elements in a namespace which has no
+    * prefix are not prefixed.
+    *
+    * @param prefixedName the prefixed name
+    * @return the entry, or null if there is no element for this prefixed name
+    */
+   public synchronized Entry getEntryFromPrefixedName(String prefixedName) {
+      return entriesFromPrefixedName.get(prefixedName);
+   }
+
+   /**
+    * The elements of the schema for one IRI. The same IRI can be used for elements of different kinds.
+    */
+   public static class Entry implements Serializable {
+      private static final long serialVersionUID = 1L;
+      private short kinds = 0;
+      private OwlClass owlClass = null;
+      private OwlProperty property = null;
+      private OwlIndividual individual = null;
+
+      private Entry() {
+      }
+
+      private void set(NamedOwlElement element) {
+         if (element instanceof OwlClass) {
+            owlClass = (OwlClass) element;
+            kinds |= CLASS;
+         } else if (element instanceof OwlProperty) {
+            property = (OwlProperty) element;
+            kinds |= PROPERTY;
+         } else if (element instanceof OwlIndividual) {
+            individual = (OwlIndividual) element;
+            kinds |= INDIVIDUAL;
+         }
+      }
+
+      /**
+       * Return the kinds of the elements of this entry, as a combination of {@link #CLASS}, {@link #PROPERTY}, and
+       * {@link #INDIVIDUAL}.
+       *
+       * @return the kinds
+       */
+      public short getKinds() {
+         return kinds;
+      }
+
+      /**
+       * Return true if there is an element of a specified kind.
+       *
+       * @param kind the kind
+       * @return true if there is an element of the kind
+       */
+      public boolean hasKind(short kind) {
+         return (kinds & kind) != 0;
+      }
+
+      /**
+       * Return the element of this entry. The individual is returned first, then the class, then the property.
+       *
+       * @return the element
+       */
+      public NamedOwlElement getElement() {
+         if (individual != null) {
+            return individual;
+         } else if (owlClass != null) {
+            return owlClass;
+         } else {
+            return property;
+         }
+      }
+
+      /**
+       * Return the class.
+       *
+       * @return the class, or null if there is no class for this IRI
+       */
+      public OwlClass getOwlClass() {
+         return owlClass;
+      }
+
+      /**
+       * Return the property.
+       *
+       * @return the property, or null if there is no property for this IRI
+       */
+      public OwlProperty getOwlProperty() {
+         return property;
+      }
+
+      /**
+       * Return the individual.
+       *
+       * @return the individual, or null if there is no individual for this IRI
+       */
+      public OwlIndividual getIndividual() {
+         return individual;
+      }
+   }
+}
@@ -38,9 +38,10 @@ import java.net.URISyntaxException;
 import java.util.Objects;
 
 /**
- * The element key, with a name and namespace.
+ * The element key, with a name and namespace. The hash code of the key is computed once at creation. Keys which are
+ * obtained from an {@link IRIDictionary} are canonical for their schema and have an id which is unique in this dictionary.
  *
- * @version 0.8
+ * @version 0.16
  */
 public class ElementKey implements Comparable<ElementKey>, Cloneable, Serializable {
    public static final String XML_NAMESPACE = "http://www.w3.org/2001/XMLSchema#";
@@ -50,10 +51,14 @@ public class ElementKey implements Comparable<ElementKey>, Cloneable, Serializab
    public static final ElementKey THING = ElementKey.create("http://www.w3.org/2002/07/owl#", "Thing");
    private final String namespace;
    private final String name;
+   private final int hash;
+   private final int id;
 
    public ElementKey(String name) {
       this.namespace = null;
       this.name = name;
+      this.hash = computeHash(null, name);
+      this.id = -1;
    }
 
    public ElementKey(OwlSchema schema, String prefix, String name) {
@@ -64,11 +69,54 @@ public class ElementKey implements Comparable<ElementKey>, Cloneable, Serializab
          this.namespace = null;
          this.name = name;
       }
+      this.hash = computeHash(namespace, name);
+      this.id = -1;
    }
 
    public ElementKey(String namespace, String name) {
       this.namespace = namespace;
       this.name = name;
+      this.hash = computeHash(namespace, name);
+      this.id = -1;
+   }
+
+   /**
+    * Constructor used by the {@link IRIDictionary}.
+    *
+    * @param namespace the namespace
+    * @param name the name
+    * @param id the id of the key in the dictionary
+    */
+   ElementKey(String namespace, String name, int id) {
+      this.namespace = namespace;
+      this.name = name;
+      this.hash = computeHash(namespace, name);
+      this.id = id;
+   }
+
+   private static int computeHash(String namespace, String name) {
+      int hash = 3;
+      hash = 79 * hash + Objects.hashCode(namespace);
+      hash = 79 * hash + Objects.hashCode(name);
+      return hash;
+   }
+
+   /**
+    * Return the id of the key in its dictionary. Return -1 for keys which were not created by an {@link IRIDictionary}.
+    *
+    * @return the id
+    */
+   public int getId() {
+      return id;
+   }
+
+   /**
+    * Return true if the key was created by an {@link IRIDictionary}.
+    *
+    * @return true if the key was created by an IRI dictionary
+    */
+   public boolean isCanonical() {
+      return id != -1;
    }
 
    /**
@@ -141,9 +189,6 @@ public class ElementKey implements Comparable<ElementKey>, Cloneable, Serializab
 
    @Override
    public int hashCode() {
-      int hash = 3;
-      hash = 79 * hash + Objects.hashCode(this.namespace);
-      hash = 79 * hash + Objects.hashCode(this.name);
       return hash;
    }
 
@@ -168,6 +213,9 @@ public class ElementKey implements Comparable<ElementKey>, Cloneable, Serializab
          return false;
       }
       final ElementKey other = (ElementKey) obj;
+      if (hash != other.hash) {
+         return false;
+      }
       if (!Objects.equals(this.namespace, other.namespace)) {
          return false;
       }
@@ -0,0 +1,195 @@
+/*
+Copyright (c) 2021, 2023 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The groups of equivalent elements of a schema, kept in a union-find structure. Each group has one canonical representative,
+ * and the members of each group are kept in one list which is shared by all the members.
+ *
+ * @since 0.16
+ * @param <E> the type of the elements
+ */
+public class EquivalenceGroups<E extends NamedOwlElement> implements Serializable {
+   private static final long serialVersionUID = 1L;
+   private final Map<E, Integer> ids = new IdentityHashMap<>();
+   private final List<E> elements = new ArrayList<>();
+   private int[] parents = new int[16];
+   // the members of each group, only defined for the representatives
+   private final List<List<E>> members = new ArrayList<>();
+
+   public EquivalenceGroups() {
+   }
+
+   private int getId(E element) {
+      Integer id = ids.get(element);
+      if (id == null) {
+         id = elements.size();
+         ids.put(element, id);
+         elements.add(element);
+         if (id == parents.length) {
+            int[] newParents = new int[parents.length * 2];
+            System.arraycopy(parents, 0, newParents, 0, id);
+            parents = newParents;
+         }
+         parents[id] = id;
+         List<E> list = new ArrayList<>(1);
+         list.add(element);
+         members.add(list);
+      }
+      return id;
+   }
+
+   private int find(int id) {
+      int root = id;
+      while (parents[root] != root) {
+         root = parents[root];
+      }
+      // path compression
+      while (parents[id] != root) {
+         int next = parents[id];
+         parents[id] = root;
+         id = next;
+      }
+      return root;
+   }
+
+   /**
+    * Merge the groups of two elements.
+    *
+    * @param element the first element
+    * @param otherElement the second element
+    * @return true if the elements were not already in the same group
+    */
+   public synchronized boolean union(E element, E otherElement) {
+      int root = find(getId(element));
+      int otherRoot = find(getId(otherElement));
+      if (root == otherRoot) {
+         return false;
+      }
+      // the smallest group is merged in the largest one
+      if (members.get(root).size() < members.get(otherRoot).size()) {
+         int swap = root;
+         root = otherRoot;
+         otherRoot = swap;
+      }
+      parents[otherRoot] = root;
+      members.get(root).addAll(members.get(otherRoot));
+      members.set(otherRoot, null);
+      return true;
+   }
+
+   /**
+    * Return true if two elements are equivalent.
+    *
+    * @param element the first element
+    * @param otherElement the second element
+    * @return true if the elements are in the same group
+    */
+   public synchronized boolean isEquivalent(E element, E otherElement) {
+      Integer id = ids.get(element);
+      Integer otherId = ids.get(otherElement);
+      if (id == null || otherId == null) {
+         return element == otherElement;
+      }
+      return find(id) == find(otherId);
+   }
+
+   /**
+    * Return the canonical representative of the group of an element.
+    *
+    * @param element the element
+    * @return the representative, or the element itself if it is not equivalent to another element
+    */
+   public synchronized E getRepresentative(E element) {
+      Integer id = ids.get(element);
+      if (id == null) {
+         return element;
+      }
+      return elements.get(find(id));
+   }
+
+   /**
+    * Return the members of the group of an element, including the element itself. The list is a read-only view over the group.
+    *
+    * @param element the element
+    * @return the members of the group
+    */
+   public synchronized List<E> getGroup(E element) {
+      Integer id = ids.get(element);
+      if (id == null) {
+         return Collections.singletonList(element);
+      }
+      return Collections.unmodifiableList(members.get(find(id)));
+   }
+
+   /**
+    * Return the elements which are equivalent to an element, excluding the element itself.
+    *
+    * @param element the element
+    * @return the equivalent elements
+    */
+   public synchronized Map<ElementKey, E> getEquivalentElements(E element) {
+      List<E> group = getGroup(element);
+      Map<ElementKey, E> map = new LinkedHashMap<>(group.size());
+      for (int i = 0; i < group.size(); i++) {
+         E other = group.get(i);
+         if (other != element) {
+            map.put(other.getKey(), other);
+         }
+      }
+      return map;
+   }
+
+   /**
+    * Return the number of groups with more than one element.
+    *
+    * @return the number of groups
+    */
+   public synchronized int getGroupsCount() {
+      int count = 0;
+      for (int i = 0; i < elements.size(); i++) {
+         if (parents[i] == i) {
+            count++;
+         }
+      }
+      return count;
+   }
+}
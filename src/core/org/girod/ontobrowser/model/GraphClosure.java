@@ -0,0 +1,192 @@
+/*
+Copyright (c) 2021, 2023 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Computes the transitive closure of values over a graph given in the CSR (compressed sparse row) format.
+ *
+ * @since 0.16
+ */
+final class GraphClosure {
+   private GraphClosure() {
+   }
+
+   /**
+    * Compute for each node the union of its values and of the values of all the nodes which are reachable from it. The result of
+    * the successors of a component is always known when the component is processed, because the components are processed in
+    * the order in which they are completed, even if the graph has cycles. The nodes of a component share the same result.
+    *
+    * @param count the number of nodes
+    * @param offsets the offsets of the successors of each node in the targets array, of length <code>count + 1</code>
+    * @param targets the successors
+    * @param values the values of each node
+    * @return the result for each node
+    */
+   static BitSet[] compute(int count, int[] offsets, int[] targets, BitSet[] values) {
+      int[] component = getComponents(count, offsets, targets);
+      int componentsCount = getComponentsCount(component);
+      int[] memberOffsets = new int[componentsCount + 1];
+      int[] members = getMembers(component, componentsCount, memberOffsets);
+      BitSet[] sets = new BitSet[componentsCount];
+      for (int c = 0; c < componentsCount; c++) {
+         BitSet set = new BitSet();
+         for (int i = memberOffsets[c]; i < memberOffsets[c + 1]; i++) {
+            int member = members[i];
+            set.or(values[member]);
+            for (int j = offsets[member]; j < offsets[member + 1]; j++) {
+               int target = component[targets[j]];
+               if (target != c) {
+                  set.or(sets[target]);
+               }
+            }
+         }
+         sets[c] = set;
+      }
+      BitSet[] result = new BitSet[count];
+      for (int i = 0; i < count; i++) {
+         result[i] = sets[component[i]];
+      }
+      return result;
+   }
+
+   /**
+    * Compute the strongly connected components of a graph with an iterative version of the Tarjan algorithm. The components are
+    * numbered in the order in which they are completed, which is a reverse topological order: all the components which are
+    * reachable from a component have a lower number than the component.
+    *
+    * @param count the number of nodes
+    * @param offsets the offsets of the successors of each node in the targets array, of length <code>count + 1</code>
+    * @param targets the successors
+    * @return the component of each node
+    */
+   static int[] getComponents(int count, int[] offsets, int[] targets) {
+      int[] index = new int[count];
+      int[] lowLink = new int[count];
+      int[] component = new int[count];
+      int[] nextEdge = new int[count];
+      boolean[] onStack = new boolean[count];
+      int[] stack = new int[count];
+      int[] callStack = new int[count];
+      int stackSize = 0;
+      int nextIndex = 1;
+      int componentsCount = 0;
+      for (int root = 0; root < count; root++) {
+         if (index[root] != 0) {
+            continue;
+         }
+         int callSize = 0;
+         callStack[callSize++] = root;
+         index[root] = nextIndex;
+         lowLink[root] = nextIndex++;
+         nextEdge[root] = offsets[root];
+         stack[stackSize++] = root;
+         onStack[root] = true;
+         while (callSize > 0) {
+            int id = callStack[callSize - 1];
+            if (nextEdge[id] < offsets[id + 1]) {
+               int target = targets[nextEdge[id]];
+               nextEdge[id]++;
+               if (index[target] == 0) {
+                  index[target] = nextIndex;
+                  lowLink[target] = nextIndex++;
+                  nextEdge[target] = offsets[target];
+                  stack[stackSize++] = target;
+                  onStack[target] = true;
+                  callStack[callSize++] = target;
+               } else if (onStack[target]) {
+                  lowLink[id] = Math.min(lowLink[id], index[target]);
+               }
+            } else {
+               callSize--;
+               if (callSize > 0) {
+                  int parent = callStack[callSize - 1];
+                  lowLink[parent] = Math.min(lowLink[parent], lowLink[id]);
+               }
+               if (lowLink[id] == index[id]) {
+                  // the node is the root of a component, all the components which are reachable from it are already complete
+                  int start = stackSize;
+                  do {
+                     start--;
+                     onStack[stack[start]] = false;
+                     component[stack[start]] = componentsCount;
+                  } while (stack[start] != id);
+                  stackSize = start;
+                  componentsCount++;
+               }
+            }
+         }
+      }
+      return component;
+   }
+
+   /**
+    * Return the number of components.
+    *
+    * @param component the component of each node
+    * @return the number of components
+    */
+   static int getComponentsCount(int[] component) {
+      int componentsCount = 0;
+      for (int i = 0; i < component.length; i++) {
+         componentsCount = Math.max(componentsCount, component[i] + 1);
+      }
+      return componentsCount;
+   }
+
+   /**
+    * Return the nodes of each component, grouped by component.
+    *
+    * @param component the component of each node
+    * @param componentsCount the number of components
+    * @param memberOffsets the offsets of the nodes of each component in the result, of length <code>componentsCount + 1</code>,
+    * filled by this method
+    * @return the nodes grouped by component
+    */
+   static int[] getMembers(int[] component, int componentsCount, int[] memberOffsets) {
+      for (int i = 0; i < component.length; i++) {
+         memberOffsets[component[i] + 1]++;
+      }
+      for (int c = 0; c < componentsCount; c++) {
+         memberOffsets[c + 1] += memberOffsets[c];
+      }
+      int[] members = new int[component.length];
+      int[] next = Arrays.copyOf(memberOffsets, componentsCount);
+      for (int i = 0; i < component.length; i++) {
+         members[next[component[i]]++] = i;
+      }
+      return members;
+   }
+}
@@ -0,0 +1,202 @@
+/*
+Copyright (c) 2021, 2023 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A schema-scoped dictionary of IRIs. The dictionary hands out canonical {@link ElementKey} instances, each with an int id
+ * which is unique in the dictionary, and holds a shared table for the namespace strings.
+ *
+ * The lookup of an existing key does not allocate and does not lock, so the dictionary can be used by the parallel
+ * phases of the extraction.
+ *
+ * @since 0.16
+ */
+public class IRIDictionary implements Serializable {
+   private static final long serialVersionUID = 1L;
+   /**
+    * The key used in the namespaces table for elements without namespace.
+    */
+   private static final String NO_NAMESPACE = "";
+   /**
+    * The key used in the names tables for elements without name, such as anonymous resources. The character can not
+    * appear in an IRI, so it can not clash with an empty local name.
+    */
+   private static final String NO_NAME = "\u0000";
+   private final Map<String, Map<String, ElementKey>> keysByNamespace = new ConcurrentHashMap<>();
+   private final Map<String, Integer> namespaceIds = new ConcurrentHashMap<>();
+   private final List<String> namespaces = new ArrayList<>();
+   private final List<ElementKey> keys = new ArrayList<>();
+
+   public IRIDictionary() {
+   }
+
+   /**
+    * Return the canonical key for a namespace and a name.
+    *
+    * @param namespace the namespace (can be null)
+    * @param name the name (can be null)
+    * @return the canonical key
+    */
+   public ElementKey getKey(String namespace, String name) {
+      String nsKey = namespace == null ? NO_NAMESPACE : namespace;
+      Map<String, ElementKey> keysForNamespace = keysByNamespace.get(nsKey);
+      if (keysForNamespace != null) {
+         ElementKey key = keysForNamespace.get(name == null ? NO_NAME : name);
+         if (key != null) {
+            return key;
+         }
+      }
+      return createKey(namespace, name);
+   }
+
+   private synchronized ElementKey createKey(String namespace, String name) {
+      String nsKey = namespace == null ? NO_NAMESPACE : namespace;
+      Map<String, ElementKey> keysForNamespace = keysByNamespace.get(nsKey);
+      if (keysForNamespace == null) {
+         nsKey = addNamespace(nsKey);
+         keysForNamespace = new ConcurrentHashMap<>();
+         keysByNamespace.put(nsKey, keysForNamespace);
+      } else {
+         ElementKey key = keysForNamespace.get(name == null ? NO_NAME : name);
+         if (key != null) {
+            return key;
+         }
+      }
+      String canonicalNamespace = namespace == null ? null : namespaces.get(namespaceIds.get(nsKey));
+      ElementKey key = new ElementKey(canonicalNamespace, name, keys.size());
+      keys.add(key);
+      keysForNamespace.put(name == null ? NO_NAME : name, key);
+      return key;
+   }
+
+   private String addNamespace(String namespace) {
+      Integer id = namespaceIds.get(namespace);
+      if (id == null) {
+         namespaceIds.put(namespace, namespaces.size());
+         namespaces.add(namespace);
+         return namespace;
+      } else {
+         return namespaces.get(id);
+      }
+   }
+
+   /**
+    * Return the canonical key which is equal to a key. Return the key itself if it is already canonical for this
+    * dictionary.
+    *
+    * @param key the key
+    * @return the canonical key
+    */
+   public ElementKey getKey(ElementKey key) {
+      if (key.isCanonical() && getKey(key.getId()) == key) {
+         return key;
+      }
+      return getKey(key.getNamespace(), key.getName());
+   }
+
+   /**
+    * Return the canonical key for a full IRI. The IRI is split after the last '#', '/', or ':' character.
+    *
+    * @param iri the IRI
+    * @return the canonical key, or null if the IRI has no namespace part
+    */
+   public ElementKey getKeyFromIRI(String iri) {
+      int index = Math.max(iri.lastIndexOf('#'), Math.max(iri.lastIndexOf('/'), iri.lastIndexOf(':')));
+      if (index <= 0 || index == iri.length() - 1) {
+         return null;
+      }
+      return getKey(iri.substring(0, index + 1), iri.substring(index + 1));
+   }
+
+   /**
+    * Return the key with a specified id.
+    *
+    * @param id the id
+    * @return the key, or null if there is no key with this id
+    */
+   public synchronized ElementKey getKey(int id) {
+      if (id < 0 || id >= keys.size()) {
+         return null;
+      }
+      return keys.get(id);
+   }
+
+   /**
+    * Return the id of a namespace in the namespaces table.
+    *
+    * @param namespace the namespace (can be null)
+    * @return the id, or -1 if the namespace is not in the table
+    */
+   public int getNamespaceId(String namespace) {
+      Integer id = namespaceIds.get(namespace == null ? NO_NAMESPACE : namespace);
+      return id == null ? -1 : id;
+   }
+
+   /**
+    * Return the namespace with a specified id in the namespaces table.
+    *
+    * @param id the id
+    * @return the namespace, or null if there is no namespace with this id
+    */
+   public synchronized String getNamespace(int id) {
+      if (id < 0 || id >= namespaces.size()) {
+         return null;
+      }
+      String namespace = namespaces.get(id);
+      return namespace.equals(NO_NAMESPACE) ? null : namespace;
+   }
+
+   /**
+    * Return the number of keys in the dictionary.
+    *
+    * @return the number of keys
+    */
+   public synchronized int size() {
+      return keys.size();
+   }
+
+   /**
+    * Return the number of namespaces in the namespaces table.
+    *
+    * @return the number of namespaces
+    */
+   public synchronized int getNamespacesCount() {
+      return namespaces.size();
+   }
+}
@@ -0,0 +1,161 @@
+/*
+Copyright (c) 2021, 2023 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.model;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The properties which are inherited by the classes of a {@link SchemaGraph}, for a combination of the
+ * {@link ElementFilter#includeParentRelations} and {@link ElementFilter#includeAlias} flags. A class inherits the properties of the
+ * classes which are reachable from it through its superclasses or alias classes, excluding the Thing class.
+ *
+ * The inherited properties of all the classes are computed once in bottom-up topological order. The maps for a class are only
+ * created when they are requested, and are shared between the callers, so they must not be modified.
+ *
+ * @since 0.16
+ */
+public class InheritedMembers {
+   private final SchemaGraph graph;
+   private final BitSet[] domainProperties;
+   private final BitSet[] rangeProperties;
+   private final Map<ElementKey, OwlProperty>[] domainMaps;
+   private final Map<ElementKey, OwlProperty>[] rangeMaps;
+   private final Map<ElementKey, OwlProperty>[] dataMaps;
+
+   @SuppressWarnings("unchecked")
+   InheritedMembers(SchemaGraph graph, boolean includeParentRelations, boolean includeAlias) {
+      this.graph = graph;
+      int count = graph.getClassesCount();
+      SchemaGraph.Relation superClasses = graph.getClassRelation(SchemaGraph.SUPER_CLASSES);
+      SchemaGraph.Relation aliasClasses = graph.getClassRelation(SchemaGraph.ALIAS_CLASSES);
+      int[] offsets = new int[count + 1];
+      int[] targets = new int[16];
+      int size = 0;
+      for (int i = 0; i < count; i++) {
+         int degree = (includeParentRelations ? superClasses.getDegree(i) : 0) + (includeAlias ? aliasClasses.getDegree(i) : 0);
+         if (size + degree > targets.length) {
+            int[] newTargets = new int[Math.max(size + degree, targets.length * 2)];
+            System.arraycopy(targets, 0, newTargets, 0, size);
+            targets = newTargets;
+         }
+         if (includeParentRelations) {
+            size = addTargets(superClasses, i, targets, size);
+         }
+         if (includeAlias) {
+            size = addTargets(aliasClasses, i, targets, size);
+         }
+         offsets[i + 1] = size;
+      }
+      this.domainProperties = GraphClosure.compute(count, offsets, targets, getValues(graph.getClassRelation(SchemaGraph.DOMAIN_PROPERTIES)));
+      this.rangeProperties = GraphClosure.compute(count, offsets, targets, getValues(graph.getClassRelation(SchemaGraph.RANGE_PROPERTIES)));
+      this.domainMaps = new Map[count];
+      this.rangeMaps = new Map[count];
+      this.dataMaps = new Map[count];
+   }
+
+   private int addTargets(SchemaGraph.Relation relation, int id, int[] targets, int size) {
+      for (int i = relation.getStart(id); i < relation.getEnd(id); i++) {
+         int target = relation.getTarget(i);
+         if (!graph.getOwlClass(target).isThing()) {
+            targets[size] = target;
+            size++;
+         }
+      }
+      return size;
+   }
+
+   private BitSet[] getValues(SchemaGraph.Relation relation) {
+      int count = graph.getClassesCount();
+      BitSet[] values = new BitSet[count];
+      for (int i = 0; i < count; i++) {
+         values[i] = new BitSet();
+         for (int j = relation.getStart(i); j < relation.getEnd(i); j++) {
+            values[i].set(relation.getTarget(j));
+         }
+      }
+      return values;
+   }
+
+   private Map<ElementKey, OwlProperty> createMap(BitSet set, boolean isObjectProperty) {
+      Map<ElementKey, OwlProperty> map = new HashMap<>();
+      for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+         OwlProperty property = graph.getOwlProperty(i);
+         if (isObjectProperty ? property instanceof OwlObjectProperty : property instanceof OwlDatatypeProperty) {
+            map.put(property.getKey(), property);
+         }
+      }
+      return Collections.unmodifiableMap(map);
+   }
+
+   /**
+    * Return the object properties for which a class or one of the classes from which it inherits are in their domain.
+    *
+    * @param id the id of the class in the graph
+    * @return the properties
+    */
+   public synchronized Map<ElementKey, OwlProperty> getDomainProperties(int id) {
+      if (domainMaps[id] == null) {
+         domainMaps[id] = createMap(domainProperties[id], true);
+      }
+      return domainMaps[id];
+   }
+
+   /**
+    * Return the object properties for which a class or one of the classes from which it inherits are in their range.
+    *
+    * @param id the id of the class in the graph
+    * @return the properties
+    */
+   public synchronized Map<ElementKey, OwlProperty> getRangeProperties(int id) {
+      if (rangeMaps[id] == null) {
+         rangeMaps[id] = createMap(rangeProperties[id], true);
+      }
+      return rangeMaps[id];
+   }
+
+   /**
+    * Return the datatype properties for which a class or one of the classes from which it inherits are in their domain.
+    *
+    * @param id the id of the class in the graph
+    * @return the properties
+    */
+   public synchronized Map<ElementKey, OwlProperty> getDataProperties(int id) {
+      if (dataMaps[id] == null) {
+         dataMaps[id] = createMap(domainProperties[id], false);
+      }
+      return dataMaps[id];
+   }
+}
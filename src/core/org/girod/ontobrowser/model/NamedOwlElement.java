@@ -32,14 +32,18 @@ the project website at the project page on https://github.com/hervegirod/ontolog
  */
 package org.girod.ontobrowser.model;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.rdf.model.Resource;
 
 /**
  * Represents a named Owl element.
  *
- * @version 0.11
+ * @version 0.16
  * @param <T> the element type
  */
 public abstract class NamedOwlElement<T extends NamedOwlElement> extends AnnotatedElement implements NamedElement, Cloneable {
@@ -58,6 +62,10 @@ public abstract class NamedOwlElement<T extends NamedOwlElement> extends Annotat
    private ElementKey key = null;
    private boolean isForeign = false;
    private final Map<ElementKey, OwlClass> inEquivalentExpressions = new HashMap<>();
+   /**
+    * The URI of the underlying Jena resource, kept when the element is serialized.
+    */
+   private String resourceURI = null;
 
    public NamedOwlElement(String namespace, String name, String prefix) {
       super();
@@ -146,6 +154,51 @@ public abstract class NamedOwlElement<T extends NamedOwlElement> extends Annotat
       }
    }
 
+   /**
+    * Return the underlying Jena resource. Return null by default.
+    *
+    * @return the resource
+    */
+   protected Resource getResource() {
+      return null;
+   }
+
+   /**
+    * Return the URI of the underlying Jena resource, as it was when the element was serialized.
+    *
+    * @return the URI
+    */
+   String getResourceURI() {
+      return resourceURI;
+   }
+
+   /**
+    * Attach the element to the resource of a model, when the element has been deserialized without its Jena resource. Does nothing by default.
+    *
+    * @param model the model
+    */
+   void attach(OntModel model) {
+   }
+
+   /**
+    * Detach the element from its Jena resource, so that the model can be released. The URI of the resource is kept so that the
+    * element can be attached again later.
+    */
+   void detach() {
+      Resource resource = getResource();
+      if (resource != null) {
+         resourceURI = resource.getURI();
+      }
+   }
+
+   private void writeObject(ObjectOutputStream out) throws IOException {
+      Resource resource = getResource();
+      if (resource != null) {
+         resourceURI = resource.getURI();
+      }
+      out.defaultWriteObject();
+   }
+
    void addInEquivalentExpression(OwlClass owlClass) {
       inEquivalentExpressions.put(owlClass.getKey(), owlClass);
    }
@@ -239,4 +292,13 @@ public abstract class NamedOwlElement<T extends NamedOwlElement> extends Annotat
       }
       return key;
    }
+
+   /**
+    * Set the element key. Used by the schema to replace the key by its canonical instance.
+    *
+    * @param key the key
+    */
+   void setKey(ElementKey key) {
+      this.key = key;
+   }
 }
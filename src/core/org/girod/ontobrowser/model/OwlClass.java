@@ -40,29 +40,35 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.apache.jena.ontology.OntClass;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.rdf.model.Resource;
 import org.girod.ontobrowser.model.restriction.OwlRestriction;
 
 /**
  * Represents an Owl class.
  *
- * @version 0.13
+ * @version 0.16
  */
 public class OwlClass extends NamedOwlElement<OwlClass> {
    private final Map<ElementKey, Set<PropertyClassRef>> fromDomain = new HashMap<>();
    private final Map<ElementKey, Set<PropertyClassRef>> toRange = new HashMap<>();
-   private final Map<ElementKey, OwlClass> superClasses = new HashMap<>();
-   private final Map<ElementKey, OwlClass> subClasses = new HashMap<>();
+   private Map<ElementKey, OwlClass> superClasses = new HashMap<>();
+   private Map<ElementKey, OwlClass> subClasses = new HashMap<>();
    private boolean hasDefinedSuperClass = false;
-   private OntClass ontClass = null;
+   private transient OntClass ontClass = null;
    private char packageType = PackageType.UNDEFINED;
    private ElementKey packageKey = null;
    private Set<ElementKey> packageList = null;
    private final Map<ElementKey, OwlIndividual> individuals = new HashMap<>();
-   private final Map<ElementKey, OwlProperty> properties = new HashMap<>();
-   private final Map<ElementKey, OwlObjectProperty> toProperties = new HashMap<>();
-   private final Map<ElementKey, OwlClass> aliasClasses = new HashMap<>();
-   private final Map<ElementKey, OwlClass> classFromAlias = new HashMap<>();
+   private Map<ElementKey, OwlProperty> properties = new HashMap<>();
+   private Map<ElementKey, OwlObjectProperty> toProperties = new HashMap<>();
+   private Map<ElementKey, OwlClass> aliasClasses = new HashMap<>();
+   private Map<ElementKey, OwlClass> classFromAlias = new HashMap<>();
    private final List<OwlEquivalentExpression> equivalentExpressions = new ArrayList<>();
+   private SchemaGraph schemaGraph = null;
+   private int graphId = -1;
+   private transient ClassHierarchy classHierarchy = null;
+   private transient int classHierarchyId = -1;
 
    public OwlClass(OntClass ontClass) {
       super(ontClass.getNameSpace(), ontClass.getLocalName());
@@ -87,6 +93,114 @@ public class OwlClass extends NamedOwlElement<OwlClass> {
       return ontClass;
    }
 
+   @Override
+   protected Resource getResource() {
+      return ontClass;
+   }
+
+   @Override
+   void attach(OntModel model) {
+      String uri = getResourceURI();
+      if (ontClass == null && uri != null) {
+         ontClass = model.getOntClass(uri);
+      }
+   }
+
+   @Override
+   void detach() {
+      super.detach();
+      ontClass = null;
+   }
+
+   /**
+    * Bind this class to the compact graph of the schema. The relations of the class become views over the graph.
+    *
+    * @param schemaGraph the graph
+    * @param graphId the id of the class in the graph
+    */
+   void bind(SchemaGraph schemaGraph, int graphId) {
+      this.schemaGraph = schemaGraph;
+      this.graphId = graphId;
+      superClasses = null;
+      subClasses = null;
+      properties = null;
+      toProperties = null;
+      aliasClasses = null;
+      classFromAlias = null;
+   }
+
+   /**
+    * Unbind this class from the compact graph of the schema before modifying one of its relations.
+    */
+   private void unbind() {
+      if (schemaGraph != null) {
+         superClasses = new HashMap<>(getSuperClasses());
+         subClasses = new HashMap<>(getSubClasses());
+         properties = new HashMap<>(getOwlProperties());
+         toProperties = new HashMap<>(getRangeOwlProperties());
+         aliasClasses = new HashMap<>(getAliasClasses());
+         classFromAlias = new HashMap<>(getFromAliasClasses());
+         schemaGraph.setStale();
+         schemaGraph = null;
+         graphId = -1;
+      }
+   }
+
+   /**
+    * Return the compact graph to which this class is bound.
+    *
+    * @return the graph, or null if the class is not bound to a graph
+    */
+   public SchemaGraph getSchemaGraph() {
+      return schemaGraph;
+   }
+
+   /**
+    * Return the id of this class in the compact graph to which it is bound.
+    *
+    * @return the id, or -1 if the class is not bound to a graph
+    */
+   public int getGraphId() {
+      return graphId;
+   }
+
+   /**
+    * Set the hierarchy index to which this class belongs.
+    *
+    * @param classHierarchy the index
+    * @param classHierarchyId the id of the class in the index
+    */
+   void setClassHierarchy(ClassHierarchy classHierarchy, int classHierarchyId) {
+      this.classHierarchy = classHierarchy;
+      this.classHierarchyId = classHierarchyId;
+   }
+
+   /**
+    * Return the hierarchy index to which this class belongs.
+    *
+    * @return the index, or null if the class is not in an index
+    */
+   public ClassHierarchy getClassHierarchy() {
+      return classHierarchy;
+   }
+
+   /**
+    * Return the id of this class in the hierarchy index.
+    *
+    * @return the id, or -1 if the class is not in an index
+    */
+   public int getClassHierarchyId() {
+      return classHierarchyId;
+   }
+
+   private <V extends NamedOwlElement> Map<ElementKey, V> getRelation(Map<ElementKey, V> map, int relation) {
+      if (schemaGraph == null) {
+         return map;
+      } else {
+         return schemaGraph.getClassView(graphId, relation);
+      }
+   }
+
    /**
     * Return true if this Class is the Thing class.
     *
@@ -239,7 +353,13 @@ public class OwlClass extends NamedOwlElement<OwlClass> {
     * @param thingKey the Thing key
     */
    public void addSuperClass(ElementKey superClassKey, OwlClass owlClass, ElementKey thingKey) {
+      unbind();
       superClasses.put(superClassKey, owlClass);
+      if (classHierarchy != null) {
+         classHierarchy.addSubClassOf(this, owlClass);
+      } else if (owlClass.classHierarchy != null) {
+         owlClass.classHierarchy.addSubClassOf(this, owlClass);
+      }
       if (thingKey == null) {
          hasDefinedSuperClass = true;
          if (owlClass.isInUniquePackage()) {
@@ -259,7 +379,7 @@ public class OwlClass extends NamedOwlElement<OwlClass> {
     * @return the superclasses
     */
    public Map<ElementKey, OwlClass> getSuperClasses() {
-      return superClasses;
+      return getRelation(superClasses, SchemaGraph.SUPER_CLASSES);
    }
 
    /**
@@ -268,7 +388,7 @@ public class OwlClass extends NamedOwlElement<OwlClass> {
     * @return true if this Owl class has superclasses
     */
    public boolean hasSuperClasses() {
-      return !superClasses.isEmpty();
+      return !getSuperClasses().isEmpty();
    }
 
    /**
@@ -277,7 +397,7 @@ public class OwlClass extends NamedOwlElement<OwlClass> {
     * @return the number of superclasses
     */
    public int countSuperClasses() {
-      return superClasses.size();
+      return getSuperClasses().size();
    }
 
    /**
@@ -286,10 +406,11 @@ public class OwlClass extends NamedOwlElement<OwlClass> {
     * @return the first found superclass
     */
    public OwlClass getFirstSuperClass() {
-      if (superClasses.isEmpty()) {
+      Map<ElementKey, OwlClass> map = getSuperClasses();
+      if (map.isEmpty()) {
          return null;
       } else {
-         return superClasses.values().iterator().next();
+         return map.values().iterator().next();
       }
    }
 
@@ -300,6 +421,7 @@ public class OwlClass extends NamedOwlElement<OwlClass> {
     * @param owlClass the subClass
     */
    public void addSubClass(ElementKey key, OwlClass owlClass) {
+      unbind();
       subClasses.put(key, owlClass);
    }
 
@@ -309,7 +431,7 @@ public class OwlClass extends NamedOwlElement<OwlClass> {
     * @return the subclasses
     */
    public Map<ElementKey, OwlClass> getSubClasses() {
-      return subClasses;
+      return getRelation(subClasses, SchemaGraph.SUB_CLASSES);
    }
 
    /**
@@ -318,7 +440,7 @@ public class OwlClass extends NamedOwlElement<OwlClass> {
     * @return true if this Owl class has subclasses
     */
    public boolean hasSubClasses() {
-      return !subClasses.isEmpty();
+      return !getSubClasses().isEmpty();
    }
 
    /**
@@ -380,6 +502,7 @@ public class OwlClass extends NamedOwlElement<OwlClass> {
     * @param owlProperty the property
     */
    public void addOwlProperty(OwlSchema schema, OwlProperty owlProperty) {
+      unbind();
       properties.put(owlProperty.getKey(), owlProperty);
       if (owlProperty instanceof OwlObjectProperty) {
          OwlObjectProperty objectProperty = (OwlObjectProperty) owlProperty;
@@ -389,6 +512,7 @@ public class OwlClass extends NamedOwlElement<OwlClass> {
             ElementKey key = it.next();
             if (schema.hasOwlClass(key)) {
                OwlClass owlClass = schema.getOwlClass(key);
+               owlClass.unbind();
                owlClass.toProperties.put(owlProperty.getKey(), objectProperty);
             }
          }
@@ -401,6 +525,8 @@ public class OwlClass extends NamedOwlElement<OwlClass> {
     * @param aliasClass the equivalent class
     */
    public void addEquivalentClass(OwlClass aliasClass) {
+      unbind();
+      aliasClass.unbind();
       this.aliasClasses.put(aliasClass.getKey(), aliasClass);
       aliasClass.classFromAlias.put(getKey(), this);
    }
@@ -458,7 +584,7 @@ public class OwlClass extends NamedOwlElement<OwlClass> {
     * @return the alias classes
     */
    public Map<ElementKey, OwlClass> getAliasClasses() {
-      return aliasClasses;
+      return getRelation(aliasClasses, SchemaGraph.ALIAS_CLASSES);
    }
 
    /**
@@ -467,7 +593,7 @@ public class OwlClass extends NamedOwlElement<OwlClass> {
     * @return true if this Class has Aliases
     */
    public boolean hasAliasClasses() {
-      return !aliasClasses.isEmpty();
+      return !getAliasClasses().isEmpty();
    }
 
    /**
@@ -476,7 +602,7 @@ public class OwlClass extends NamedOwlElement<OwlClass> {
     * @return the equivalent classes
     */
    public Map<ElementKey, OwlClass> getFromAliasClasses() {
-      return classFromAlias;
+      return getRelation(classFromAlias, SchemaGraph.FROM_ALIAS_CLASSES);
    }
 
    /**
@@ -485,7 +611,7 @@ public class OwlClass extends NamedOwlElement<OwlClass> {
     * @return true if this Class has from Aliases
     */
    public boolean hasFromAliasedClasses() {
-      return !classFromAlias.isEmpty();
+      return !getFromAliasClasses().isEmpty();
    }
 
    /**
@@ -494,7 +620,7 @@ public class OwlClass extends NamedOwlElement<OwlClass> {
     * @return true if this Class has any Aliases
     */
    public boolean hasAnyAliasedClasses() {
-      return !classFromAlias.isEmpty() || !aliasClasses.isEmpty();
+      return !getFromAliasClasses().isEmpty() || !getAliasClasses().isEmpty();
    }
 
    /**
@@ -503,7 +629,7 @@ public class OwlClass extends NamedOwlElement<OwlClass> {
     * @return true if this class has Owl Properties
     */
    public boolean hasOwlProperties() {
-      return !properties.isEmpty();
+      return !getOwlProperties().isEmpty();
    }
 
    /**
@@ -512,7 +638,7 @@ public class OwlClass extends NamedOwlElement<OwlClass> {
     * @return the Owl properties for which this class is the domain of the property
     */
    public Map<ElementKey, OwlProperty> getOwlProperties() {
-      return properties;
+      return getRelation(properties, SchemaGraph.DOMAIN_PROPERTIES);
    }
 
    /**
@@ -530,11 +656,11 @@ public class OwlClass extends NamedOwlElement<OwlClass> {
     * @return the Owl properties for which this class is the range of the property
     */
    public Map<ElementKey, OwlObjectProperty> getRangeOwlProperties() {
-      return toProperties;
+      return getRelation(toProperties, SchemaGraph.RANGE_PROPERTIES);
    }
 
    public OwlProperty getOwlProperty(ElementKey key) {
-      return properties.get(key);
+      return getOwlProperties().get(key);
    }
 
    /**
@@ -543,7 +669,7 @@ public class OwlClass extends NamedOwlElement<OwlClass> {
     * @return true if this class has equivalent expressions.
     */
    public boolean isEquivalentClass() {
-      return !aliasClasses.isEmpty() || !classFromAlias.isEmpty() || !equivalentExpressions.isEmpty();
+      return hasAnyAliasedClasses() || !equivalentExpressions.isEmpty();
    }
 
    /**
@@ -553,7 +679,7 @@ public class OwlClass extends NamedOwlElement<OwlClass> {
     */
    @Override
    public boolean hasAliasElements() {
-      return !aliasClasses.isEmpty() || !classFromAlias.isEmpty();
+      return hasAnyAliasedClasses();
    }
 
    /**
@@ -567,8 +693,8 @@ public class OwlClass extends NamedOwlElement<OwlClass> {
          return null;
       }
       Map<ElementKey, OwlClass> map = new HashMap<>();
-      map.putAll(aliasClasses);
-      map.putAll(classFromAlias);
+      map.putAll(getAliasClasses());
+      map.putAll(getFromAliasClasses());
       return map;
    }
 
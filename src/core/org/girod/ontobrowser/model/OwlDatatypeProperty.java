@@ -35,11 +35,12 @@ package org.girod.ontobrowser.model;
 import java.util.HashMap;
 import java.util.Map;
 import org.apache.jena.ontology.DatatypeProperty;
+import org.apache.jena.rdf.model.Resource;
 
 /**
  * Represents an Owl Datatype property.
  *
- * @version 0.13
+ * @version 0.16
  */
 public class OwlDatatypeProperty extends OwlProperty<DatatypeProperty> {
    private final Map<ElementKey, OwlDatatype> types = new HashMap<>();
@@ -48,6 +49,11 @@ public class OwlDatatypeProperty extends OwlProperty<DatatypeProperty> {
       super(ontProperty, namespace, name);
    }
 
+   @Override
+   protected DatatypeProperty toOntProperty(Resource resource) {
+      return resource.as(DatatypeProperty.class);
+   }
+
    public void addType(OwlDatatype type) {
       types.put(type.getKey(), type);
    }
@@ -34,11 +34,12 @@ package org.girod.ontobrowser.model;
 
 import java.util.Map;
 import org.apache.jena.ontology.Individual;
+import org.apache.jena.ontology.OntModel;
 
 /**
  * Represents a declared Individual.
  *
- * @version 0.13
+ * @version 0.16
  */
 public class OwlDeclaredIndividual extends OwlIndividual<Individual> {
    
@@ -64,5 +65,10 @@ public class OwlDeclaredIndividual extends OwlIndividual<Individual> {
    
    public OwlDeclaredIndividual(Map<ElementKey, OwlClass> parentClasses, Individual individual, String namespace) {
       super(parentClasses, individual, namespace);
-   }    
+   }
+
+   @Override
+   protected Individual toIndividual(OntModel model, String uri) {
+      return model.getIndividual(uri);
+   }
 }
@@ -32,6 +32,7 @@ the project website at the project page on https://github.com/hervegirod/ontolog
  */
 package org.girod.ontobrowser.model;
 
+import java.io.Serializable;
 import java.net.URI;
 import java.util.Map;
 
@@ -40,7 +41,7 @@ import java.util.Map;
  *
  * @since 0.8
  */
-public interface OwlDeclaredSchema {
+public interface OwlDeclaredSchema extends Serializable {
    /**
     * Return true if the schema has a name.
     *
@@ -32,6 +32,7 @@ the project website at the project page on https://github.com/hervegirod/ontolog
  */
 package org.girod.ontobrowser.model;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -45,7 +46,7 @@ import org.apache.jena.ontology.UnionClass;
  *
  * @since 0.7
  */
-public class OwlEquivalentExpression {
+public class OwlEquivalentExpression implements Serializable {
    /**
     * The Intersection type.
     */
@@ -37,20 +37,23 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import org.apache.jena.ontology.OntModel;
 import org.apache.jena.rdf.model.Resource;
 
 /**
  * Represents an Individual.
  *
- * @version 0.13
+ * @version 0.16
  * @param <I> the type of the underlying class
  */
 public class OwlIndividual<I extends Resource> extends NamedOwlElement<OwlIndividual> {
-   private final I individual;
+   private transient I individual;
    private final Map<ElementKey, OwlClass> parentClasses;
-   private final Map<ElementKey, List<ObjectPropertyValue>> objectPropertyValues = new HashMap<>();
-   private final Map<ElementKey, List<ObjectPropertyValue>> objectTargetPropertyValues = new HashMap<>();
-   private final Map<ElementKey, List<DatatypePropertyValue>> datatypePropertyValues = new HashMap<>();
+   private Map<ElementKey, List<ObjectPropertyValue>> objectPropertyValues = new HashMap<>();
+   private Map<ElementKey, List<ObjectPropertyValue>> objectTargetPropertyValues = new HashMap<>();
+   private Map<ElementKey, List<DatatypePropertyValue>> datatypePropertyValues = new HashMap<>();
+   private PropertyAssertions assertions = null;
+   private int assertionsId = -1;
 
    public OwlIndividual(I individual) {
       this(individual, individual.getNameSpace());
@@ -94,6 +97,75 @@ public class OwlIndividual<I extends Resource> extends NamedOwlElement<OwlIndivi
       return individual;
    }
 
+   @Override
+   protected Resource getResource() {
+      return individual;
+   }
+
+   /**
+    * Return the resource of a model with a specified URI, converted to the type of the underlying individual.
+    *
+    * @param model the model
+    * @param uri the URI
+    * @return the individual
+    */
+   @SuppressWarnings("unchecked")
+   protected I toIndividual(OntModel model, String uri) {
+      return (I) model.getResource(uri);
+   }
+
+   @Override
+   void attach(OntModel model) {
+      String uri = getResourceURI();
+      if (individual == null && uri != null) {
+         individual = toIndividual(model, uri);
+      }
+   }
+
+   @Override
+   void detach() {
+      super.detach();
+      individual = null;
+   }
+
+   /**
+    * Bind this individual to the property assertions store of the schema. The property values of the individual are then views over
+    * the store.
+    *
+    * @param assertions the store
+    * @param id the id of the individual in the store
+    */
+   void bind(PropertyAssertions assertions, int id) {
+      this.assertions = assertions;
+      this.assertionsId = id;
+      this.objectPropertyValues = null;
+      this.objectTargetPropertyValues = null;
+      this.datatypePropertyValues = null;
+   }
+
+   /**
+    * Unbind this individual from the property assertions store, before modifying its property values. The store is marked as stale.
+    */
+   private void unbind() {
+      if (assertions != null) {
+         objectPropertyValues = new HashMap<>(assertions.getObjectPropertyValues(assertionsId));
+         objectTargetPropertyValues = new HashMap<>(assertions.getObjectTargetPropertyValues(assertionsId));
+         datatypePropertyValues = new HashMap<>(assertions.getDatatypePropertyValues(assertionsId));
+         assertions.setStale();
+         assertions = null;
+         assertionsId = -1;
+      }
+   }
+
+   /**
+    * Return the property assertions store to which this individual is bound, or null if the individual is not bound to a store.
+    *
+    * @return the store
+    */
+   public PropertyAssertions getPropertyAssertions() {
+      return assertions;
+   }
+
    private void updateNameSpace() {
       if (namespace == null && !parentClasses.isEmpty()) {
          String _namespace = null;
@@ -134,6 +206,8 @@ public class OwlIndividual<I extends Resource> extends NamedOwlElement<OwlIndivi
     * @param value the value
     */
    public void addObjectPropertyValue(ObjectPropertyValue value) {
+      unbind();
+      value.getTarget().unbind();
       ElementKey theKey = value.getKey();
       List<ObjectPropertyValue> values;
       if (objectPropertyValues.containsKey(theKey)) {
@@ -161,7 +235,7 @@ public class OwlIndividual<I extends Resource> extends NamedOwlElement<OwlIndivi
     * @return true if this class has property values
     */
    public boolean hasPropertyValues() {
-      return !objectPropertyValues.isEmpty() || !datatypePropertyValues.isEmpty();
+      return hasObjectPropertyValues() || hasDatatypePropertyValues();
    }
 
    /**
@@ -170,6 +244,9 @@ public class OwlIndividual<I extends Resource> extends NamedOwlElement<OwlIndivi
     * @return true if this class has data property values
     */
    public boolean hasDatatypePropertyValues() {
+      if (assertions != null) {
+         return assertions.hasDatatypePropertyValues(assertionsId, null);
+      }
       return !datatypePropertyValues.isEmpty();
    }
    
@@ -180,6 +257,9 @@ public class OwlIndividual<I extends Resource> extends NamedOwlElement<OwlIndivi
     * @return true if this class has data property values for a specified key
     */
    public boolean hasDatatypePropertyValues(ElementKey propertyKey) {
+      if (assertions != null) {
+         return assertions.hasDatatypePropertyValues(assertionsId, propertyKey);
+      }
       return datatypePropertyValues.containsKey(propertyKey);
    }   
 
@@ -189,6 +269,9 @@ public class OwlIndividual<I extends Resource> extends NamedOwlElement<OwlIndivi
     * @return true if this class has object property values
     */
    public boolean hasObjectPropertyValues() {
+      if (assertions != null) {
+         return assertions.hasObjectPropertyValues(assertionsId, null);
+      }
       return !objectPropertyValues.isEmpty();
    }
 
@@ -199,6 +282,9 @@ public class OwlIndividual<I extends Resource> extends NamedOwlElement<OwlIndivi
     * @return true if this class has object property values for a specified key
     */
    public boolean hasObjectPropertyValues(ElementKey propertyKey) {
+      if (assertions != null) {
+         return assertions.hasObjectPropertyValues(assertionsId, propertyKey);
+      }
       return objectPropertyValues.containsKey(propertyKey);
    }
 
@@ -208,6 +294,9 @@ public class OwlIndividual<I extends Resource> extends NamedOwlElement<OwlIndivi
     * @return true if this class has object target property values
     */
    public boolean hasObjectTargetPropertyValues() {
+      if (assertions != null) {
+         return assertions.hasObjectTargetPropertyValues(assertionsId);
+      }
       return !objectTargetPropertyValues.isEmpty();
    }
 
@@ -217,6 +306,9 @@ public class OwlIndividual<I extends Resource> extends NamedOwlElement<OwlIndivi
     * @return the object property values
     */
    public Map<ElementKey, List<ObjectPropertyValue>> getObjectPropertyValues() {
+      if (assertions != null) {
+         return assertions.getObjectPropertyValues(assertionsId);
+      }
       return objectPropertyValues;
    }
 
@@ -226,6 +318,9 @@ public class OwlIndividual<I extends Resource> extends NamedOwlElement<OwlIndivi
     * @return the object target property values
     */
    public Map<ElementKey, List<ObjectPropertyValue>> getObjectTargetPropertyValues() {
+      if (assertions != null) {
+         return assertions.getObjectTargetPropertyValues(assertionsId);
+      }
       return objectTargetPropertyValues;
    }
 
@@ -235,6 +330,7 @@ public class OwlIndividual<I extends Resource> extends NamedOwlElement<OwlIndivi
     * @param value the value
     */
    public void addDatatypePropertyValue(DatatypePropertyValue value) {
+      unbind();
       ElementKey theKey = value.getKey();
       List<DatatypePropertyValue> values;
       if (datatypePropertyValues.containsKey(theKey)) {
@@ -252,6 +348,9 @@ public class OwlIndividual<I extends Resource> extends NamedOwlElement<OwlIndivi
     * @return the datatype propety values
     */
    public Map<ElementKey, List<DatatypePropertyValue>> getDatatypePropertyValues() {
+      if (assertions != null) {
+         return assertions.getDatatypePropertyValues(assertionsId);
+      }
       return datatypePropertyValues;
    }
 
@@ -262,10 +361,11 @@ public class OwlIndividual<I extends Resource> extends NamedOwlElement<OwlIndivi
     * @return the datatype property values
     */
    public List<? extends PropertyValue> getPropertyValues(ElementKey key) {
-      if (datatypePropertyValues.containsKey(key)) {
-         return datatypePropertyValues.get(key);
+      Map<ElementKey, List<DatatypePropertyValue>> datatypeValues = getDatatypePropertyValues();
+      if (datatypeValues.containsKey(key)) {
+         return datatypeValues.get(key);
       } else {
-         return objectPropertyValues.get(key);
+         return getObjectPropertyValues().get(key);
       }
    }
 
@@ -273,7 +373,7 @@ public class OwlIndividual<I extends Resource> extends NamedOwlElement<OwlIndivi
    public void accept(ElementVisitor visitor) {
       boolean cont = visitor.visit(this);
       if (cont) {
-         Iterator<List<ObjectPropertyValue>> it = objectPropertyValues.values().iterator();
+         Iterator<List<ObjectPropertyValue>> it = getObjectPropertyValues().values().iterator();
          while (it.hasNext()) {
             List<ObjectPropertyValue> values = it.next();
             Iterator<ObjectPropertyValue> it2 = values.iterator();
@@ -282,7 +382,7 @@ public class OwlIndividual<I extends Resource> extends NamedOwlElement<OwlIndivi
                theValue.accept(visitor);
             }
          }
-         Iterator<List<DatatypePropertyValue>> it2 = datatypePropertyValues.values().iterator();
+         Iterator<List<DatatypePropertyValue>> it2 = getDatatypePropertyValues().values().iterator();
          while (it2.hasNext()) {
             List<DatatypePropertyValue> values = it2.next();
             Iterator<DatatypePropertyValue> it3 = values.iterator();
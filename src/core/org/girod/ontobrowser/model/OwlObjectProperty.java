@@ -36,13 +36,14 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import org.apache.jena.ontology.ObjectProperty;
+import org.apache.jena.rdf.model.Resource;
 import org.girod.ontobrowser.model.restriction.OwlRestriction;
 import org.girod.ontobrowser.model.restriction.UnrestrictedOwlRestriction;
 
 /**
  * Represents an Owl Object property.
  *
- * @version 0.11
+ * @version 0.16
  */
 public class OwlObjectProperty extends OwlProperty<ObjectProperty> {
    private final Map<ElementKey, OwlRestriction> range = new HashMap<>();
@@ -52,6 +53,11 @@ public class OwlObjectProperty extends OwlProperty<ObjectProperty> {
       super(ontProperty, namespace, name);
    }
 
+   @Override
+   protected ObjectProperty toOntProperty(Resource resource) {
+      return resource.as(ObjectProperty.class);
+   }
+
    /**
     * Set the Inverse property for this property.
     *
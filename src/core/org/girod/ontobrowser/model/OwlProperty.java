@@ -32,11 +32,16 @@ the project website at the project page on https://github.com/hervegirod/ontolog
  */
 package org.girod.ontobrowser.model;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import org.apache.jena.ontology.ConversionException;
+import org.apache.jena.ontology.OntModel;
 import org.apache.jena.ontology.OntProperty;
+import org.apache.jena.rdf.model.Resource;
 import org.girod.ontobrowser.model.restriction.OwlRestriction;
 import org.girod.ontobrowser.model.restriction.UnrestrictedOwlRestriction;
 
@@ -44,17 +49,21 @@ import org.girod.ontobrowser.model.restriction.UnrestrictedOwlRestriction;
  * An abstract OwlProperty.
  *
  * @param <T> the property type
- * @version 0.13
+ * @version 0.16
  */
 public abstract class OwlProperty<T extends OntProperty> extends NamedOwlElement<OwlProperty> {
    private final Map<ElementKey, OwlRestriction> domain = new HashMap<>();
    private int minCardinality = 0;
    private int maxCardinality = -1;
-   private T ontProperty = null;
-   private final Map<ElementKey, OwlProperty> superProperties = new HashMap<>();
-   private final Map<ElementKey, OwlProperty> subProperties = new HashMap<>();
-   private final Map<ElementKey, OwlProperty> aliasProperties = new HashMap<>();
-   private final Map<ElementKey, OwlProperty> propertyFromAlias = new HashMap<>();
+   private transient T ontProperty = null;
+   private Boolean isFunctional = null;
+   private Boolean isInverseFunctional = null;
+   private Map<ElementKey, OwlProperty> superProperties = new HashMap<>();
+   private Map<ElementKey, OwlProperty> subProperties = new HashMap<>();
+   private Map<ElementKey, OwlProperty> aliasProperties = new HashMap<>();
+   private Map<ElementKey, OwlProperty> propertyFromAlias = new HashMap<>();
+   private SchemaGraph schemaGraph = null;
+   private int graphId = -1;
 
    public OwlProperty(T ontProperty, String namespace, String name) {
       super(namespace, name);
@@ -70,13 +79,113 @@ public abstract class OwlProperty<T extends OntProperty> extends NamedOwlElement
       return ontProperty;
    }
 
+   @Override
+   protected Resource getResource() {
+      return ontProperty;
+   }
+
+   /**
+    * Convert a resource of the model to the type of the underlying property.
+    *
+    * @param resource the resource
+    * @return the property
+    */
+   protected abstract T toOntProperty(Resource resource);
+
+   @Override
+   void attach(OntModel model) {
+      String uri = getResourceURI();
+      if (ontProperty == null && uri != null) {
+         try {
+            ontProperty = toOntProperty(model.getResource(uri));
+         } catch (ConversionException ex) {
+            // the property does not exist anymore in the model
+         }
+      }
+   }
+
+   @Override
+   void detach() {
+      // the characteristics of the property must be kept because the underlying property is released
+      isFunctionalProperty();
+      isInverseFunctionalProperty();
+      super.detach();
+      ontProperty = null;
+   }
+
+   /**
+    * Bind this property to the compact graph of the schema. The relations of the property become views over the graph.
+    *
+    * @param schemaGraph the graph
+    * @param graphId the id of the property in the graph
+    */
+   void bind(SchemaGraph schemaGraph, int graphId) {
+      this.schemaGraph = schemaGraph;
+      this.graphId = graphId;
+      superProperties = null;
+      subProperties = null;
+      aliasProperties = null;
+      propertyFromAlias = null;
+   }
+
+   /**
+    * Unbind this property from the compact graph of the schema before modifying one of its relations.
+    */
+   private void unbind() {
+      if (schemaGraph != null) {
+         superProperties = new HashMap<>(getSuperProperties());
+         subProperties = new HashMap<>(getSubProperties());
+         aliasProperties = new HashMap<>(getAliasProperties());
+         propertyFromAlias = new HashMap<>(getFromAliasProperties());
+         schemaGraph.setStale();
+         schemaGraph = null;
+         graphId = -1;
+      }
+   }
+
+   /**
+    * Return the compact graph to which this property is bound.
+    *
+    * @return the graph, or null if the property is not bound to a graph
+    */
+   public SchemaGraph getSchemaGraph() {
+      return schemaGraph;
+   }
+
+   /**
+    * Return the id of this property in the compact graph to which it is bound.
+    *
+    * @return the id, or -1 if the property is not bound to a graph
+    */
+   public int getGraphId() {
+      return graphId;
+   }
+
+   private Map<ElementKey, OwlProperty> getRelation(Map<ElementKey, OwlProperty> map, int relation) {
+      if (schemaGraph == null) {
+         return map;
+      } else {
+         return schemaGraph.getPropertyView(graphId, relation);
+      }
+   }
+
+   private void writeObject(ObjectOutputStream out) throws IOException {
+      // the characteristics of the property must be kept because the underlying property is not serialized
+      isFunctionalProperty();
+      isInverseFunctionalProperty();
+      out.defaultWriteObject();
+   }
+
    /**
     * Return true if the property is a Funtional property.
     *
     * @return true if the property is a Funtional property
     */
    public boolean isFunctionalProperty() {
-      return ontProperty.isFunctionalProperty();
+      if (isFunctional == null) {
+         isFunctional = ontProperty.isFunctionalProperty();
+      }
+      return isFunctional;
    }
 
    /**
@@ -85,7 +194,10 @@ public abstract class OwlProperty<T extends OntProperty> extends NamedOwlElement
     * @return true if the property is an inverse Funtional property
     */
    public boolean isInverseFunctionalProperty() {
-      return ontProperty.isInverseFunctionalProperty();
+      if (isInverseFunctional == null) {
+         isInverseFunctional = ontProperty.isInverseFunctionalProperty();
+      }
+      return isInverseFunctional;
    }
 
    /**
@@ -95,6 +207,7 @@ public abstract class OwlProperty<T extends OntProperty> extends NamedOwlElement
     * @param owlProperty the super property
     */
    public void addSuperProperty(ElementKey key, OwlProperty owlProperty) {
+      unbind();
       superProperties.put(key, owlProperty);
    }
 
@@ -104,7 +217,7 @@ public abstract class OwlProperty<T extends OntProperty> extends NamedOwlElement
     * @return the super properties
     */
    public Map<ElementKey, OwlProperty> getSuperProperties() {
-      return superProperties;
+      return getRelation(superProperties, SchemaGraph.SUPER_PROPERTIES);
    }
 
    /**
@@ -113,7 +226,7 @@ public abstract class OwlProperty<T extends OntProperty> extends NamedOwlElement
     * @return true if this Owl property has super properties
     */
    public boolean hasSuperProperties() {
-      return !superProperties.isEmpty();
+      return !getSuperProperties().isEmpty();
    }
 
    /**
@@ -123,6 +236,7 @@ public abstract class OwlProperty<T extends OntProperty> extends NamedOwlElement
     * @param owlProperty the subClass
     */
    public void addSubProperty(ElementKey key, OwlProperty owlProperty) {
+      unbind();
       subProperties.put(key, owlProperty);
    }
 
@@ -132,7 +246,7 @@ public abstract class OwlProperty<T extends OntProperty> extends NamedOwlElement
     * @return the sub-properties
     */
    public Map<ElementKey, OwlProperty> getSubProperties() {
-      return subProperties;
+      return getRelation(subProperties, SchemaGraph.SUB_PROPERTIES);
    }
 
    /**
@@ -141,7 +255,7 @@ public abstract class OwlProperty<T extends OntProperty> extends NamedOwlElement
     * @return true if this Owl property has sub-properties
     */
    public boolean hasSubProperties() {
-      return !subProperties.isEmpty();
+      return !getSubProperties().isEmpty();
    }
 
    public void addDomain(OwlRestriction restriction) {
@@ -195,6 +309,8 @@ public abstract class OwlProperty<T extends OntProperty> extends NamedOwlElement
     * @param aliasProperty the equivalent property
     */
    public void addAliasProperty(OwlProperty aliasProperty) {
+      unbind();
+      aliasProperty.unbind();
       this.aliasProperties.put(aliasProperty.getKey(), aliasProperty);
       aliasProperty.propertyFromAlias.put(getKey(), this);
    }
@@ -205,11 +321,11 @@ public abstract class OwlProperty<T extends OntProperty> extends NamedOwlElement
     * @return the equivalent properties
     */
    public Map<ElementKey, OwlProperty> getAliasProperties() {
-      return aliasProperties;
+      return getRelation(aliasProperties, SchemaGraph.ALIAS_PROPERTIES);
    }
 
    public boolean hasAliasProperties() {
-      return !aliasProperties.isEmpty();
+      return !getAliasProperties().isEmpty();
    }
 
    /**
@@ -218,7 +334,7 @@ public abstract class OwlProperty<T extends OntProperty> extends NamedOwlElement
     * @return true if this class has equivalent properties.
     */
    public boolean isEquivalentProperty() {
-      return !aliasProperties.isEmpty() || !propertyFromAlias.isEmpty();
+      return !getAliasProperties().isEmpty() || !getFromAliasProperties().isEmpty();
    }
 
    /**
@@ -227,11 +343,11 @@ public abstract class OwlProperty<T extends OntProperty> extends NamedOwlElement
     * @return the equivalent properties
     */
    public Map<ElementKey, OwlProperty> getFromAliasProperties() {
-      return propertyFromAlias;
+      return getRelation(propertyFromAlias, SchemaGraph.FROM_ALIAS_PROPERTIES);
    }
 
    public boolean hasFromAliasedProperties() {
-      return !propertyFromAlias.isEmpty();
+      return !getFromAliasProperties().isEmpty();
    }
 
    /**
@@ -241,7 +357,7 @@ public abstract class OwlProperty<T extends OntProperty> extends NamedOwlElement
     */
    @Override
    public boolean hasAliasElements() {
-      return !aliasProperties.isEmpty() || !propertyFromAlias.isEmpty();
+      return isEquivalentProperty();
    }
 
    /**
@@ -255,8 +371,8 @@ public abstract class OwlProperty<T extends OntProperty> extends NamedOwlElement
          return null;
       }
       Map<ElementKey, OwlProperty> map = new HashMap<>();
-      map.putAll(aliasProperties);
-      map.putAll(propertyFromAlias);
+      map.putAll(getAliasProperties());
+      map.putAll(getFromAliasProperties());
       return map;
    }
 
@@ -33,17 +33,27 @@ the project website at the project page on https://github.com/hervegirod/ontolog
 package org.girod.ontobrowser.model;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -56,17 +66,27 @@ import javax.xml.stream.events.StartElement;
 import javax.xml.stream.events.XMLEvent;
 import org.apache.jena.ontology.OntClass;
 import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.ontology.OntologyException;
+import org.apache.jena.rdf.model.ModelFactory;
 import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.impl.Util;
+import org.apache.jena.sparql.core.Transactional;
+import org.apache.jena.system.Txn;
+import org.girod.ontobrowser.model.restriction.OwlRestriction;
 import org.girod.ontobrowser.utils.SchemaUtils;
 
 /**
  * Specifies the graph of an Owl ontology.
  *
- * @version 0.14
+ * @version 0.16
  */
 public class OwlSchema extends AnnotatedElement implements NamedElement, OwlDeclaredSchema, Cloneable, Serializable {
    private File file = null;
-   private final OntModel ontModel;
+   private transient OntModel ontModel;
+   private transient OntModelProvider ontModelProvider = null;
+   private transient Transactional transactional = null;
+   private transient OntModel writableModel = null;
    private OwlClass owlThingClass;
    private boolean includeIndividuals = true;
    private String defaultNamespace = null;
@@ -90,6 +110,15 @@ public class OwlSchema extends AnnotatedElement implements NamedElement, OwlDecl
    private final Map<ElementKey, OwlDatatype> datatypes = new HashMap<>();
    private final Set<String> namespaces = new HashSet<>();
    private Map<ElementKey, OwlClass> packages = null;
+   private final IRIDictionary dictionary = new IRIDictionary();
+   private final EquivalenceGroups<OwlClass> equivalentClasses = new EquivalenceGroups<>();
+   private final EquivalenceGroups<OwlProperty> equivalentProperties = new EquivalenceGroups<>();
+   private SchemaGraph schemaGraph = null;
+   private PropertyAssertions propertyAssertions = null;
+   private transient ClassHierarchy classHierarchy = null;
+   private transient ElementIndex elementIndex = null;
+   private long snapshotVersion = 0;
+   private transient volatile boolean isReadOnly = false;
 
    public OwlSchema(OntModel ontModel) {
       this.ontModel = ontModel;
@@ -107,6 +136,7 @@ public class OwlSchema extends AnnotatedElement implements NamedElement, OwlDecl
     * Reset the content of the schema.
     */
    public void reset() {
+      checkWritable();
       this.classes.clear();
       this.individuals.clear();
       this.datatypeProperties.clear();
@@ -115,6 +145,241 @@ public class OwlSchema extends AnnotatedElement implements NamedElement, OwlDecl
       this.elementsAnnotations.clear();
       this.datatypes.clear();
       this.namespaces.clear();
+      this.elementIndex = null;
+   }
+
+   /**
+    * Return the snapshot version of the schema. Each version created by {@link #newVersion()} has the snapshot version of the schema it
+    * was created from plus one.
+    *
+    * @return the snapshot version
+    */
+   public long getSnapshotVersion() {
+      return snapshotVersion;
+   }
+
+   /**
+    * Make this version of the schema read-only. The elements can not be added to a read-only schema anymore, and the maps of the
+    * elements are returned as unmodifiable views, so that readers which have started with this version keep a consistent view of the
+    * schema. The modifications must be performed on a new version created by {@link #newVersion()}.
+    */
+   public void setReadOnly() {
+      isReadOnly = true;
+   }
+
+   /**
+    * Return true if this version of the schema is read-only.
+    *
+    * @return true if this version of the schema is read-only
+    */
+   public boolean isReadOnly() {
+      return isReadOnly;
+   }
+
+   private void checkWritable() {
+      if (isReadOnly) {
+         throw new IllegalStateException("The version " + snapshotVersion + " of the schema is read-only");
+      }
+   }
+
+   private <K, V> Map<K, V> getView(Map<K, V> map) {
+      if (isReadOnly) {
+         return Collections.unmodifiableMap(map);
+      } else {
+         return map;
+      }
+   }
+
+   /**
+    * Create a new writable version of the schema. The new version is a deep copy of this schema, attached to the same OntModel,
+    * so that it can be modified without changing this version. The modifications of the OntModel must be done in the
+    * {@link #getWritableModel()} of the new version. The annotations which have not been materialized in this schema are
+    * materialized in the new version the first time they are accessed.
+    *
+    * <p>The elements of the schema are linked to each other and are modified in place, for example when an individual is added to a
+    * class, so they can not be shared between versions. The cost of this method is therefore proportional to the size of the schema,
+    * even if the new version only adds a few individuals.</p>
+    *
+    * @return the new version
+    */
+   public synchronized OwlSchema newVersion() {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try {
+         List<AnnotationsMaterializer> materializers;
+         try (VersionOutputStream out = new VersionOutputStream(bytes)) {
+            IOException[] exception = new IOException[1];
+            executeRead(() -> {
+               try {
+                  out.writeObject(this);
+               } catch (IOException ex) {
+                  exception[0] = ex;
+               }
+            });
+            if (exception[0] != null) {
+               throw exception[0];
+            }
+            materializers = out.materializers;
+         }
+         OwlSchema schema;
+         Map<AnnotatedElement, Integer> pendingElements;
+         try (VersionInputStream in = new VersionInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            schema = (OwlSchema) in.readObject();
+            pendingElements = in.pendingElements;
+         }
+         schema.snapshotVersion = snapshotVersion + 1;
+         schema.transactional = transactional;
+         schema.ontModelProvider = ontModelProvider;
+         if (ontModel != null) {
+            schema.executeRead(() -> schema.attach(ontModel));
+         }
+         List<AnnotationsMaterializer> versionMaterializers = new ArrayList<>(materializers.size());
+         Iterator<AnnotationsMaterializer> it = materializers.iterator();
+         while (it.hasNext()) {
+            versionMaterializers.add(it.next().forVersion(schema));
+         }
+         Iterator<Entry<AnnotatedElement, Integer>> it2 = pendingElements.entrySet().iterator();
+         while (it2.hasNext()) {
+            Entry<AnnotatedElement, Integer> entry = it2.next();
+            entry.getKey().setAnnotationsMaterializer(versionMaterializers.get(entry.getValue()));
+         }
+         return schema;
+      } catch (IOException | ClassNotFoundException ex) {
+         throw new IllegalStateException("Could not create a new version of the schema: " + ex.getMessage());
+      }
+   }
+
+   /**
+    * Return the IRI dictionary of the schema.
+    *
+    * @return the IRI dictionary
+    */
+   public IRIDictionary getDictionary() {
+      return dictionary;
+   }
+
+   /**
+    * Return the canonical key for a namespace and a name.
+    *
+    * @param namespace the namespace
+    * @param name the name
+    * @return the canonical key
+    */
+   public ElementKey getElementKey(String namespace, String name) {
+      return dictionary.getKey(namespace, name);
+   }
+
+   /**
+    * Return the groups of equivalent classes of the schema.
+    *
+    * @return the groups of equivalent classes
+    */
+   public EquivalenceGroups<OwlClass> getEquivalentClassesGroups() {
+      return equivalentClasses;
+   }
+
+   /**
+    * Return the groups of equivalent properties of the schema.
+    *
+    * @return the groups of equivalent properties
+    */
+   public EquivalenceGroups<OwlProperty> getEquivalentPropertiesGroups() {
+      return equivalentProperties;
+   }
+
+   /**
+    * Return all the classes which are equivalent to a class, directly or through other equivalent classes.
+    *
+    * @param theClass the class
+    * @return the equivalent classes
+    */
+   public Map<ElementKey, OwlClass> getEquivalentClasses(OwlClass theClass) {
+      return equivalentClasses.getEquivalentElements(theClass);
+   }
+
+   /**
+    * Return all the properties which are equivalent to a property, directly or through other equivalent properties.
+    *
+    * @param theProperty the property
+    * @return the equivalent properties
+    */
+   public Map<ElementKey, OwlProperty> getEquivalentProperties(OwlProperty theProperty) {
+      return equivalentProperties.getEquivalentElements(theProperty);
+   }
+
+   /**
+    * Compact the relations of the classes and properties of the schema in a {@link SchemaGraph}, and the property assertions of the
+    * individuals in a {@link PropertyAssertions} store. This must be called after the extraction of the schema. The
+    * {@link ClassHierarchy} and {@link ElementIndex} indexes are only created the first time they are requested.
+    */
+   public synchronized void compact() {
+      schemaGraph = SchemaGraph.create(this);
+      propertyAssertions = PropertyAssertions.create(this);
+      classHierarchy = null;
+      elementIndex = null;
+   }
+
+   /**
+    * Return the compact graph of the classes and properties of the schema. The graph is created again if one of its elements has
+    * been modified since its creation.
+    *
+    * @return the graph, or null if the schema has not been compacted
+    */
+   public synchronized SchemaGraph getSchemaGraph() {
+      if (schemaGraph != null && schemaGraph.isStale()) {
+         schemaGraph = SchemaGraph.create(this);
+      }
+      return schemaGraph;
+   }
+
+   /**
+    * Return the columnar store of the property assertions of the individuals of the schema. The store is created again if one of its
+    * individuals has been modified since its creation.
+    *
+    * @return the store, or null if the schema has not been compacted
+    */
+   public synchronized PropertyAssertions getPropertyAssertions() {
+      if (propertyAssertions != null && propertyAssertions.isStale()) {
+         propertyAssertions = PropertyAssertions.create(this);
+      }
+      return propertyAssertions;
+   }
+
+   /**
+    * Return the transitive closure index of the class hierarchy of the schema. The index is created the first time it is
+    * requested, and is updated when a superclass is added to a class of the schema.
+    *
+    * @return the index, or null if the schema has not been compacted
+    */
+   public synchronized ClassHierarchy getClassHierarchy() {
+      if (classHierarchy == null && schemaGraph != null) {
+         classHierarchy = ClassHierarchy.create(classes.values());
+      }
+      return classHierarchy;
+   }
+
+   /**
+    * Return true if a class is a direct or indirect subclass of another class.
+    *
+    * @param subClass the subclass
+    * @param superClass the superclass
+    * @return true if the class is a subclass of the other class
+    */
+   public boolean isSubClassOf(OwlClass subClass, OwlClass superClass) {
+      ClassHierarchy hierarchy = getClassHierarchy();
+      if (hierarchy != null) {
+         return hierarchy.isSubClassOf(subClass, superClass);
+      }
+      List<OwlClass> toVisit = new ArrayList<>(subClass.getSuperClasses().values());
+      Set<OwlClass> visited = new HashSet<>();
+      while (!toVisit.isEmpty()) {
+         OwlClass theClass = toVisit.remove(toVisit.size() - 1);
+         if (theClass == superClass) {
+            return true;
+         } else if (visited.add(theClass)) {
+            toVisit.addAll(theClass.getSuperClasses().values());
+         }
+      }
+      return false;
    }
 
    /**
@@ -136,14 +401,207 @@ public class OwlSchema extends AnnotatedElement implements NamedElement, OwlDecl
    }
 
    /**
-    * Return the OntModel.
+    * Return the OntModel. If the schema has been created without its model, the model is loaded by the {@link OntModelProvider} the first time
+    * this method is called.
     *
     * @return the OntModel
+    * @throws OntologyException if the model could not be loaded
     */
-   public OntModel getOntModel() {
+   public synchronized OntModel getOntModel() {
+      if (ontModel == null && ontModelProvider != null) {
+         try {
+            OntModel model = ontModelProvider.loadOntModel();
+            transactional = ontModelProvider.getTransactional();
+            executeRead(() -> attach(model));
+            ontModelProvider = null;
+         } catch (IOException ex) {
+            throw new OntologyException("Could not load the model: " + ex.getMessage());
+         }
+      }
       return ontModel;
    }
 
+   /**
+    * Set the provider of the OntModel, for a schema which has been created without its model. The model will only be loaded the first time
+    * that {@link #getOntModel()} is called.
+    *
+    * @param ontModelProvider the provider
+    */
+   public synchronized void setOntModelProvider(OntModelProvider ontModelProvider) {
+      this.ontModelProvider = ontModelProvider;
+   }
+
+   /**
+    * Set the transactional of the OntModel, if the model is backed by a persistent dataset.
+    *
+    * @param transactional the transactional
+    */
+   public synchronized void setTransactional(Transactional transactional) {
+      this.transactional = transactional;
+   }
+
+   /**
+    * Return the transactional of the OntModel. Return null if the model is in memory.
+    *
+    * @return the transactional
+    */
+   public synchronized Transactional getTransactional() {
+      return transactional;
+   }
+
+   /**
+    * Execute an action which reads the OntModel. The action is executed in a read transaction if the model is backed by a persistent dataset.
+    *
+    * @param action the action
+    */
+   public void executeRead(Runnable action) {
+      Transactional theTransactional = getTransactional();
+      if (theTransactional == null) {
+         action.run();
+      } else {
+         Txn.executeRead(theTransactional, action);
+      }
+   }
+
+   /**
+    * Execute an action which modifies the OntModel. The action is executed in a write transaction if the model is backed by a persistent
+    * dataset.
+    *
+    * @param action the action
+    */
+   public void executeWrite(Runnable action) {
+      Transactional theTransactional = getTransactional();
+      if (theTransactional == null) {
+         action.run();
+      } else {
+         Txn.executeWrite(theTransactional, action);
+      }
+   }
+
+   /**
+    * Return the model which receives the modifications of the OntModel for this version of the schema. The model reads through to the
+    * OntModel, but the statements which are added to it are only added to the OntModel by {@link #commitModel()}, so that the other
+    * versions of the schema which share the OntModel are not modified.
+    *
+    * @return the model
+    */
+   public synchronized OntModel getWritableModel() {
+      checkWritable();
+      if (writableModel == null) {
+         writableModel = ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM);
+         writableModel.addSubModel(getOntModel());
+      }
+      return writableModel;
+   }
+
+   /**
+    * Add the statements of the {@link #getWritableModel()} to the OntModel. This must be called once this version has replaced the
+    * previous version of the schema. The individuals which have been created in the writable model are attached to the OntModel.
+    */
+   public synchronized void commitModel() {
+      if (writableModel == null) {
+         return;
+      }
+      OntModel model = writableModel;
+      writableModel = null;
+      OntModel theOntModel = getOntModel();
+      executeWrite(() -> theOntModel.add(model.getBaseModel()));
+      Iterator<OwlIndividual> it = individuals.values().iterator();
+      while (it.hasNext()) {
+         OwlIndividual individual = it.next();
+         Resource resource = individual.getIndividual();
+         if (resource != null && resource.getModel() == model) {
+            individual.detach();
+            individual.attach(theOntModel);
+         }
+      }
+   }
+
+   /**
+    * Return true if the OntModel of the schema has been loaded.
+    *
+    * @return true if the OntModel of the schema has been loaded
+    */
+   public synchronized boolean hasOntModel() {
+      return ontModel != null;
+   }
+
+   /**
+    * Attach the schema to an OntModel. The elements of the schema which have been deserialized without their Jena resources are attached to the
+    * resources of the model which have the same URI.
+    *
+    * @param ontModel the OntModel
+    */
+   public synchronized void attach(OntModel ontModel) {
+      this.ontModel = ontModel;
+      if (owlThingClass != null) {
+         owlThingClass.attach(ontModel);
+      }
+      attachElements(classes, ontModel);
+      attachElements(properties, ontModel);
+      attachElements(individuals, ontModel);
+   }
+
+   /**
+    * Detach the schema from its OntModel, so that the model can be released. The annotations of the elements are materialized
+    * first, because they are read from the model. The model is loaded again by the provider the first time that
+    * {@link #getOntModel()} is called, for example for SPARQL requests, scripts, or to save the model.
+    *
+    * @param ontModelProvider the provider which will load the model again
+    */
+   public synchronized void detach(OntModelProvider ontModelProvider) {
+      if (ontModel == null) {
+         return;
+      }
+      executeRead(() -> {
+         if (owlThingClass != null) {
+            detachElement(owlThingClass);
+         }
+         detachElements(classes);
+         detachElements(properties);
+         detachElements(individuals);
+      });
+      Iterator<OwlProperty> it = properties.values().iterator();
+      while (it.hasNext()) {
+         OwlProperty property = it.next();
+         detachRestrictions(property.getDomain());
+         if (property instanceof OwlObjectProperty) {
+            detachRestrictions(((OwlObjectProperty) property).getRange());
+         }
+      }
+      this.ontModel = null;
+      this.transactional = null;
+      this.ontModelProvider = ontModelProvider;
+   }
+
+   private void detachElements(Map<ElementKey, ? extends NamedOwlElement> elements) {
+      Iterator<? extends NamedOwlElement> it = elements.values().iterator();
+      while (it.hasNext()) {
+         detachElement(it.next());
+      }
+   }
+
+   private void detachElement(NamedOwlElement element) {
+      // the annotations can not be evicted anymore, because they could not be materialized again without the model
+      element.pinAnnotations();
+      element.detach();
+   }
+
+   private void detachRestrictions(Map<ElementKey, OwlRestriction> restrictions) {
+      Iterator<OwlRestriction> it = restrictions.values().iterator();
+      while (it.hasNext()) {
+         it.next().detach();
+      }
+   }
+
+   private void attachElements(Map<ElementKey, ? extends NamedOwlElement> elements, OntModel ontModel) {
+      Iterator<? extends NamedOwlElement> it = elements.values().iterator();
+      while (it.hasNext()) {
+         NamedOwlElement element = it.next();
+         element.attach(ontModel);
+      }
+   }
+
    private void computePrefixMap() {
       SchemasRepository schemasRepository = SchemasRepository.getInstance();
       Iterator<Entry<String, String>> it = ontModel.getNsPrefixMap().entrySet().iterator();
@@ -476,7 +934,7 @@ public class OwlSchema extends AnnotatedElement implements NamedElement, OwlDecl
          return resource.getNameSpace();
       } else {
          String namespace = resource.getNameSpace();
-         if (namespace.startsWith(namespaceFromFile)) {
+         if (namespace != null && namespace.startsWith(namespaceFromFile)) {
             return defaultNamespace;
          } else {
             return resource.getNameSpace();
@@ -530,6 +988,7 @@ public class OwlSchema extends AnnotatedElement implements NamedElement, OwlDecl
     * @param packages the packages
     */
    public void setPackages(Map<ElementKey, OwlClass> packages) {
+      checkWritable();
       this.packages = packages;
    }
 
@@ -562,7 +1021,11 @@ public class OwlSchema extends AnnotatedElement implements NamedElement, OwlDecl
     * @param individual the individual
     */
    public void addIndividual(OwlIndividual individual) {
-      addNamespace(individual);
+      checkWritable();
+      registerElement(individual);
+      if (elementIndex != null) {
+         elementIndex.add(this, individual);
+      }
       individuals.put(individual.getKey(), individual);
       Iterator<OwlClass> it = individual.getParentClasses().values().iterator();
       while (it.hasNext()) {
@@ -572,11 +1035,13 @@ public class OwlSchema extends AnnotatedElement implements NamedElement, OwlDecl
    }
 
    public void addDatatype(OwlDatatype datatype) {
+      checkWritable();
+      datatype.setKey(dictionary.getKey(datatype.getKey()));
       datatypes.put(datatype.getKey(), datatype);
    }
 
    public Map<ElementKey, OwlDatatype> getDatatypes() {
-      return datatypes;
+      return getView(datatypes);
    }
 
    public boolean hasDatatype(ElementKey key) {
@@ -587,46 +1052,87 @@ public class OwlSchema extends AnnotatedElement implements NamedElement, OwlDecl
       return datatypes.get(key);
    }
 
-   public boolean hasElement(URI uri) {
-      String uriAsString = uri.toString();
-      if (uriAsString.contains("#")) {
-         String namespace = uriAsString.substring(0, uriAsString.indexOf('#') + 1);
-         String name = uriAsString.substring(uriAsString.indexOf('#') + 1);
-         ElementKey key = ElementKey.create(namespace, name);
-         if (individuals.containsKey(key)) {
-            return true;
-         } else if (classes.containsKey(key)) {
-            return true;
-         } else if (properties.containsKey(key)) {
-            return true;
-         } else {
-            return false;
-         }
-      } else {
-         return false;
+   /**
+    * Return the index of the elements of the schema from their IRI. The index is created the first time it is requested, and is updated
+    * when an element is added to the schema.
+    *
+    * @return the index, or null if the schema has not been compacted
+    */
+   public synchronized ElementIndex getElementIndex() {
+      if (elementIndex == null && schemaGraph != null) {
+         elementIndex = ElementIndex.create(this);
       }
+      return elementIndex;
+   }
+
+   /**
+    * Return true if there is an individual, a class, or a property for an URI.
+    *
+    * @param uri the URI
+    * @return true if there is an element for the URI
+    */
+   public boolean hasElement(URI uri) {
+      return getElement(uri.toString()) != null;
    }
 
+   /**
+    * Return the individual, class, or property for an URI.
+    *
+    * @param uri the URI
+    * @return the element, or null if there is no element for the URI
+    */
    public NamedOwlElement getElement(URI uri) {
-      String uriAsString = uri.toString();
-      if (uriAsString.contains("#")) {
-         String namespace = uriAsString.substring(0, uriAsString.indexOf('#') + 1);
-         String name = uriAsString.substring(uriAsString.indexOf('#') + 1);
-         ElementKey key = ElementKey.create(namespace, name);
-         if (individuals.containsKey(key)) {
-            return individuals.get(key);
-         } else if (classes.containsKey(key)) {
-            return classes.get(key);
-         } else if (properties.containsKey(key)) {
-            return properties.get(key);
-         } else {
-            return null;
-         }
+      return getElement(uri.toString());
+   }
+
+   /**
+    * Return the individual, class, or property for an IRI. The individuals are returned first, then the classes, then the
+    * properties.
+    *
+    * @param iri the IRI
+    * @return the element, or null if there is no element for the IRI
+    */
+   public NamedOwlElement getElement(String iri) {
+      ElementIndex theIndex = getElementIndex();
+      if (theIndex != null) {
+         ElementIndex.Entry entry = theIndex.getEntry(iri);
+         return entry == null ? null : entry.getElement();
+      }
+      // the schema is still being extracted, the IRI is split as Jena splits the IRIs of the resources
+      int index = Util.splitNamespaceXML(iri);
+      if (index == 0 || index == iri.length()) {
+         return null;
+      }
+      ElementKey key = ElementKey.create(iri.substring(0, index), iri.substring(index));
+      if (individuals.containsKey(key)) {
+         return individuals.get(key);
+      } else if (classes.containsKey(key)) {
+         return classes.get(key);
       } else {
+         return properties.get(key);
+      }
+   }
+
+   /**
+    * Return the individual, class, or property for a prefixed name, such as <code>owl:Thing</code>.
+    *
+    * @param prefixedName the prefixed name
+    * @return the element, or null if there is no element for the prefixed name
+    */
+   public NamedOwlElement getElementFromPrefixedName(String prefixedName) {
+      ElementIndex theIndex = getElementIndex();
+      if (theIndex != null) {
+         ElementIndex.Entry entry = theIndex.getEntryFromPrefixedName(prefixedName);
+         return entry == null ? null : entry.getElement();
+      }
+      int index = prefixedName.indexOf(':');
+      if (index == -1) {
          return null;
       }
+      String namespace = prefixToNamespace.get(prefixedName.substring(0, index));
+      return namespace == null ? null : getElement(namespace + prefixedName.substring(index + 1));
    }
-   
+
    public void setHasForeignElements(boolean hasForeignElements) {
       this.hasForeignElements = hasForeignElements;
    }
@@ -658,7 +1164,7 @@ public class OwlSchema extends AnnotatedElement implements NamedElement, OwlDecl
     * @return the individuals
     */
    public Map<ElementKey, OwlIndividual> getIndividuals() {
-      return individuals;
+      return getView(individuals);
    }
 
    /**
@@ -697,7 +1203,8 @@ public class OwlSchema extends AnnotatedElement implements NamedElement, OwlDecl
     * @param annotation the annotation
     */
    public void addElementAnnotation(OwlAnnotation annotation) {
-      addNamespace(annotation);
+      checkWritable();
+      registerElement(annotation);
       elementsAnnotations.put(annotation.getKey(), annotation);
    }
 
@@ -727,7 +1234,7 @@ public class OwlSchema extends AnnotatedElement implements NamedElement, OwlDecl
     * @return the annotations
     */
    public Map<ElementKey, OwlAnnotation> getElementAnnotations() {
-      return elementsAnnotations;
+      return getView(elementsAnnotations);
    }
 
    /**
@@ -736,11 +1243,16 @@ public class OwlSchema extends AnnotatedElement implements NamedElement, OwlDecl
     * @param owlClass the owl class
     */
    public void addOwlClass(OwlClass owlClass) {
-      addNamespace(owlClass);
+      checkWritable();
+      registerElement(owlClass);
+      if (elementIndex != null) {
+         elementIndex.add(this, owlClass);
+      }
       classes.put(owlClass.getKey(), owlClass);
    }
 
-   private void addNamespace(NamedOwlElement element) {
+   private void registerElement(NamedOwlElement element) {
+      element.setKey(dictionary.getKey(element.getKey()));
       String namespace = element.getNamespace();
       if (namespace != null && !namespaces.contains(namespace)) {
          namespaces.add(namespace);
@@ -753,7 +1265,7 @@ public class OwlSchema extends AnnotatedElement implements NamedElement, OwlDecl
     * @return the Owl classes
     */
    public Map<ElementKey, OwlClass> getOwlClasses() {
-      return classes;
+      return getView(classes);
    }
 
    /**
@@ -782,7 +1294,11 @@ public class OwlSchema extends AnnotatedElement implements NamedElement, OwlDecl
     * @param owlProperty the Owl property
     */
    public void addOwlProperty(OwlProperty owlProperty) {
-      addNamespace(owlProperty);
+      checkWritable();
+      registerElement(owlProperty);
+      if (elementIndex != null) {
+         elementIndex.add(this, owlProperty);
+      }
       properties.put(owlProperty.getKey(), owlProperty);
       if (owlProperty instanceof OwlDatatypeProperty) {
          datatypeProperties.put(owlProperty.getKey(), (OwlDatatypeProperty) owlProperty);
@@ -822,7 +1338,7 @@ public class OwlSchema extends AnnotatedElement implements NamedElement, OwlDecl
     * @return the Owl properties
     */
    public Map<ElementKey, OwlProperty> getOwlProperties() {
-      return properties;
+      return getView(properties);
    }
 
    /**
@@ -831,7 +1347,7 @@ public class OwlSchema extends AnnotatedElement implements NamedElement, OwlDecl
     * @return the properties
     */
    public Map<ElementKey, OwlDatatypeProperty> getOwlDatatypeProperties() {
-      return datatypeProperties;
+      return getView(datatypeProperties);
    }
 
    /**
@@ -840,7 +1356,7 @@ public class OwlSchema extends AnnotatedElement implements NamedElement, OwlDecl
     * @return the properties
     */
    public Map<ElementKey, OwlObjectProperty> getOwlObjectProperties() {
-      return objectProperties;
+      return getView(objectProperties);
    }
 
    /**
@@ -996,4 +1512,42 @@ public class OwlSchema extends AnnotatedElement implements NamedElement, OwlDecl
    public ElementKey getKey() {
       return null;
    }
+
+   /**
+    * The stream used to copy the schema for a new version. The elements whose annotations have not been materialized are written
+    * with the index of their materializer, rather than with their materialized annotations.
+    */
+   static class VersionOutputStream extends ObjectOutputStream {
+      private final List<AnnotationsMaterializer> materializers = new ArrayList<>();
+      private final Map<AnnotationsMaterializer, Integer> materializerIndexes = new IdentityHashMap<>();
+
+      private VersionOutputStream(OutputStream stream) throws IOException {
+         super(stream);
+      }
+
+      int getMaterializerIndex(AnnotationsMaterializer materializer) {
+         Integer index = materializerIndexes.get(materializer);
+         if (index == null) {
+            index = materializers.size();
+            materializers.add(materializer);
+            materializerIndexes.put(materializer, index);
+         }
+         return index;
+      }
+   }
+
+   /**
+    * The stream used to read the copy of the schema for a new version, see {@link VersionOutputStream}.
+    */
+   static class VersionInputStream extends ObjectInputStream {
+      private final Map<AnnotatedElement, Integer> pendingElements = new IdentityHashMap<>();
+
+      private VersionInputStream(InputStream stream) throws IOException {
+         super(stream);
+      }
+
+      void addPendingElement(AnnotatedElement element, int materializerIndex) {
+         pendingElements.put(element, materializerIndex);
+      }
+   }
 }
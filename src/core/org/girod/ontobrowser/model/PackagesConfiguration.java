@@ -76,6 +76,15 @@ public class PackagesConfiguration {
       return classes;
    }
 
+   /**
+    * Return the namespaces for which the classes are not accepted as packages.
+    *
+    * @return the namespaces
+    */
+   public Set<String> getForgottenNamespaces() {
+      return forgetNameSpaces;
+   }
+
    /**
     * Return the type of the package for a Owl class as defined in the packages configuration. The possible values are:
     * <ul>
@@ -0,0 +1,494 @@
+/*
+Copyright (c) 2021, 2023 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The columnar store of the property assertions of the individuals of a schema. Each individual and each property has a dense int
+ * id. The assertions of each individual are kept in primitive arrays, grouped by individual in the CSR (compressed sparse row) format,
+ * and the literals of the datatype assertions are kept in a shared pool.
+ *
+ * The property values of the {@link OwlIndividual} elements are views over this store once the schema has been compacted. If an
+ * individual is modified after that, it gets its own maps again and the store is marked as stale.
+ *
+ * @since 0.16
+ */
+public class PropertyAssertions implements Serializable {
+   private static final long serialVersionUID = 1L;
+   private final OwlIndividual[] individuals;
+   private final OwlProperty[] properties;
+   private final String[] literals;
+   private final OwlDatatype[] datatypes;
+   // the object property assertions, grouped by source individual
+   private final Columns objectAssertions;
+   // the object property assertions, grouped by target individual
+   private final Columns targetAssertions;
+   // the datatype property assertions, grouped by source individual
+   private final Columns datatypeAssertions;
+   private transient volatile boolean isStale = false;
+
+   private PropertyAssertions(Builder builder) {
+      this.individuals = builder.individuals.toArray(new OwlIndividual[builder.individuals.size()]);
+      this.properties = builder.properties.toArray(new OwlProperty[builder.properties.size()]);
+      this.literals = builder.literals.toArray(new String[builder.literals.size()]);
+      this.datatypes = builder.datatypes.toArray(new OwlDatatype[builder.datatypes.size()]);
+      this.objectAssertions = builder.objectAssertions;
+      this.targetAssertions = builder.targetAssertions;
+      this.datatypeAssertions = builder.datatypeAssertions;
+   }
+
+   /**
+    * Create the store for the individuals of a schema, and bind the individuals of the schema to the store. The values of each
+    * individual keep their iteration order before the creation of the store.
+    *
+    * @param schema the schema
+    * @return the store
+    */
+   static PropertyAssertions create(OwlSchema schema) {
+      Builder builder = new Builder();
+      Iterator<OwlIndividual> it = schema.getIndividuals().values().iterator();
+      while (it.hasNext()) {
+         builder.getIndividualId(it.next());
+      }
+      // the targets of the values can be individuals which are not in the schema. The list grows in the loop, so that the values
+      // of these individuals are also stored
+      for (int i = 0; i < builder.individuals.size(); i++) {
+         builder.addIndividual(builder.individuals.get(i));
+      }
+      builder.objectAssertions.close(builder.individuals.size());
+      builder.targetAssertions.close(builder.individuals.size());
+      builder.datatypeAssertions.close(builder.individuals.size());
+      PropertyAssertions assertions = new PropertyAssertions(builder);
+      for (int i = 0; i < assertions.individuals.length; i++) {
+         assertions.individuals[i].bind(assertions, i);
+      }
+      return assertions;
+   }
+
+   /**
+    * Mark the store as stale. This is called when an individual which is bound to the store is modified.
+    */
+   void setStale() {
+      isStale = true;
+   }
+
+   /**
+    * Return true if the store is stale, which means that at least one of its individuals has been modified after the creation of the
+    * store.
+    *
+    * @return true if the store is stale
+    */
+   public boolean isStale() {
+      return isStale;
+   }
+
+   /**
+    * Return the number of individuals in the store.
+    *
+    * @return the number of individuals
+    */
+   public int getIndividualsCount() {
+      return individuals.length;
+   }
+
+   /**
+    * Return the number of distinct literals in the store.
+    *
+    * @return the number of literals
+    */
+   public int getLiteralsCount() {
+      return literals.length;
+   }
+
+   /**
+    * Return the number of object property assertions in the store.
+    *
+    * @return the number of object property assertions
+    */
+   public int getObjectAssertionsCount() {
+      return objectAssertions.size;
+   }
+
+   /**
+    * Return the number of datatype property assertions in the store.
+    *
+    * @return the number of datatype property assertions
+    */
+   public int getDatatypeAssertionsCount() {
+      return datatypeAssertions.size;
+   }
+
+   /**
+    * Return the individual of a specified id.
+    *
+    * @param id the id
+    * @return the individual
+    */
+   public OwlIndividual getIndividual(int id) {
+      return individuals[id];
+   }
+
+   /**
+    * Return all the object property values for a property. The scan only reads the primitive arrays of the store.
+    *
+    * @param property the property
+    * @return the values
+    */
+   public List<ObjectPropertyValue> getObjectPropertyValues(OwlObjectProperty property) {
+      List<ObjectPropertyValue> list = new ArrayList<>();
+      int propertyId = indexOf(property);
+      if (propertyId == -1) {
+         return list;
+      }
+      Columns columns = objectAssertions;
+      for (int i = 0; i < individuals.length; i++) {
+         for (int j = columns.offsets[i]; j < columns.offsets[i + 1]; j++) {
+            if (columns.property[j] == propertyId) {
+               list.add(new ObjectPropertyValue(property, individuals[i], individuals[columns.value[j]]));
+            }
+         }
+      }
+      return list;
+   }
+
+   /**
+    * Return all the datatype property values for a property. The scan only reads the primitive arrays of the store.
+    *
+    * @param property the property
+    * @return the values
+    */
+   public List<DatatypePropertyValue> getDatatypePropertyValues(OwlDatatypeProperty property) {
+      List<DatatypePropertyValue> list = new ArrayList<>();
+      int propertyId = indexOf(property);
+      if (propertyId == -1) {
+         return list;
+      }
+      Columns columns = datatypeAssertions;
+      for (int i = 0; i < individuals.length; i++) {
+         for (int j = columns.offsets[i]; j < columns.offsets[i + 1]; j++) {
+            if (columns.property[j] == propertyId) {
+               list.add(createDatatypeValue(i, j));
+            }
+         }
+      }
+      return list;
+   }
+
+   private int indexOf(OwlProperty property) {
+      for (int i = 0; i < properties.length; i++) {
+         if (properties[i] == property) {
+            return i;
+         }
+      }
+      return -1;
+   }
+
+   private DatatypePropertyValue createDatatypeValue(int individualId, int index) {
+      Columns columns = datatypeAssertions;
+      int datatypeId = columns.datatype[index];
+      OwlDatatype datatype = datatypeId == -1 ? null : datatypes[datatypeId];
+      OwlDatatypeProperty property = (OwlDatatypeProperty) properties[columns.property[index]];
+      return new DatatypePropertyValue(property, individuals[individualId], datatype, literals[columns.value[index]]);
+   }
+
+   /**
+    * Return true if an individual has values in one of the columns.
+    *
+    * @param columns the columns
+    * @param id the individual id
+    * @param propertyKey the property key, or null for any property
+    * @return true if the individual has values
+    */
+   private boolean hasValues(Columns columns, int id, ElementKey propertyKey) {
+      for (int i = columns.offsets[id]; i < columns.offsets[id + 1]; i++) {
+         if (propertyKey == null || properties[columns.property[i]].getKey().equals(propertyKey)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   boolean hasObjectPropertyValues(int id, ElementKey propertyKey) {
+      return hasValues(objectAssertions, id, propertyKey);
+   }
+
+   boolean hasObjectTargetPropertyValues(int id) {
+      return hasValues(targetAssertions, id, null);
+   }
+
+   boolean hasDatatypePropertyValues(int id, ElementKey propertyKey) {
+      return hasValues(datatypeAssertions, id, propertyKey);
+   }
+
+   /**
+    * Return the object property values of an individual, grouped by property.
+    *
+    * @param id the individual id
+    * @return the values
+    */
+   Map<ElementKey, List<ObjectPropertyValue>> getObjectPropertyValues(int id) {
+      Map<ElementKey, List<ObjectPropertyValue>> map = new LinkedHashMap<>();
+      Columns columns = objectAssertions;
+      for (int i = columns.offsets[id]; i < columns.offsets[id + 1]; i++) {
+         OwlObjectProperty property = (OwlObjectProperty) properties[columns.property[i]];
+         ObjectPropertyValue value = new ObjectPropertyValue(property, individuals[id], individuals[columns.value[i]]);
+         getList(map, property.getKey()).add(value);
+      }
+      return map;
+   }
+
+   /**
+    * Return the object property values for which an individual is the target, grouped by property.
+    *
+    * @param id the individual id
+    * @return the values
+    */
+   Map<ElementKey, List<ObjectPropertyValue>> getObjectTargetPropertyValues(int id) {
+      Map<ElementKey, List<ObjectPropertyValue>> map = new LinkedHashMap<>();
+      Columns columns = targetAssertions;
+      for (int i = columns.offsets[id]; i < columns.offsets[id + 1]; i++) {
+         OwlObjectProperty property = (OwlObjectProperty) properties[columns.property[i]];
+         ObjectPropertyValue value = new ObjectPropertyValue(property, individuals[columns.value[i]], individuals[id]);
+         getList(map, property.getKey()).add(value);
+      }
+      return map;
+   }
+
+   /**
+    * Return the datatype property values of an individual, grouped by property.
+    *
+    * @param id the individual id
+    * @return the values
+    */
+   Map<ElementKey, List<DatatypePropertyValue>> getDatatypePropertyValues(int id) {
+      Map<ElementKey, List<DatatypePropertyValue>> map = new LinkedHashMap<>();
+      Columns columns = datatypeAssertions;
+      for (int i = columns.offsets[id]; i < columns.offsets[id + 1]; i++) {
+         DatatypePropertyValue value = createDatatypeValue(id, i);
+         getList(map, value.getKey()).add(value);
+      }
+      return map;
+   }
+
+   private static <V> List<V> getList(Map<ElementKey, List<V>> map, ElementKey key) {
+      List<V> list = map.get(key);
+      if (list == null) {
+         list = new ArrayList<>();
+         map.put(key, list);
+      }
+      return list;
+   }
+
+   /**
+    * The columns of a kind of assertions, grouped by individual in the CSR format. The value column is the id of an individual for
+    * object assertions, and the index of a literal in the pool for datatype assertions.
+    */
+   private static class Columns implements Serializable {
+      private static final long serialVersionUID = 1L;
+      private int[] offsets;
+      private int[] property = new int[16];
+      private int[] value = new int[16];
+      private int[] datatype = null;
+      private int size = 0;
+      private int lastId = -1;
+
+      private Columns(boolean hasDatatype) {
+         if (hasDatatype) {
+            datatype = new int[16];
+         }
+      }
+
+      private void startRow(int id, int count) {
+         ensureOffsets(id + 2);
+         for (int i = lastId + 1; i <= id; i++) {
+            offsets[i] = size;
+         }
+         lastId = id;
+         if (size + count > property.length) {
+            int length = Math.max(size + count, property.length * 2);
+            property = copyOf(property, length);
+            value = copyOf(value, length);
+            if (datatype != null) {
+               datatype = copyOf(datatype, length);
+            }
+         }
+      }
+
+      private void ensureOffsets(int length) {
+         if (offsets == null) {
+            offsets = new int[Math.max(length, 16)];
+         } else if (offsets.length < length) {
+            offsets = copyOf(offsets, Math.max(length, offsets.length * 2));
+         }
+      }
+
+      private void add(int propertyId, int valueId, int datatypeId) {
+         property[size] = propertyId;
+         value[size] = valueId;
+         if (datatype != null) {
+            datatype[size] = datatypeId;
+         }
+         size++;
+      }
+
+      private void close(int count) {
+         ensureOffsets(count + 1);
+         for (int i = lastId + 1; i <= count; i++) {
+            offsets[i] = size;
+         }
+         offsets = copyOf(offsets, count + 1);
+         property = copyOf(property, size);
+         value = copyOf(value, size);
+         if (datatype != null) {
+            datatype = copyOf(datatype, size);
+         }
+      }
+
+      private static int[] copyOf(int[] array, int length) {
+         int[] newArray = new int[length];
+         System.arraycopy(array, 0, newArray, 0, Math.min(array.length, length));
+         return newArray;
+      }
+   }
+
+   /**
+    * Builds the store from the maps of the individuals.
+    */
+   private static class Builder {
+      private final List<OwlIndividual> individuals = new ArrayList<>();
+      private final Map<OwlIndividual, Integer> individualIds = new IdentityHashMap<>();
+      private final List<OwlProperty> properties = new ArrayList<>();
+      private final Map<OwlProperty, Integer> propertyIds = new IdentityHashMap<>();
+      private final List<String> literals = new ArrayList<>();
+      private final Map<String, Integer> literalIds = new HashMap<>();
+      private final List<OwlDatatype> datatypes = new ArrayList<>();
+      private final Map<OwlDatatype, Integer> datatypeIds = new IdentityHashMap<>();
+      private final Columns objectAssertions = new Columns(false);
+      private final Columns targetAssertions = new Columns(false);
+      private final Columns datatypeAssertions = new Columns(true);
+
+      private int getIndividualId(OwlIndividual individual) {
+         Integer id = individualIds.get(individual);
+         if (id == null) {
+            id = individuals.size();
+            individualIds.put(individual, id);
+            individuals.add(individual);
+         }
+         return id;
+      }
+
+      private int getPropertyId(OwlProperty property) {
+         Integer id = propertyIds.get(property);
+         if (id == null) {
+            id = properties.size();
+            propertyIds.put(property, id);
+            properties.add(property);
+         }
+         return id;
+      }
+
+      private int getLiteralId(String literal) {
+         Integer id = literalIds.get(literal);
+         if (id == null) {
+            id = literals.size();
+            literalIds.put(literal, id);
+            literals.add(literal);
+         }
+         return id;
+      }
+
+      private int getDatatypeId(OwlDatatype datatype) {
+         if (datatype == null) {
+            return -1;
+         }
+         Integer id = datatypeIds.get(datatype);
+         if (id == null) {
+            id = datatypes.size();
+            datatypeIds.put(datatype, id);
+            datatypes.add(datatype);
+         }
+         return id;
+      }
+
+      private void addIndividual(OwlIndividual individual) {
+         int id = individualIds.get(individual);
+         Map<ElementKey, List<ObjectPropertyValue>> objectValues = individual.getObjectPropertyValues();
+         objectAssertions.startRow(id, countValues(objectValues));
+         Iterator<List<ObjectPropertyValue>> it = objectValues.values().iterator();
+         while (it.hasNext()) {
+            Iterator<ObjectPropertyValue> it2 = it.next().iterator();
+            while (it2.hasNext()) {
+               ObjectPropertyValue value = it2.next();
+               objectAssertions.add(getPropertyId(value.getProperty()), getIndividualId(value.getTarget()), -1);
+            }
+         }
+         Map<ElementKey, List<ObjectPropertyValue>> targetValues = individual.getObjectTargetPropertyValues();
+         targetAssertions.startRow(id, countValues(targetValues));
+         it = targetValues.values().iterator();
+         while (it.hasNext()) {
+            Iterator<ObjectPropertyValue> it2 = it.next().iterator();
+            while (it2.hasNext()) {
+               ObjectPropertyValue value = it2.next();
+               targetAssertions.add(getPropertyId(value.getProperty()), getIndividualId(value.getSource()), -1);
+            }
+         }
+         Map<ElementKey, List<DatatypePropertyValue>> datatypeValues = individual.getDatatypePropertyValues();
+         datatypeAssertions.startRow(id, countValues(datatypeValues));
+         Iterator<List<DatatypePropertyValue>> it3 = datatypeValues.values().iterator();
+         while (it3.hasNext()) {
+            Iterator<DatatypePropertyValue> it4 = it3.next().iterator();
+            while (it4.hasNext()) {
+               DatatypePropertyValue value = it4.next();
+               datatypeAssertions.add(getPropertyId(value.getProperty()), getLiteralId(value.getValue()), getDatatypeId(value.getDatatype()));
+            }
+         }
+      }
+
+      private static int countValues(Map<ElementKey, ? extends List<?>> map) {
+         int count = 0;
+         Iterator<? extends List<?>> it = map.values().iterator();
+         while (it.hasNext()) {
+            count += it.next().size();
+         }
+         return count;
+      }
+   }
+}
@@ -32,14 +32,15 @@ the project website at the project page on https://github.com/hervegirod/ontolog
  */
 package org.girod.ontobrowser.model;
 
+import java.io.Serializable;
 import java.util.Objects;
 
 /**
  * Represents the reference to a class property.
  *
- * @version 0.4
+ * @version 0.16
  */
-public class PropertyClassRef implements Cloneable {
+public class PropertyClassRef implements Cloneable, Serializable {
    private final ElementKey domainKey;
    private final ElementKey propertyKey;
 
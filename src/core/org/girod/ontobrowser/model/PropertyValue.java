@@ -32,6 +32,7 @@ the project website at the project page on https://github.com/hervegirod/ontolog
  */
 package org.girod.ontobrowser.model;
 
+import java.io.Serializable;
 import java.net.URI;
 
 /**
@@ -40,7 +41,7 @@ import java.net.URI;
  * @param <P> the property type
  * @since 0.8
  */
-public abstract class PropertyValue<P extends OwlProperty> implements NamedElement {
+public abstract class PropertyValue<P extends OwlProperty> implements NamedElement, Serializable {
    /**
     * The property.
     */
@@ -0,0 +1,524 @@
+/*
+Copyright (c) 2021, 2023 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.model;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The compact graph of the classes and properties of a schema. Each class and each property has a dense int id, and the
+ * relations between the elements are stored in primitive arrays in the CSR (compressed sparse row) format: the targets of
+ * the element of id <code>n</code> are between <code>offsets[n]</code> and <code>offsets[n + 1]</code> in the targets array.
+ *
+ * The relations of the {@link OwlClass} and {@link OwlProperty} elements are views over this graph once the schema has
+ * been compacted. If an element is modified after that, it gets its own maps again and the graph is marked as stale.
+ *
+ * @since 0.16
+ */
+public class SchemaGraph implements Serializable {
+   private static final long serialVersionUID = 1L;
+   /**
+    * The relation from a class to its super classes.
+    */
+   public static final int SUPER_CLASSES = 0;
+   /**
+    * The relation from a class to its sub classes.
+    */
+   public static final int SUB_CLASSES = 1;
+   /**
+    * The relation from a class to its alias classes.
+    */
+   public static final int ALIAS_CLASSES = 2;
+   /**
+    * The relation from a class to the classes for which it is an alias.
+    */
+   public static final int FROM_ALIAS_CLASSES = 3;
+   /**
+    * The relation from a class to the properties for which it is the domain.
+    */
+   public static final int DOMAIN_PROPERTIES = 4;
+   /**
+    * The relation from a class to the object properties for which it is the range.
+    */
+   public static final int RANGE_PROPERTIES = 5;
+   /**
+    * The relation from a property to its super properties.
+    */
+   public static final int SUPER_PROPERTIES = 0;
+   /**
+    * The relation from a property to its sub properties.
+    */
+   public static final int SUB_PROPERTIES = 1;
+   /**
+    * The relation from a property to its alias properties.
+    */
+   public static final int ALIAS_PROPERTIES = 2;
+   /**
+    * The relation from a property to the properties for which it is an alias.
+    */
+   public static final int FROM_ALIAS_PROPERTIES = 3;
+   private static final int CLASS_RELATIONS = 6;
+   private static final int PROPERTY_RELATIONS = 4;
+   private final OwlClass[] classes;
+   private final OwlProperty[] properties;
+   private final Relation[] classRelations = new Relation[CLASS_RELATIONS];
+   private final Relation[] propertyRelations = new Relation[PROPERTY_RELATIONS];
+   private transient volatile boolean isStale = false;
+   private transient InheritedMembers[] inheritedMembers = null;
+
+   private SchemaGraph(OwlClass[] classes, OwlProperty[] properties) {
+      this.classes = classes;
+      this.properties = properties;
+   }
+
+   /**
+    * Create the graph for a schema, and bind the classes and properties of the schema to the graph. The targets of each
+    * relation keep the iteration order of the relation before the creation of the graph.
+    *
+    * @param schema the schema
+    * @return the graph
+    */
+   static SchemaGraph create(OwlSchema schema) {
+      Map<OwlClass, Integer> classIds = new IdentityHashMap<>();
+      List<OwlClass> classesList = new ArrayList<>();
+      Map<OwlProperty, Integer> propertyIds = new IdentityHashMap<>();
+      List<OwlProperty> propertiesList = new ArrayList<>();
+      Iterator<OwlClass> it = schema.getOwlClasses().values().iterator();
+      while (it.hasNext()) {
+         addElement(it.next(), classIds, classesList);
+      }
+      Iterator<OwlProperty> it2 = schema.getOwlProperties().values().iterator();
+      while (it2.hasNext()) {
+         addElement(it2.next(), propertyIds, propertiesList);
+      }
+      // the relations can refer to elements which are not in the schema, for example foreign elements which have been removed.
+      // The lists grow in the loops, so that the relations of these elements are also indexed
+      for (int i = 0; i < classesList.size(); i++) {
+         OwlClass theClass = classesList.get(i);
+         for (int relation = 0; relation < CLASS_RELATIONS; relation++) {
+            addTargets(getClassRelation(theClass, relation), relation, classIds, classesList, propertyIds, propertiesList);
+         }
+      }
+      for (int i = 0; i < propertiesList.size(); i++) {
+         OwlProperty theProperty = propertiesList.get(i);
+         for (int relation = 0; relation < PROPERTY_RELATIONS; relation++) {
+            addTargets(getPropertyRelation(theProperty, relation), -1, classIds, classesList, propertyIds, propertiesList);
+         }
+      }
+
+      SchemaGraph graph = new SchemaGraph(classesList.toArray(new OwlClass[classesList.size()]),
+         propertiesList.toArray(new OwlProperty[propertiesList.size()]));
+      for (int relation = 0; relation < CLASS_RELATIONS; relation++) {
+         Relation rel = new Relation(graph.classes.length);
+         for (int i = 0; i < graph.classes.length; i++) {
+            Map<ElementKey, ? extends NamedOwlElement> map = getClassRelation(graph.classes[i], relation);
+            if (isPropertyRelation(relation)) {
+               rel.addRow(i, map, propertyIds);
+            } else {
+               rel.addRow(i, map, classIds);
+            }
+         }
+         graph.classRelations[relation] = rel;
+      }
+      for (int relation = 0; relation < PROPERTY_RELATIONS; relation++) {
+         Relation rel = new Relation(graph.properties.length);
+         for (int i = 0; i < graph.properties.length; i++) {
+            rel.addRow(i, getPropertyRelation(graph.properties[i], relation), propertyIds);
+         }
+         graph.propertyRelations[relation] = rel;
+      }
+      for (int i = 0; i < graph.classes.length; i++) {
+         graph.classes[i].bind(graph, i);
+      }
+      for (int i = 0; i < graph.properties.length; i++) {
+         graph.properties[i].bind(graph, i);
+      }
+      return graph;
+   }
+
+   private static boolean isPropertyRelation(int classRelation) {
+      return classRelation == DOMAIN_PROPERTIES || classRelation == RANGE_PROPERTIES;
+   }
+
+   private static <E> void addElement(E element, Map<E, Integer> ids, List<E> list) {
+      if (!ids.containsKey(element)) {
+         ids.put(element, list.size());
+         list.add(element);
+      }
+   }
+
+   private static void addTargets(Map<ElementKey, ? extends NamedOwlElement> map, int classRelation, Map<OwlClass, Integer> classIds,
+      List<OwlClass> classesList, Map<OwlProperty, Integer> propertyIds, List<OwlProperty> propertiesList) {
+      Iterator<? extends NamedOwlElement> it = map.values().iterator();
+      while (it.hasNext()) {
+         NamedOwlElement element = it.next();
+         if (classRelation == -1 || isPropertyRelation(classRelation)) {
+            addElement((OwlProperty) element, propertyIds, propertiesList);
+         } else {
+            addElement((OwlClass) element, classIds, classesList);
+         }
+      }
+   }
+
+   private static Map<ElementKey, ? extends NamedOwlElement> getClassRelation(OwlClass theClass, int relation) {
+      switch (relation) {
+         case SUPER_CLASSES:
+            return theClass.getSuperClasses();
+         case SUB_CLASSES:
+            return theClass.getSubClasses();
+         case ALIAS_CLASSES:
+            return theClass.getAliasClasses();
+         case FROM_ALIAS_CLASSES:
+            return theClass.getFromAliasClasses();
+         case DOMAIN_PROPERTIES:
+            return theClass.getOwlProperties();
+         default:
+            return theClass.getRangeOwlProperties();
+      }
+   }
+
+   private static Map<ElementKey, ? extends NamedOwlElement> getPropertyRelation(OwlProperty theProperty, int relation) {
+      switch (relation) {
+         case SUPER_PROPERTIES:
+            return theProperty.getSuperProperties();
+         case SUB_PROPERTIES:
+            return theProperty.getSubProperties();
+         case ALIAS_PROPERTIES:
+            return theProperty.getAliasProperties();
+         default:
+            return theProperty.getFromAliasProperties();
+      }
+   }
+
+   /**
+    * Mark the graph as stale. This is called when an element which is bound to the graph is modified.
+    */
+   void setStale() {
+      isStale = true;
+   }
+
+   /**
+    * Return true if the graph is stale, which means that at least one of its elements has been modified after the creation of
+    * the graph.
+    *
+    * @return true if the graph is stale
+    */
+   public boolean isStale() {
+      return isStale;
+   }
+
+   /**
+    * Return the number of classes in the graph.
+    *
+    * @return the number of classes
+    */
+   public int getClassesCount() {
+      return classes.length;
+   }
+
+   /**
+    * Return the properties inherited by the classes of the graph. They are computed the first time they are requested for a
+    * combination of flags.
+    *
+    * @param includeParentRelations true if the properties of the superclasses are inherited
+    * @param includeAlias true if the properties of the alias classes are inherited
+    * @return the inherited properties
+    */
+   public synchronized InheritedMembers getInheritedMembers(boolean includeParentRelations, boolean includeAlias) {
+      if (inheritedMembers == null) {
+         inheritedMembers = new InheritedMembers[4];
+      }
+      int index = (includeParentRelations ? 2 : 0) + (includeAlias ? 1 : 0);
+      if (inheritedMembers[index] == null) {
+         inheritedMembers[index] = new InheritedMembers(this, includeParentRelations, includeAlias);
+      }
+      return inheritedMembers[index];
+   }
+
+   /**
+    * Return the number of properties in the graph.
+    *
+    * @return the number of properties
+    */
+   public int getPropertiesCount() {
+      return properties.length;
+   }
+
+   /**
+    * Return the class of a specified id.
+    *
+    * @param id the id
+    * @return the class
+    */
+   public OwlClass getOwlClass(int id) {
+      return classes[id];
+   }
+
+   /**
+    * Return the property of a specified id.
+    *
+    * @param id the id
+    * @return the property
+    */
+   public OwlProperty getOwlProperty(int id) {
+      return properties[id];
+   }
+
+   /**
+    * Return the id of a class in this graph.
+    *
+    * @param theClass the class
+    * @return the id, or -1 if the class is not bound to this graph
+    */
+   public int getId(OwlClass theClass) {
+      return theClass.getSchemaGraph() == this ? theClass.getGraphId() : -1;
+   }
+
+   /**
+    * Return the id of a property in this graph.
+    *
+    * @param theProperty the property
+    * @return the id, or -1 if the property is not bound to this graph
+    */
+   public int getId(OwlProperty theProperty) {
+      return theProperty.getSchemaGraph() == this ? theProperty.getGraphId() : -1;
+   }
+
+   /**
+    * Return a relation between classes, or between a class and properties.
+    *
+    * @param relation the relation, for example {@link #SUPER_CLASSES}
+    * @return the relation
+    */
+   public Relation getClassRelation(int relation) {
+      return classRelations[relation];
+   }
+
+   /**
+    * Return a relation between properties.
+    *
+    * @param relation the relation, for example {@link #SUPER_PROPERTIES}
+    * @return the relation
+    */
+   public Relation getPropertyRelation(int relation) {
+      return propertyRelations[relation];
+   }
+
+   /**
+    * Return the view on a relation of a class.
+    *
+    * @param <V> the type of the targets
+    * @param id the class id
+    * @param relation the relation
+    * @return the view
+    */
+   <V extends NamedOwlElement> Map<ElementKey, V> getClassView(int id, int relation) {
+      Relation rel = classRelations[relation];
+      NamedOwlElement[] targets = isPropertyRelation(relation) ? properties : classes;
+      return new RelationView<>(targets, rel, id);
+   }
+
+   /**
+    * Return the view on a relation of a property.
+    *
+    * @param <V> the type of the targets
+    * @param id the property id
+    * @param relation the relation
+    * @return the view
+    */
+   <V extends NamedOwlElement> Map<ElementKey, V> getPropertyView(int id, int relation) {
+      return new RelationView<>(properties, propertyRelations[relation], id);
+   }
+
+   /**
+    * A relation in the CSR format.
+    */
+   public static class Relation implements Serializable {
+      private static final long serialVersionUID = 1L;
+      private final int[] offsets;
+      private int[] targets = new int[16];
+
+      private Relation(int count) {
+         offsets = new int[count + 1];
+      }
+
+      private <E> void addRow(int id, Map<ElementKey, ? extends NamedOwlElement> map, Map<E, Integer> ids) {
+         int start = offsets[id];
+         int end = start + map.size();
+         if (end > targets.length) {
+            int[] newTargets = new int[Math.max(end, targets.length * 2)];
+            System.arraycopy(targets, 0, newTargets, 0, start);
+            targets = newTargets;
+         }
+         int index = start;
+         Iterator<? extends NamedOwlElement> it = map.values().iterator();
+         while (it.hasNext()) {
+            targets[index] = ids.get(it.next());
+            index++;
+         }
+         offsets[id + 1] = end;
+         if (id == offsets.length - 2 && end < targets.length) {
+            int[] newTargets = new int[end];
+            System.arraycopy(targets, 0, newTargets, 0, end);
+            targets = newTargets;
+         }
+      }
+
+      /**
+       * Return the index of the first target of an element in the targets array.
+       *
+       * @param id the element id
+       * @return the index
+       */
+      public int getStart(int id) {
+         return offsets[id];
+      }
+
+      /**
+       * Return the index after the last target of an element in the targets array.
+       *
+       * @param id the element id
+       * @return the index
+       */
+      public int getEnd(int id) {
+         return offsets[id + 1];
+      }
+
+      /**
+       * Return the number of targets of an element.
+       *
+       * @param id the element id
+       * @return the number of targets
+       */
+      public int getDegree(int id) {
+         return offsets[id + 1] - offsets[id];
+      }
+
+      /**
+       * Return the target at an index in the targets array.
+       *
+       * @param index the index
+       * @return the target id
+       */
+      public int getTarget(int index) {
+         return targets[index];
+      }
+   }
+
+   /**
+    * An unmodifiable map view on the targets of an element for a relation.
+    */
+   private static class RelationView<V extends NamedOwlElement> extends AbstractMap<ElementKey, V> {
+      private final NamedOwlElement[] elements;
+      private final Relation relation;
+      private final int start;
+      private final int end;
+
+      private RelationView(NamedOwlElement[] elements, Relation relation, int id) {
+         this.elements = elements;
+         this.relation = relation;
+         this.start = relation.getStart(id);
+         this.end = relation.getEnd(id);
+      }
+
+      private int indexOf(Object key) {
+         for (int i = start; i < end; i++) {
+            if (elements[relation.targets[i]].getKey().equals(key)) {
+               return i;
+            }
+         }
+         return -1;
+      }
+
+      @Override
+      public int size() {
+         return end - start;
+      }
+
+      @Override
+      public boolean isEmpty() {
+         return end == start;
+      }
+
+      @Override
+      public boolean containsKey(Object key) {
+         return indexOf(key) != -1;
+      }
+
+      @Override
+      public V get(Object key) {
+         int index = indexOf(key);
+         return index == -1 ? null : (V) elements[relation.targets[index]];
+      }
+
+      @Override
+      public Set<Entry<ElementKey, V>> entrySet() {
+         return new AbstractSet<Entry<ElementKey, V>>() {
+            @Override
+            public int size() {
+               return end - start;
+            }
+
+            @Override
+            public Iterator<Entry<ElementKey, V>> iterator() {
+               return new Iterator<Entry<ElementKey, V>>() {
+                  private int index = start;
+
+                  @Override
+                  public boolean hasNext() {
+                     return index < end;
+                  }
+
+                  @Override
+                  public Entry<ElementKey, V> next() {
+                     if (index >= end) {
+                        throw new NoSuchElementException();
+                     }
+                     V element = (V) elements[relation.targets[index]];
+                     index++;
+                     return new SimpleImmutableEntry<>(element.getKey(), element);
+                  }
+               };
+            }
+         };
+      }
+   }
+}
@@ -32,15 +32,18 @@ the project website at the project page on https://github.com/hervegirod/ontolog
  */
 package org.girod.ontobrowser.model.restriction;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import org.apache.jena.ontology.CardinalityRestriction;
 import org.apache.jena.rdf.model.Resource;
 
 /**
  * An owl restriction which binds to a CardinalityRestriction.
  *
- * @version 0.12
+ * @version 0.16
  */
 public class OwlCardinalityRestriction extends RestrictedOwlRestriction<CardinalityRestriction> {
+   private Integer cardinality = null;
 
    public OwlCardinalityRestriction(CardinalityRestriction restriction) {
       super(restriction);
@@ -49,6 +52,15 @@ public class OwlCardinalityRestriction extends RestrictedOwlRestriction<Cardinal
    }
    
    public int getCardinality() {
-      return getRestriction().getCardinality();
+      if (cardinality == null) {
+         cardinality = restriction.getCardinality();
+      }
+      return cardinality;
+   }
+
+   private void writeObject(ObjectOutputStream out) throws IOException {
+      // the cardinality must be kept because the underlying restriction is not serialized
+      getCardinality();
+      out.defaultWriteObject();
    }
 }
@@ -32,15 +32,18 @@ the project website at the project page on https://github.com/hervegirod/ontolog
  */
 package org.girod.ontobrowser.model.restriction;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import org.apache.jena.ontology.MaxCardinalityRestriction;
 import org.apache.jena.rdf.model.Resource;
 
 /**
  * An owl restriction which binds to a MaxCardinalityRestriction.
  *
- * @version 0.4
+ * @version 0.16
  */
 public class OwlMaxCardinalityRestriction extends RestrictedOwlRestriction<MaxCardinalityRestriction> {
+   private Integer maxCardinality = null;
 
    public OwlMaxCardinalityRestriction(MaxCardinalityRestriction restriction) {
       super(restriction);
@@ -54,6 +57,15 @@ public class OwlMaxCardinalityRestriction extends RestrictedOwlRestriction<MaxCa
     * @return the max cardinality
     */
    public int getMaxCardinality() {
-      return restriction.getMaxCardinality();
+      if (maxCardinality == null) {
+         maxCardinality = restriction.getMaxCardinality();
+      }
+      return maxCardinality;
+   }
+
+   private void writeObject(ObjectOutputStream out) throws IOException {
+      // the cardinality must be kept because the underlying restriction is not serialized
+      getMaxCardinality();
+      out.defaultWriteObject();
    }
 }
@@ -32,14 +32,17 @@ the project website at the project page on https://github.com/hervegirod/ontolog
  */
 package org.girod.ontobrowser.model.restriction;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import org.apache.jena.ontology.MinCardinalityRestriction;
 
 /**
  * An owl restriction which binds to a MinCardinalityRestriction.
  *
- * @version 0.12
+ * @version 0.16
  */
 public class OwlMinCardinalityRestriction extends RestrictedOwlRestriction<MinCardinalityRestriction> {
+   private Integer minCardinality = null;
 
    public OwlMinCardinalityRestriction(MinCardinalityRestriction restriction) {
       super(restriction);
@@ -53,6 +56,15 @@ public class OwlMinCardinalityRestriction extends RestrictedOwlRestriction<MinCa
     * @return the min cardinality
     */
    public int getMinCardinality() {
-      return restriction.getMinCardinality();
+      if (minCardinality == null) {
+         minCardinality = restriction.getMinCardinality();
+      }
+      return minCardinality;
+   }
+
+   private void writeObject(ObjectOutputStream out) throws IOException {
+      // the cardinality must be kept because the underlying restriction is not serialized
+      getMinCardinality();
+      out.defaultWriteObject();
    }
 }
@@ -32,6 +32,7 @@ the project website at the project page on https://github.com/hervegirod/ontolog
  */
 package org.girod.ontobrowser.model.restriction;
 
+import java.io.Serializable;
 import org.apache.jena.ontology.OntClass;
 import org.girod.ontobrowser.model.ElementKey;
 import org.girod.ontobrowser.model.OwlClass;
@@ -40,9 +41,9 @@ import org.girod.ontobrowser.model.OwlSchema;
 /**
  * An owl restriction specifies an element in the domain or range of a property.
  *
- * @version 0.13
+ * @version 0.16
  */
-public abstract class OwlRestriction {
+public abstract class OwlRestriction implements Serializable {
    /**
     * The key of the Owl Class which is refered by the restriction.
     */
@@ -104,6 +105,12 @@ public abstract class OwlRestriction {
       return theClass;
    }
 
+   /**
+    * Release the Jena objects of the restriction, so that the model can be released. Does nothing by default.
+    */
+   public void detach() {
+   }
+
    /**
     * Setup the restriction.
     *
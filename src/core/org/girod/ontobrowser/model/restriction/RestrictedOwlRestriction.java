@@ -39,14 +39,14 @@ import org.girod.ontobrowser.model.ElementKey;
 /**
  * An OwlRestriction which has effectively a restriction in the OntModel.
  *
- * @since 0.1
+ * @version 0.16
  * @param <R> the restriction type
  */
 public class RestrictedOwlRestriction<R extends Restriction> extends OwlRestriction {
    /**
-    * The restriction.
+    * The restriction. It is not serialized, and is null for a restriction which has been deserialized or detached.
     */
-   protected final R restriction;
+   protected transient R restriction;
 
    public RestrictedOwlRestriction(R restriction) {
       this.restriction = restriction;
@@ -63,6 +63,11 @@ public class RestrictedOwlRestriction<R extends Restriction> extends OwlRestrict
       key = new ElementKey(nameSpace, localName);
    }
 
+   @Override
+   public void detach() {
+      restriction = null;
+   }
+
    /**
     * Return the effective Owl restriction in the OntModel.
     *
@@ -0,0 +1,134 @@
+/*
+Copyright (c) 2024 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.parsers.graph;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.girod.ontobrowser.model.AnnotatedElement;
+import org.girod.ontobrowser.model.AnnotationsMaterializer;
+import org.girod.ontobrowser.model.OwlClass;
+import org.girod.ontobrowser.model.OwlProperty;
+import org.girod.ontobrowser.model.OwlSchema;
+
+/**
+ * Materializes the annotations of the elements of a schema the first time they are accessed, for example when an element is selected,
+ * rendered in a tooltip, searched, or exported. The annotations of the classes and properties which have not been used recently are
+ * evicted, and materialized again from the model if they are accessed later.
+ *
+ * <p>The annotations of the individuals are not evicted, because some of them are created at extraction.</p>
+ *
+ * @since 0.16
+ */
+public class AnnotationsCache implements AnnotationsMaterializer {
+   /**
+    * The default maximum number of elements whose annotations are kept.
+    */
+   public static final int DEFAULT_CAPACITY = 2048;
+   private final OwlSchema schema;
+   private final AnnotationsHelper helper;
+   private final int capacity;
+   private final Map<AnnotatedElement, Boolean> materialized = new LinkedHashMap<>(16, 0.75f, true);
+
+   /**
+    * Constructor.
+    *
+    * @param schema the schema
+    * @param helper the helper which creates the annotations
+    * @param capacity the maximum number of elements whose annotations are kept
+    */
+   public AnnotationsCache(OwlSchema schema, AnnotationsHelper helper, int capacity) {
+      this.schema = schema;
+      this.helper = helper;
+      this.capacity = capacity;
+   }
+
+   /**
+    * Constructor, with the {@link #DEFAULT_CAPACITY} capacity.
+    *
+    * @param schema the schema
+    * @param helper the helper which creates the annotations
+    */
+   public AnnotationsCache(OwlSchema schema, AnnotationsHelper helper) {
+      this(schema, helper, DEFAULT_CAPACITY);
+   }
+
+   /**
+    * Return the number of elements whose annotations are currently kept in the cache.
+    *
+    * @return the number of elements
+    */
+   public int size() {
+      synchronized (materialized) {
+         return materialized.size();
+      }
+   }
+
+   @Override
+   public void materialize(AnnotatedElement element) {
+      schema.executeRead(() -> helper.materializeAnnotations(element));
+   }
+
+   @Override
+   public AnnotationsMaterializer forVersion(OwlSchema schema) {
+      return new AnnotationsCache(schema, new AnnotationsHelper(schema, null), capacity);
+   }
+
+   @Override
+   public void materialized(AnnotatedElement element) {
+      if (!(element instanceof OwlClass) && !(element instanceof OwlProperty)) {
+         return;
+      }
+      List<AnnotatedElement> evicted = null;
+      synchronized (materialized) {
+         materialized.put(element, Boolean.TRUE);
+         if (materialized.size() > capacity) {
+            evicted = new ArrayList<>();
+            Iterator<AnnotatedElement> it = materialized.keySet().iterator();
+            while (materialized.size() > capacity && it.hasNext()) {
+               evicted.add(it.next());
+               it.remove();
+            }
+         }
+      }
+      // the annotations are evicted outside of the lock, because evicting an element needs the lock of the element
+      if (evicted != null) {
+         Iterator<AnnotatedElement> it = evicted.iterator();
+         while (it.hasNext()) {
+            it.next().evictAnnotations(this);
+         }
+      }
+   }
+}
@@ -49,7 +49,10 @@ import org.apache.jena.ontology.OntologyException;
 import org.apache.jena.rdf.model.Property;
 import org.apache.jena.rdf.model.RDFNode;
 import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.rdf.model.StmtIterator;
 import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.vocabulary.RDFS;
 import org.girod.ontobrowser.model.AnnotatedElement;
 import org.girod.ontobrowser.model.AnnotationValue;
 import org.girod.ontobrowser.model.ElementKey;
@@ -62,23 +65,58 @@ import org.girod.ontobrowser.model.OwlProperty;
 import org.girod.ontobrowser.model.OwlSchema;
 
 /**
- * This class get the annotations on elements in the graph.
+ * This class get the annotations on elements in the graph. The annotations of the classes, properties, and individuals are not created
+ * at extraction, only their label is. They are materialized the first time they are accessed, see {@link AnnotationsCache}.
  *
- * @version 0.11
+ * <p>The materialization of the annotations of an element must not modify the schema, which may already be shown and read by other threads.
+ * All the annotations which can be used by the elements are registered in the schema at extraction.</p>
+ *
+ * @version 0.16
  */
 public class AnnotationsHelper {
    private final OwlSchema graph;
    private final GraphExtractor extractor;
-   private final OntModel model;
    private final SkippedAnnotations skipped = SkippedAnnotations.getInstance();
 
    public AnnotationsHelper(OwlSchema graph, GraphExtractor extractor) {
       this.graph = graph;
       this.extractor = extractor;
-      this.model = graph.getOntModel();
+   }
+
+   /**
+    * Return the annotation for one of the default annotations of the elements, such as rdfs:seeAlso. The annotation is only registered in
+    * the schema at extraction. When the annotations of an element are materialized, the annotation has already been registered if the
+    * element has a value for it.
+    *
+    * @param key the annotation key
+    * @param defaultAnnotation the annotation to use if it has not been registered
+    * @return the annotation
+    */
+   private OwlAnnotation getDefaultAnnotation(ElementKey key, OwlAnnotation defaultAnnotation) {
+      if (extractor != null) {
+         return graph.getOrCreateAnnotation(key);
+      }
+      OwlAnnotation annotation = graph.getElementAnnotation(key);
+      return annotation != null ? annotation : defaultAnnotation;
+   }
+
+   /**
+    * Register the default annotations for which an element has a value, so that they exist when the annotations of the element are
+    * materialized.
+    *
+    * @param resource the resource of the element
+    */
+   private void registerDefaultAnnotations(OntResource resource) {
+      if (resource.hasProperty(RDFS.isDefinedBy)) {
+         graph.getOrCreateAnnotation(AnnotatedElement.DEFINED_BY);
+      }
+      if (resource.hasProperty(RDFS.seeAlso)) {
+         graph.getOrCreateAnnotation(AnnotatedElement.SEE_ALSO);
+      }
    }
 
    public void addSchemaAnnotations() {
+      OntModel model = graph.getOntModel();
       List<AnnotationProperty> annProperties = new ArrayList<>();
       // list annotations
       ExtendedIterator<AnnotationProperty> annotations = model.listAnnotationProperties();
@@ -103,7 +141,7 @@ public class AnnotationsHelper {
             if (theNode == null) {
                continue;
             }
-            ElementKey annkey = ElementKey.create(annProperty.getNameSpace(), annProperty.getLocalName());
+            ElementKey annkey = graph.getElementKey(annProperty.getNameSpace(), annProperty.getLocalName());
             if (skipped.isSkipped(annkey)) {
                continue;
             }
@@ -124,7 +162,7 @@ public class AnnotationsHelper {
                String name = resource.getLocalName();
                String namespace = resource.getNameSpace();
                if (name != null && namespace != null) {
-                  ElementKey key = ElementKey.create(namespace, name);
+                  ElementKey key = graph.getElementKey(namespace, name);
                   if (resource instanceof OntClass) {
                      if (graph.hasOwlClass(key)) {
                         value = new AnnotationValue.ElementAnnotationValue(annotation, graph.getOwlClass(key));
@@ -148,13 +186,19 @@ public class AnnotationsHelper {
       }
    }
 
+   /**
+    * Set the labels of the elements, and the materializer which will create their other annotations the first time they are accessed.
+    */
    public void addDefaultAnnotations() {
+      AnnotationsCache cache = new AnnotationsCache(graph, new AnnotationsHelper(graph, null));
       Iterator<OwlClass> it = graph.getOwlClasses().values().iterator();
       while (it.hasNext()) {
          OwlClass owlClass = it.next();
          OntClass theClass = owlClass.getOntClass();
          if (theClass != null) {
-            this.setDefaultAnnotations(owlClass, theClass);
+            setLabel(owlClass, theClass);
+            registerDefaultAnnotations(theClass);
+            owlClass.setAnnotationsMaterializer(cache);
          }
       }
 
@@ -163,7 +207,9 @@ public class AnnotationsHelper {
          OwlProperty owlProperty = it2.next();
          OntProperty theProperty = owlProperty.getProperty();
          if (theProperty != null) {
-            this.setDefaultAnnotations(owlProperty, theProperty);
+            setLabel(owlProperty, theProperty);
+            registerDefaultAnnotations(theProperty);
+            owlProperty.setAnnotationsMaterializer(cache);
          }
       }
 
@@ -172,13 +218,78 @@ public class AnnotationsHelper {
          OwlIndividual owlIndividual = it3.next();
          Resource resource = owlIndividual.getIndividual();
          if (resource instanceof OntResource) {
-            this.setDefaultAnnotations(owlIndividual, (OntResource) resource);
+            setLabel(owlIndividual, (OntResource) resource);
+            registerDefaultAnnotations((OntResource) resource);
+            owlIndividual.setAnnotationsMaterializer(cache);
          } else {
             //this.setDefaultAnnotations(owlIndividual, resource);
          }
       }
    }
 
+   /**
+    * Materialize the annotations of an element.
+    *
+    * @param element the element
+    */
+   void materializeAnnotations(AnnotatedElement element) {
+      if (element instanceof OwlClass) {
+         OwlClass owlClass = (OwlClass) element;
+         OntClass theClass = owlClass.getOntClass();
+         if (theClass != null) {
+            // the statements of the Thing class are not annotations
+            if (!owlClass.isThing()) {
+               StmtIterator it = theClass.listProperties();
+               while (it.hasNext()) {
+                  Property prop = it.next().getPredicate();
+                  OwlAnnotation annotation = getAnnotation(prop);
+                  if (annotation != null) {
+                     addAnnotationValue(theClass, owlClass, annotation, prop);
+                  }
+               }
+            }
+            setDefaultAnnotations(owlClass, theClass);
+         }
+      } else if (element instanceof OwlProperty) {
+         OwlProperty owlProperty = (OwlProperty) element;
+         OntProperty theProperty = owlProperty.getProperty();
+         if (theProperty != null) {
+            if (owlProperty instanceof OwlObjectProperty || owlProperty instanceof OwlDatatypeProperty) {
+               StmtIterator it = theProperty.listProperties();
+               while (it.hasNext()) {
+                  Statement statement = it.next();
+                  OwlAnnotation annotation = getAnnotation(statement.getPredicate());
+                  if (annotation == null) {
+                     continue;
+                  }
+                  if (owlProperty instanceof OwlObjectProperty) {
+                     addAnnotationValue(statement.getObject(), (OwlObjectProperty) owlProperty, annotation);
+                  } else {
+                     addAnnotationValue(statement.getObject(), (OwlDatatypeProperty) owlProperty, annotation);
+                  }
+               }
+            }
+            setDefaultAnnotations(owlProperty, theProperty);
+         }
+      } else if (element instanceof OwlIndividual) {
+         Resource resource = ((OwlIndividual) element).getIndividual();
+         if (resource instanceof OntResource) {
+            setDefaultAnnotations(element, (OntResource) resource);
+         }
+      }
+   }
+
+   /**
+    * Return the annotation of a predicate. The annotations of the predicates of all the elements are created at extraction.
+    *
+    * @param predicate the predicate
+    * @return the annotation
+    */
+   private OwlAnnotation getAnnotation(Property predicate) {
+      ElementKey theKey = graph.getElementKey(predicate.getNameSpace(), predicate.getLocalName());
+      return graph.getElementAnnotation(theKey);
+   }
+
    private void setDefaultAnnotations(AnnotatedElement element, OntResource resource) {
       String comment = getComments(resource);
       element.setComments(comment);
@@ -219,7 +330,7 @@ public class AnnotationsHelper {
    private void setIsDefinedBy(AnnotatedElement element, OntResource resource) {
       Resource isDefinedBy = resource.getIsDefinedBy();
       if (isDefinedBy != null) {
-         OwlAnnotation annotation = graph.getOrCreateAnnotation(AnnotatedElement.DEFINED_BY);
+         OwlAnnotation annotation = getDefaultAnnotation(AnnotatedElement.DEFINED_BY, AnnotatedElement.DEFINED_BY_ANNOTATION);
          if (isDefinedBy.isLiteral()) {
             String _definedBy = isDefinedBy.asLiteral().getString();            
             element.setIsDefinedBy(new AnnotationValue.LiteralAnnotationValue(annotation, _definedBy));
@@ -244,7 +355,7 @@ public class AnnotationsHelper {
       try {
          seeAlso = resource.getSeeAlso();
       } catch (OntologyException e) {
-         OwlAnnotation annotation = graph.getOrCreateAnnotation(AnnotatedElement.SEE_ALSO);
+         OwlAnnotation annotation = getDefaultAnnotation(AnnotatedElement.SEE_ALSO, AnnotatedElement.SEE_ALSO_ANNOTATION);
          if (resource.isURIResource()) {
             String uriAsString = resource.getURI();
             URI uri;
@@ -261,7 +372,7 @@ public class AnnotationsHelper {
          seeAlso = null;
       }
       if (seeAlso != null) {
-         OwlAnnotation annotation = graph.getOrCreateAnnotation(AnnotatedElement.SEE_ALSO);
+         OwlAnnotation annotation = getDefaultAnnotation(AnnotatedElement.SEE_ALSO, AnnotatedElement.SEE_ALSO_ANNOTATION);
          if (seeAlso.isLiteral()) {
             String _seeAlso = seeAlso.asLiteral().getString();
             element.setSeeAlso(new AnnotationValue.LiteralAnnotationValue(annotation, _seeAlso));
@@ -281,7 +392,7 @@ public class AnnotationsHelper {
             String name = seeAlso.getLocalName();
             String namespace = seeAlso.getNameSpace();
             if (name != null && namespace != null) {
-               ElementKey key = ElementKey.create(namespace, name);
+               ElementKey key = graph.getElementKey(namespace, name);
                AnnotationValue value = null;
                if (resource instanceof OntClass) {
                   if (graph.hasOwlClass(key)) {
@@ -336,7 +447,7 @@ public class AnnotationsHelper {
          String name = resource.getLocalName();
          String namespace = resource.getNameSpace();
          if (name != null && namespace != null) {
-            ElementKey key = ElementKey.create(namespace, name);
+            ElementKey key = graph.getElementKey(namespace, name);
             if (resource instanceof OntClass) {
                if (graph.hasOwlClass(key)) {
                   value = new AnnotationValue.ElementAnnotationValue(annotation, graph.getOwlClass(key));
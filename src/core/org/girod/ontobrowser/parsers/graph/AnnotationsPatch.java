@@ -0,0 +1,171 @@
+/*
+Copyright (c) 2024 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.parsers.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.vocabulary.OWL;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.girod.ontobrowser.model.AnnotatedElement;
+import org.girod.ontobrowser.model.ElementIndex;
+import org.girod.ontobrowser.model.ElementKey;
+import org.girod.ontobrowser.model.OwlClass;
+import org.girod.ontobrowser.model.OwlProperty;
+import org.girod.ontobrowser.model.OwlSchema;
+
+/**
+ * Applies a {@link ModelDiff} on an already extracted schema, when the difference only changes the annotations of existing classes or
+ * properties. In this case the schema does not need to be extracted again: only the annotations of the changed elements are created again
+ * from the patched model.
+ *
+ * <p>The patch can not be used if any changed triple uses a blank node, has a subject which is not a class or a property of the schema, is
+ * the label of the element (because the label is used by the trees and the diagram), or uses a predicate which is not one of the annotations
+ * of the schema. The annotations of the individuals are created at extraction, so the individuals are not handled by the patch either.</p>
+ *
+ * @since 0.16
+ */
+public class AnnotationsPatch {
+   private final OwlSchema schema;
+   private final Set<AnnotatedElement> elements = new LinkedHashSet<>();
+   private boolean isApplicable = true;
+
+   /**
+    * Constructor. The changed elements are computed at construction.
+    *
+    * @param schema the schema which has been extracted from the previous model
+    * @param diff the difference between the previous model and the current model
+    */
+   public AnnotationsPatch(OwlSchema schema, ModelDiff diff) {
+      this.schema = schema;
+      if (diff.hasPrefixChanges() || schema.getElementIndex() == null) {
+         isApplicable = false;
+      } else {
+         addTriples(diff.getRemovedTriples());
+         addTriples(diff.getAddedTriples());
+      }
+      if (!isApplicable) {
+         elements.clear();
+      }
+   }
+
+   private void addTriples(Set<Triple> triples) {
+      Iterator<Triple> it = triples.iterator();
+      while (it.hasNext() && isApplicable) {
+         isApplicable = addTriple(it.next());
+      }
+   }
+
+   private boolean addTriple(Triple triple) {
+      Node subject = triple.getSubject();
+      Node object = triple.getObject();
+      if (!subject.isURI() || object.isBlank() || !isAnnotation(triple.getPredicate())) {
+         return false;
+      }
+      ElementIndex.Entry entry = schema.getElementIndex().getEntry(subject.getURI());
+      if (entry == null || entry.hasKind(ElementIndex.INDIVIDUAL)) {
+         return false;
+      }
+      OwlClass owlClass = entry.getOwlClass();
+      if (owlClass != null) {
+         if (owlClass.getOntClass() == null) {
+            return false;
+         }
+         elements.add(owlClass);
+      }
+      OwlProperty owlProperty = entry.getOwlProperty();
+      if (owlProperty != null) {
+         if (owlProperty.getProperty() == null) {
+            return false;
+         }
+         elements.add(owlProperty);
+      }
+      return true;
+   }
+
+   private boolean isAnnotation(Node predicate) {
+      if (!predicate.isURI() || predicate.equals(RDFS.label.asNode())) {
+         return false;
+      }
+      if (predicate.equals(RDFS.comment.asNode()) || predicate.equals(RDFS.seeAlso.asNode()) || predicate.equals(RDFS.isDefinedBy.asNode())
+         || predicate.equals(OWL.versionInfo.asNode())) {
+         return true;
+      }
+      // the predicates of the vocabularies are also registered as annotations, but they may change the structure of the schema
+      String namespace = predicate.getNameSpace();
+      if (namespace.equals(RDF.getURI()) || namespace.equals(RDFS.getURI()) || namespace.equals(OWL.getURI())) {
+         return false;
+      }
+      // only the annotations which have been registered at extraction are created when the annotations are materialized
+      ElementKey key = ElementKey.create(namespace, predicate.getLocalName());
+      return schema.getElementAnnotation(key) != null && !schema.hasOwlProperty(key);
+   }
+
+   /**
+    * Return true if the difference only changes the annotations of existing classes or properties of the schema.
+    *
+    * @return true if the patch can be used
+    */
+   public boolean isApplicable() {
+      return isApplicable;
+   }
+
+   /**
+    * Return the elements whose annotations are changed by the difference.
+    *
+    * @return the elements
+    */
+   public List<AnnotatedElement> getElements() {
+      return Collections.unmodifiableList(new ArrayList<>(elements));
+   }
+
+   /**
+    * Create again the annotations of the changed elements. The difference must have been applied on the model of the schema before.
+    */
+   public void apply() {
+      if (!isApplicable) {
+         throw new IllegalStateException("The difference does not only change annotations");
+      }
+      AnnotationsCache cache = new AnnotationsCache(schema, new AnnotationsHelper(schema, null));
+      Iterator<AnnotatedElement> it = elements.iterator();
+      while (it.hasNext()) {
+         it.next().refreshAnnotations(cache);
+      }
+   }
+}
@@ -0,0 +1,161 @@
+/*
+Copyright (c) 2024 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.parsers.graph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * An extraction phase which computes a result for each element of a list. The results are computed in parallel
+ * if the executor has a pool, and are merged in the order of the list.
+ *
+ * @param <E> the elements type
+ * @param <R> the results type
+ * @since 0.16
+ */
+public abstract class ElementsPhase<E, R> extends ExtractionPhase {
+   /**
+    * The number of elements under which the computation is not split anymore.
+    */
+   private static final int THRESHOLD = 64;
+   private List<E> elements = null;
+   private Object[] results = null;
+
+   /**
+    * Constructor.
+    *
+    * @param name the phase name
+    * @param dependencies the phases which must have been merged before this phase can be prepared
+    */
+   public ElementsPhase(String name, ExtractionPhase... dependencies) {
+      super(name, dependencies);
+   }
+
+   /**
+    * Return the elements of this phase. This method is called by {@link #prepare()} if
+    * {@link #listElementsInCompute()} returns false, else by {@link #compute()}.
+    *
+    * @return the elements
+    */
+   protected abstract List<E> listElements();
+
+   /**
+    * Return true if the elements only depend on the Jena model, and can be listed in the {@link #compute()} step.
+    * Return false by default.
+    *
+    * @return true if the elements can be listed in the {@link #compute()} step
+    */
+   protected boolean listElementsInCompute() {
+      return false;
+   }
+
+   /**
+    * Compute the result for one element. This method must not modify the schema.
+    *
+    * @param element the element
+    * @return the result
+    */
+   protected abstract R computeElement(E element);
+
+   /**
+    * Merge the result for one element in the schema.
+    *
+    * @param element the element
+    * @param result the result
+    */
+   protected abstract void mergeElement(E element, R result);
+
+   @Override
+   protected void prepare() {
+      if (!listElementsInCompute()) {
+         elements = new ArrayList<>(listElements());
+      }
+   }
+
+   @Override
+   protected void compute() {
+      if (listElementsInCompute()) {
+         elements = new ArrayList<>(listElements());
+      }
+      results = new Object[elements.size()];
+      if (getExecutor().isParallel() && elements.size() > THRESHOLD) {
+         getExecutor().invoke(new ComputeAction(0, elements.size()));
+      } else {
+         computeRange(0, elements.size());
+      }
+   }
+
+   private void computeRange(int from, int to) {
+      for (int i = from; i < to; i++) {
+         if (getExecutor().isCancelled()) {
+            return;
+         }
+         results[i] = computeElement(elements.get(i));
+      }
+   }
+
+   @Override
+   protected void merge() {
+      for (int i = 0; i < results.length; i++) {
+         @SuppressWarnings("unchecked")
+         R result = (R) results[i];
+         mergeElement(elements.get(i), result);
+      }
+      elements = null;
+      results = null;
+   }
+
+   /**
+    * The action which computes the results for a range of elements.
+    */
+   private class ComputeAction extends RecursiveAction {
+      private final int from;
+      private final int to;
+
+      private ComputeAction(int from, int to) {
+         this.from = from;
+         this.to = to;
+      }
+
+      @Override
+      protected void compute() {
+         if (to - from <= THRESHOLD) {
+            computeRange(from, to);
+         } else {
+            int middle = (from + to) >>> 1;
+            invokeAll(new ComputeAction(from, middle), new ComputeAction(middle, to));
+         }
+      }
+   }
+}
@@ -32,8 +32,10 @@ the project website at the project page on https://github.com/hervegirod/ontolog
  */
 package org.girod.ontobrowser.parsers.graph;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.apache.jena.ontology.BooleanClassDescription;
@@ -53,6 +55,7 @@ import org.apache.jena.rdf.model.Statement;
 import org.apache.jena.rdf.model.StmtIterator;
 import org.apache.jena.util.iterator.ExtendedIterator;
 import org.girod.ontobrowser.model.ElementKey;
+import org.girod.ontobrowser.model.EquivalenceGroups;
 import org.girod.ontobrowser.model.OwlAnnotation;
 import org.girod.ontobrowser.model.OwlAutoIndividual;
 import org.girod.ontobrowser.model.OwlClass;
@@ -65,7 +68,7 @@ import org.girod.ontobrowser.model.OwlSchema;
 /**
  * A helper for boolean expressions.
  *
- * @version 0.13
+ * @version 0.16
  */
 public class ExpressionsHelper {
    private final OwlSchema graph;
@@ -95,7 +98,7 @@ public class ExpressionsHelper {
                extractor.addError("property.noname");
                continue;
             }
-            ElementKey otherKey = new ElementKey(theProperty.getNameSpace(), theProperty.getLocalName());
+            ElementKey otherKey = graph.getElementKey(theProperty.getNameSpace(), theProperty.getLocalName());
             set.add(otherKey);
          } catch (ConversionException ex) {
             extractor.addError(ex);
@@ -104,6 +107,30 @@ public class ExpressionsHelper {
    }
 
    public void addEquivalentClasses(Map<ElementKey, Set<ElementKey>> equivalentClasses, OntClass thisClass, OwlClass owlClass) {
+      List<OntClass> list = new ArrayList<>();
+      ConversionException exception = null;
+      ExtendedIterator<OntClass> it = thisClass.listEquivalentClasses();
+      try {
+         while (it.hasNext()) {
+            list.add(it.next());
+         }
+      } catch (ConversionException ex) {
+         exception = ex;
+      }
+      addEquivalentClasses(equivalentClasses, thisClass, list, exception, owlClass);
+   }
+
+   /**
+    * Add the equivalent classes of a class, when the equivalent classes have already been listed.
+    *
+    * @param equivalentClasses the equivalent classes map
+    * @param thisClass the class
+    * @param list the equivalent classes of the class
+    * @param exception the exception which occurred when listing the equivalent classes (may be null)
+    * @param owlClass the Owl class
+    */
+   public void addEquivalentClasses(Map<ElementKey, Set<ElementKey>> equivalentClasses, OntClass thisClass, List<OntClass> list,
+           ConversionException exception, OwlClass owlClass) {
       ElementKey key = owlClass.getKey();
       Set<ElementKey> set;
       if (equivalentClasses.containsKey(key)) {
@@ -112,7 +139,7 @@ public class ExpressionsHelper {
          set = new HashSet<>();
          equivalentClasses.put(key, set);
       }
-      ExtendedIterator<OntClass> it = thisClass.listEquivalentClasses();
+      Iterator<OntClass> it = list.iterator();
       try {
          while (it.hasNext()) {
             OntClass theClass = it.next();
@@ -130,10 +157,13 @@ public class ExpressionsHelper {
                   extractor.addInfo("equivalentclass.nothandled", key);
                }
             } else {
-               ElementKey otherKey = new ElementKey(theClass.getNameSpace(), theClass.getLocalName());
+               ElementKey otherKey = graph.getElementKey(theClass.getNameSpace(), theClass.getLocalName());
                set.add(otherKey);
             }
          }
+         if (exception != null) {
+            throw exception;
+         }
       } catch (ConversionException ex) {
          extractor.addError(ex);
       }
@@ -151,7 +181,7 @@ public class ExpressionsHelper {
             String name = resource.getLocalName();
             if (resource instanceof OntResource) {
                OntResource ontResource = (OntResource) resource;
-               ElementKey key = ElementKey.create(namespace, name);
+               ElementKey key = graph.getElementKey(namespace, name);
                if (ontResource.isIndividual()) {
                   if (graph.hasIndividual(key)) {
                      OwlIndividual individual = graph.getIndividual(key);
@@ -163,7 +193,7 @@ public class ExpressionsHelper {
                   }
                }
             } else {
-               ElementKey key = ElementKey.create(namespace, name);
+               ElementKey key = graph.getElementKey(namespace, name);
                if (graph.hasIndividual(key)) {
                   OwlIndividual individual = graph.getIndividual(key);
                   equivalentExpression.addElement(individual);
@@ -175,7 +205,7 @@ public class ExpressionsHelper {
                      Statement statement = iterSmt.next();
                      RDFNode node2 = statement.getObject();
                      Property predicate = statement.getPredicate();
-                     ElementKey theKey = ElementKey.create(predicate.getNameSpace(), predicate.getLocalName());
+                     ElementKey theKey = graph.getElementKey(predicate.getNameSpace(), predicate.getLocalName());
                      OwlAnnotation annotation = graph.getOrCreateAnnotation(theKey);
                      annotationsHelper.addAnnotationValue(node2, owlIndividual, annotation);
                   }
@@ -198,7 +228,7 @@ public class ExpressionsHelper {
                String namespace = resource.getNameSpace();
                String name = resource.getLocalName();
                if (namespace != null && name != null) {
-                  ElementKey key = ElementKey.create(namespace, name);
+                  ElementKey key = graph.getElementKey(namespace, name);
                   if (resource.isIndividual()) {
                      if (graph.hasIndividual(key)) {
                         OwlIndividual individual = graph.getIndividual(key);
@@ -227,7 +257,7 @@ public class ExpressionsHelper {
                         Statement statement = iterSmt.next();
                         RDFNode node = statement.getObject();
                         Property predicate = statement.getPredicate();
-                        ElementKey theKey = ElementKey.create(predicate.getNameSpace(), predicate.getLocalName());
+                        ElementKey theKey = graph.getElementKey(predicate.getNameSpace(), predicate.getLocalName());
                         OwlAnnotation annotation = graph.getOrCreateAnnotation(theKey);
                         annotationsHelper.addAnnotationValue(node, owlIndividual, annotation);
                      }
@@ -239,7 +269,14 @@ public class ExpressionsHelper {
       owlClass.addEquivalentExpression(equivalentExpression);
    }
 
+   /**
+    * Fill the equivalent classes of the schema. Every asserted equivalence is kept as an alias between the two classes, and the
+    * classes are also merged in the groups of equivalent classes of the schema, which are used for the transitive queries.
+    *
+    * @param equivalentKeys the equivalent classes map
+    */
    public void fillEquivalentClasses(Map<ElementKey, Set<ElementKey>> equivalentKeys) {
+      EquivalenceGroups<OwlClass> groups = graph.getEquivalentClassesGroups();
       Iterator<Map.Entry<ElementKey, Set<ElementKey>>> it = equivalentKeys.entrySet().iterator();
       while (it.hasNext()) {
          Map.Entry<ElementKey, Set<ElementKey>> entry = it.next();
@@ -251,6 +288,7 @@ public class ExpressionsHelper {
                ElementKey theKey = it2.next();
                if (graph.hasOwlClass(theKey)) {
                   OwlClass theOtherClass = graph.getOwlClass(theKey);
+                  groups.union(thisClass, theOtherClass);
                   thisClass.addEquivalentClass(theOtherClass);
                }
             }
@@ -258,7 +296,14 @@ public class ExpressionsHelper {
       }
    }
 
+   /**
+    * Fill the equivalent properties of the schema. Every asserted equivalence is kept as an alias between the two properties, and
+    * the properties are also merged in the groups of equivalent properties of the schema.
+    *
+    * @param equivalentKeys the equivalent properties map
+    */
    public void fillEquivalentProperties(Map<ElementKey, Set<ElementKey>> equivalentKeys) {
+      EquivalenceGroups<OwlProperty> groups = graph.getEquivalentPropertiesGroups();
       Iterator<Map.Entry<ElementKey, Set<ElementKey>>> it = equivalentKeys.entrySet().iterator();
       while (it.hasNext()) {
          Map.Entry<ElementKey, Set<ElementKey>> entry = it.next();
@@ -270,6 +315,7 @@ public class ExpressionsHelper {
                ElementKey theKey = it2.next();
                if (graph.hasOwlProperty(theKey)) {
                   OwlProperty theOtherProperty = graph.getOwlProperty(theKey);
+                  groups.union(thisProperty, theOtherProperty);
                   thisProperty.addAliasProperty(theOtherProperty);
                }
             }
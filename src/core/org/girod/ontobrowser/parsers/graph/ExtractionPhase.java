@@ -0,0 +1,122 @@
+/*
+Copyright (c) 2024 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.parsers.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A phase of the extraction of an Ontology. The execution of a phase is split in three steps:
+ * <ul>
+ * <li>{@link #prepare()}: called on the extraction thread when all the dependencies of the phase have been merged</li>
+ * <li>{@link #compute()}: may be called on a pool thread, and must only read the Jena model and the content prepared by the phase.
+ * It must not modify the schema, and it must collect its result in its own buffer</li>
+ * <li>{@link #merge()}: called on the extraction thread, in the order of declaration of the phases, to merge the buffer in the schema</li>
+ * </ul>
+ *
+ * @since 0.16
+ */
+public abstract class ExtractionPhase {
+   private final String name;
+   private final List<ExtractionPhase> dependencies;
+   private PhasesExecutor executor = null;
+
+   /**
+    * Constructor.
+    *
+    * @param name the phase name
+    * @param dependencies the phases which must have been merged before this phase can be prepared
+    */
+   public ExtractionPhase(String name, ExtractionPhase... dependencies) {
+      this.name = name;
+      List<ExtractionPhase> list = new ArrayList<>(dependencies.length);
+      for (int i = 0; i < dependencies.length; i++) {
+         list.add(dependencies[i]);
+      }
+      this.dependencies = Collections.unmodifiableList(list);
+   }
+
+   /**
+    * Return the phase name.
+    *
+    * @return the phase name
+    */
+   public String getName() {
+      return name;
+   }
+
+   /**
+    * Return the phases which must have been merged before this phase can be prepared.
+    *
+    * @return the dependencies
+    */
+   public List<ExtractionPhase> getDependencies() {
+      return dependencies;
+   }
+
+   void setExecutor(PhasesExecutor executor) {
+      this.executor = executor;
+   }
+
+   /**
+    * Return the executor of this phase.
+    *
+    * @return the executor
+    */
+   protected PhasesExecutor getExecutor() {
+      return executor;
+   }
+
+   /**
+    * Prepare the phase. This method is called on the extraction thread. Does nothing by default.
+    */
+   protected void prepare() {
+   }
+
+   /**
+    * Compute the content of the buffer of this phase. Does nothing by default.
+    */
+   protected void compute() {
+   }
+
+   /**
+    * Merge the buffer of this phase in the schema.
+    */
+   protected abstract void merge();
+
+   @Override
+   public String toString() {
+      return name;
+   }
+}
@@ -0,0 +1,299 @@
+/*
+Copyright (c) 2021, 2023 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.parsers.graph;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import org.girod.ontobrowser.model.ElementKey;
+import org.girod.ontobrowser.model.NamedOwlElement;
+import org.girod.ontobrowser.model.OwlClass;
+import org.girod.ontobrowser.model.OwlIndividual;
+import org.girod.ontobrowser.model.OwlObjectProperty;
+import org.girod.ontobrowser.model.OwlProperty;
+import org.girod.ontobrowser.model.OwlSchema;
+
+/**
+ * A combined adjacency view of the classes, properties and individuals of a schema, used to remove the foreign elements
+ * which are not connected to the schema own elements.
+ *
+ * The view has an edge from an element to each element which is kept if the first element is not foreign:
+ * <ul>
+ * <li>between classes for the alias, super-classes and sub-classes relations (except for the <code>owl:Thing</code> class)</li>
+ * <li>between properties for the alias, super-properties and sub-properties relations</li>
+ * <li>between properties and their domain classes, and between object properties and their range classes and inverse property</li>
+ * <li>between classes and their individuals</li>
+ * </ul>
+ * The traversal is seeded from all the non-foreign elements, and foreign elements are reached but not traversed, so only
+ * the foreign elements which are directly connected to a non-foreign element are kept.
+ *
+ * @since 0.16
+ */
+public class ForeignElementsGraph {
+   private final OwlSchema graph;
+   private final List<NamedOwlElement> elements = new ArrayList<>();
+   private final Map<NamedOwlElement, Integer> elementToId = new IdentityHashMap<>();
+   private int[] sources = new int[16];
+   private int[] targets = new int[16];
+   private int edgesCount = 0;
+
+   /**
+    * Constructor.
+    *
+    * @param graph the schema
+    */
+   public ForeignElementsGraph(OwlSchema graph) {
+      this.graph = graph;
+   }
+
+   /**
+    * Remove the foreign elements which are not connected to a non-foreign element of the schema.
+    */
+   public void removeDisconnectedElements() {
+      addEdges();
+      BitSet reached = getReachedElements();
+      removeClasses(reached);
+      removeProperties(reached);
+      removeIndividuals(reached);
+   }
+
+   private int getId(NamedOwlElement element) {
+      Integer id = elementToId.get(element);
+      if (id == null) {
+         id = elements.size();
+         elements.add(element);
+         elementToId.put(element, id);
+      }
+      return id;
+   }
+
+   private void addEdge(NamedOwlElement from, NamedOwlElement to) {
+      if (from == null) {
+         return;
+      }
+      if (edgesCount == sources.length) {
+         int length = sources.length * 2;
+         int[] newSources = new int[length];
+         int[] newTargets = new int[length];
+         System.arraycopy(sources, 0, newSources, 0, edgesCount);
+         System.arraycopy(targets, 0, newTargets, 0, edgesCount);
+         sources = newSources;
+         targets = newTargets;
+      }
+      sources[edgesCount] = getId(from);
+      targets[edgesCount] = getId(to);
+      edgesCount++;
+   }
+
+   private void addClassEdges(OwlClass theClass, Map<ElementKey, OwlClass> classes) {
+      Iterator<OwlClass> it = classes.values().iterator();
+      while (it.hasNext()) {
+         OwlClass otherClass = it.next();
+         if (!otherClass.isThing()) {
+            addEdge(otherClass, theClass);
+         }
+      }
+   }
+
+   private void addPropertyEdges(OwlProperty theProperty, Map<ElementKey, OwlProperty> properties) {
+      Iterator<OwlProperty> it = properties.values().iterator();
+      while (it.hasNext()) {
+         addEdge(it.next(), theProperty);
+      }
+   }
+
+   private void addEdges() {
+      Iterator<OwlClass> it = graph.getOwlClasses().values().iterator();
+      while (it.hasNext()) {
+         OwlClass theClass = it.next();
+         getId(theClass);
+         if (!theClass.isForeign()) {
+            continue;
+         }
+         if (theClass.hasAliasClasses()) {
+            addClassEdges(theClass, theClass.getAliasClasses());
+         }
+         if (theClass.hasFromAliasedClasses()) {
+            addClassEdges(theClass, theClass.getFromAliasClasses());
+         }
+         if (theClass.hasSuperClasses()) {
+            addClassEdges(theClass, theClass.getSuperClasses());
+         }
+         if (theClass.hasSubClasses()) {
+            addClassEdges(theClass, theClass.getSubClasses());
+         }
+         if (theClass.hasOwlProperties()) {
+            Iterator<OwlProperty> itp = theClass.getOwlProperties().values().iterator();
+            while (itp.hasNext()) {
+               addEdge(itp.next(), theClass);
+            }
+         }
+         if (theClass.hasIndividuals()) {
+            Iterator<OwlIndividual> iti = theClass.getIndividuals().values().iterator();
+            while (iti.hasNext()) {
+               addEdge(iti.next(), theClass);
+            }
+         }
+      }
+      Iterator<OwlProperty> it2 = graph.getOwlProperties().values().iterator();
+      while (it2.hasNext()) {
+         OwlProperty theProperty = it2.next();
+         getId(theProperty);
+         if (!theProperty.isForeign()) {
+            continue;
+         }
+         if (theProperty.hasFromAliasedProperties()) {
+            addPropertyEdges(theProperty, theProperty.getFromAliasProperties());
+         }
+         if (theProperty.hasAliasProperties()) {
+            addPropertyEdges(theProperty, theProperty.getAliasProperties());
+         }
+         if (theProperty.hasSuperProperties()) {
+            addPropertyEdges(theProperty, theProperty.getSuperProperties());
+         }
+         if (theProperty.hasSubProperties()) {
+            addPropertyEdges(theProperty, theProperty.getSubProperties());
+         }
+         Iterator<Entry<ElementKey, OwlClass>> itd = theProperty.getDomainIterator();
+         while (itd.hasNext()) {
+            addEdge(itd.next().getValue(), theProperty);
+         }
+         if (theProperty.isObjectProperty()) {
+            OwlObjectProperty objectProperty = (OwlObjectProperty) theProperty;
+            itd = objectProperty.getRangeIterator();
+            while (itd.hasNext()) {
+               addEdge(itd.next().getValue(), theProperty);
+            }
+            if (objectProperty.hasInverseProperty()) {
+               addEdge(objectProperty.getInverseProperty(), theProperty);
+            }
+         }
+      }
+      Iterator<OwlIndividual> it3 = graph.getIndividuals().values().iterator();
+      while (it3.hasNext()) {
+         OwlIndividual theIndividual = it3.next();
+         getId(theIndividual);
+         if (!theIndividual.isForeign()) {
+            continue;
+         }
+         Iterator<OwlClass> itc = theIndividual.getParentClasses().values().iterator();
+         while (itc.hasNext()) {
+            addEdge(itc.next(), theIndividual);
+         }
+      }
+   }
+
+   private BitSet getReachedElements() {
+      int count = elements.size();
+      int[] offsets = new int[count + 1];
+      for (int i = 0; i < edgesCount; i++) {
+         offsets[sources[i] + 1]++;
+      }
+      for (int i = 0; i < count; i++) {
+         offsets[i + 1] += offsets[i];
+      }
+      int[] adjacency = new int[edgesCount];
+      int[] position = new int[count];
+      System.arraycopy(offsets, 0, position, 0, count);
+      for (int i = 0; i < edgesCount; i++) {
+         adjacency[position[sources[i]]++] = targets[i];
+      }
+
+      BitSet reached = new BitSet(count);
+      int[] queue = new int[count];
+      int tail = 0;
+      for (int i = 0; i < count; i++) {
+         if (!elements.get(i).isForeign()) {
+            reached.set(i);
+            queue[tail++] = i;
+         }
+      }
+      int head = 0;
+      while (head < tail) {
+         int id = queue[head++];
+         if (elements.get(id).isForeign()) {
+            // foreign elements do not connect other elements to the schema
+            continue;
+         }
+         for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+            int target = adjacency[i];
+            if (!reached.get(target)) {
+               reached.set(target);
+               queue[tail++] = target;
+            }
+         }
+      }
+      return reached;
+   }
+
+   private boolean isDisconnected(NamedOwlElement element, BitSet reached) {
+      return !reached.get(elementToId.get(element));
+   }
+
+   private void removeClasses(BitSet reached) {
+      Iterator<OwlClass> it = graph.getOwlClasses().values().iterator();
+      while (it.hasNext()) {
+         if (isDisconnected(it.next(), reached)) {
+            it.remove();
+         }
+      }
+   }
+
+   private void removeProperties(BitSet reached) {
+      Iterator<OwlProperty> it = graph.getOwlProperties().values().iterator();
+      while (it.hasNext()) {
+         OwlProperty theProperty = it.next();
+         if (isDisconnected(theProperty, reached)) {
+            it.remove();
+            if (theProperty instanceof OwlObjectProperty) {
+               graph.getOwlObjectProperties().remove(theProperty.getKey());
+            } else {
+               graph.getOwlDatatypeProperties().remove(theProperty.getKey());
+            }
+         }
+      }
+   }
+
+   private void removeIndividuals(BitSet reached) {
+      Iterator<OwlIndividual> it = graph.getIndividuals().values().iterator();
+      while (it.hasNext()) {
+         if (isDisconnected(it.next(), reached)) {
+            it.remove();
+         }
+      }
+   }
+}
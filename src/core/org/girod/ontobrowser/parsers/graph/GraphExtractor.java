@@ -37,10 +37,11 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import org.apache.jena.datatypes.DatatypeFormatException;
 import org.apache.jena.ontology.AllValuesFromRestriction;
 import org.apache.jena.ontology.CardinalityRestriction;
@@ -65,9 +66,13 @@ import org.apache.jena.rdf.model.RDFNode;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.Statement;
 import org.apache.jena.rdf.model.StmtIterator;
+import org.apache.jena.sparql.core.Transactional;
+import org.apache.jena.system.Txn;
 import org.apache.jena.util.iterator.ExtendedIterator;
 import org.apache.jena.vocabulary.OWL;
 import org.apache.jena.vocabulary.OWL2;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
 import org.girod.ontobrowser.BrowserConfiguration;
 import org.girod.ontobrowser.actions.AbstractWarningAction;
 import org.girod.ontobrowser.model.ElementKey;
@@ -100,10 +105,9 @@ import org.girod.ontobrowser.utils.DatatypeUtils;
 /**
  * This class allows to extract the graph from an Owl model.
  *
- * @version 0.15
+ * @version 0.16
  */
 public class GraphExtractor extends AbstractWarningAction {
-   private static final ElementKey TYPE_NS = ElementKey.create("http://www.w3.org/1999/02/22-rdf-syntax-ns#", "type");
    private static final ElementKey SEE_ALSO_NS = ElementKey.create("http://www.w3.org/2000/01/rdf-schema#", "seeAlso");
    private static final ElementKey DESCRIPTION_NS = ElementKey.create("http://purl.org/dc/terms/#", "Description");
    private final File file;
@@ -120,6 +124,17 @@ public class GraphExtractor extends AbstractWarningAction {
    private String defaultNamespace = null;
    private String defaultSquashedNamespace = null;
    private short representationType = OwlRepresentationType.TYPE_OWL_XML;
+   private LoadMonitor monitor = null;
+   private Transactional transactional = null;
+   private OntClass thingClass = null;
+   private OwlClass owlThingClass = null;
+   private boolean hasThingClass = false;
+   private List<OwlRestriction> restrictions = null;
+   private Map<ElementKey, Set<ElementKey>> rangeClassToProperties = null;
+   private Map<ElementKey, Set<ElementKey>> domainClassToProperties = null;
+   private Map<ElementKey, Set<ElementKey>> equivalentProperties = null;
+   private Map<ElementKey, Set<ElementKey>> equivalentClasses = null;
+   private TripleIndex index = null;
 
    /**
     * Constructor.
@@ -151,6 +166,25 @@ public class GraphExtractor extends AbstractWarningAction {
       this.representationType = representationType;
    }
 
+   /**
+    * Set the monitor which is notified of the extraction phases, and which can cancel the extraction.
+    *
+    * @param monitor the monitor
+    */
+   public void setMonitor(LoadMonitor monitor) {
+      this.monitor = monitor;
+   }
+
+   /**
+    * Set the transactional of the model, if the model is backed by a persistent dataset. In that case the extraction is performed in a read
+    * transaction.
+    *
+    * @param transactional the transactional
+    */
+   public void setTransactional(Transactional transactional) {
+      this.transactional = transactional;
+   }
+
    private OwlRestriction getRestrictionFrom(Restriction restriction) {
       OwlRestriction owlRestriction = null;
       Resource resource;
@@ -221,11 +255,19 @@ public class GraphExtractor extends AbstractWarningAction {
     * Return the list of Owl classes which have an existing individual. There may be more than one of course. The getOntClass() method from Jena is not what we
     * look for here because we will only have the first one in that case.
     *
+    * If there is no reasoner for the model, the classes are the types of the index which are not the superclass of another type of the individual,
+    * as in {@link Individual#listRDFTypes(boolean)}. They are not converted to Owl classes, because the conversion of a type which is not declared
+    * as a class looks for all the subjects of this type in the model. Only the types which are classes of the schema are used by the caller.
+    * Else the classes are listed by the model because they depend on the inferences of the reasoner.
+    *
     * @param individual the Individual
     * @return the list of Owl classes which have the specified individual
     */
-   private List<OntClass> getOwlClasses(Individual individual) {
-      List<OntClass> list = new ArrayList<>();
+   private List<Resource> getOwlClasses(Individual individual) {
+      if (model.getSpecification().getReasoner() == null) {
+         return getDirectTypes(index.getTypes(individual));
+      }
+      List<Resource> list = new ArrayList<>();
       ExtendedIterator<Resource> it = individual.listRDFTypes(true);
       while (it.hasNext()) {
          Resource res = it.next();
@@ -240,6 +282,36 @@ public class GraphExtractor extends AbstractWarningAction {
       return list;
    }
 
+   /**
+    * Return the types which are not the superclass of another type in a list of types.
+    *
+    * @param types the types
+    * @return the direct types
+    */
+   private List<Resource> getDirectTypes(List<Resource> types) {
+      if (types.size() < 2) {
+         return types;
+      }
+      List<Resource> list = new ArrayList<>(types.size());
+      Iterator<Resource> it = types.iterator();
+      while (it.hasNext()) {
+         Resource type = it.next();
+         boolean isDirect = true;
+         Iterator<Resource> it2 = types.iterator();
+         while (it2.hasNext()) {
+            Resource otherType = it2.next();
+            if (!otherType.equals(type) && model.contains(otherType, RDFS.subClassOf, type) && !model.contains(type, RDFS.subClassOf, otherType)) {
+               isDirect = false;
+               break;
+            }
+         }
+         if (isDirect) {
+            list.add(type);
+         }
+      }
+      return list;
+   }
+
    public AnnotationsHelper getAnnotationsHelper() {
       return annotationsHelper;
    }
@@ -273,17 +345,47 @@ public class GraphExtractor extends AbstractWarningAction {
       }
    }
 
-   private boolean isDefinedKey(Resource resource, ElementKey key) {
-      ElementKey theKey = ElementKey.create(resource.getNameSpace(), resource.getLocalName());
-      return theKey.equals(key);
-   }
-
    /**
     * Return the graph.
     *
     * @return the graph
+    * @throws LoadCancelledException if the extraction has been cancelled
     */
    public OwlSchema getGraph() throws OntologyException {
+      try {
+         if (transactional == null) {
+            return getGraphImpl();
+         } else {
+            return Txn.calculateRead(transactional, () -> {
+               OwlSchema schema = getGraphImpl();
+               resolveCharacteristics(schema);
+               schema.setTransactional(transactional);
+               return schema;
+            });
+         }
+      } catch (LoadCancelledException ex) {
+         // do not keep a reference on the partially built schema
+         graph = null;
+         throw ex;
+      }
+   }
+
+   /**
+    * Resolve the characteristics of the properties, which are lazily read from the model, so that they are available outside the read
+    * transaction.
+    *
+    * @param schema the schema
+    */
+   private void resolveCharacteristics(OwlSchema schema) {
+      Iterator<OwlProperty> it = schema.getOwlProperties().values().iterator();
+      while (it.hasNext()) {
+         OwlProperty property = it.next();
+         property.isFunctionalProperty();
+         property.isInverseFunctionalProperty();
+      }
+   }
+
+   private OwlSchema getGraphImpl() throws OntologyException {
       BrowserConfiguration conf = BrowserConfiguration.getInstance();
       graph = new OwlSchema(model, representationType, file);
       namespaceFromFile = graph.getPotentialNamespaceFromFile();
@@ -293,155 +395,132 @@ public class GraphExtractor extends AbstractWarningAction {
       annotationsHelper = new AnnotationsHelper(graph, this);
       exprHelper = new ExpressionsHelper(this, graph);
       individualsHelper = new IndividualsHelper(graph);
-      OntClass thingClass = model.getOntClass("http://www.w3.org/2002/07/owl#Thing");
-      OwlClass owlThingClass = graph.getThingClass();
+      thingClass = model.getOntClass("http://www.w3.org/2002/07/owl#Thing");
+      owlThingClass = graph.getThingClass();
       thingKey = owlThingClass.getKey();
-      List<OwlRestriction> restrictions = new ArrayList<>();
+      restrictions = new ArrayList<>();
 
       // see https://stackoverflow.com/questions/17296209/jena-ontology-api-how-to-retrieve-axiom-that-attach-annotation-to-a-class-proper
       // Find the axioms in the model.  For each axiom, iterate through the
       // its properties, looking for those that are *not* used for encoding the
       // annotated axiom.  Those that are left are the annotations.
-      Map<ElementKey, Set<ElementKey>> rangeClassToProperties = new HashMap<>();
-      Map<ElementKey, Set<ElementKey>> domainClassToProperties = new HashMap<>();
-
-      // list annotations
-      annotationsHelper.addSchemaAnnotations();
-
-      // list properties
-      Map<ElementKey, Set<ElementKey>> equivalentProperties = new HashMap<>();
-      ExtendedIterator properties = model.listAllOntProperties();
-      while (properties.hasNext()) {
-         OntProperty thisProperty = (OntProperty) properties.next();
-         String nameSpace = graph.getNamespace(thisProperty);
-         OwlProperty owlProp = null;
-         if (thisProperty.isObjectProperty()) {
-            owlProp = addObjectProperty(thisProperty, nameSpace, equivalentProperties, domainClassToProperties, rangeClassToProperties, restrictions);
-         } else if (thisProperty.isDatatypeProperty()) {
-            owlProp = addDatatypeProperty(thisProperty, nameSpace, equivalentProperties, domainClassToProperties, restrictions);
-         } else if (thisProperty.isResource()) {
-            Resource resource = thisProperty.asResource();
-            OwlAnnotation annotation = new OwlAnnotation(resource);
-            graph.addElementAnnotation(annotation);
-            StmtIterator iterSmt = resource.listProperties();
-            while (iterSmt.hasNext()) {
-               Statement statement = iterSmt.next();
-               Property predicate = statement.getPredicate();
-               RDFNode node = statement.getObject();
-               ElementKey theKey = ElementKey.create(predicate.getNameSpace(), predicate.getLocalName());
-               annotationsHelper.addAnnotationValue(node, annotation, theKey);
-            }
-         }
-         if (owlProp != null) {
-            getRestrictions(thisProperty, owlProp);
-         }
+      rangeClassToProperties = new HashMap<>();
+      domainClassToProperties = new HashMap<>();
+      equivalentProperties = new HashMap<>();
+      equivalentClasses = new HashMap<>();
+
+      // the phases are merged in the order in which they are added, so the resulting schema does not depend on the pool
+      PhasesExecutor executor = new PhasesExecutor(getPool());
+      executor.setMonitor(monitor);
+      if (conf.includeIndividuals) {
+         // the index is merged first, so it can be used in the merge step of all the other phases
+         executor.addPhase(new IndexPhase());
       }
+      executor.addPhase(new SchemaAnnotationsPhase());
+      PropertiesPhase propertiesPhase = new PropertiesPhase();
+      executor.addPhase(propertiesPhase);
+      executor.addPhase(new ClassesPhase());
+      executor.addPhase(new PropertiesAnnotationsPhase(propertiesPhase));
+      if (conf.includeIndividuals) {
+         executor.addPhase(new IndividualsPhase());
+      }
+      executor.addPhase(new ClassHierarchyPhase());
+      executor.addPhase(new PropertyHierarchyPhase());
+      executor.addPhase(new DependenciesPhase());
+      RestrictionsPhase restrictionsPhase = new RestrictionsPhase();
+      executor.addPhase(restrictionsPhase);
+      executor.addPhase(new EquivalentClassesPhase(restrictionsPhase));
+      if (conf.includeIndividuals) {
+         executor.addPhase(new IndividualsPropertiesPhase());
+      }
+      executor.addPhase(new EquivalentElementsPhase());
+      if (showPackages) {
+         executor.addPhase(new PackagesPhase());
+      }
+      executor.addPhase(new ForeignElementsPhase());
+      try {
+         executor.execute();
+      } finally {
+         index = null;
+      }
+      graph.compact();
 
-      lookForDefaultNamespace = !graph.hasDefaultNamespace();
-      boolean hasThingClass = false;
-      Map<ElementKey, Set<ElementKey>> equivalentClasses = new HashMap<>();
-      // list classes
-      ExtendedIterator classes = model.listClasses();
-      while (classes.hasNext()) {
-         OntClass thisClass = (OntClass) classes.next();
-         if (thisClass.getNameSpace() == null && thisClass.getLocalName() == null) {
-            continue;
-         }
-         OwlClass owlClass;
-         if (thisClass.equals(thingClass)) {
-            if (addThingClass) {
-               owlClass = owlThingClass;
-            } else {
-               owlClass = null;
-            }
-            hasThingClass = true;
-         } else {
-            owlClass = createOwlClass(thisClass);
-            setPrefix(owlClass);
+      return graph;
+   }
 
-            StmtIterator stmt = thisClass.listProperties();
-            while (stmt.hasNext()) {
-               Statement statement = stmt.next();
-               Property prop = statement.getPredicate();
-               ElementKey theKey = ElementKey.create(prop.getNameSpace(), prop.getLocalName());
-               OwlAnnotation annotation = graph.getOrCreateAnnotation(theKey);
-               annotationsHelper.addAnnotationValue(thisClass, owlClass, annotation, prop);
-            }
-         }
-         if (owlClass != null) {
-            graph.addOwlClass(owlClass);
-         }
+   /**
+    * Return the pool to use for the extraction phases. The phases are only computed in parallel if there is no reasoner for the model, because
+    * the inference graphs do not support concurrent reads, and if the model is not backed by a persistent dataset, because the read transaction
+    * is bound to the current thread.
+    *
+    * @return the pool, or null if the phases must be executed sequentially
+    */
+   private ForkJoinPool getPool() {
+      BrowserConfiguration conf = BrowserConfiguration.getInstance();
+      if (conf.parallelExtraction && transactional == null && model.getSpecification().getReasoner() == null && Runtime.getRuntime().availableProcessors() > 1) {
+         return ForkJoinPool.commonPool();
+      } else {
+         return null;
       }
-      if (!hasThingClass && addThingClass) {
-         graph.addOwlClass(owlThingClass);
+   }
+
+   /**
+    * Add the annotations of the predicates of an element. The values of the annotations on the element are only created when they are
+    * accessed.
+    *
+    * @param predicates the predicates of the element
+    */
+   private void addAnnotations(Set<Property> predicates) {
+      Iterator<Property> it = predicates.iterator();
+      while (it.hasNext()) {
+         Property predicate = it.next();
+         ElementKey theKey = graph.getElementKey(predicate.getNameSpace(), predicate.getLocalName());
+         graph.getOrCreateAnnotation(theKey);
       }
+   }
 
-      Iterator<OwlProperty> it2 = graph.getOwlProperties().values().iterator();
-      while (it2.hasNext()) {
-         OwlProperty owlProperty = it2.next();
-         if (owlProperty instanceof OwlObjectProperty) {
-            OwlObjectProperty _owlProperty = (OwlObjectProperty) owlProperty;
-            ObjectProperty objproperty = _owlProperty.getProperty();
-            StmtIterator iterSmt = objproperty.listProperties();
-            while (iterSmt.hasNext()) {
-               Statement statement = iterSmt.next();
-               Property predicate = statement.getPredicate();
-               RDFNode node = statement.getObject();
-               ElementKey theKey = ElementKey.create(predicate.getNameSpace(), predicate.getLocalName());
-               OwlAnnotation annotation = graph.getOrCreateAnnotation(theKey);
-               annotationsHelper.addAnnotationValue(node, _owlProperty, annotation);
-            }
-         } else if (owlProperty instanceof OwlDatatypeProperty) {
-            OwlDatatypeProperty _owlProperty = (OwlDatatypeProperty) owlProperty;
-            DatatypeProperty datatypeProperty = _owlProperty.getProperty();
-            StmtIterator iterSmt = datatypeProperty.listProperties();
-            while (iterSmt.hasNext()) {
-               Statement statement = iterSmt.next();
-               RDFNode node = statement.getObject();
-               Property predicate = statement.getPredicate();
-               ElementKey theKey = ElementKey.create(predicate.getNameSpace(), predicate.getLocalName());
-               OwlAnnotation annotation = graph.getOrCreateAnnotation(theKey);
-               annotationsHelper.addAnnotationValue(node, _owlProperty, annotation);
-            }
-         }
+   private static Set<Property> listPredicates(Resource resource) {
+      Set<Property> predicates = new LinkedHashSet<>();
+      StmtIterator it = resource.listProperties();
+      while (it.hasNext()) {
+         predicates.add(it.next().getPredicate());
       }
+      return predicates;
+   }
 
-      // list individuals
-      if (conf.includeIndividuals) {
-         try {
-            ExtendedIterator individuals = model.listIndividuals();
-            while (individuals.hasNext()) {
-               Individual thisIndividual = (Individual) individuals.next();
-               addIndividual(thisIndividual);
-            }
+   private void addIndividuals() {
+      try {
+         Iterator<Individual> individuals = listIndividuals().iterator();
+         while (individuals.hasNext()) {
+            Individual thisIndividual = individuals.next();
+            addIndividual(thisIndividual);
+         }
 
-            Iterator<OwlClass> itc = graph.getOwlClasses().values().iterator();
-            while (itc.hasNext()) {
-               OwlClass owlClass = itc.next();
-               OntClass theClass = owlClass.getOntClass();
-               if (theClass != null) {
-                  individuals = model.listIndividuals(theClass);
-                  while (individuals.hasNext()) {
-                     Individual thisIndividual = (Individual) individuals.next();
-                     addIndividual(thisIndividual);
-                  }
+         Iterator<OwlClass> itc = graph.getOwlClasses().values().iterator();
+         while (itc.hasNext()) {
+            OwlClass owlClass = itc.next();
+            OntClass theClass = owlClass.getOntClass();
+            if (theClass != null) {
+               Iterator<Resource> subjects = index.getSubjects(theClass).iterator();
+               while (subjects.hasNext()) {
+                  Individual thisIndividual = subjects.next().as(Individual.class);
+                  addIndividual(thisIndividual);
                }
             }
+         }
 
-            StmtIterator stmts = model.listStatements();
-            while (stmts.hasNext()) {
-               Statement stmt = stmts.next();
-               RDFNode object = stmt.getObject();
-               RDFNode subject = stmt.getSubject();
-               if (subject.isURIResource() && object.isURIResource()) {
-                  Property p = stmt.getPredicate();
-                  if (isDefinedKey(p, TYPE_NS)) {
-                     Resource objectResource = object.asResource();
+         Iterator<Resource> subjects = index.getSubjects().iterator();
+         while (subjects.hasNext()) {
+            Resource subjectResource = subjects.next();
+            if (subjectResource.isURIResource()) {
+               Iterator<Resource> types = index.getTypes(subjectResource).iterator();
+               while (types.hasNext()) {
+                  Resource objectResource = types.next();
+                  if (objectResource.isURIResource()) {
                      String namespace = graph.getNamespace(objectResource);
-                     ElementKey objectKey = ElementKey.create(namespace, objectResource.getLocalName());
-                     Resource subjectResource = subject.asResource();
+                     ElementKey objectKey = graph.getElementKey(namespace, objectResource.getLocalName());
                      String namespace2 = graph.getNamespace(subjectResource);
-                     ElementKey subjectKey = ElementKey.create(namespace2, subjectResource.getLocalName());
+                     ElementKey subjectKey = graph.getElementKey(namespace2, subjectResource.getLocalName());
                      if (graph.hasOwlClass(objectKey) && !graph.hasIndividual(subjectKey)) {
                         OwlClass owlClass = graph.getOwlClass(objectKey);
                         OwlIndividual individual = new OwlAutoIndividual(owlClass, subjectResource, namespace2);
@@ -450,140 +529,100 @@ public class GraphExtractor extends AbstractWarningAction {
                   }
                }
             }
-
-         } catch (ConversionException ex) {
-            this.addError(ex);
          }
-      }
 
-      hasThingClass = false;
-      // parent classes
-      classes = model.listClasses();
-      while (classes.hasNext()) {
-         OntClass thisClass = (OntClass) classes.next();
-         addClassToGraph(thisClass, owlThingClass);
-      }
-      if (!hasThingClass && addThingClass) {
-         ExtendedIterator<OntClass> children = thingClass.listSubClasses();
-         while (children.hasNext()) {
-            OntClass childClass = children.next();
-            String childNamespace = graph.getNamespace(childClass);
-            ElementKey skey = new ElementKey(childNamespace, childClass.getLocalName());
-            if (graph.hasOwlClass(skey)) {
-               OwlClass childOwlClass = graph.getOwlClass(skey);
-               childOwlClass.addSuperClass(thingKey, owlThingClass, thingKey);
-               owlThingClass.addSubClass(skey, childOwlClass);
-            }
-         }
+      } catch (ConversionException ex) {
+         this.addError(ex);
       }
+   }
 
-      // parent and sub-properties
-      properties = model.listAllOntProperties();
-      while (properties.hasNext()) {
-         OntProperty thisProperty = (OntProperty) properties.next();
-         if (thisProperty.getNameSpace() == null && thisProperty.getLocalName() == null) {
-            continue;
-         }
-         ElementKey key = new ElementKey(thisProperty.getNameSpace(), thisProperty.getLocalName());
-         if (graph.hasOwlProperty(key)) {
-            OwlProperty owlProperty = graph.getOwlProperty(key);
-            ExtendedIterator<? extends OntProperty> parents = thisProperty.listSuperProperties(true);
-            while (parents.hasNext()) {
-               OntProperty superProperty = parents.next();
-               ElementKey skey = new ElementKey(superProperty.getNameSpace(), superProperty.getLocalName());
-               if (graph.hasOwlProperty(skey)) {
-                  OwlProperty superOwlProperty = graph.getOwlProperty(skey);
-                  owlProperty.addSuperProperty(skey, superOwlProperty);
-               }
-            }
-            ExtendedIterator<? extends OntProperty> children = thisProperty.listSubProperties(true);
-            while (children.hasNext()) {
-               OntProperty subProperty = children.next();
-               ElementKey skey = new ElementKey(subProperty.getNameSpace(), subProperty.getLocalName());
-               if (!skey.equals(key) && graph.hasOwlProperty(skey)) {
-                  OwlProperty superOwlProperty = graph.getOwlProperty(skey);
-                  owlProperty.addSubProperty(skey, superOwlProperty);
-               }
+   /**
+    * Return the individuals of the model. If there is no reasoner for the model, the individuals are the subjects of the index which are individuals,
+    * as in {@link OntModel#listIndividuals()}. Else the individuals are listed by the model because they depend on the inferences of the reasoner.
+    *
+    * @return the individuals
+    */
+   private Set<Individual> listIndividuals() {
+      Set<Individual> individuals = new LinkedHashSet<>();
+      if (model.getSpecification().getReasoner() == null) {
+         Iterator<Resource> it = index.getSubjects().iterator();
+         while (it.hasNext()) {
+            OntResource resource = it.next().as(OntResource.class);
+            if (resource.isIndividual()) {
+               individuals.add(resource.as(Individual.class));
             }
          }
-      }
-
-      // class to properties dependencies
-      addDependencies(graph, restrictions, domainClassToProperties, rangeClassToProperties);
-
-      // setup restrictions
-      Iterator<OwlRestriction> itr = restrictions.iterator();
-      while (itr.hasNext()) {
-         OwlRestriction restriction = itr.next();
-         restriction.setup(graph);
-      }
-
-      // equivalent classes
-      Iterator<OwlClass> ite = graph.getOwlClasses().values().iterator();
-      while (ite.hasNext()) {
-         OwlClass owlClass = ite.next();
-         OntClass thisClass = owlClass.getOntClass();
-         if (thisClass != null) {
-            exprHelper.addEquivalentClasses(equivalentClasses, thisClass, owlClass);
+      } else {
+         ExtendedIterator<Individual> it = model.listIndividuals();
+         while (it.hasNext()) {
+            individuals.add(it.next());
          }
       }
+      return individuals;
+   }
 
-      // add individuals property values
-      if (conf.includeIndividuals) {
-         Iterator<OwlIndividual> it = graph.getIndividuals().values().iterator();
-         while (it.hasNext()) {
-            OwlIndividual owlIndividual = it.next();
-            individualsHelper.addIndividualProperties(owlIndividual);
+   /**
+    * Return the direct super-classes of a class.
+    *
+    * @param thisClass the class
+    * @return the super-classes
+    */
+   private SuperClasses listSuperClasses(OntClass thisClass) {
+      SuperClasses superClasses = new SuperClasses();
+      try {
+         if (thisClass.hasSuperClass()) {
+            ExtendedIterator<OntClass> parents = thisClass.listSuperClasses(true);
+            while (parents.hasNext()) {
+               superClasses.parents.add(parents.next());
+            }
          }
+      } catch (ConversionException ex) {
+         superClasses.exception = ex;
       }
+      return superClasses;
+   }
 
-      exprHelper.fillEquivalentClasses(equivalentClasses);
-      exprHelper.fillEquivalentProperties(equivalentProperties);
-      annotationsHelper.addDefaultAnnotations();
-
-      if (showPackages) {
-         PackagesExtractor pExtractor = new PackagesExtractor(graph);
-         Map<ElementKey, OwlClass> packages = pExtractor.extractPackages();
-         graph.setPackages(packages);
+   private void addClassToGraph(OntClass thisClass, OwlClass owlThingClass) {
+      if (thisClass.getLocalName() == null) {
+         return;
       }
-      lookForForeignElements();
-
-      return graph;
+      addClassToGraph(thisClass, listSuperClasses(thisClass), owlThingClass);
    }
 
-   private void addClassToGraph(OntClass thisClass, OwlClass owlThingClass) {
+   private void addClassToGraph(OntClass thisClass, SuperClasses superClasses, OwlClass owlThingClass) {
       if (thisClass.getLocalName() == null) {
          return;
       }
       String classNamespace = graph.getNamespace(thisClass);
-      ElementKey key = new ElementKey(classNamespace, thisClass.getLocalName());
+      ElementKey key = graph.getElementKey(classNamespace, thisClass.getLocalName());
       if (graph.hasOwlClass(key)) {
          OwlClass owlClass = graph.getOwlClass(key);
          boolean isEmpty = true;
          try {
-            if (thisClass.hasSuperClass()) {
-               ExtendedIterator<OntClass> parents = thisClass.listSuperClasses(true);
-               while (parents.hasNext()) {
-                  OntClass superClass = parents.next();
-                  isEmpty = false;
-                  if (superClass.getLocalName() == null) {
-                     continue;
-                  }
-                  String superclassNamespace = graph.getNamespace(superClass);
-                  ElementKey skey = new ElementKey(superclassNamespace, superClass.getLocalName());
-                  if (graph.hasOwlClass(skey)) {
-                     OwlClass superOwlClass = graph.getOwlClass(skey);
-                     if (addThingClass || !skey.equals(thingKey)) {
-                        owlClass.addSuperClass(skey, superOwlClass, thingKey);
-                        superOwlClass.addSubClass(key, owlClass);
-                     }
-                  } else if (defaultSquashedNamespace == null) {
-                     addOwlClass(superClass, skey, owlClass, key, owlThingClass);
-                  } else if (!SkippedNamespaces.isSkipped(defaultSquashedNamespace, skey)) {
-                     addOwlClass(superClass, skey, owlClass, key, owlThingClass);
+            Iterator<OntClass> parents = superClasses.parents.iterator();
+            while (parents.hasNext()) {
+               OntClass superClass = parents.next();
+               isEmpty = false;
+               if (superClass.getLocalName() == null) {
+                  continue;
+               }
+               String superclassNamespace = graph.getNamespace(superClass);
+               ElementKey skey = graph.getElementKey(superclassNamespace, superClass.getLocalName());
+               if (graph.hasOwlClass(skey)) {
+                  OwlClass superOwlClass = graph.getOwlClass(skey);
+                  if (addThingClass || !skey.equals(thingKey)) {
+                     owlClass.addSuperClass(skey, superOwlClass, thingKey);
+                     superOwlClass.addSubClass(key, owlClass);
                   }
+               } else if (defaultSquashedNamespace == null) {
+                  addOwlClass(superClass, skey, owlClass, key, owlThingClass);
+               } else if (!SkippedNamespaces.isSkipped(defaultSquashedNamespace, skey)) {
+                  addOwlClass(superClass, skey, owlClass, key, owlThingClass);
                }
             }
+            if (superClasses.exception != null) {
+               throw superClasses.exception;
+            }
          } catch (ConversionException ex) {
             this.addError(ex);
          }
@@ -650,7 +689,7 @@ public class GraphExtractor extends AbstractWarningAction {
             OntResource resource = resources.next();
             if (resource.isURIResource()) {
                String namespace = graph.getNamespace(resource);
-               ElementKey tkey = new ElementKey(namespace, resource.getLocalName());
+               ElementKey tkey = graph.getElementKey(namespace, resource.getLocalName());
                OwlDatatype dtype;
                if (graph.hasDatatype(tkey)) {
                   dtype = graph.getDatatype(tkey);
@@ -792,325 +831,105 @@ public class GraphExtractor extends AbstractWarningAction {
    }
 
    private void removeDisconnectedForeignElements() {
-      removeDisconnectedForeignClasses();
-      removeDisconnectedForeignProperties();
-      removeDisconnectedForeignIndividuals();
+      ForeignElementsGraph foreignGraph = new ForeignElementsGraph(graph);
+      foreignGraph.removeDisconnectedElements();
    }
 
-   private void removeDisconnectedForeignIndividuals() {
-      List<ElementKey> toRemove = new ArrayList<>();
-      Iterator<OwlIndividual> it = graph.getIndividuals().values().iterator();
-      while (it.hasNext()) {
-         OwlIndividual theIndividual = it.next();
-         if (theIndividual.isForeign()) {
-            boolean connected = false;
-            Iterator<OwlClass> it2 = theIndividual.getParentClasses().values().iterator();
-            while (it2.hasNext()) {
-               OwlClass theClass = it2.next();
-               if (!theClass.isForeign()) {
-                  connected = true;
-                  break;
-               }
+   private void setPrefix(NamedOwlElement element) {
+      String namespace = element.getNamespace();
+      if (namespace != null) {
+         String prefix = graph.getPrefix(namespace);
+         if (prefix != null) {
+            element.setPrefix(prefix);
+            if (lookForDefaultNamespace) {
+               graph.setDefaultNamespace(prefix, namespace);
+               lookForDefaultNamespace = false;
             }
+         }
+      }
+   }
 
-            if (!connected) {
-               toRemove.add(theIndividual.getKey());
-            }
+   private void addIndividual(Individual individual) {
+      if (individual.getLocalName() == null) {
+         List<Resource> theClasses = getOwlClasses(individual);
+         if (!theClasses.isEmpty()) {
+            Resource ontClass = theClasses.get(0);
+            addError("individual.class.noname", ontClass.getLocalName());
+         } else {
+            addError("individual.noname");
          }
+         return;
       }
-      if (!toRemove.isEmpty()) {
-         Map<ElementKey, OwlIndividual> individuals = graph.getIndividuals();
-         Iterator<ElementKey> itr = toRemove.iterator();
-         while (itr.hasNext()) {
-            ElementKey key = itr.next();
-            individuals.remove(key);
+      if (isAdded(individual)) {
+         return;
+      }
+      List<Resource> theClasses = getOwlClasses(individual);
+      if (!theClasses.isEmpty()) {
+         Iterator<Resource> it = theClasses.iterator();
+         Map<ElementKey, OwlClass> parentClasses = new HashMap<>();
+         while (it.hasNext()) {
+            Resource theClass = it.next();
+            String namespace = graph.getNamespace(theClass);
+            ElementKey theKey = graph.getElementKey(namespace, theClass.getLocalName());
+            if (graph.hasOwlClass(theKey)) {
+               OwlClass theOwlClass = graph.getOwlClass(theKey);
+               parentClasses.put(theKey, theOwlClass);
+            }
+         }
+         OwlIndividual owlIndividual = createOwlIndividual(parentClasses, individual);
+         setPrefix(owlIndividual);
+         if (!graph.hasIndividual(owlIndividual.getKey())) {
+            StmtIterator iterSmt = individual.listProperties();
+            while (iterSmt.hasNext()) {
+               Statement statement = iterSmt.next();
+               RDFNode node = statement.getObject();
+               Property predicate = statement.getPredicate();
+               ElementKey theKey = graph.getElementKey(predicate.getNameSpace(), predicate.getLocalName());
+               if (!graph.hasOwlProperty(theKey)) {
+                  OwlAnnotation annotation = graph.getOrCreateAnnotation(theKey);
+                  annotationsHelper.addAnnotationValue(node, owlIndividual, annotation);
+               }
+            }
+            graph.addIndividual(owlIndividual);
          }
       }
    }
 
-   private void removeDisconnectedForeignProperties() {
-      List<ElementKey> toRemove = new ArrayList<>();
-      Iterator<OwlProperty> it = graph.getOwlProperties().values().iterator();
+   /**
+    * Return true if an individual has already been added to the schema, so that the classes of the individuals which are found more than once are not
+    * computed again.
+    *
+    * @param individual the individual
+    * @return true if the individual has already been added
+    */
+   private boolean isAdded(Individual individual) {
+      String namespace = individual.getNameSpace();
+      if (namespace == null) {
+         return false;
+      } else if (defaultNamespace != null && namespace.startsWith(namespaceFromFile)) {
+         namespace = defaultNamespace;
+      }
+      return graph.hasIndividual(new ElementKey(namespace, individual.getLocalName()));
+   }
+
+   private void addDependencies(OwlSchema graph, List<OwlRestriction> restrictions, Map<ElementKey, Set<ElementKey>> domainClassToProperties,
+           Map<ElementKey, Set<ElementKey>> rangeClassToProperties) {
+      Map<ElementKey, OwlProperty> modelProps = graph.getOwlProperties();
+      Map<ElementKey, OwlClass> classes = graph.getOwlClasses();
+
+      Iterator<ElementKey> it = classes.keySet().iterator();
       while (it.hasNext()) {
-         OwlProperty theProperty = it.next();
-         if (theProperty.isForeign()) {
-            boolean connected = false;
-            if (theProperty.hasFromAliasedProperties()) {
-               Iterator<OwlProperty> ita = theProperty.getFromAliasProperties().values().iterator();
-               while (ita.hasNext()) {
-                  OwlProperty aliasProperty = ita.next();
-                  if (!aliasProperty.isForeign()) {
-                     connected = true;
-                     break;
-                  }
-               }
-            }
-            if (connected) {
-               continue;
-            }
-            if (theProperty.hasAliasProperties()) {
-               Iterator<OwlProperty> ita = theProperty.getAliasProperties().values().iterator();
-               while (ita.hasNext()) {
-                  OwlProperty aliasProperty = ita.next();
-                  if (!aliasProperty.isForeign()) {
-                     connected = true;
-                     break;
-                  }
-               }
-            }
-            if (connected) {
-               continue;
-            }
-            if (theProperty.hasSuperProperties()) {
-               Iterator<OwlProperty> ita = theProperty.getSuperProperties().values().iterator();
-               while (ita.hasNext()) {
-                  OwlProperty superProperty = ita.next();
-                  if (!superProperty.isForeign()) {
-                     connected = true;
-                     break;
-                  }
-               }
-            }
-            if (connected) {
-               continue;
-            }
-            if (theProperty.hasSubProperties()) {
-               Iterator<OwlProperty> ita = theProperty.getSubProperties().values().iterator();
-               while (ita.hasNext()) {
-                  OwlProperty superProperty = ita.next();
-                  if (!superProperty.isForeign()) {
-                     connected = true;
-                     break;
-                  }
-               }
-            }
-            if (connected) {
-               continue;
-            }
-            Iterator<Entry<ElementKey, OwlClass>> itd = theProperty.getDomainIterator();
-            while (itd.hasNext()) {
-               Entry<ElementKey, OwlClass> entry = itd.next();
-               if (!entry.getValue().isForeign()) {
-                  connected = true;
-                  break;
-               }
-            }
-            if (connected) {
-               continue;
-            }
-            if (theProperty.isObjectProperty()) {
-               OwlObjectProperty objectProperty = (OwlObjectProperty) theProperty;
-               itd = objectProperty.getRangeIterator();
-               while (itd.hasNext()) {
-                  Entry<ElementKey, OwlClass> entry = itd.next();
-                  if (!entry.getValue().isForeign()) {
-                     connected = true;
-                     break;
-                  }
-               }
-               if (connected) {
-                  continue;
-               }
-               if (objectProperty.hasInverseProperty()) {
-                  OwlObjectProperty inverseProperty = objectProperty.getInverseProperty();
-                  if (!inverseProperty.isForeign()) {
-                     connected = true;
-                     break;
-                  }
-               }
-               if (connected) {
-                  continue;
-               }
-            }
-            if (!connected) {
-               toRemove.add(theProperty.getKey());
-            }
-         }
-      }
-      if (!toRemove.isEmpty()) {
-         Map<ElementKey, OwlProperty> properties = graph.getOwlProperties();
-         Iterator<ElementKey> itr = toRemove.iterator();
-         while (itr.hasNext()) {
-            ElementKey key = itr.next();
-            OwlProperty theProperty = properties.remove(key);
-            if (theProperty instanceof OwlObjectProperty) {
-               graph.getOwlObjectProperties().remove(key);
-            } else {
-               graph.getOwlDatatypeProperties().remove(key);
-            }
-         }
-      }
-   }
-
-   private void removeDisconnectedForeignClasses() {
-      List<ElementKey> toRemove = new ArrayList<>();
-      Iterator<OwlClass> it = graph.getOwlClasses().values().iterator();
-      while (it.hasNext()) {
-         OwlClass theClass = it.next();
-         if (theClass.isForeign()) {
-            boolean connected = false;
-            if (theClass.hasAliasClasses()) {
-               Iterator<OwlClass> ita = theClass.getAliasClasses().values().iterator();
-               while (ita.hasNext()) {
-                  OwlClass aliasClass = ita.next();
-                  if (!aliasClass.isForeign() && !aliasClass.isThing()) {
-                     connected = true;
-                     break;
-                  }
-               }
-            }
-            if (connected) {
-               continue;
-            }
-            if (theClass.hasFromAliasedClasses()) {
-               Iterator<OwlClass> ita = theClass.getFromAliasClasses().values().iterator();
-               while (ita.hasNext()) {
-                  OwlClass aliasClass = ita.next();
-                  if (!aliasClass.isForeign() && !aliasClass.isThing()) {
-                     connected = true;
-                     break;
-                  }
-               }
-            }
-            if (connected) {
-               continue;
-            }
-            if (theClass.hasSuperClasses()) {
-               Iterator<OwlClass> its = theClass.getSuperClasses().values().iterator();
-               while (its.hasNext()) {
-                  OwlClass superClass = its.next();
-                  if (!superClass.isForeign() && !superClass.isThing()) {
-                     connected = true;
-                     break;
-                  }
-               }
-            }
-            if (connected) {
-               continue;
-            }
-            if (theClass.hasSubClasses()) {
-               Iterator<OwlClass> its = theClass.getSubClasses().values().iterator();
-               while (its.hasNext()) {
-                  OwlClass subClass = its.next();
-                  if (!subClass.isForeign() && !subClass.isThing()) {
-                     connected = true;
-                     break;
-                  }
-               }
-            }
-            if (theClass.hasOwlProperties()) {
-               Iterator<OwlProperty> itp = theClass.getOwlProperties().values().iterator();
-               while (itp.hasNext()) {
-                  OwlProperty property = itp.next();
-                  if (!property.isForeign()) {
-                     connected = true;
-                     break;
-                  }
-               }
-            }
-            if (connected) {
-               continue;
-            }
-            if (theClass.hasIndividuals()) {
-               Iterator<OwlIndividual> iti = theClass.getIndividuals().values().iterator();
-               while (iti.hasNext()) {
-                  OwlIndividual individual = iti.next();
-                  if (!individual.isForeign()) {
-                     connected = true;
-                     break;
-                  }
-               }
-            }
-            if (!connected) {
-               toRemove.add(theClass.getKey());
-            }
-         }
-      }
-      if (!toRemove.isEmpty()) {
-         Map<ElementKey, OwlClass> classes = graph.getOwlClasses();
-         Iterator<ElementKey> itr = toRemove.iterator();
-         while (itr.hasNext()) {
-            ElementKey key = itr.next();
-            classes.remove(key);
-         }
-      }
-   }
-
-   private void setPrefix(NamedOwlElement element) {
-      String namespace = element.getNamespace();
-      if (namespace != null) {
-         String prefix = graph.getPrefix(namespace);
-         if (prefix != null) {
-            element.setPrefix(prefix);
-            if (lookForDefaultNamespace) {
-               graph.setDefaultNamespace(prefix, namespace);
-               lookForDefaultNamespace = false;
-            }
-         }
-      }
-   }
-
-   private void addIndividual(Individual individual) {
-      if (individual.getLocalName() == null) {
-         List<OntClass> theClasses = getOwlClasses(individual);
-         if (!theClasses.isEmpty()) {
-            OntClass ontClass = theClasses.get(0);
-            addError("individual.class.noname", ontClass.getLocalName());
-         } else {
-            addError("individual.noname");
-         }
-         return;
-      }
-      List<OntClass> theClasses = getOwlClasses(individual);
-      if (!theClasses.isEmpty()) {
-         Iterator<OntClass> it = theClasses.iterator();
-         Map<ElementKey, OwlClass> parentClasses = new HashMap<>();
-         while (it.hasNext()) {
-            OntClass theClass = it.next();
-            String namespace = graph.getNamespace(theClass);
-            ElementKey theKey = new ElementKey(namespace, theClass.getLocalName());
-            if (graph.hasOwlClass(theKey)) {
-               OwlClass theOwlClass = graph.getOwlClass(theKey);
-               parentClasses.put(theKey, theOwlClass);
-            }
-         }
-         OwlIndividual owlIndividual = createOwlIndividual(parentClasses, individual);
-         setPrefix(owlIndividual);
-         if (!graph.hasIndividual(owlIndividual.getKey())) {
-            StmtIterator iterSmt = individual.listProperties();
-            while (iterSmt.hasNext()) {
-               Statement statement = iterSmt.next();
-               RDFNode node = statement.getObject();
-               Property predicate = statement.getPredicate();
-               ElementKey theKey = ElementKey.create(predicate.getNameSpace(), predicate.getLocalName());
-               if (!graph.hasOwlProperty(theKey)) {
-                  OwlAnnotation annotation = graph.getOrCreateAnnotation(theKey);
-                  annotationsHelper.addAnnotationValue(node, owlIndividual, annotation);
-               }
-            }
-            graph.addIndividual(owlIndividual);
-         }
-      }
-   }
-
-   private void addDependencies(OwlSchema graph, List<OwlRestriction> restrictions, Map<ElementKey, Set<ElementKey>> domainClassToProperties,
-           Map<ElementKey, Set<ElementKey>> rangeClassToProperties) {
-      Map<ElementKey, OwlProperty> modelProps = graph.getOwlProperties();
-      Map<ElementKey, OwlClass> classes = graph.getOwlClasses();
-
-      Iterator<ElementKey> it = classes.keySet().iterator();
-      while (it.hasNext()) {
-         ElementKey classKey = it.next();
-         OwlClass theClass = classes.get(classKey);
-         if (domainClassToProperties.containsKey(classKey)) {
-            Set<ElementKey> properties = domainClassToProperties.get(classKey);
-            Iterator<ElementKey> it2 = properties.iterator();
-            while (it2.hasNext()) {
-               ElementKey propKey = it2.next();
-               OwlProperty property = modelProps.get(propKey);
-               theClass.addOwlProperty(graph, property);
-               UnrestrictedOwlRestriction restriction = property.addDomain(classKey);
-               restrictions.add(restriction);
+         ElementKey classKey = it.next();
+         OwlClass theClass = classes.get(classKey);
+         if (domainClassToProperties.containsKey(classKey)) {
+            Set<ElementKey> properties = domainClassToProperties.get(classKey);
+            Iterator<ElementKey> it2 = properties.iterator();
+            while (it2.hasNext()) {
+               ElementKey propKey = it2.next();
+               OwlProperty property = modelProps.get(propKey);
+               theClass.addOwlProperty(graph, property);
+               UnrestrictedOwlRestriction restriction = property.addDomain(classKey);
+               restrictions.add(restriction);
             }
          }
          if (rangeClassToProperties.containsKey(classKey)) {
@@ -1137,7 +956,7 @@ public class GraphExtractor extends AbstractWarningAction {
             if (ontProperty.hasInverse()) {
                try {
                   ontProperty = ontProperty.getInverse();
-                  ElementKey inverseKey = new ElementKey(ontProperty.getNameSpace(), ontProperty.getLocalName());
+                  ElementKey inverseKey = graph.getElementKey(ontProperty.getNameSpace(), ontProperty.getLocalName());
                   if (modelProps.containsKey(inverseKey)) {
                      objectProp.setInverseProperty((OwlObjectProperty) modelProps.get(inverseKey));
                   }
@@ -1236,6 +1055,513 @@ public class GraphExtractor extends AbstractWarningAction {
       }
    }
 
+   /**
+    * The direct super-classes of a class.
+    */
+   private static class SuperClasses {
+      private final List<OntClass> parents = new ArrayList<>();
+      private ConversionException exception = null;
+   }
+
+   /**
+    * The direct super-properties and sub-properties of a property.
+    */
+   private static class PropertyHierarchy {
+      private final ElementKey key;
+      private final List<ElementKey> superProperties = new ArrayList<>();
+      private final List<ElementKey> subProperties = new ArrayList<>();
+
+      private PropertyHierarchy(ElementKey key) {
+         this.key = key;
+      }
+   }
+
+   /**
+    * The equivalent classes of a class.
+    */
+   private static class EquivalentClasses {
+      private final OntClass ontClass;
+      private final List<OntClass> equivalentClasses = new ArrayList<>();
+      private ConversionException exception = null;
+
+      private EquivalentClasses(OntClass ontClass) {
+         this.ontClass = ontClass;
+      }
+   }
+
+   /**
+    * The phase which indexes the <code>rdf:type</code> statements of the model in one pass. The index is used in the merge step of the phase which looks for
+    * the individuals, rather than scanning the model for each class and each individual.
+    */
+   private class IndexPhase extends ExtractionPhase {
+      private static final int CHECK_MASK = 1023;
+
+      private IndexPhase() {
+         super("index");
+      }
+
+      @Override
+      protected void compute() {
+         TripleIndex theIndex = new TripleIndex();
+         StmtIterator it = model.listStatements(null, RDF.type, (RDFNode) null);
+         try {
+            while (it.hasNext()) {
+               theIndex.add(it.next());
+               if ((theIndex.size() & CHECK_MASK) == 0 && getExecutor().isCancelled()) {
+                  return;
+               }
+            }
+         } finally {
+            it.close();
+         }
+         index = theIndex;
+      }
+
+      @Override
+      protected void merge() {
+      }
+   }
+
+   /**
+    * The phase which adds the annotations of the schema.
+    */
+   private class SchemaAnnotationsPhase extends ExtractionPhase {
+      private SchemaAnnotationsPhase() {
+         super("annotations");
+      }
+
+      @Override
+      protected void merge() {
+         annotationsHelper.addSchemaAnnotations();
+      }
+   }
+
+   /**
+    * The phase which adds the properties.
+    */
+   private class PropertiesPhase extends ExtractionPhase {
+      private List<OntProperty> properties = null;
+
+      private PropertiesPhase() {
+         super("properties");
+      }
+
+      @Override
+      protected void compute() {
+         properties = model.listAllOntProperties().toList();
+      }
+
+      @Override
+      protected void merge() {
+         Iterator<OntProperty> it = properties.iterator();
+         while (it.hasNext()) {
+            OntProperty thisProperty = it.next();
+            if (thisProperty.isAnon()) {
+               continue;
+            }
+            String nameSpace = graph.getNamespace(thisProperty);
+            OwlProperty owlProp = null;
+            if (thisProperty.isObjectProperty()) {
+               owlProp = addObjectProperty(thisProperty, nameSpace, equivalentProperties, domainClassToProperties, rangeClassToProperties, restrictions);
+            } else if (thisProperty.isDatatypeProperty()) {
+               owlProp = addDatatypeProperty(thisProperty, nameSpace, equivalentProperties, domainClassToProperties, restrictions);
+            } else if (thisProperty.isResource()) {
+               Resource resource = thisProperty.asResource();
+               OwlAnnotation annotation = new OwlAnnotation(resource);
+               graph.addElementAnnotation(annotation);
+               StmtIterator iterSmt = resource.listProperties();
+               while (iterSmt.hasNext()) {
+                  Statement statement = iterSmt.next();
+                  Property predicate = statement.getPredicate();
+                  RDFNode node = statement.getObject();
+                  ElementKey theKey = graph.getElementKey(predicate.getNameSpace(), predicate.getLocalName());
+                  annotationsHelper.addAnnotationValue(node, annotation, theKey);
+               }
+            }
+            if (owlProp != null) {
+               getRestrictions(thisProperty, owlProp);
+            }
+         }
+         properties = null;
+      }
+   }
+
+   /**
+    * The phase which adds the classes and their annotations. The predicates of each class are listed in the compute step.
+    */
+   private class ClassesPhase extends ElementsPhase<OntClass, Set<Property>> {
+      private ClassesPhase() {
+         super("classes");
+      }
+
+      @Override
+      protected boolean listElementsInCompute() {
+         return true;
+      }
+
+      @Override
+      protected List<OntClass> listElements() {
+         return model.listClasses().toList();
+      }
+
+      @Override
+      protected Set<Property> computeElement(OntClass thisClass) {
+         if (thisClass.getNameSpace() == null && thisClass.getLocalName() == null) {
+            return null;
+         } else if (thisClass.equals(thingClass)) {
+            return null;
+         } else {
+            return listPredicates(thisClass);
+         }
+      }
+
+      @Override
+      protected void merge() {
+         lookForDefaultNamespace = !graph.hasDefaultNamespace();
+         hasThingClass = false;
+         super.merge();
+         if (!hasThingClass && addThingClass) {
+            graph.addOwlClass(owlThingClass);
+         }
+      }
+
+      @Override
+      protected void mergeElement(OntClass thisClass, Set<Property> predicates) {
+         if (thisClass.getNameSpace() == null && thisClass.getLocalName() == null) {
+            return;
+         }
+         OwlClass owlClass;
+         if (thisClass.equals(thingClass)) {
+            if (addThingClass) {
+               owlClass = owlThingClass;
+            } else {
+               owlClass = null;
+            }
+            hasThingClass = true;
+         } else {
+            owlClass = createOwlClass(thisClass);
+            setPrefix(owlClass);
+            addAnnotations(predicates);
+         }
+         if (owlClass != null) {
+            graph.addOwlClass(owlClass);
+         }
+      }
+   }
+
+   /**
+    * The phase which adds the annotations of the properties. The predicates of each property are listed in the compute step.
+    */
+   private class PropertiesAnnotationsPhase extends ElementsPhase<OwlProperty, Set<Property>> {
+      private PropertiesAnnotationsPhase(PropertiesPhase propertiesPhase) {
+         super("properties annotations", propertiesPhase);
+      }
+
+      @Override
+      protected List<OwlProperty> listElements() {
+         return new ArrayList<>(graph.getOwlProperties().values());
+      }
+
+      @Override
+      protected Set<Property> computeElement(OwlProperty owlProperty) {
+         if (owlProperty instanceof OwlObjectProperty) {
+            ObjectProperty objproperty = ((OwlObjectProperty) owlProperty).getProperty();
+            return listPredicates(objproperty);
+         } else if (owlProperty instanceof OwlDatatypeProperty) {
+            DatatypeProperty datatypeProperty = ((OwlDatatypeProperty) owlProperty).getProperty();
+            return listPredicates(datatypeProperty);
+         } else {
+            return null;
+         }
+      }
+
+      @Override
+      protected void mergeElement(OwlProperty owlProperty, Set<Property> predicates) {
+         if (predicates != null) {
+            addAnnotations(predicates);
+         }
+      }
+   }
+
+   /**
+    * The phase which adds the individuals.
+    */
+   private class IndividualsPhase extends ExtractionPhase {
+      private IndividualsPhase() {
+         super("individuals");
+      }
+
+      @Override
+      protected void merge() {
+         addIndividuals();
+      }
+   }
+
+   /**
+    * The phase which adds the parent classes. The direct super-classes of each class are listed in the compute step.
+    */
+   private class ClassHierarchyPhase extends ElementsPhase<OntClass, SuperClasses> {
+      private List<OntClass> thingChildren = null;
+
+      private ClassHierarchyPhase() {
+         super("class hierarchy");
+      }
+
+      @Override
+      protected boolean listElementsInCompute() {
+         return true;
+      }
+
+      @Override
+      protected List<OntClass> listElements() {
+         return model.listClasses().toList();
+      }
+
+      @Override
+      protected void compute() {
+         super.compute();
+         if (addThingClass) {
+            thingChildren = thingClass.listSubClasses().toList();
+         }
+      }
+
+      @Override
+      protected SuperClasses computeElement(OntClass thisClass) {
+         if (thisClass.getLocalName() == null) {
+            return null;
+         } else {
+            return listSuperClasses(thisClass);
+         }
+      }
+
+      @Override
+      protected void mergeElement(OntClass thisClass, SuperClasses superClasses) {
+         if (superClasses != null) {
+            addClassToGraph(thisClass, superClasses, owlThingClass);
+         }
+      }
+
+      @Override
+      protected void merge() {
+         hasThingClass = false;
+         super.merge();
+         if (!hasThingClass && addThingClass) {
+            Iterator<OntClass> children = thingChildren.iterator();
+            while (children.hasNext()) {
+               OntClass childClass = children.next();
+               String childNamespace = graph.getNamespace(childClass);
+               ElementKey skey = graph.getElementKey(childNamespace, childClass.getLocalName());
+               if (graph.hasOwlClass(skey)) {
+                  OwlClass childOwlClass = graph.getOwlClass(skey);
+                  childOwlClass.addSuperClass(thingKey, owlThingClass, thingKey);
+                  owlThingClass.addSubClass(skey, childOwlClass);
+               }
+            }
+         }
+         thingChildren = null;
+      }
+   }
+
+   /**
+    * The phase which adds the parent and sub-properties. The direct super-properties and sub-properties of each property are listed in the compute step.
+    */
+   private class PropertyHierarchyPhase extends ElementsPhase<OntProperty, PropertyHierarchy> {
+      private PropertyHierarchyPhase() {
+         super("properties hierarchy");
+      }
+
+      @Override
+      protected boolean listElementsInCompute() {
+         return true;
+      }
+
+      @Override
+      protected List<OntProperty> listElements() {
+         return model.listAllOntProperties().toList();
+      }
+
+      @Override
+      protected PropertyHierarchy computeElement(OntProperty thisProperty) {
+         if (thisProperty.getNameSpace() == null && thisProperty.getLocalName() == null) {
+            return null;
+         }
+         PropertyHierarchy hierarchy = new PropertyHierarchy(graph.getElementKey(thisProperty.getNameSpace(), thisProperty.getLocalName()));
+         ExtendedIterator<? extends OntProperty> parents = thisProperty.listSuperProperties(true);
+         while (parents.hasNext()) {
+            OntProperty superProperty = parents.next();
+            hierarchy.superProperties.add(graph.getElementKey(superProperty.getNameSpace(), superProperty.getLocalName()));
+         }
+         ExtendedIterator<? extends OntProperty> children = thisProperty.listSubProperties(true);
+         while (children.hasNext()) {
+            OntProperty subProperty = children.next();
+            hierarchy.subProperties.add(graph.getElementKey(subProperty.getNameSpace(), subProperty.getLocalName()));
+         }
+         return hierarchy;
+      }
+
+      @Override
+      protected void mergeElement(OntProperty thisProperty, PropertyHierarchy hierarchy) {
+         if (hierarchy == null) {
+            return;
+         }
+         ElementKey key = hierarchy.key;
+         if (graph.hasOwlProperty(key)) {
+            OwlProperty owlProperty = graph.getOwlProperty(key);
+            Iterator<ElementKey> it = hierarchy.superProperties.iterator();
+            while (it.hasNext()) {
+               ElementKey skey = it.next();
+               if (graph.hasOwlProperty(skey)) {
+                  OwlProperty superOwlProperty = graph.getOwlProperty(skey);
+                  owlProperty.addSuperProperty(skey, superOwlProperty);
+               }
+            }
+            it = hierarchy.subProperties.iterator();
+            while (it.hasNext()) {
+               ElementKey skey = it.next();
+               if (!skey.equals(key) && graph.hasOwlProperty(skey)) {
+                  OwlProperty superOwlProperty = graph.getOwlProperty(skey);
+                  owlProperty.addSubProperty(skey, superOwlProperty);
+               }
+            }
+         }
+      }
+   }
+
+   /**
+    * The phase which adds the class to properties dependencies.
+    */
+   private class DependenciesPhase extends ExtractionPhase {
+      private DependenciesPhase() {
+         super("dependencies");
+      }
+
+      @Override
+      protected void merge() {
+         addDependencies(graph, restrictions, domainClassToProperties, rangeClassToProperties);
+      }
+   }
+
+   /**
+    * The phase which setup the restrictions.
+    */
+   private class RestrictionsPhase extends ExtractionPhase {
+      private RestrictionsPhase() {
+         super("restrictions");
+      }
+
+      @Override
+      protected void merge() {
+         Iterator<OwlRestriction> itr = restrictions.iterator();
+         while (itr.hasNext()) {
+            OwlRestriction restriction = itr.next();
+            restriction.setup(graph);
+         }
+      }
+   }
+
+   /**
+    * The phase which adds the equivalent classes. The equivalent classes of each class are listed in the compute step.
+    */
+   private class EquivalentClassesPhase extends ElementsPhase<OwlClass, EquivalentClasses> {
+      private EquivalentClassesPhase(RestrictionsPhase restrictionsPhase) {
+         super("equivalent classes", restrictionsPhase);
+      }
+
+      @Override
+      protected List<OwlClass> listElements() {
+         return new ArrayList<>(graph.getOwlClasses().values());
+      }
+
+      @Override
+      protected EquivalentClasses computeElement(OwlClass owlClass) {
+         OntClass thisClass = owlClass.getOntClass();
+         if (thisClass == null) {
+            return null;
+         }
+         EquivalentClasses equivalent = new EquivalentClasses(thisClass);
+         ExtendedIterator<OntClass> it = thisClass.listEquivalentClasses();
+         try {
+            while (it.hasNext()) {
+               equivalent.equivalentClasses.add(it.next());
+            }
+         } catch (ConversionException ex) {
+            equivalent.exception = ex;
+         }
+         return equivalent;
+      }
+
+      @Override
+      protected void mergeElement(OwlClass owlClass, EquivalentClasses equivalent) {
+         if (equivalent != null) {
+            exprHelper.addEquivalentClasses(equivalentClasses, equivalent.ontClass, equivalent.equivalentClasses, equivalent.exception, owlClass);
+         }
+      }
+   }
+
+   /**
+    * The phase which adds the individuals property values.
+    */
+   private class IndividualsPropertiesPhase extends ExtractionPhase {
+      private IndividualsPropertiesPhase() {
+         super("individuals properties");
+      }
+
+      @Override
+      protected void merge() {
+         Iterator<OwlIndividual> it = graph.getIndividuals().values().iterator();
+         while (it.hasNext()) {
+            OwlIndividual owlIndividual = it.next();
+            individualsHelper.addIndividualProperties(owlIndividual);
+         }
+      }
+   }
+
+   /**
+    * The phase which links the equivalent classes and properties, and adds the default annotations.
+    */
+   private class EquivalentElementsPhase extends ExtractionPhase {
+      private EquivalentElementsPhase() {
+         super("equivalent elements");
+      }
+
+      @Override
+      protected void merge() {
+         exprHelper.fillEquivalentClasses(equivalentClasses);
+         exprHelper.fillEquivalentProperties(equivalentProperties);
+         annotationsHelper.addDefaultAnnotations();
+      }
+   }
+
+   /**
+    * The phase which extracts the packages.
+    */
+   private class PackagesPhase extends ExtractionPhase {
+      private PackagesPhase() {
+         super("packages");
+      }
+
+      @Override
+      protected void merge() {
+         PackagesExtractor pExtractor = new PackagesExtractor(graph);
+         Map<ElementKey, OwlClass> packages = pExtractor.extractPackages();
+         graph.setPackages(packages);
+      }
+   }
+
+   /**
+    * The phase which looks for the foreign elements.
+    */
+   private class ForeignElementsPhase extends ExtractionPhase {
+      private ForeignElementsPhase() {
+         super("foreign elements");
+      }
+
+      @Override
+      protected void merge() {
+         lookForForeignElements();
+      }
+   }
+
    private static class WrappedValue {
 
       private final Object value;
@@ -0,0 +1,197 @@
+/*
+Copyright (c) 2024 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.parsers.graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RiotException;
+
+/**
+ * A content-addressed cache of the parsed imported Ontologies. Each Model is stored in the RDF Thrift binary format, which is much faster to
+ * read than the original syntax. The key of a Model is computed from the content of the imported document, so that the same document
+ * is only parsed once, whatever the Ontology which imports it.
+ *
+ * @since 0.16
+ */
+public class ImportsCache {
+   /**
+    * The version of the format of the cached Models. It must be changed if the format is not compatible anymore.
+    */
+   private static final int FORMAT_VERSION = 1;
+   private static final String EXTENSION = ".rt";
+   private final File directory;
+
+   /**
+    * Constructor.
+    *
+    * @param directory the cache directory
+    */
+   public ImportsCache(File directory) {
+      this.directory = directory;
+   }
+
+   /**
+    * Return the cache directory.
+    *
+    * @return the cache directory
+    */
+   public File getDirectory() {
+      return directory;
+   }
+
+   /**
+    * Return the key of an imported document in the cache. The key depends on the content of the document, and on its base URI and
+    * language, which have an impact on the parsing.
+    *
+    * @param content the content of the document
+    * @param base the base URI
+    * @param lang the RDF language
+    * @return the key
+    * @throws IOException if the digest algorithm is not available
+    */
+   public String getKey(byte[] content, String base, Lang lang) throws IOException {
+      MessageDigest digest;
+      try {
+         digest = MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException ex) {
+         throw new IOException(ex);
+      }
+      String prefix = "format=" + FORMAT_VERSION + ";base=" + base + ";lang=" + lang.getName() + "\n";
+      digest.update(prefix.getBytes(StandardCharsets.UTF_8));
+      digest.update(content);
+      byte[] hash = digest.digest();
+      StringBuilder key = new StringBuilder();
+      for (int i = 0; i < hash.length; i++) {
+         key.append(String.format("%02x", hash[i] & 0xff));
+      }
+      return key.toString();
+   }
+
+   private File getFile(String key) {
+      return new File(directory, key + EXTENSION);
+   }
+
+   /**
+    * Return true if the cache contains a Model.
+    *
+    * @param key the key
+    * @return true if the cache contains the Model
+    */
+   public boolean hasModel(String key) {
+      return getFile(key).exists();
+   }
+
+   /**
+    * Return a Model from the cache. Return null if the Model is not in the cache, or if it could not be read.
+    *
+    * @param key the key
+    * @return the Model
+    */
+   public Model getModel(String key) {
+      File file = getFile(key);
+      if (!file.exists()) {
+         return null;
+      }
+      Model model = ModelFactory.createDefaultModel();
+      try (InputStream stream = new BufferedInputStream(new FileInputStream(file))) {
+         RDFDataMgr.read(model, stream, Lang.RDFTHRIFT);
+         return model;
+      } catch (IOException | RiotException ex) {
+         // the file is corrupted, it will be replaced the next time the Model is put in the cache
+         model.close();
+         file.delete();
+         return null;
+      }
+   }
+
+   /**
+    * Put a Model in the cache. The Model is first written in a temporary file, so that a Model which is read at the same time by another
+    * thread or application is always complete.
+    *
+    * @param key the key
+    * @param model the Model
+    * @return true if the Model could be put in the cache
+    */
+   public boolean putModel(String key, Model model) {
+      if (!directory.exists() && !directory.mkdirs()) {
+         return false;
+      }
+      File file = getFile(key);
+      File tmpFile = null;
+      try {
+         tmpFile = File.createTempFile(key, ".tmp", directory);
+         try (OutputStream stream = new BufferedOutputStream(new FileOutputStream(tmpFile))) {
+            RDFDataMgr.write(stream, model, Lang.RDFTHRIFT);
+         }
+      } catch (IOException | RuntimeException ex) {
+         if (tmpFile != null) {
+            tmpFile.delete();
+         }
+         return false;
+      }
+      file.delete();
+      if (!tmpFile.renameTo(file)) {
+         tmpFile.delete();
+         return false;
+      }
+      return true;
+   }
+
+   /**
+    * Remove all the Models from the cache.
+    */
+   public void clear() {
+      File[] files = directory.listFiles();
+      if (files != null) {
+         for (int i = 0; i < files.length; i++) {
+            File file = files[i];
+            if (file.getName().endsWith(EXTENSION)) {
+               file.delete();
+            }
+         }
+      }
+   }
+}
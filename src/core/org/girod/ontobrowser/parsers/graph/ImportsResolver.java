@@ -0,0 +1,419 @@
+/*
+Copyright (c) 2024 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.parsers.graph;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.apache.jena.atlas.web.ContentType;
+import org.apache.jena.atlas.web.TypedInputStream;
+import org.apache.jena.ontology.OntDocumentManager;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.StmtIterator;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.system.stream.JenaIOEnvironment;
+import org.apache.jena.riot.system.stream.LocationMapper;
+import org.apache.jena.riot.system.stream.StreamManager;
+import org.apache.jena.util.FileManager;
+import org.apache.jena.vocabulary.OWL;
+import org.girod.ontobrowser.SchemasResolvers;
+
+/**
+ * This class resolves the imports closure of an Ontology before the creation of its OntModel. The imported documents are fetched and parsed
+ * concurrently on a bounded pool, and the resulting Models are registered in the document manager of the OntModel, so that Jena does not
+ * fetch them again.
+ * <ul>
+ * <li>The builtin schemas are taken from their precompiled form if the builtin schemas are used</li>
+ * <li>The location of each import is first looked up in the XML catalog next to the Ontology file if there is one, then in the global
+ * Jena location mapper</li>
+ * <li>If an {@link ImportsCache} is used, the parsed Models are stored in the cache, so that a document imported by several Ontologies is
+ * only parsed once</li>
+ * </ul>
+ *
+ * @since 0.16
+ */
+public class ImportsResolver {
+   /**
+    * The maximum number of imports which are fetched at the same time.
+    */
+   private static final int MAX_THREADS = 4;
+   /**
+    * The delay used to check for cancellation while waiting for the imports, in milliseconds.
+    */
+   private static final long POLL_DELAY = 100;
+   private final XMLCatalog catalog;
+   private final ImportsCache cache;
+   private LoadMonitor monitor = null;
+   private final Map<String, Model> models = new LinkedHashMap<>();
+   private final Map<String, Exception> failures = new LinkedHashMap<>();
+
+   /**
+    * Constructor.
+    *
+    * @param catalog the XML catalog (may be null)
+    * @param cache the cache (may be null)
+    */
+   public ImportsResolver(XMLCatalog catalog, ImportsCache cache) {
+      this.catalog = catalog;
+      this.cache = cache;
+   }
+
+   /**
+    * Constructor. The XML catalog next to the Ontology file is used if there is one.
+    *
+    * @param file the Ontology file
+    * @param cache the cache (may be null)
+    */
+   public ImportsResolver(File file, ImportsCache cache) {
+      this(XMLCatalog.getCatalog(file), cache);
+   }
+
+   /**
+    * Set the monitor which is able to cancel the resolution.
+    *
+    * @param monitor the monitor (may be null)
+    */
+   public void setMonitor(LoadMonitor monitor) {
+      this.monitor = monitor;
+   }
+
+   /**
+    * Return the XML catalog.
+    *
+    * @return the XML catalog (may be null)
+    */
+   public XMLCatalog getCatalog() {
+      return catalog;
+   }
+
+   /**
+    * Return the resolved imports Models, by their import URI.
+    *
+    * @return the resolved Models
+    */
+   public Map<String, Model> getModels() {
+      return Collections.unmodifiableMap(models);
+   }
+
+   /**
+    * Return the imports which could not be resolved, with the associated exception.
+    *
+    * @return the imports which could not be resolved
+    */
+   public Map<String, Exception> getFailures() {
+      return Collections.unmodifiableMap(failures);
+   }
+
+   /**
+    * Return true if some imports could not be resolved.
+    *
+    * @return true if some imports could not be resolved
+    */
+   public boolean hasFailures() {
+      return !failures.isEmpty();
+   }
+
+   /**
+    * Return the location of an import URI.
+    *
+    * @param uri the import URI
+    * @return the location
+    */
+   public String getLocation(String uri) {
+      String location = null;
+      if (catalog != null) {
+         location = catalog.resolve(uri);
+      }
+      if (location == null) {
+         location = uri;
+      }
+      LocationMapper mapper = JenaIOEnvironment.getLocationMapper();
+      if (mapper != null) {
+         location = mapper.altMapping(location, location);
+      }
+      return location;
+   }
+
+   /**
+    * Return the local files on which the imports closure of an OntModel depends. These are the XML catalog next to the Ontology file,
+    * even if it does not exist, and the imported documents which are local files. The builtin schemas and the documents fetched from
+    * the web are not returned.
+    *
+    * @param file the Ontology file
+    * @param model the OntModel
+    * @return the files
+    */
+   public static List<File> getImportedFiles(File file, OntModel model) {
+      List<File> files = new ArrayList<>();
+      files.add(new File(file.getAbsoluteFile().getParentFile(), XMLCatalog.CATALOG_NAME));
+      ImportsResolver resolver = new ImportsResolver(file, null);
+      SchemasResolvers resolvers = SchemasResolvers.getInstance();
+      Iterator<String> it = model.listImportedOntologyURIs(true).iterator();
+      while (it.hasNext()) {
+         String uri = it.next();
+         if (resolvers.isBuiltinSchema(uri)) {
+            continue;
+         }
+         File importedFile = getLocalFile(resolver.getLocation(uri));
+         if (importedFile != null) {
+            files.add(importedFile);
+         }
+      }
+      return files;
+   }
+
+   private static File getLocalFile(String location) {
+      try {
+         URI uri = new URI(location);
+         String scheme = uri.getScheme();
+         // a one letter scheme is a Windows drive
+         if (scheme == null || scheme.length() == 1) {
+            return new File(location);
+         } else if (scheme.equals("file")) {
+            return Paths.get(uri).toFile();
+         } else {
+            return null;
+         }
+      } catch (URISyntaxException | IllegalArgumentException ex) {
+         return null;
+      }
+   }
+
+   /**
+    * Resolve the imports closure of a Model.
+    *
+    * @param model the Model
+    * @param spec the specification of the OntModel which will be created for the Model
+    * @throws LoadCancelledException if the resolution has been cancelled
+    */
+   public void resolve(Model model, OntModelSpec spec) {
+      OntDocumentManager docManager = spec.getDocumentManager();
+      if (!docManager.getProcessImports()) {
+         return;
+      }
+      int threads = Math.max(1, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+      ExecutorService pool = Executors.newFixedThreadPool(threads, (Runnable r) -> {
+         Thread thread = new Thread(r, "ImportsResolver");
+         thread.setDaemon(true);
+         return thread;
+      });
+      CompletionService<ResolvedImport> service = new ExecutorCompletionService<>(pool);
+      Set<String> visited = new HashSet<>();
+      try {
+         int pending = submitImports(model, docManager, visited, service);
+         while (pending > 0) {
+            if (monitor != null && monitor.isCancelled()) {
+               throw new LoadCancelledException();
+            }
+            Future<ResolvedImport> future = service.poll(POLL_DELAY, TimeUnit.MILLISECONDS);
+            if (future == null) {
+               continue;
+            }
+            pending--;
+            ResolvedImport resolved = future.get();
+            if (resolved.model != null) {
+               models.put(resolved.uri, resolved.model);
+               pending += submitImports(resolved.model, docManager, visited, service);
+            } else {
+               failures.put(resolved.uri, resolved.exception);
+            }
+         }
+      } catch (InterruptedException ex) {
+         Thread.currentThread().interrupt();
+         throw new LoadCancelledException();
+      } catch (ExecutionException ex) {
+         // the tasks catch their exceptions, so this should not happen
+         throw new IllegalStateException(ex.getCause());
+      } finally {
+         pool.shutdownNow();
+      }
+   }
+
+   private int submitImports(Model model, OntDocumentManager docManager, Set<String> visited, CompletionService<ResolvedImport> service) {
+      int count = 0;
+      StmtIterator it = model.listStatements(null, OWL.imports, (RDFNode) null);
+      while (it.hasNext()) {
+         RDFNode node = it.next().getObject();
+         if (!node.isURIResource()) {
+            continue;
+         }
+         String uri = node.asResource().getURI();
+         if (!docManager.ignoringImport(uri) && visited.add(uri)) {
+            service.submit(() -> loadImport(uri));
+            count++;
+         }
+      }
+      return count;
+   }
+
+   private ResolvedImport loadImport(String uri) {
+      Model builtinModel = SchemasResolvers.getInstance().getBuiltinModel(uri);
+      if (builtinModel != null) {
+         return new ResolvedImport(uri, builtinModel);
+      }
+      try {
+         String location = getLocation(uri);
+         byte[] content;
+         Lang lang;
+         try (TypedInputStream stream = StreamManager.get().open(location)) {
+            if (stream == null) {
+               throw new IOException("Could not find " + location);
+            }
+            content = readContent(stream);
+            lang = getLang(stream.getMediaType(), location);
+         }
+         String key = null;
+         if (cache != null) {
+            key = cache.getKey(content, uri, lang);
+            Model model = cache.getModel(key);
+            if (model != null) {
+               return new ResolvedImport(uri, model);
+            }
+         }
+         Model model = ModelFactory.createDefaultModel();
+         RDFParser.create().source(new ByteArrayInputStream(content)).lang(lang).base(uri).parse(model.getGraph());
+         if (cache != null) {
+            cache.putModel(key, model);
+         }
+         return new ResolvedImport(uri, model);
+      } catch (IOException | RuntimeException ex) {
+         return new ResolvedImport(uri, ex);
+      }
+   }
+
+   private static Lang getLang(ContentType contentType, String location) {
+      Lang lang = null;
+      // the text/plain content type is returned by many servers for any document
+      if (contentType != null && !contentType.getContentTypeStr().equals("text/plain")) {
+         lang = RDFLanguages.contentTypeToLang(contentType);
+      }
+      if (lang == null) {
+         lang = RDFLanguages.filenameToLang(location, Lang.RDFXML);
+      }
+      return lang;
+   }
+
+   private static byte[] readContent(InputStream stream) throws IOException {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buf = new byte[65536];
+      while (true) {
+         int count = stream.read(buf);
+         if (count < 0) {
+            break;
+         }
+         out.write(buf, 0, count);
+      }
+      return out.toByteArray();
+   }
+
+   /**
+    * Create a specification for the OntModel of the Ontology, whose document manager already contains the resolved imports. The imports
+    * which could not be resolved are ignored, so that Jena does not try to fetch them again.
+    *
+    * @param spec the original specification
+    * @return the specification
+    */
+   public OntModelSpec createSpec(OntModelSpec spec) {
+      OntDocumentManager docManager = spec.getDocumentManager();
+      if (!docManager.getProcessImports() || (models.isEmpty() && failures.isEmpty())) {
+         return spec;
+      }
+      FileManager fileManager = docManager.getFileManager().clone();
+      fileManager.setModelCaching(true);
+      OntDocumentManager theDocManager = new OntDocumentManager(fileManager, (String) null);
+      theDocManager.setProcessImports(true);
+      Iterator<String> it = docManager.listIgnoredImports();
+      while (it.hasNext()) {
+         theDocManager.addIgnoreImport(it.next());
+      }
+      Iterator<Map.Entry<String, Model>> it2 = models.entrySet().iterator();
+      while (it2.hasNext()) {
+         Map.Entry<String, Model> entry = it2.next();
+         theDocManager.addModel(entry.getKey(), entry.getValue(), true);
+      }
+      it = failures.keySet().iterator();
+      while (it.hasNext()) {
+         theDocManager.addIgnoreImport(it.next());
+      }
+      OntModelSpec theSpec = new OntModelSpec(spec);
+      theSpec.setDocumentManager(theDocManager);
+      return theSpec;
+   }
+
+   /**
+    * The result of the resolution of one import.
+    */
+   private static class ResolvedImport {
+      private final String uri;
+      private final Model model;
+      private final Exception exception;
+
+      private ResolvedImport(String uri, Model model) {
+         this.uri = uri;
+         this.model = model;
+         this.exception = null;
+      }
+
+      private ResolvedImport(String uri, Exception exception) {
+         this.uri = uri;
+         this.model = null;
+         this.exception = exception;
+      }
+   }
+}
@@ -69,7 +69,7 @@ public class IndividualsHelper {
          Property property = statement.getPredicate();
          String namespace = graph.getNamespace(property);
          String name = property.getLocalName();
-         ElementKey propertyKey = ElementKey.create(namespace, name);
+         ElementKey propertyKey = graph.getElementKey(namespace, name);
          RDFNode node = statement.getObject();
          if (node != null && graph.hasOwlProperty(propertyKey)) {
             OwlProperty owlProperty = graph.getOwlProperty(propertyKey);
@@ -78,7 +78,7 @@ public class IndividualsHelper {
                OwlObjectProperty objectproperty = (OwlObjectProperty) owlProperty;
                namespace = graph.getNamespace(resource);
                name = resource.getLocalName();
-               ElementKey targetKey = ElementKey.create(namespace, name);
+               ElementKey targetKey = graph.getElementKey(namespace, name);
                if (graph.hasIndividual(targetKey)) {
                   OwlIndividual target = graph.getIndividual(targetKey);
                   ObjectPropertyValue value = new ObjectPropertyValue(objectproperty, owlIndividual, target);
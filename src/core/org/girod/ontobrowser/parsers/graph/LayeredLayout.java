@@ -0,0 +1,840 @@
+/*
+Copyright (c) 2021, 2023 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.parsers.graph;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * A layered (Sugiyama-style) layout for hierarchies. Each edge goes from an upper node to a lower node, for example from a class to one of
+ * its sub-classes. The layout is performed in four steps:
+ * <ul>
+ * <li>The cycles are broken by reversing the back edges of a depth-first traversal</li>
+ * <li>The nodes are assigned to layers by their longest path from the roots of the hierarchy, and the edges which span more than one
+ * layer are split by dummy nodes</li>
+ * <li>The crossings are reduced by barycentric sweeps over the layers. The barycenters of large layers and the crossings between each
+ * pair of consecutive layers are computed in parallel</li>
+ * <li>Each node is moved towards the barycenter of its neighbors, without changing the order of the nodes in the layers</li>
+ * </ul>
+ * Each connected part of the hierarchy is laid out independently (the parts are laid out in parallel), and the parts are then placed
+ * in rows, the largest parts first.
+ *
+ * @since 0.16
+ */
+public class LayeredLayout {
+   /**
+    * The number of elements under which a computation is not split anymore.
+    */
+   private static final int THRESHOLD = 256;
+   private static final int ALIGNMENT_STEPS = 8;
+   private static final int MAXIMUM_SWEEPS_WITHOUT_IMPROVEMENT = 4;
+   private final int count;
+   private final double[] width;
+   private final double[] height;
+   private final double[] x;
+   private final double[] y;
+   private int[] edgeFrom = new int[16];
+   private int[] edgeTo = new int[16];
+   private int edgesCount = 0;
+   private double layerSpacing = 60d;
+   private double nodeSpacing = 30d;
+   private int maximumSweeps = 24;
+   private ForkJoinPool pool = ForkJoinPool.commonPool();
+   private long crossings = 0;
+
+   /**
+    * Constructor.
+    *
+    * @param count the number of nodes
+    */
+   public LayeredLayout(int count) {
+      this.count = count;
+      this.width = new double[count];
+      this.height = new double[count];
+      this.x = new double[count];
+      this.y = new double[count];
+   }
+
+   /**
+    * Set the size of a node.
+    *
+    * @param node the node index
+    * @param width the width
+    * @param height the height
+    */
+   public void setSize(int node, double width, double height) {
+      this.width[node] = width;
+      this.height[node] = height;
+   }
+
+   /**
+    * Add an edge. The lower node will be placed under the upper node, except if the edge is part of a cycle.
+    *
+    * @param upper the upper node index
+    * @param lower the lower node index
+    */
+   public void addEdge(int upper, int lower) {
+      if (upper == lower) {
+         return;
+      }
+      if (edgesCount == edgeFrom.length) {
+         edgeFrom = Arrays.copyOf(edgeFrom, edgesCount * 2);
+         edgeTo = Arrays.copyOf(edgeTo, edgesCount * 2);
+      }
+      edgeFrom[edgesCount] = upper;
+      edgeTo[edgesCount] = lower;
+      edgesCount++;
+   }
+
+   /**
+    * Set the vertical spacing between two layers. The default is 60.
+    *
+    * @param layerSpacing the spacing
+    */
+   public void setLayerSpacing(double layerSpacing) {
+      this.layerSpacing = layerSpacing;
+   }
+
+   /**
+    * Set the horizontal spacing between two nodes of the same layer. The default is 30.
+    *
+    * @param nodeSpacing the spacing
+    */
+   public void setNodeSpacing(double nodeSpacing) {
+      this.nodeSpacing = nodeSpacing;
+   }
+
+   /**
+    * Set the maximum number of sweeps over the layers to reduce the crossings. The default is 24.
+    *
+    * @param maximumSweeps the maximum number of sweeps
+    */
+   public void setMaximumSweeps(int maximumSweeps) {
+      this.maximumSweeps = maximumSweeps;
+   }
+
+   /**
+    * Set the pool used for the parallel computations. The computations are sequential if the pool is null. The default is the common pool.
+    *
+    * @param pool the pool
+    */
+   public void setPool(ForkJoinPool pool) {
+      this.pool = pool;
+   }
+
+   /**
+    * Return the X position of the left side of a node.
+    *
+    * @param node the node index
+    * @return the X position
+    */
+   public double getX(int node) {
+      return x[node];
+   }
+
+   /**
+    * Return the Y position of the top side of a node.
+    *
+    * @param node the node index
+    * @return the Y position
+    */
+   public double getY(int node) {
+      return y[node];
+   }
+
+   /**
+    * Return the number of crossings between the edges of consecutive layers after the layout.
+    *
+    * @return the number of crossings
+    */
+   public long getCrossings() {
+      return crossings;
+   }
+
+   /**
+    * Apply the layout.
+    */
+   public void apply() {
+      Part[] parts = createParts();
+      int[] globalToLocal = new int[count];
+      for (int i = 0; i < parts.length; i++) {
+         parts[i].setLocalIndexes(globalToLocal);
+      }
+      invoke(parts.length, 1, (int i) -> parts[i].layout(globalToLocal));
+      crossings = 0;
+      for (int i = 0; i < parts.length; i++) {
+         crossings += parts[i].crossings;
+      }
+      placeParts(parts);
+   }
+
+   /**
+    * Execute a computation for a range of indexes, in parallel if the range is large enough.
+    *
+    * @param size the size of the range
+    * @param threshold the size under which the range is not split anymore
+    * @param body the computation for one index
+    */
+   private void invoke(int size, int threshold, IntConsumer body) {
+      if (pool != null && size > threshold) {
+         pool.invoke(new RangeAction(0, size, threshold, body));
+      } else {
+         for (int i = 0; i < size; i++) {
+            body.accept(i);
+         }
+      }
+   }
+
+   /**
+    * Split the nodes in connected parts. The parts are sorted by decreasing number of nodes.
+    *
+    * @return the parts
+    */
+   private Part[] createParts() {
+      int[] root = new int[count];
+      for (int i = 0; i < count; i++) {
+         root[i] = i;
+      }
+      for (int i = 0; i < edgesCount; i++) {
+         int r1 = find(root, edgeFrom[i]);
+         int r2 = find(root, edgeTo[i]);
+         if (r1 != r2) {
+            root[Math.max(r1, r2)] = Math.min(r1, r2);
+         }
+      }
+      int[] partIndex = new int[count];
+      int[] partSize = new int[count];
+      int partsCount = 0;
+      for (int i = 0; i < count; i++) {
+         int r = find(root, i);
+         if (r == i) {
+            partIndex[i] = partsCount++;
+         }
+         partSize[partIndex[r]]++;
+      }
+      Part[] parts = new Part[partsCount];
+      int[] edgesSize = new int[partsCount];
+      for (int i = 0; i < edgesCount; i++) {
+         edgesSize[partIndex[root[edgeFrom[i]]]]++;
+      }
+      for (int i = 0; i < partsCount; i++) {
+         parts[i] = new Part(partSize[i], edgesSize[i]);
+      }
+      for (int i = 0; i < count; i++) {
+         Part part = parts[partIndex[root[i]]];
+         part.nodes[part.nodesCount++] = i;
+      }
+      for (int i = 0; i < edgesCount; i++) {
+         Part part = parts[partIndex[root[edgeFrom[i]]]];
+         part.from[part.edgesCount] = edgeFrom[i];
+         part.to[part.edgesCount] = edgeTo[i];
+         part.edgesCount++;
+      }
+      // stable sort, so that the order of the parts is deterministic
+      Arrays.sort(parts, (Part p1, Part p2) -> Integer.compare(p2.nodesCount, p1.nodesCount));
+      return parts;
+   }
+
+   private static int find(int[] root, int node) {
+      int r = node;
+      while (root[r] != r) {
+         r = root[r];
+      }
+      while (root[node] != r) {
+         int next = root[node];
+         root[node] = r;
+         node = next;
+      }
+      return r;
+   }
+
+   /**
+    * Place the parts in rows. The width of the rows depends on the total area of the parts, so that the diagram is not too elongated.
+    *
+    * @param parts the parts
+    */
+   private void placeParts(Part[] parts) {
+      double area = 0;
+      double maximumWidth = 0;
+      for (int i = 0; i < parts.length; i++) {
+         area += (parts[i].partWidth + nodeSpacing) * (parts[i].partHeight + layerSpacing);
+         maximumWidth = Math.max(maximumWidth, parts[i].partWidth);
+      }
+      double rowWidth = Math.max(maximumWidth, 2 * Math.sqrt(area));
+      double partX = 0;
+      double partY = 0;
+      double rowHeight = 0;
+      for (int i = 0; i < parts.length; i++) {
+         Part part = parts[i];
+         if (partX > 0 && partX + part.partWidth > rowWidth) {
+            partX = 0;
+            partY += rowHeight + layerSpacing;
+            rowHeight = 0;
+         }
+         for (int j = 0; j < part.nodesCount; j++) {
+            int node = part.nodes[j];
+            x[node] += partX;
+            y[node] += partY;
+         }
+         partX += part.partWidth + 2 * nodeSpacing;
+         rowHeight = Math.max(rowHeight, part.partHeight);
+      }
+   }
+
+   /**
+    * A connected part of the hierarchy. The nodes of the part have local indexes, and the dummy nodes which split the long edges have
+    * the indexes which follow the indexes of the nodes.
+    */
+   private class Part {
+      private final int[] nodes;
+      private int nodesCount = 0;
+      private final int[] from;
+      private final int[] to;
+      private int edgesCount = 0;
+      private double partWidth = 0;
+      private double partHeight = 0;
+      private long crossings = 0;
+      // the nodes, including the dummy nodes
+      private int total;
+      private int[] layer;
+      private double[] nodeWidth;
+      private double[] nodeHeight;
+      private int[] upperOffsets;
+      private int[] upper;
+      private int[] lowerOffsets;
+      private int[] lower;
+      private int[][] layers;
+      private int[] position;
+      private double[] centerX;
+
+      private Part(int nodesCount, int edgesCount) {
+         this.nodes = new int[nodesCount];
+         this.from = new int[edgesCount];
+         this.to = new int[edgesCount];
+      }
+
+      private void setLocalIndexes(int[] globalToLocal) {
+         for (int i = 0; i < nodesCount; i++) {
+            globalToLocal[nodes[i]] = i;
+         }
+      }
+
+      private void layout(int[] globalToLocal) {
+         if (nodesCount == 1) {
+            int node = nodes[0];
+            x[node] = 0;
+            y[node] = 0;
+            partWidth = width[node];
+            partHeight = height[node];
+            return;
+         }
+         int[] localFrom = new int[edgesCount];
+         int[] localTo = new int[edgesCount];
+         for (int i = 0; i < edgesCount; i++) {
+            localFrom[i] = globalToLocal[from[i]];
+            localTo[i] = globalToLocal[to[i]];
+         }
+         removeCycles(localFrom, localTo);
+         int[] edges = removeDuplicates(localFrom, localTo);
+         assignLayers(localFrom, localTo, edges);
+         splitLongEdges(localFrom, localTo, edges);
+         orderLayers();
+         assignCoordinates();
+      }
+
+      /**
+       * Reverse the back edges of a depth-first traversal.
+       */
+      private void removeCycles(int[] localFrom, int[] localTo) {
+         int[] offsets = new int[nodesCount + 1];
+         for (int i = 0; i < edgesCount; i++) {
+            offsets[localFrom[i] + 1]++;
+         }
+         for (int i = 0; i < nodesCount; i++) {
+            offsets[i + 1] += offsets[i];
+         }
+         int[] out = new int[edgesCount];
+         int[] fill = Arrays.copyOf(offsets, nodesCount);
+         for (int i = 0; i < edgesCount; i++) {
+            out[fill[localFrom[i]]++] = i;
+         }
+         // 0: not visited, 1: on the stack, 2: done
+         byte[] state = new byte[nodesCount];
+         int[] stack = new int[nodesCount];
+         int[] next = new int[nodesCount];
+         for (int root = 0; root < nodesCount; root++) {
+            if (state[root] != 0) {
+               continue;
+            }
+            int top = 0;
+            stack[0] = root;
+            next[root] = offsets[root];
+            state[root] = 1;
+            while (top >= 0) {
+               int node = stack[top];
+               if (next[node] < offsets[node + 1]) {
+                  int edge = out[next[node]++];
+                  int target = localTo[edge];
+                  if (state[target] == 1) {
+                     localTo[edge] = localFrom[edge];
+                     localFrom[edge] = target;
+                  } else if (state[target] == 0) {
+                     state[target] = 1;
+                     next[target] = offsets[target];
+                     stack[++top] = target;
+                  }
+               } else {
+                  state[node] = 2;
+                  top--;
+               }
+            }
+         }
+      }
+
+      /**
+       * Return the indexes of the edges which are kept, without the duplicate edges.
+       */
+      private int[] removeDuplicates(int[] localFrom, int[] localTo) {
+         Set<Long> keys = new HashSet<>();
+         int[] edges = new int[edgesCount];
+         int kept = 0;
+         for (int i = 0; i < edgesCount; i++) {
+            if (keys.add(((long) localFrom[i] << 32) | localTo[i])) {
+               edges[kept++] = i;
+            }
+         }
+         return Arrays.copyOf(edges, kept);
+      }
+
+      /**
+       * Assign each node to the layer of its longest path from a root. The roots are then moved down just above their highest child.
+       */
+      private void assignLayers(int[] localFrom, int[] localTo, int[] edges) {
+         int[] offsets = new int[nodesCount + 1];
+         int[] inDegree = new int[nodesCount];
+         for (int i = 0; i < edges.length; i++) {
+            offsets[localFrom[edges[i]] + 1]++;
+            inDegree[localTo[edges[i]]]++;
+         }
+         for (int i = 0; i < nodesCount; i++) {
+            offsets[i + 1] += offsets[i];
+         }
+         int[] out = new int[edges.length];
+         int[] fill = Arrays.copyOf(offsets, nodesCount);
+         for (int i = 0; i < edges.length; i++) {
+            out[fill[localFrom[edges[i]]]++] = localTo[edges[i]];
+         }
+         boolean[] isRoot = new boolean[nodesCount];
+         int[] order = new int[nodesCount];
+         int tail = 0;
+         for (int i = 0; i < nodesCount; i++) {
+            if (inDegree[i] == 0) {
+               isRoot[i] = true;
+               order[tail++] = i;
+            }
+         }
+         layer = new int[nodesCount];
+         for (int head = 0; head < tail; head++) {
+            int node = order[head];
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+               int target = out[i];
+               layer[target] = Math.max(layer[target], layer[node] + 1);
+               if (--inDegree[target] == 0) {
+                  order[tail++] = target;
+               }
+            }
+         }
+         for (int i = nodesCount - 1; i >= 0; i--) {
+            int node = order[i];
+            if (isRoot[node] && offsets[node] < offsets[node + 1]) {
+               int minimumLayer = Integer.MAX_VALUE;
+               for (int j = offsets[node]; j < offsets[node + 1]; j++) {
+                  minimumLayer = Math.min(minimumLayer, layer[out[j]]);
+               }
+               layer[node] = minimumLayer - 1;
+            }
+         }
+      }
+
+      /**
+       * Split the edges which span more than one layer with dummy nodes, and create the adjacency of each node in the previous and the
+       * next layers.
+       */
+      private void splitLongEdges(int[] localFrom, int[] localTo, int[] edges) {
+         total = nodesCount;
+         int segmentsCount = 0;
+         for (int i = 0; i < edges.length; i++) {
+            int span = layer[localTo[edges[i]]] - layer[localFrom[edges[i]]];
+            total += span - 1;
+            segmentsCount += span;
+         }
+         layer = Arrays.copyOf(layer, total);
+         nodeWidth = new double[total];
+         nodeHeight = new double[total];
+         for (int i = 0; i < nodesCount; i++) {
+            nodeWidth[i] = width[nodes[i]];
+            nodeHeight[i] = height[nodes[i]];
+         }
+         int[] segmentFrom = new int[segmentsCount];
+         int[] segmentTo = new int[segmentsCount];
+         int segment = 0;
+         int dummy = nodesCount;
+         for (int i = 0; i < edges.length; i++) {
+            int source = localFrom[edges[i]];
+            int target = localTo[edges[i]];
+            int previous = source;
+            for (int l = layer[source] + 1; l < layer[target]; l++) {
+               layer[dummy] = l;
+               segmentFrom[segment] = previous;
+               segmentTo[segment] = dummy;
+               segment++;
+               previous = dummy;
+               dummy++;
+            }
+            segmentFrom[segment] = previous;
+            segmentTo[segment] = target;
+            segment++;
+         }
+         lowerOffsets = new int[total + 1];
+         upperOffsets = new int[total + 1];
+         for (int i = 0; i < segmentsCount; i++) {
+            lowerOffsets[segmentFrom[i] + 1]++;
+            upperOffsets[segmentTo[i] + 1]++;
+         }
+         for (int i = 0; i < total; i++) {
+            lowerOffsets[i + 1] += lowerOffsets[i];
+            upperOffsets[i + 1] += upperOffsets[i];
+         }
+         lower = new int[segmentsCount];
+         upper = new int[segmentsCount];
+         int[] lowerFill = Arrays.copyOf(lowerOffsets, total);
+         int[] upperFill = Arrays.copyOf(upperOffsets, total);
+         for (int i = 0; i < segmentsCount; i++) {
+            lower[lowerFill[segmentFrom[i]]++] = segmentTo[i];
+            upper[upperFill[segmentTo[i]]++] = segmentFrom[i];
+         }
+      }
+
+      /**
+       * Order the nodes in each layer. The initial order is the breadth-first order from the roots, and the order is then improved by
+       * barycentric sweeps, alternatively from the top and from the bottom. The order with the fewest crossings is kept.
+       */
+      private void orderLayers() {
+         int layersCount = 0;
+         for (int i = 0; i < total; i++) {
+            layersCount = Math.max(layersCount, layer[i] + 1);
+         }
+         int[] layerSize = new int[layersCount];
+         for (int i = 0; i < total; i++) {
+            layerSize[layer[i]]++;
+         }
+         layers = new int[layersCount][];
+         for (int l = 0; l < layersCount; l++) {
+            layers[l] = new int[layerSize[l]];
+         }
+         int[] fill = new int[layersCount];
+         position = new int[total];
+         boolean[] visited = new boolean[total];
+         int[] queue = new int[total];
+         int tail = 0;
+         for (int root = 0; root < total; root++) {
+            if (visited[root] || upperOffsets[root] < upperOffsets[root + 1]) {
+               continue;
+            }
+            visited[root] = true;
+            int head = tail;
+            queue[tail++] = root;
+            while (head < tail) {
+               int node = queue[head++];
+               position[node] = fill[layer[node]];
+               layers[layer[node]][fill[layer[node]]++] = node;
+               for (int i = lowerOffsets[node]; i < lowerOffsets[node + 1]; i++) {
+                  if (!visited[lower[i]]) {
+                     visited[lower[i]] = true;
+                     queue[tail++] = lower[i];
+                  }
+               }
+            }
+         }
+         long best = countCrossings();
+         int[][] bestLayers = copyLayers();
+         int sweepsWithoutImprovement = 0;
+         for (int sweep = 0; sweep < maximumSweeps && best > 0; sweep++) {
+            if (sweep % 2 == 0) {
+               for (int l = 1; l < layersCount; l++) {
+                  sortLayer(l, upperOffsets, upper);
+               }
+            } else {
+               for (int l = layersCount - 2; l >= 0; l--) {
+                  sortLayer(l, lowerOffsets, lower);
+               }
+            }
+            long current = countCrossings();
+            if (current < best) {
+               best = current;
+               bestLayers = copyLayers();
+               sweepsWithoutImprovement = 0;
+            } else if (++sweepsWithoutImprovement >= MAXIMUM_SWEEPS_WITHOUT_IMPROVEMENT) {
+               break;
+            }
+         }
+         layers = bestLayers;
+         for (int l = 0; l < layersCount; l++) {
+            for (int i = 0; i < layers[l].length; i++) {
+               position[layers[l][i]] = i;
+            }
+         }
+         crossings = best;
+      }
+
+      private int[][] copyLayers() {
+         int[][] copy = new int[layers.length][];
+         for (int l = 0; l < layers.length; l++) {
+            copy[l] = layers[l].clone();
+         }
+         return copy;
+      }
+
+      /**
+       * Sort a layer by the barycenter of the positions of the neighbors of its nodes in the adjacent layer. The nodes which have no
+       * neighbors keep their position.
+       */
+      private void sortLayer(int l, int[] offsets, int[] adjacency) {
+         int[] theLayer = layers[l];
+         double[] barycenter = new double[theLayer.length];
+         invoke(theLayer.length, THRESHOLD, (int i) -> {
+            int node = theLayer[i];
+            int start = offsets[node];
+            int end = offsets[node + 1];
+            if (start == end) {
+               barycenter[i] = i;
+            } else {
+               double sum = 0;
+               for (int j = start; j < end; j++) {
+                  sum += position[adjacency[j]];
+               }
+               barycenter[i] = sum / (end - start);
+            }
+         });
+         Integer[] indexes = new Integer[theLayer.length];
+         for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = i;
+         }
+         Arrays.sort(indexes, (Integer i1, Integer i2) -> Double.compare(barycenter[i1], barycenter[i2]));
+         int[] sorted = new int[theLayer.length];
+         for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = theLayer[indexes[i]];
+            position[sorted[i]] = i;
+         }
+         layers[l] = sorted;
+      }
+
+      /**
+       * Count the crossings between all the pairs of consecutive layers. Each pair is counted in parallel.
+       */
+      private long countCrossings() {
+         long[] pairCrossings = new long[Math.max(0, layers.length - 1)];
+         int threshold = total > THRESHOLD ? 1 : Integer.MAX_VALUE;
+         invoke(pairCrossings.length, threshold, (int l) -> pairCrossings[l] = countCrossings(l));
+         long sum = 0;
+         for (int l = 0; l < pairCrossings.length; l++) {
+            sum += pairCrossings[l];
+         }
+         return sum;
+      }
+
+      /**
+       * Count the crossings between a layer and the next layer with an accumulator tree, in O(e log(n)).
+       */
+      private long countCrossings(int l) {
+         int lowerSize = layers[l + 1].length;
+         int firstIndex = 1;
+         while (firstIndex < lowerSize) {
+            firstIndex <<= 1;
+         }
+         int[] tree = new int[2 * firstIndex - 1];
+         firstIndex--;
+         long pairCrossings = 0;
+         int[] theLayer = layers[l];
+         for (int i = 0; i < theLayer.length; i++) {
+            int node = theLayer[i];
+            int start = lowerOffsets[node];
+            int end = lowerOffsets[node + 1];
+            int[] positions = new int[end - start];
+            for (int j = start; j < end; j++) {
+               positions[j - start] = position[lower[j]];
+            }
+            Arrays.sort(positions);
+            for (int j = 0; j < positions.length; j++) {
+               int index = positions[j] + firstIndex;
+               tree[index]++;
+               while (index > 0) {
+                  if ((index & 1) == 1) {
+                     pairCrossings += tree[index + 1];
+                  }
+                  index = (index - 1) >>> 1;
+                  tree[index]++;
+               }
+            }
+         }
+         return pairCrossings;
+      }
+
+      /**
+       * Assign the coordinates of the nodes. The layers are placed under each other, and each node is moved towards the barycenter of its
+       * neighbors, alternatively in the previous and in the next layer.
+       */
+      private void assignCoordinates() {
+         centerX = new double[total];
+         for (int l = 0; l < layers.length; l++) {
+            int[] theLayer = layers[l];
+            double current = 0;
+            for (int i = 0; i < theLayer.length; i++) {
+               if (i > 0) {
+                  current += getSeparation(theLayer[i - 1], theLayer[i]);
+               }
+               centerX[theLayer[i]] = current;
+            }
+         }
+         for (int step = 0; step < ALIGNMENT_STEPS; step++) {
+            if (step % 2 == 0) {
+               for (int l = 1; l < layers.length; l++) {
+                  alignLayer(l, upperOffsets, upper);
+               }
+            } else {
+               for (int l = layers.length - 2; l >= 0; l--) {
+                  alignLayer(l, lowerOffsets, lower);
+               }
+            }
+         }
+         double[] layerTop = new double[layers.length];
+         double[] layerHeight = new double[layers.length];
+         for (int i = 0; i < total; i++) {
+            layerHeight[layer[i]] = Math.max(layerHeight[layer[i]], nodeHeight[i]);
+         }
+         double top = 0;
+         for (int l = 0; l < layers.length; l++) {
+            layerTop[l] = top;
+            top += layerHeight[l] + layerSpacing;
+         }
+         double minimumX = Double.MAX_VALUE;
+         double maximumX = -Double.MAX_VALUE;
+         for (int i = 0; i < total; i++) {
+            minimumX = Math.min(minimumX, centerX[i] - nodeWidth[i] / 2);
+            maximumX = Math.max(maximumX, centerX[i] + nodeWidth[i] / 2);
+         }
+         for (int i = 0; i < nodesCount; i++) {
+            int node = nodes[i];
+            x[node] = centerX[i] - nodeWidth[i] / 2 - minimumX;
+            y[node] = layerTop[layer[i]] + (layerHeight[layer[i]] - nodeHeight[i]) / 2;
+         }
+         partWidth = maximumX - minimumX;
+         partHeight = top - layerSpacing;
+      }
+
+      /**
+       * Move the nodes of a layer towards the barycenter of their neighbors. The positions are computed by pushing the nodes to the right,
+       * and then to the left, from their desired position. The mean of the two placements keeps the order and the separation of the nodes.
+       */
+      private void alignLayer(int l, int[] offsets, int[] adjacency) {
+         int[] theLayer = layers[l];
+         int size = theLayer.length;
+         double[] desired = new double[size];
+         for (int i = 0; i < size; i++) {
+            int node = theLayer[i];
+            int start = offsets[node];
+            int end = offsets[node + 1];
+            if (start == end) {
+               desired[i] = centerX[node];
+            } else {
+               double sum = 0;
+               for (int j = start; j < end; j++) {
+                  sum += centerX[adjacency[j]];
+               }
+               desired[i] = sum / (end - start);
+            }
+         }
+         double[] right = new double[size];
+         right[0] = desired[0];
+         for (int i = 1; i < size; i++) {
+            right[i] = Math.max(desired[i], right[i - 1] + getSeparation(theLayer[i - 1], theLayer[i]));
+         }
+         double[] left = new double[size];
+         left[size - 1] = desired[size - 1];
+         for (int i = size - 2; i >= 0; i--) {
+            left[i] = Math.min(desired[i], left[i + 1] - getSeparation(theLayer[i], theLayer[i + 1]));
+         }
+         for (int i = 0; i < size; i++) {
+            centerX[theLayer[i]] = (right[i] + left[i]) / 2;
+         }
+      }
+
+      private double getSeparation(int node1, int node2) {
+         double spacing = node1 >= nodesCount || node2 >= nodesCount ? nodeSpacing / 2 : nodeSpacing;
+         return (nodeWidth[node1] + nodeWidth[node2]) / 2 + spacing;
+      }
+   }
+
+   /**
+    * The action which executes a computation for a range of indexes.
+    */
+   private static class RangeAction extends RecursiveAction {
+      private final int from;
+      private final int to;
+      private final int threshold;
+      private final IntConsumer body;
+
+      private RangeAction(int from, int to, int threshold, IntConsumer body) {
+         this.from = from;
+         this.to = to;
+         this.threshold = threshold;
+         this.body = body;
+      }
+
+      @Override
+      protected void compute() {
+         if (to - from <= threshold) {
+            for (int i = from; i < to; i++) {
+               body.accept(i);
+            }
+         } else {
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeAction(from, middle, threshold, body), new RangeAction(middle, to, threshold, body));
+         }
+      }
+   }
+}
@@ -0,0 +1,515 @@
+/*
+Copyright (c) 2024 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.parsers.graph;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.shared.PrefixMapping;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.girod.ontobrowser.model.ElementKey;
+
+/**
+ * The triple-level difference between the model which was previously loaded for a file and a new version of the same file.
+ *
+ * <p>The triples which do not use blank nodes are compared directly. The blank nodes are different each time a file is parsed, so the
+ * triples which use blank nodes (for example restrictions or lists) are compared by the structure of the blank nodes which are reachable
+ * from each named subject, and by the structure of the blank nodes which are not reachable from any named subject (for example
+ * annotation axioms).</p>
+ *
+ * <p>The structure of a blank node is represented by a 128 bits hash which combines the hashes of its properties, so that the size of the
+ * signatures does not depend on the depth of the blank nodes. The signatures are computed from the leaves of the graph of blank nodes to its
+ * roots without recursion, so that long lists can be compared.</p>
+ *
+ * @since 0.16
+ */
+public class ModelDiff {
+   private final Graph previous;
+   private final Graph current;
+   private final Map<String, String> previousPrefixes;
+   private final Map<String, String> currentPrefixes;
+   private final Set<Triple> removedTriples = new HashSet<>();
+   private final Set<Triple> addedTriples = new HashSet<>();
+   private final Set<Node> changedSubjects = new HashSet<>();
+   private final boolean prefixChanges;
+
+   /**
+    * Constructor. The difference is computed at construction.
+    *
+    * @param previous the previous model
+    * @param current the current model
+    */
+   public ModelDiff(Model previous, Model current) {
+      this.previous = previous.getGraph();
+      this.current = current.getGraph();
+      this.previousPrefixes = previous.getNsPrefixMap();
+      this.currentPrefixes = current.getNsPrefixMap();
+      this.prefixChanges = !getDeclaredPrefixes(previousPrefixes, currentPrefixes).equals(currentPrefixes);
+      computeGroundDiff(this.previous, this.current, removedTriples);
+      computeGroundDiff(this.current, this.previous, addedTriples);
+      computeBlankNodesDiff();
+   }
+
+   /**
+    * Return true if the two models are identical, up to the labels of their blank nodes.
+    *
+    * @return true if the two models are identical
+    */
+   public boolean isEmpty() {
+      return removedTriples.isEmpty() && addedTriples.isEmpty() && !hasPrefixChanges();
+   }
+
+   /**
+    * Return true if the prefixes of the models are different. The standard prefixes which are added to the model by an OntModel, such as
+    * <code>rdf</code> or <code>xsd</code>, are not considered as a change if they are not declared in the current model.
+    *
+    * @return true if the prefixes of the models are different
+    */
+   public boolean hasPrefixChanges() {
+      return prefixChanges;
+   }
+
+   private static Map<String, String> getDeclaredPrefixes(Map<String, String> previous, Map<String, String> current) {
+      Map<String, String> prefixes = new HashMap<>(previous);
+      Iterator<Map.Entry<String, String>> it = PrefixMapping.Standard.getNsPrefixMap().entrySet().iterator();
+      while (it.hasNext()) {
+         Map.Entry<String, String> entry = it.next();
+         String prefix = entry.getKey();
+         if (!current.containsKey(prefix) && entry.getValue().equals(prefixes.get(prefix))) {
+            prefixes.remove(prefix);
+         }
+      }
+      return prefixes;
+   }
+
+   /**
+    * Return the triples of the previous model which are not in the current model.
+    *
+    * @return the removed triples
+    */
+   public Set<Triple> getRemovedTriples() {
+      return Collections.unmodifiableSet(removedTriples);
+   }
+
+   /**
+    * Return the triples of the current model which are not in the previous model.
+    *
+    * @return the added triples
+    */
+   public Set<Triple> getAddedTriples() {
+      return Collections.unmodifiableSet(addedTriples);
+   }
+
+   /**
+    * Return the keys of the named resources which are the subject or the object of a changed triple.
+    *
+    * @return the keys of the changed elements
+    */
+   public Set<ElementKey> getChangedElements() {
+      Set<ElementKey> keys = new HashSet<>();
+      Iterator<Node> it = changedSubjects.iterator();
+      while (it.hasNext()) {
+         Node node = it.next();
+         keys.add(ElementKey.create(node.getNameSpace(), node.getLocalName()));
+      }
+      return keys;
+   }
+
+   /**
+    * Apply the difference on the previous model, so that it has the same content as the current model.
+    *
+    * @param model the previous model
+    */
+   public void apply(Model model) {
+      update(model, removedTriples, addedTriples, currentPrefixes);
+   }
+
+   /**
+    * Revert the difference on a model on which it has been applied, so that it has again the content of the previous model.
+    *
+    * @param model the model
+    */
+   public void revert(Model model) {
+      update(model, addedTriples, removedTriples, previousPrefixes);
+   }
+
+   private void update(Model model, Set<Triple> toRemove, Set<Triple> toAdd, Map<String, String> prefixes) {
+      Graph graph = model.getGraph();
+      Iterator<Triple> it = toRemove.iterator();
+      while (it.hasNext()) {
+         graph.delete(it.next());
+      }
+      it = toAdd.iterator();
+      while (it.hasNext()) {
+         graph.add(it.next());
+      }
+      if (hasPrefixChanges()) {
+         model.clearNsPrefixMap();
+         model.setNsPrefixes(prefixes);
+      }
+   }
+
+   private void computeGroundDiff(Graph graph, Graph other, Set<Triple> diff) {
+      ExtendedIterator<Triple> it = graph.find();
+      try {
+         while (it.hasNext()) {
+            Triple triple = it.next();
+            if (!triple.getSubject().isBlank() && !triple.getObject().isBlank() && !other.contains(triple)) {
+               diff.add(triple);
+               addChangedNode(triple.getSubject());
+               addChangedNode(triple.getObject());
+            }
+         }
+      } finally {
+         it.close();
+      }
+   }
+
+   private void computeBlankNodesDiff() {
+      BlankNodes previousNodes = new BlankNodes(previous);
+      BlankNodes currentNodes = new BlankNodes(current);
+
+      // the blank nodes reachable from named subjects
+      Set<Node> owners = new HashSet<>(previousNodes.ownerSignatures.keySet());
+      owners.addAll(currentNodes.ownerSignatures.keySet());
+      Iterator<Node> it = owners.iterator();
+      while (it.hasNext()) {
+         Node owner = it.next();
+         Signature previousSignature = previousNodes.ownerSignatures.get(owner);
+         Signature currentSignature = currentNodes.ownerSignatures.get(owner);
+         if (previousSignature == null || !previousSignature.equals(currentSignature)) {
+            addChangedNode(owner);
+            previousNodes.addOwnerClosure(owner, removedTriples);
+            currentNodes.addOwnerClosure(owner, addedTriples);
+         }
+      }
+
+      // the blank nodes which are not reachable from named subjects
+      Map<Signature, List<Node>> previousRoots = previousNodes.getRootsBySignature();
+      Map<Signature, List<Node>> currentRoots = currentNodes.getRootsBySignature();
+      addUnmatchedRoots(previousNodes, previousRoots, currentRoots, removedTriples);
+      addUnmatchedRoots(currentNodes, currentRoots, previousRoots, addedTriples);
+   }
+
+   private void addUnmatchedRoots(BlankNodes nodes, Map<Signature, List<Node>> roots, Map<Signature, List<Node>> otherRoots, Set<Triple> diff) {
+      Iterator<Map.Entry<Signature, List<Node>>> it = roots.entrySet().iterator();
+      while (it.hasNext()) {
+         Map.Entry<Signature, List<Node>> entry = it.next();
+         List<Node> list = entry.getValue();
+         List<Node> otherList = otherRoots.get(entry.getKey());
+         int matched = otherList == null ? 0 : otherList.size();
+         for (int i = matched; i < list.size(); i++) {
+            nodes.addClosure(list.get(i), diff);
+         }
+      }
+   }
+
+   private void addChangedNode(Node node) {
+      if (node.isURI()) {
+         changedSubjects.add(node);
+      }
+   }
+
+   /**
+    * The structure of the blank nodes of a graph.
+    */
+   private class BlankNodes {
+      private final Graph graph;
+      private final Map<Node, Signature> ownerSignatures = new HashMap<>();
+      private final Set<Node> roots = new HashSet<>();
+      private final Map<Node, Signature> signatures = new HashMap<>();
+      private final Map<Node, Signature> nodeHashes = new HashMap<>();
+
+      private BlankNodes(Graph graph) {
+         this.graph = graph;
+         Map<Node, List<Signature>> ownerParts = new HashMap<>();
+         Set<Node> objects = new HashSet<>();
+         ExtendedIterator<Triple> it = graph.find();
+         try {
+            while (it.hasNext()) {
+               Triple triple = it.next();
+               Node subject = triple.getSubject();
+               Node object = triple.getObject();
+               if (subject.isBlank()) {
+                  roots.add(subject);
+               }
+               if (object.isBlank()) {
+                  objects.add(object);
+                  if (!subject.isBlank()) {
+                     List<Signature> parts = ownerParts.get(subject);
+                     if (parts == null) {
+                        parts = new ArrayList<>();
+                        ownerParts.put(subject, parts);
+                     }
+                     parts.add(getNodeHash(triple.getPredicate()).combine(getSignature(object)));
+                  }
+               }
+            }
+         } finally {
+            it.close();
+         }
+         roots.removeAll(objects);
+         Iterator<Map.Entry<Node, List<Signature>>> it2 = ownerParts.entrySet().iterator();
+         while (it2.hasNext()) {
+            Map.Entry<Node, List<Signature>> entry = it2.next();
+            ownerSignatures.put(entry.getKey(), Signature.combine(entry.getValue()));
+         }
+      }
+
+      private Signature getNodeHash(Node node) {
+         Signature hash = nodeHashes.get(node);
+         if (hash == null) {
+            hash = Signature.create(node.toString());
+            nodeHashes.put(node, hash);
+         }
+         return hash;
+      }
+
+      /**
+       * Return the signature of a blank node. The blank nodes reachable from the node are visited in depth-first order with an explicit stack,
+       * and the signature of each node is computed after the signatures of its children. A blank node which is reached again while its
+       * children are visited is part of a cycle, and the {@link Signature#CYCLE} signature is used for it.
+       */
+      private Signature getSignature(Node blank) {
+         Signature signature = signatures.get(blank);
+         if (signature != null) {
+            return signature;
+         }
+         Set<Node> visiting = new HashSet<>();
+         Deque<Node> stack = new ArrayDeque<>();
+         stack.push(blank);
+         while (!stack.isEmpty()) {
+            Node node = stack.peek();
+            if (signatures.containsKey(node)) {
+               stack.pop();
+            } else if (visiting.add(node)) {
+               ExtendedIterator<Triple> it = graph.find(node, Node.ANY, Node.ANY);
+               try {
+                  while (it.hasNext()) {
+                     Node object = it.next().getObject();
+                     if (object.isBlank() && !signatures.containsKey(object) && !visiting.contains(object)) {
+                        stack.push(object);
+                     }
+                  }
+               } finally {
+                  it.close();
+               }
+            } else {
+               stack.pop();
+               signatures.put(node, computeSignature(node));
+            }
+         }
+         return signatures.get(blank);
+      }
+
+      private Signature computeSignature(Node blank) {
+         List<Signature> parts = new ArrayList<>();
+         ExtendedIterator<Triple> it = graph.find(blank, Node.ANY, Node.ANY);
+         try {
+            while (it.hasNext()) {
+               Triple triple = it.next();
+               Node object = triple.getObject();
+               Signature objectSignature;
+               if (object.isBlank()) {
+                  objectSignature = signatures.get(object);
+                  if (objectSignature == null) {
+                     objectSignature = Signature.CYCLE;
+                  }
+               } else {
+                  objectSignature = getNodeHash(object);
+               }
+               parts.add(getNodeHash(triple.getPredicate()).combine(objectSignature));
+            }
+         } finally {
+            it.close();
+         }
+         return Signature.combine(parts);
+      }
+
+      private Map<Signature, List<Node>> getRootsBySignature() {
+         Map<Signature, List<Node>> map = new LinkedHashMap<>();
+         Iterator<Node> it = roots.iterator();
+         while (it.hasNext()) {
+            Node root = it.next();
+            Signature signature = getSignature(root);
+            List<Node> list = map.get(signature);
+            if (list == null) {
+               list = new ArrayList<>();
+               map.put(signature, list);
+            }
+            list.add(root);
+         }
+         return map;
+      }
+
+      private void addOwnerClosure(Node owner, Set<Triple> diff) {
+         ExtendedIterator<Triple> it = graph.find(owner, Node.ANY, Node.ANY);
+         try {
+            while (it.hasNext()) {
+               Triple triple = it.next();
+               if (triple.getObject().isBlank()) {
+                  diff.add(triple);
+                  addClosure(triple.getObject(), diff);
+               }
+            }
+         } finally {
+            it.close();
+         }
+      }
+
+      private void addClosure(Node blank, Set<Triple> diff) {
+         List<Node> toVisit = new ArrayList<>();
+         Set<Node> visited = new HashSet<>();
+         toVisit.add(blank);
+         while (!toVisit.isEmpty()) {
+            Node node = toVisit.remove(toVisit.size() - 1);
+            if (!visited.add(node)) {
+               continue;
+            }
+            ExtendedIterator<Triple> it = graph.find(node, Node.ANY, Node.ANY);
+            try {
+               while (it.hasNext()) {
+                  Triple triple = it.next();
+                  diff.add(triple);
+                  Node object = triple.getObject();
+                  if (object.isBlank()) {
+                     toVisit.add(object);
+                  } else {
+                     addChangedNode(object);
+                  }
+               }
+            } finally {
+               it.close();
+            }
+         }
+      }
+   }
+
+   /**
+    * A 128 bits hash of the structure of a blank node, or of a node which is not blank.
+    */
+   private static final class Signature implements Comparable<Signature> {
+      private static final long MULTIPLIER1 = 0x9E3779B97F4A7C15L;
+      private static final long MULTIPLIER2 = 0xC2B2AE3D27D4EB4FL;
+      /**
+       * The signature used for a blank node which is part of a cycle.
+       */
+      private static final Signature CYCLE = create("cycle");
+      private final long high;
+      private final long low;
+
+      private Signature(long high, long low) {
+         this.high = high;
+         this.low = low;
+      }
+
+      private static Signature create(String value) {
+         byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+         long high = bytes.length;
+         long low = ~high;
+         for (int i = 0; i < bytes.length; i++) {
+            high = (high ^ bytes[i]) * MULTIPLIER1;
+            low = (low + bytes[i]) * MULTIPLIER2;
+         }
+         return new Signature(mix(high), mix(low ^ high));
+      }
+
+      /**
+       * Combine signatures whose order is not significant, for example the signatures of the properties of a node.
+       */
+      private static Signature combine(List<Signature> parts) {
+         Collections.sort(parts);
+         long high = parts.size();
+         long low = ~high;
+         Iterator<Signature> it = parts.iterator();
+         while (it.hasNext()) {
+            Signature part = it.next();
+            high = mix(high * MULTIPLIER1 + part.high);
+            low = mix(low * MULTIPLIER2 + part.low);
+         }
+         return new Signature(high, low);
+      }
+
+      /**
+       * Combine this signature with another one, in this order.
+       */
+      private Signature combine(Signature other) {
+         return new Signature(mix(high * MULTIPLIER1 + other.high), mix((low ^ other.low) * MULTIPLIER2 + other.high));
+      }
+
+      /**
+       * The finalization step of the MurmurHash3 64 bits hash, which spreads the bits of a value.
+       */
+      private static long mix(long value) {
+         value ^= value >>> 33;
+         value *= 0xFF51AFD7ED558CCDL;
+         value ^= value >>> 33;
+         value *= 0xC4CEB93FE1A85EC3L;
+         value ^= value >>> 33;
+         return value;
+      }
+
+      @Override
+      public int compareTo(Signature other) {
+         int compare = Long.compare(high, other.high);
+         return compare != 0 ? compare : Long.compare(low, other.low);
+      }
+
+      @Override
+      public int hashCode() {
+         return (int) (high ^ (high >>> 32));
+      }
+
+      @Override
+      public boolean equals(Object obj) {
+         if (!(obj instanceof Signature)) {
+            return false;
+         }
+         Signature other = (Signature) obj;
+         return high == other.high && low == other.low;
+      }
+   }
+}
@@ -0,0 +1,286 @@
+/*
+Copyright (c) 2024 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.parsers.graph;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFLib;
+import org.apache.jena.riot.system.StreamRDFWrapper;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb2.TDB2Factory;
+import org.apache.jena.tdb2.loader.DataLoader;
+import org.apache.jena.tdb2.loader.LoaderFactory;
+import org.apache.jena.tdb2.loader.base.LoaderOps;
+
+/**
+ * This class parses an Ontology file directly in a raw graph, by streaming the triples from the RIOT parser. The file can also be bulk-loaded
+ * in a persistent TDB2 dataset, for Ontologies which are too large to fit in memory.
+ * The progress of the parsing is notified to a {@link LoadMonitor}, which is also able to cancel the parsing.
+ *
+ * @since 0.16
+ */
+public class ModelLoader {
+   /**
+    * The minimum delay between two progress notifications, in milliseconds.
+    */
+   private static final long NOTIFY_DELAY = 250;
+   /**
+    * The mask used to check for cancellation every 1024 triples.
+    */
+   private static final long CHECK_MASK = 1023;
+   /**
+    * The file which marks a persistent dataset whose loading has completed.
+    */
+   private static final String MARKER_FILE = "ontobrowser.loaded";
+   private final LoadMonitor monitor;
+
+   /**
+    * Constructor.
+    *
+    * @param monitor the monitor (may be null)
+    */
+   public ModelLoader(LoadMonitor monitor) {
+      this.monitor = monitor;
+   }
+
+   /**
+    * Return the RDF language to use for a file.
+    *
+    * @param file the file
+    * @param defaultLang the default language if it can not be deduced from the file extension
+    * @return the language
+    */
+   public static Lang getLang(File file, Lang defaultLang) {
+      return RDFLanguages.filenameToLang(file.getName(), defaultLang);
+   }
+
+   /**
+    * Parse a file and return the resulting raw Model. No inference is performed on this Model.
+    *
+    * @param file the file
+    * @param lang the RDF language
+    * @return the Model
+    * @throws IOException if the file could not be read
+    * @throws LoadCancelledException if the loading has been cancelled
+    */
+   public Model load(File file, Lang lang) throws IOException {
+      Model model = ModelFactory.createDefaultModel();
+      Graph graph = model.getGraph();
+      try {
+         parse(file, lang, StreamRDFLib.graph(graph));
+      } catch (RuntimeException ex) {
+         model.close();
+         throw ex;
+      }
+      return model;
+   }
+
+   /**
+    * Return the directory of the persistent TDB2 dataset for a file. The directory is next to the file.
+    *
+    * @param file the file
+    * @return the directory
+    */
+   public static File getDatasetDirectory(File file) {
+      return new File(file.getAbsoluteFile().getParentFile(), file.getName() + ".tdb2");
+   }
+
+   /**
+    * Return the persistent TDB2 dataset for a file. The first time, the file is bulk-loaded in the dataset directory. The next times, the
+    * existing dataset is reused, unless the file has been modified since it was loaded.
+    *
+    * @param file the file
+    * @param lang the RDF language
+    * @return the dataset
+    * @throws IOException if the file could not be read
+    * @throws LoadCancelledException if the loading has been cancelled
+    */
+   public Dataset loadDataset(File file, Lang lang) throws IOException {
+      File dir = getDatasetDirectory(file);
+      File marker = new File(dir, MARKER_FILE);
+      String stamp = file.length() + ":" + file.lastModified();
+      if (marker.exists() && stamp.equals(readMarker(marker))) {
+         return TDB2Factory.connectDataset(dir.getPath());
+      }
+      if (!dir.exists() && !dir.mkdirs()) {
+         throw new IOException("Could not create the dataset directory " + dir);
+      }
+      Dataset dataset = TDB2Factory.connectDataset(dir.getPath());
+      // the marker is removed first, so that a dataset whose loading did not complete is loaded again the next time
+      Files.deleteIfExists(marker.toPath());
+      Txn.executeWrite(dataset, () -> dataset.asDatasetGraph().clear());
+      DataLoader loader = LoaderFactory.createLoader(dataset.asDatasetGraph(), LoaderOps.nullOutput());
+      loader.startBulk();
+      try {
+         parse(file, lang, loader.stream());
+      } catch (RuntimeException ex) {
+         loader.finishException(ex);
+         throw ex;
+      }
+      loader.finishBulk();
+      Files.write(marker.toPath(), stamp.getBytes(StandardCharsets.UTF_8));
+      return dataset;
+   }
+
+   private static String readMarker(File marker) {
+      try {
+         return new String(Files.readAllBytes(marker.toPath()), StandardCharsets.UTF_8);
+      } catch (IOException ex) {
+         return null;
+      }
+   }
+
+   private void parse(File file, Lang lang, StreamRDF sink) throws IOException {
+      long totalBytes = file.length();
+      try (CountingInputStream counter = new CountingInputStream(new FileInputStream(file))) {
+         InputStream stream = new BufferedInputStream(counter);
+         MonitoredStreamRDF dest = new MonitoredStreamRDF(sink, counter, totalBytes);
+         RDFParser.create().source(stream).lang(lang).base(file.toURI().toString()).parse(dest);
+      } catch (LoadCancelledException ex) {
+         throw ex;
+      } catch (RuntimeException ex) {
+         // some parsers wrap the exceptions thrown by their sink
+         if (isCancelled()) {
+            throw new LoadCancelledException();
+         }
+         throw ex;
+      }
+   }
+
+   private boolean isCancelled() {
+      return monitor != null && monitor.isCancelled();
+   }
+
+   /**
+    * An InputStream which counts the number of bytes read.
+    */
+   private static class CountingInputStream extends FilterInputStream {
+      private volatile long count = 0;
+
+      private CountingInputStream(InputStream in) {
+         super(in);
+      }
+
+      @Override
+      public int read() throws IOException {
+         int b = super.read();
+         if (b != -1) {
+            count++;
+         }
+         return b;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+         int n = super.read(b, off, len);
+         if (n > 0) {
+            count += n;
+         }
+         return n;
+      }
+
+      @Override
+      public long skip(long n) throws IOException {
+         long skipped = super.skip(n);
+         count += skipped;
+         return skipped;
+      }
+
+      private long getCount() {
+         return count;
+      }
+   }
+
+   /**
+    * A StreamRDF which counts the triples, notifies the monitor, and checks for cancellation.
+    */
+   private class MonitoredStreamRDF extends StreamRDFWrapper {
+      private final CountingInputStream counter;
+      private final long totalBytes;
+      private final long start = System.currentTimeMillis();
+      private long lastNotify = start;
+      private long triples = 0;
+
+      private MonitoredStreamRDF(StreamRDF dest, CountingInputStream counter, long totalBytes) {
+         super(dest);
+         this.counter = counter;
+         this.totalBytes = totalBytes;
+      }
+
+      @Override
+      public void triple(Triple triple) {
+         super.triple(triple);
+         triples++;
+         if ((triples & CHECK_MASK) == 0) {
+            check();
+         }
+      }
+
+      @Override
+      public void finish() {
+         super.finish();
+         if (monitor != null) {
+            monitor.loadProgress(counter.getCount(), totalBytes, triples, System.currentTimeMillis() - start);
+         }
+      }
+
+      private void check() {
+         if (monitor == null) {
+            return;
+         }
+         if (monitor.isCancelled()) {
+            throw new LoadCancelledException();
+         }
+         long now = System.currentTimeMillis();
+         if (now - lastNotify >= NOTIFY_DELAY) {
+            lastNotify = now;
+            monitor.loadProgress(counter.getCount(), totalBytes, triples, now - start);
+         }
+      }
+   }
+}
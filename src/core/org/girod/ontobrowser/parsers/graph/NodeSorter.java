@@ -32,21 +32,25 @@ the project website at the project page on https://github.com/hervegirod/ontolog
  */
 package org.girod.ontobrowser.parsers.graph;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.Map.Entry;
 import org.girod.jgraphml.model.GraphMLNode;
 import org.girod.jgraphml.model.IGraphMLNode;
 import org.girod.ontobrowser.model.ElementKey;
 import org.girod.ontobrowser.model.OwlClass;
 import org.girod.ontobrowser.model.OwlProperty;
 import org.girod.ontobrowser.model.OwlSchema;
+import org.girod.ontobrowser.model.SchemaGraph;
 
 /**
- * A clas which sorts nodes to determine their relative positions.
+ * A clas which sorts nodes to determine their relative positions. The relations between the nodes are read from the compact graph
+ * of the schema, and the levels between the nodes are kept in primitive arrays. The nodes which have a relation are then placed with
+ * a {@link LayeredLayout}, so that the sub-classes (and the data properties if the children must also be under their classes) are
+ * always under their super-classes.
  *
- * @since 0.11
+ * @version 0.16
  */
 public class NodeSorter {
 
@@ -57,19 +61,35 @@ public class NodeSorter {
     private float distance = 10;
     private boolean hasSuperClassLayout = true;
     private boolean hasChildrenLayout = false;
-    private int maximumSteps = 4;
+    private int maximumSteps = 24;
     private final Map<ElementKey, IGraphMLNode> elementToNode;
-    private final Map<ElementKey, Map<ElementKey, Short>> elementLevels = new HashMap<>();
+    private final Map<ElementKey, Integer> nodeIndexes = new HashMap<>();
+    private GraphMLNode[] nodes = null;
+    private final Map<Long, Integer> edgeIndexes = new HashMap<>();
+    private int[] edgeFrom = new int[16];
+    private int[] edgeTo = new int[16];
+    private short[] edgeLevel = new short[16];
+    private int edgesCount = 0;
 
     public NodeSorter(OwlSchema schema, Map<ElementKey, IGraphMLNode> elementToNode) {
         this.schema = schema;
         this.elementToNode = elementToNode;
     }
 
+    /**
+     * Set the maximum number of sweeps over the layers to reduce the crossings.
+     *
+     * @param maximumSteps the maximum number of sweeps
+     */
     public void setMaximumSteps(int maximumSteps) {
         this.maximumSteps = maximumSteps;
     }
 
+    /**
+     * Set the vertical distance between two layers.
+     *
+     * @param distance the distance
+     */
     public void setDistance(float distance) {
         this.distance = distance;
     }
@@ -95,82 +115,68 @@ public class NodeSorter {
         }
     }
 
+    /**
+     * Place the nodes which have a relation with another node.
+     */
     public void apply() {
         addToLevelsMap();
-        for (int i = 0; i < maximumSteps; i++) {
-            boolean isModified = computePositions();
-            if (!isModified) {
-                break;
-            }
+        int nodesCount = nodeIndexes.size();
+        if (nodesCount == 0) {
+            return;
         }
-    }
-
-    private boolean computePositions() {
-        boolean isModified = false;
-        Iterator<Entry<ElementKey, Map<ElementKey, Short>>> it = elementLevels.entrySet().iterator();
-        while (it.hasNext()) {
-            Entry<ElementKey, Map<ElementKey, Short>> entry = it.next();
-            ElementKey key = entry.getKey();
-            GraphMLNode node = (GraphMLNode) elementToNode.get(key);
-            float theHeight = node.getHeight();
-            float yPos = node.getY();
-            Map<ElementKey, Short> map = entry.getValue();
-            Iterator<Entry<ElementKey, Short>> it2 = map.entrySet().iterator();
-            while (it2.hasNext()) {
-                Entry<ElementKey, Short> entry2 = it2.next();
-                ElementKey key2 = entry2.getKey();
-                GraphMLNode node2 = (GraphMLNode) elementToNode.get(key2);
-                short level = entry2.getValue();
-                float yPos2 = node2.getY();
-                float theHeight2 = node2.getHeight();
-                if (level == LEVEL_SOUTH) {
-                    if (yPos2 < yPos + theHeight + distance) {
-                        node2.setY(yPos + theHeight + distance + theHeight2);
-                        isModified = true;
-                    }
-                } else if (level == LEVEL_NORTH) {
-                    if (yPos2 > yPos - theHeight - distance) {
-                        node2.setY(yPos - theHeight - distance - theHeight2);
-                        isModified = true;
-                    }
-                }
+        LayeredLayout layout = new LayeredLayout(nodesCount);
+        layout.setLayerSpacing(distance);
+        layout.setMaximumSweeps(maximumSteps);
+        for (int i = 0; i < nodesCount; i++) {
+            layout.setSize(i, nodes[i].getWidth(), nodes[i].getHeight());
+        }
+        for (int i = 0; i < edgesCount; i++) {
+            if (edgeLevel[i] == LEVEL_SOUTH) {
+                layout.addEdge(edgeFrom[i], edgeTo[i]);
             }
         }
-        return isModified;
+        layout.apply();
+        for (int i = 0; i < nodesCount; i++) {
+            nodes[i].setX((float) layout.getX(i));
+            nodes[i].setY((float) layout.getY(i));
+        }
     }
 
     private void addToLevelsMap() {
-        Map<ElementKey, OwlClass> owlClasses = schema.getOwlClasses();
-        Iterator<Entry<ElementKey, OwlClass>> it = owlClasses.entrySet().iterator();
+        SchemaGraph graph = schema.getSchemaGraph();
+        if (graph == null) {
+            schema.compact();
+            graph = schema.getSchemaGraph();
+        }
+        nodes = new GraphMLNode[elementToNode.size()];
+        SchemaGraph.Relation superClasses = graph.getClassRelation(SchemaGraph.SUPER_CLASSES);
+        SchemaGraph.Relation domainProperties = graph.getClassRelation(SchemaGraph.DOMAIN_PROPERTIES);
+        Iterator<OwlClass> it = schema.getOwlClasses().values().iterator();
         while (it.hasNext()) {
-            Entry<ElementKey, OwlClass> entry = it.next();
-            ElementKey fromKey = entry.getKey();
-            if (elementToNode.containsKey(fromKey)) {
-                OwlClass theClass = entry.getValue();
-                if (includeClass(theClass)) {
-                    // super classes
-                    Iterator<OwlClass> it2 = theClass.getSuperClasses().values().iterator();
-                    while (it2.hasNext()) {
-                        OwlClass superClass = it2.next();
-                        if (includeClass(theClass, superClass)) {
-                            ElementKey toKey = superClass.getKey();
-                            if (elementToNode.containsKey(toKey)) {
-                                addClassToLevel(fromKey, toKey, LEVEL_NORTH);
-                                addClassToLevel(toKey, fromKey, LEVEL_SOUTH);
-                            }
+            OwlClass theClass = it.next();
+            int from = getNodeIndex(theClass.getKey());
+            if (from != -1 && includeClass(theClass)) {
+                int classId = graph.getId(theClass);
+                // super classes
+                for (int i = superClasses.getStart(classId); i < superClasses.getEnd(classId); i++) {
+                    OwlClass superClass = graph.getOwlClass(superClasses.getTarget(i));
+                    if (includeClass(theClass, superClass)) {
+                        int to = getNodeIndex(superClass.getKey());
+                        if (to != -1) {
+                            addClassToLevel(from, to, LEVEL_NORTH);
+                            addClassToLevel(to, from, LEVEL_SOUTH);
                         }
                     }
-                    // data properties
-                    if (hasChildrenLayout) {
-                        Iterator<OwlProperty> it3 = theClass.getDomainOwlProperties().values().iterator();
-                        while (it3.hasNext()) {
-                            OwlProperty property = it3.next();
-                            if (property.isDatatypeProperty()) {
-                                ElementKey propKey = property.getKey();
-                                if (elementToNode.containsKey(propKey)) {
-                                    addClassToLevel(fromKey, propKey, LEVEL_SOUTH);
-                                    addClassToLevel(propKey, fromKey, LEVEL_NORTH);
-                                }
+                }
+                // data properties
+                if (hasChildrenLayout) {
+                    for (int i = domainProperties.getStart(classId); i < domainProperties.getEnd(classId); i++) {
+                        OwlProperty property = graph.getOwlProperty(domainProperties.getTarget(i));
+                        if (property.isDatatypeProperty()) {
+                            int to = getNodeIndex(property.getKey());
+                            if (to != -1) {
+                                addClassToLevel(from, to, LEVEL_SOUTH);
+                                addClassToLevel(to, from, LEVEL_NORTH);
                             }
                         }
                     }
@@ -179,6 +185,21 @@ public class NodeSorter {
         }
     }
 
+    private int getNodeIndex(ElementKey key) {
+        Integer index = nodeIndexes.get(key);
+        if (index != null) {
+            return index;
+        }
+        IGraphMLNode node = elementToNode.get(key);
+        if (node == null) {
+            return -1;
+        }
+        int newIndex = nodeIndexes.size();
+        nodes[newIndex] = (GraphMLNode) node;
+        nodeIndexes.put(key, newIndex);
+        return newIndex;
+    }
+
     private boolean includeClass(OwlClass superClass, OwlClass theClass) {
         if (!includeClass(superClass)) {
             return false;
@@ -207,14 +228,22 @@ public class NodeSorter {
         }
     }
 
-    private void addClassToLevel(ElementKey fromKey, ElementKey toKey, short level) {
-        Map<ElementKey, Short> map;
-        if (elementLevels.containsKey(fromKey)) {
-            map = elementLevels.get(fromKey);
-        } else {
-            map = new HashMap<>();
-            elementLevels.put(fromKey, map);
+    private void addClassToLevel(int from, int to, short level) {
+        Long edge = ((long) from << 32) | to;
+        Integer index = edgeIndexes.get(edge);
+        if (index != null) {
+            edgeLevel[index] = level;
+            return;
+        }
+        if (edgesCount == edgeFrom.length) {
+            edgeFrom = Arrays.copyOf(edgeFrom, edgesCount * 2);
+            edgeTo = Arrays.copyOf(edgeTo, edgesCount * 2);
+            edgeLevel = Arrays.copyOf(edgeLevel, edgesCount * 2);
         }
-        map.put(toKey, level);
+        edgeFrom[edgesCount] = from;
+        edgeTo[edgesCount] = to;
+        edgeLevel[edgesCount] = level;
+        edgeIndexes.put(edge, edgesCount);
+        edgesCount++;
     }
 }
@@ -0,0 +1,211 @@
+/*
+Copyright (c) 2024 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.parsers.graph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Executes the phases of the extraction of an Ontology. The {@link ExtractionPhase#compute()} step of a phase is started on the pool as soon as all
+ * its dependencies have been merged, but the {@link ExtractionPhase#merge()} steps are always performed on the calling thread, in the order of declaration
+ * of the phases. It means that the resulting schema does not depend on the order in which the computations end.
+ *
+ * <p>If there is no pool, each phase is prepared, computed, and merged in sequence.</p>
+ *
+ * @since 0.16
+ */
+public class PhasesExecutor {
+   private final ForkJoinPool pool;
+   private final List<ExtractionPhase> phases = new ArrayList<>();
+   private final Map<ExtractionPhase, Integer> phaseIndexes = new HashMap<>();
+   private LoadMonitor monitor = null;
+   private volatile boolean cancelled = false;
+
+   /**
+    * Constructor.
+    *
+    * @param pool the pool (null if the phases must be executed sequentially)
+    */
+   public PhasesExecutor(ForkJoinPool pool) {
+      this.pool = pool;
+   }
+
+   /**
+    * Set the monitor which is notified of the phases, and which can cancel the execution.
+    *
+    * @param monitor the monitor
+    */
+   public void setMonitor(LoadMonitor monitor) {
+      this.monitor = monitor;
+   }
+
+   /**
+    * Return true if the phases are computed in parallel.
+    *
+    * @return true if the phases are computed in parallel
+    */
+   public boolean isParallel() {
+      return pool != null;
+   }
+
+   /**
+    * Return true if the execution has been cancelled.
+    *
+    * @return true if the execution has been cancelled
+    */
+   public boolean isCancelled() {
+      return cancelled || (monitor != null && monitor.isCancelled());
+   }
+
+   /**
+    * Add a phase. The dependencies of the phase must have already been added.
+    *
+    * @param phase the phase
+    */
+   public void addPhase(ExtractionPhase phase) {
+      Iterator<ExtractionPhase> it = phase.getDependencies().iterator();
+      while (it.hasNext()) {
+         ExtractionPhase dependency = it.next();
+         if (!phaseIndexes.containsKey(dependency)) {
+            throw new IllegalArgumentException("Phase " + dependency.getName() + " must be added before " + phase.getName());
+         }
+      }
+      phase.setExecutor(this);
+      phaseIndexes.put(phase, phases.size());
+      phases.add(phase);
+   }
+
+   /**
+    * Invoke a task on the pool and wait for its result.
+    *
+    * @param task the task
+    */
+   void invoke(ForkJoinTask<?> task) {
+      if (ForkJoinTask.inForkJoinPool()) {
+         task.invoke();
+      } else {
+         pool.invoke(task);
+      }
+   }
+
+   /**
+    * Execute all the phases.
+    *
+    * @throws LoadCancelledException if the execution has been cancelled
+    */
+   public void execute() {
+      if (pool == null) {
+         executeSequentially();
+      } else {
+         executeInParallel();
+      }
+   }
+
+   private void executeSequentially() {
+      Iterator<ExtractionPhase> it = phases.iterator();
+      while (it.hasNext()) {
+         ExtractionPhase phase = it.next();
+         checkCancelled(phase);
+         phase.prepare();
+         phase.compute();
+         phase.merge();
+      }
+   }
+
+   private void executeInParallel() {
+      int count = phases.size();
+      ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[count];
+      int[] lastDependency = new int[count];
+      for (int i = 0; i < count; i++) {
+         lastDependency[i] = -1;
+         Iterator<ExtractionPhase> it = phases.get(i).getDependencies().iterator();
+         while (it.hasNext()) {
+            lastDependency[i] = Math.max(lastDependency[i], phaseIndexes.get(it.next()));
+         }
+         if (lastDependency[i] == -1) {
+            tasks[i] = submit(phases.get(i));
+         }
+      }
+      try {
+         for (int i = 0; i < count; i++) {
+            ExtractionPhase phase = phases.get(i);
+            if (tasks[i] == null) {
+               tasks[i] = submit(phase);
+            }
+            tasks[i].join();
+            checkCancelled(phase);
+            phase.merge();
+            // start the phases which were only waiting for this one
+            for (int j = i + 1; j < count; j++) {
+               if (tasks[j] == null && lastDependency[j] == i) {
+                  tasks[j] = submit(phases.get(j));
+               }
+            }
+         }
+      } catch (RuntimeException | Error ex) {
+         cancelled = true;
+         for (int i = 0; i < count; i++) {
+            if (tasks[i] != null) {
+               tasks[i].cancel(false);
+            }
+         }
+         throw ex;
+      }
+   }
+
+   private ForkJoinTask<?> submit(ExtractionPhase phase) {
+      phase.prepare();
+      return pool.submit(new Runnable() {
+         @Override
+         public void run() {
+            if (!isCancelled()) {
+               phase.compute();
+            }
+         }
+      });
+   }
+
+   private void checkCancelled(ExtractionPhase phase) {
+      if (monitor != null) {
+         if (monitor.isCancelled()) {
+            throw new LoadCancelledException();
+         }
+         monitor.extractionPhase(phase.getName());
+      }
+   }
+}
@@ -0,0 +1,427 @@
+/*
+Copyright (c) 2024 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.parsers.graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.girod.ontobrowser.BrowserConfiguration;
+import org.girod.ontobrowser.model.ElementKey;
+import org.girod.ontobrowser.model.OwlSchema;
+import org.girod.ontobrowser.model.PackagesConfiguration;
+
+/**
+ * A cache of the schemas extracted from Ontology files. Each schema is stored in a compressed binary file, whose key is computed from the content
+ * of the Ontology file and the configuration which has an impact on the extraction. The schemas are stored without their Jena model.
+ *
+ * <p>The imports closure of the Ontology is only known after its model has been loaded, so it can not be part of the key. Instead, the size
+ * and modification date of the local files on which the schema depends, such as the imported documents and the XML catalog, are stored with
+ * the schema, and the cached schema is not used if one of them has changed.</p>
+ *
+ * <p>The key of a schema starts with an identifier of the path of the Ontology file, so that the previous schema of a file is removed when a new
+ * schema is put for this file. The least recently used schemas are also removed when the total size of the cache exceeds its maximum size.</p>
+ *
+ * @since 0.16
+ */
+public class SchemaCache {
+   /**
+    * The version of the format of the cached schemas. It must be changed if the format is not compatible anymore.
+    */
+   private static final int FORMAT_VERSION = 2;
+   private static final String EXTENSION = ".schema";
+   /**
+    * The default maximum size of the cache in bytes.
+    */
+   public static final long DEFAULT_MAXIMUM_SIZE = 256L * 1024L * 1024L;
+   private static final ExecutorService WRITER = Executors.newSingleThreadExecutor((Runnable r) -> {
+      Thread thread = new Thread(r, "Schemas cache");
+      thread.setDaemon(true);
+      return thread;
+   });
+   private final File directory;
+   private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+   /**
+    * Constructor.
+    *
+    * @param directory the cache directory
+    */
+   public SchemaCache(File directory) {
+      this.directory = directory;
+   }
+
+   /**
+    * Return the cache directory.
+    *
+    * @return the cache directory
+    */
+   public File getDirectory() {
+      return directory;
+   }
+
+   /**
+    * Set the maximum size of the cache in bytes.
+    *
+    * @param maximumSize the maximum size
+    */
+   public void setMaximumSize(long maximumSize) {
+      this.maximumSize = maximumSize;
+   }
+
+   /**
+    * Return the maximum size of the cache in bytes.
+    *
+    * @return the maximum size
+    */
+   public long getMaximumSize() {
+      return maximumSize;
+   }
+
+   private static MessageDigest createDigest() throws IOException {
+      try {
+         return MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException ex) {
+         throw new IOException(ex);
+      }
+   }
+
+   private static String toHex(byte[] hash, int length) {
+      StringBuilder buf = new StringBuilder();
+      for (int i = 0; i < length; i++) {
+         buf.append(String.format("%02x", hash[i] & 0xff));
+      }
+      return buf.toString();
+   }
+
+   /**
+    * Return the identifier of the path of a file, which is the start of the keys of this file.
+    *
+    * @param file the Ontology file
+    * @return the identifier
+    * @throws IOException if the digest algorithm is not available
+    */
+   private static String getSourceId(File file) throws IOException {
+      MessageDigest digest = createDigest();
+      byte[] hash = digest.digest(file.getAbsolutePath().getBytes(StandardCharsets.UTF_8));
+      return toHex(hash, 8);
+   }
+
+   private static String getSourceId(String key) {
+      int index = key.indexOf('-');
+      return index == -1 ? null : key.substring(0, index + 1);
+   }
+
+   /**
+    * Return the key of a file in the cache. The key starts with an identifier of the path of the file, and then depends on the content of the file
+    * and on the extraction configuration.
+    *
+    * @param file the Ontology file
+    * @return the key
+    * @throws IOException if the file could not be read
+    */
+   public String getKey(File file) throws IOException {
+      MessageDigest digest = createDigest();
+      digest.update(getConfigurationDigest().getBytes(StandardCharsets.UTF_8));
+      byte[] buf = new byte[65536];
+      try (InputStream stream = new FileInputStream(file)) {
+         while (true) {
+            int count = stream.read(buf);
+            if (count < 0) {
+               break;
+            }
+            digest.update(buf, 0, count);
+         }
+      }
+      byte[] hash = digest.digest();
+      return getSourceId(file) + "-" + toHex(hash, hash.length);
+   }
+
+   /**
+    * Return the part of the configuration which has an impact on the extraction of a schema.
+    *
+    * @return the configuration
+    */
+   private String getConfigurationDigest() {
+      BrowserConfiguration conf = BrowserConfiguration.getInstance();
+      StringBuilder buf = new StringBuilder();
+      buf.append("format=").append(FORMAT_VERSION);
+      buf.append(";version=").append(conf.version);
+      buf.append(";addThingClass=").append(conf.addThingClass);
+      buf.append(";showPackages=").append(conf.showPackages);
+      buf.append(";acceptSubPackages=").append(conf.acceptSubPackages);
+      buf.append(";includeIndividuals=").append(conf.includeIndividuals);
+      buf.append(";resolveImports=").append(conf.resolveImports);
+      buf.append(";includeForeignDisconnectedElements=").append(conf.includeForeignDisconnectedElements);
+      buf.append(";showOwnElementsInBold=").append(conf.showOwnElementsInBold);
+      buf.append(";strictMode=").append(conf.strictMode);
+      buf.append(";modelSpec=").append(conf.modelSpec);
+      buf.append(";useBuiltinSchemas=").append(conf.useBuiltinSchemas);
+      buf.append(";alternateLocations=");
+      File[] alternateLocations = conf.getAlternateLocations();
+      if (alternateLocations != null) {
+         for (int i = 0; i < alternateLocations.length; i++) {
+            buf.append(alternateLocations[i].getAbsolutePath()).append(',');
+         }
+      }
+      PackagesConfiguration packagesConf = conf.getPackagesConfiguration();
+      buf.append(";acceptDefaults=").append(packagesConf.isAcceptingDefaults());
+      // the packages configuration is sorted so that the digest does not depend on the order of the maps
+      Map<String, Short> packages = new TreeMap<>();
+      Iterator<Entry<ElementKey, Short>> it = packagesConf.getPackagesConfig().entrySet().iterator();
+      while (it.hasNext()) {
+         Entry<ElementKey, Short> entry = it.next();
+         packages.put(entry.getKey().toString(), entry.getValue());
+      }
+      buf.append(";packages=").append(packages);
+      buf.append(";forget=").append(new TreeSet<>(packagesConf.getForgottenNamespaces()));
+      return buf.toString();
+   }
+
+   private File getFile(String key) {
+      return new File(directory, key + EXTENSION);
+   }
+
+   /**
+    * Return true if there is a schema in the cache for a key.
+    *
+    * @param key the key
+    * @return true if there is a schema in the cache for the key
+    */
+   public boolean hasSchema(String key) {
+      return getFile(key).exists();
+   }
+
+   /**
+    * Return the schema in the cache for a key. The schema is not attached to any Jena model.
+    *
+    * @param key the key
+    * @return the schema, or null if there is no schema for the key or if the cached schema could not be read
+    */
+   public OwlSchema getSchema(String key) {
+      File file = getFile(key);
+      if (!file.exists()) {
+         return null;
+      }
+      try (ObjectInputStream stream = new SchemaInputStream(new GZIPInputStream(new BufferedInputStream(new FileInputStream(file))))) {
+         int count = stream.readInt();
+         for (int i = 0; i < count; i++) {
+            File dependency = new File(stream.readUTF());
+            long length = stream.readLong();
+            long lastModified = stream.readLong();
+            if (dependency.length() != length || dependency.lastModified() != lastModified) {
+               // an imported document has changed, the cached schema will be replaced
+               return null;
+            }
+         }
+         OwlSchema schema = (OwlSchema) stream.readObject();
+         // the date of the file is used to remove the least recently used schemas
+         file.setLastModified(System.currentTimeMillis());
+         return schema;
+      } catch (IOException | ClassNotFoundException | ClassCastException ex) {
+         // the cached schema is corrupted or has been written by an incompatible version, it will be replaced
+         file.delete();
+         return null;
+      }
+   }
+
+   /**
+    * Put a schema which does not depend on other files in the cache.
+    *
+    * @param key the key
+    * @param schema the schema
+    * @return true if the schema could be put in the cache
+    */
+   public boolean putSchema(String key, OwlSchema schema) {
+      return putSchema(key, schema, Collections.emptyList());
+   }
+
+   /**
+    * Put a schema in the cache on a background thread. The schema must not be modified afterwards, for example because it has been set as the
+    * read-only schema of a diagram, or because it has been detached from its model.
+    *
+    * @param key the key
+    * @param schema the schema
+    * @param dependencies the local files on which the schema depends, such as the imported documents
+    * @return the future of the write
+    */
+   public Future<?> putSchemaLater(String key, OwlSchema schema, Collection<File> dependencies) {
+      return WRITER.submit(() -> putSchema(key, schema, dependencies));
+   }
+
+   /**
+    * Put a schema in the cache. The file is first written in a temporary file, so that an incomplete file is never read. The previous schemas of the
+    * same Ontology file are removed, and then the least recently used schemas if the cache exceeds its maximum size.
+    *
+    * @param key the key
+    * @param schema the schema
+    * @param dependencies the local files on which the schema depends, such as the imported documents
+    * @return true if the schema could be put in the cache
+    * @see ImportsResolver#getImportedFiles(File, org.apache.jena.ontology.OntModel)
+    */
+   public boolean putSchema(String key, OwlSchema schema, Collection<File> dependencies) {
+      if (!directory.exists() && !directory.mkdirs()) {
+         return false;
+      }
+      File file = getFile(key);
+      File tmpFile = new File(directory, key + ".tmp");
+      try (OutputStream fileStream = new FileOutputStream(tmpFile)) {
+         ObjectOutputStream stream = new ObjectOutputStream(new GZIPOutputStream(new BufferedOutputStream(fileStream)));
+         stream.writeInt(dependencies.size());
+         Iterator<File> it = dependencies.iterator();
+         while (it.hasNext()) {
+            File dependency = it.next();
+            stream.writeUTF(dependency.getAbsolutePath());
+            stream.writeLong(dependency.length());
+            stream.writeLong(dependency.lastModified());
+         }
+         stream.writeObject(schema);
+         stream.close();
+      } catch (IOException | RuntimeException ex) {
+         tmpFile.delete();
+         return false;
+      }
+      file.delete();
+      if (!tmpFile.renameTo(file)) {
+         return false;
+      }
+      evict(key);
+      return true;
+   }
+
+   /**
+    * Remove the previous schemas of the Ontology file of a key, and then the least recently used schemas if the cache exceeds its maximum size.
+    * The schema of the key is never removed.
+    *
+    * @param key the key of the schema which has just been put in the cache
+    */
+   private void evict(String key) {
+      File[] files = directory.listFiles((File dir, String name) -> name.endsWith(EXTENSION));
+      if (files == null) {
+         return;
+      }
+      String sourceId = getSourceId(key);
+      String name = key + EXTENSION;
+      long size = 0;
+      for (int i = 0; i < files.length; i++) {
+         File file = files[i];
+         if (!file.getName().equals(name) && sourceId != null && file.getName().startsWith(sourceId) && file.delete()) {
+            files[i] = null;
+         } else {
+            size += file.length();
+         }
+      }
+      if (size <= maximumSize) {
+         return;
+      }
+      List<File> remaining = new ArrayList<>();
+      for (int i = 0; i < files.length; i++) {
+         if (files[i] != null) {
+            remaining.add(files[i]);
+         }
+      }
+      Collections.sort(remaining, (File file1, File file2) -> Long.compare(file1.lastModified(), file2.lastModified()));
+      Iterator<File> it = remaining.iterator();
+      while (it.hasNext() && size > maximumSize) {
+         File file = it.next();
+         long length = file.length();
+         if (!file.getName().equals(name) && file.delete()) {
+            size -= length;
+         }
+      }
+   }
+
+   /**
+    * Remove all the schemas from the cache.
+    */
+   public void clear() {
+      File[] files = directory.listFiles();
+      if (files != null) {
+         for (int i = 0; i < files.length; i++) {
+            File file = files[i];
+            if (file.getName().endsWith(EXTENSION)) {
+               file.delete();
+            }
+         }
+      }
+   }
+
+   /**
+    * The stream used to read the cached schemas. Only the classes of the model and the basic Java classes can be deserialized.
+    */
+   private static class SchemaInputStream extends ObjectInputStream {
+      private SchemaInputStream(InputStream stream) throws IOException {
+         super(stream);
+      }
+
+      @Override
+      protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+         String name = desc.getName();
+         while (name.startsWith("[")) {
+            name = name.substring(1);
+         }
+         if (name.length() == 1 || name.startsWith("Lorg.girod.ontobrowser.model.") || name.startsWith("org.girod.ontobrowser.model.")
+            || name.startsWith("java.lang.") || name.startsWith("java.util.") || name.startsWith("Ljava.lang.") || name.startsWith("Ljava.util.")
+            || name.equals("java.io.File") || name.equals("java.net.URI") || name.equals("java.net.URL")) {
+            return super.resolveClass(desc);
+         } else {
+            throw new InvalidClassException(desc.getName(), "Class not allowed in a cached schema");
+         }
+      }
+   }
+}
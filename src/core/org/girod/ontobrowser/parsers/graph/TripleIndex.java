@@ -0,0 +1,145 @@
+/*
+Copyright (c) 2024 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.parsers.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.jena.graph.Node;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.vocabulary.RDF;
+
+/**
+ * An index of the <code>rdf:type</code> triples of a model, built in one pass over these statements. The index maps:
+ * <ul>
+ * <li>each subject to its <code>rdf:type</code> types</li>
+ * <li>each type to the subjects which have this <code>rdf:type</code></li>
+ * </ul>
+ * The keys of the index are the Jena nodes, so that resources coming from different views of the same model are found in the index.
+ *
+ * @since 0.16
+ */
+public class TripleIndex {
+   private final Map<Node, List<Resource>> subjectToTypes = new HashMap<>();
+   private final Map<Node, List<Resource>> typeToSubjects = new HashMap<>();
+   private final List<Resource> subjects = new ArrayList<>();
+   private int size = 0;
+
+   /**
+    * Constructor.
+    */
+   public TripleIndex() {
+   }
+
+   /**
+    * Add a statement to the index. The statements which are not <code>rdf:type</code> statements are ignored.
+    *
+    * @param statement the statement
+    */
+   public void add(Statement statement) {
+      if (statement.getPredicate().equals(RDF.type)) {
+         RDFNode object = statement.getObject();
+         if (object.isResource()) {
+            Resource subject = statement.getSubject();
+            Resource type = object.asResource();
+            if (addTo(subjectToTypes, subject.asNode(), type)) {
+               subjects.add(subject);
+            }
+            addTo(typeToSubjects, type.asNode(), subject);
+            size++;
+         }
+      }
+   }
+
+   private static <V> boolean addTo(Map<Node, List<V>> map, Node key, V value) {
+      List<V> list = map.get(key);
+      boolean isNew = list == null;
+      if (isNew) {
+         list = new ArrayList<>(2);
+         map.put(key, list);
+      }
+      list.add(value);
+      return isNew;
+   }
+
+   /**
+    * Return the number of statements in the index.
+    *
+    * @return the number of statements
+    */
+   public int size() {
+      return size;
+   }
+
+   /**
+    * Return the subjects which have at least one type, in the order of the statements.
+    *
+    * @return the subjects
+    */
+   public List<Resource> getSubjects() {
+      return Collections.unmodifiableList(subjects);
+   }
+
+   /**
+    * Return the <code>rdf:type</code> types of a subject.
+    *
+    * @param subject the subject
+    * @return the types
+    */
+   public List<Resource> getTypes(Resource subject) {
+      return get(subjectToTypes, subject.asNode());
+   }
+
+   /**
+    * Return the subjects which have a type.
+    *
+    * @param type the type
+    * @return the subjects
+    */
+   public List<Resource> getSubjects(Resource type) {
+      return get(typeToSubjects, type.asNode());
+   }
+
+   private static <V> List<V> get(Map<Node, List<V>> map, Node key) {
+      List<V> list = map.get(key);
+      if (list == null) {
+         return Collections.emptyList();
+      } else {
+         return Collections.unmodifiableList(list);
+      }
+   }
+}
@@ -0,0 +1,243 @@
+/*
+Copyright (c) 2024 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.parsers.graph;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+/**
+ * An OASIS XML catalog, such as the <code>catalog-v001.xml</code> files written by Protégé. Only the entries which map URIs are supported:
+ * <ul>
+ * <li><code>uri</code>: map an URI to a location</li>
+ * <li><code>rewriteURI</code>: rewrite the start of URIs</li>
+ * <li><code>group</code>: group entries, possibly with a specific <code>xml:base</code></li>
+ * <li><code>nextCatalog</code>: delegate to another catalog</li>
+ * </ul>
+ * The entries whose name begin with "duplicate:" are written by Protégé for files which declare the same Ontology, they are skipped.
+ *
+ * @since 0.16
+ */
+public class XMLCatalog {
+   /**
+    * The name of the catalog files written by Protégé.
+    */
+   public static final String CATALOG_NAME = "catalog-v001.xml";
+   private static final String DUPLICATE_PREFIX = "duplicate:";
+   private static final QName XML_BASE = new QName(XMLConstants.XML_NS_URI, "base");
+   private final Map<String, String> uris = new HashMap<>();
+   private final List<String[]> rewrites = new ArrayList<>();
+   private final Set<String> catalogs = new HashSet<>();
+
+   private XMLCatalog() {
+   }
+
+   /**
+    * Return the catalog next to a file, or null if there is no such catalog, or if it can not be parsed.
+    *
+    * @param file the file
+    * @return the catalog
+    */
+   public static XMLCatalog getCatalog(File file) {
+      File catalogFile = new File(file.getAbsoluteFile().getParentFile(), CATALOG_NAME);
+      if (!catalogFile.exists()) {
+         return null;
+      }
+      try {
+         return parse(catalogFile);
+      } catch (IOException ex) {
+         return null;
+      }
+   }
+
+   /**
+    * Parse a catalog file.
+    *
+    * @param catalogFile the catalog file
+    * @return the catalog
+    * @throws IOException if the catalog could not be parsed
+    */
+   public static XMLCatalog parse(File catalogFile) throws IOException {
+      XMLCatalog catalog = new XMLCatalog();
+      catalog.parseImpl(catalogFile.getAbsoluteFile().toURI());
+      return catalog;
+   }
+
+   private void parseImpl(URI catalogURI) throws IOException {
+      if (!catalogs.add(catalogURI.toString())) {
+         return;
+      }
+      List<URI> nextCatalogs = new ArrayList<>();
+      try (InputStream stream = catalogURI.toURL().openStream()) {
+         XMLInputFactory factory = XMLInputFactory.newInstance();
+         factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+         XMLEventReader reader = factory.createXMLEventReader(stream);
+         Deque<URI> bases = new ArrayDeque<>();
+         bases.push(catalogURI);
+         while (reader.hasNext()) {
+            XMLEvent event = reader.nextEvent();
+            if (event.isStartElement()) {
+               StartElement elt = event.asStartElement();
+               URI base = bases.peek();
+               Attribute baseAttr = elt.getAttributeByName(XML_BASE);
+               if (baseAttr != null) {
+                  base = resolve(base, baseAttr.getValue());
+               }
+               bases.push(base);
+               switch (elt.getName().getLocalPart()) {
+                  case "uri":
+                     addURI(base, getAttribute(elt, "name"), getAttribute(elt, "uri"));
+                     break;
+                  case "rewriteURI":
+                     addRewrite(base, getAttribute(elt, "uriStartString"), getAttribute(elt, "rewritePrefix"));
+                     break;
+                  case "nextCatalog":
+                     String location = getAttribute(elt, "catalog");
+                     if (location != null) {
+                        nextCatalogs.add(resolve(base, location));
+                     }
+                     break;
+                  default:
+                     break;
+               }
+            } else if (event.isEndElement()) {
+               bases.pop();
+            }
+         }
+      } catch (XMLStreamException | URISyntaxException ex) {
+         throw new IOException(ex);
+      }
+      Iterator<URI> it = nextCatalogs.iterator();
+      while (it.hasNext()) {
+         URI next = it.next();
+         // a missing next catalog is not an error
+         if (!"file".equals(next.getScheme()) || new File(next).exists()) {
+            parseImpl(next);
+         }
+      }
+   }
+
+   private static String getAttribute(StartElement elt, String name) {
+      Attribute attr = elt.getAttributeByName(new QName(name));
+      return attr == null ? null : attr.getValue();
+   }
+
+   private static URI resolve(URI base, String location) throws URISyntaxException {
+      if (location.isEmpty()) {
+         return base;
+      }
+      return base.resolve(new URI(location.replace(" ", "%20")));
+   }
+
+   private void addURI(URI base, String name, String location) throws URISyntaxException {
+      if (name == null || location == null || name.startsWith(DUPLICATE_PREFIX)) {
+         return;
+      }
+      // the first entry wins, as specified by the OASIS catalogs specification
+      if (!uris.containsKey(name)) {
+         uris.put(name, resolve(base, location).toString());
+      }
+   }
+
+   private void addRewrite(URI base, String startString, String prefix) throws URISyntaxException {
+      if (startString == null || prefix == null) {
+         return;
+      }
+      String[] rewrite = new String[]{startString, resolve(base, prefix).toString()};
+      rewrites.add(rewrite);
+   }
+
+   /**
+    * Return the number of URIs declared in the catalog.
+    *
+    * @return the number of URIs
+    */
+   public int size() {
+      return uris.size();
+   }
+
+   /**
+    * Return true if the catalog does not declare any entry.
+    *
+    * @return true if the catalog does not declare any entry
+    */
+   public boolean isEmpty() {
+      return uris.isEmpty() && rewrites.isEmpty();
+   }
+
+   /**
+    * Return the location of an URI, or null if the catalog does not declare it. If several <code>rewriteURI</code> entries match the URI,
+    * the one with the longest start string is used.
+    *
+    * @param uri the URI
+    * @return the location
+    */
+   public String resolve(String uri) {
+      String location = uris.get(uri);
+      if (location != null) {
+         return location;
+      }
+      String[] best = null;
+      Iterator<String[]> it = rewrites.iterator();
+      while (it.hasNext()) {
+         String[] rewrite = it.next();
+         if (uri.startsWith(rewrite[0]) && (best == null || rewrite[0].length() > best[0].length())) {
+            best = rewrite;
+         }
+      }
+      if (best != null) {
+         return best[1] + uri.substring(best[0].length());
+      }
+      return null;
+   }
+}
@@ -49,6 +49,7 @@ public class OwlScriptContext extends DefaultScriptContext {
    private OntoBrowserGUI app = null;
    private OwlDiagram diagram = null;
    private OwlSchema schema = null;
+   private OwlSchema writableSchema = null;
    private NamedElement currentElt = null;
    private OwlScriptHelper scriptHelper = null;
 
@@ -90,9 +91,21 @@ public class OwlScriptContext extends DefaultScriptContext {
    }
 
    /**
-    * Called automatically by the Scripting framework at the end of the Script.
+    * Called automatically by the Scripting framework at the end of the Script. If the Script has modified the schema, the new version
+    * of the schema replaces the schema of the diagram, and the modifications of the OntModel are added to the model. Nothing is kept if
+    * the schema has been replaced in the meantime.
     */
-   public void end() {
+   public synchronized void end() {
+      if (writableSchema == null) {
+         return;
+      }
+      if (diagram.swapSchema(schema, writableSchema)) {
+         writableSchema.commitModel();
+         schema = writableSchema;
+      } else {
+         echo("The schema has been replaced while the Script was running, the modifications of the Script are not kept", "red");
+      }
+      writableSchema = null;
    }
 
    /**
@@ -123,12 +136,31 @@ public class OwlScriptContext extends DefaultScriptContext {
    }
 
    /**
-    * Return the schema.
+    * Return the schema. If the Script has modified the schema, this is the new version of the schema which will replace the schema
+    * of the diagram at the end of the Script.
     *
     * @return the schema
     */
-   public OwlSchema getSchema() {
-      return schema;
+   public synchronized OwlSchema getSchema() {
+      if (writableSchema != null) {
+         return writableSchema;
+      } else {
+         return schema;
+      }
+   }
+
+   /**
+    * Return the version of the schema which can be modified by the Script. This version is created the first time that the Script
+    * modifies the schema, and replaces the schema of the diagram at the end of the Script. Creating this version copies the whole schema,
+    * see {@link OwlSchema#newVersion()}.
+    *
+    * @return the version of the schema which can be modified
+    */
+   public synchronized OwlSchema getWritableSchema() {
+      if (writableSchema == null) {
+         writableSchema = schema.newVersion();
+      }
+      return writableSchema;
    }
 
    /**
@@ -44,11 +44,11 @@ import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 import org.apache.jena.ontology.Individual;
-import org.apache.jena.ontology.OntModel;
 import org.apache.jena.ontology.OntProperty;
 import org.apache.jena.rdf.model.Resource;
 import org.girod.ontobrowser.model.DatatypePropertyValue;
 import org.girod.ontobrowser.model.ElementKey;
+import org.girod.ontobrowser.model.NamedOwlElement;
 import org.girod.ontobrowser.model.OwlClass;
 import org.girod.ontobrowser.model.OwlProperty;
 import org.girod.ontobrowser.model.ElementFilter;
@@ -76,15 +76,13 @@ import org.xml.sax.helpers.DefaultHandler;
 public class OwlScriptHelper implements ScriptHelper {
    private static final Pattern ID_PAT = Pattern.compile("(\\d+\\s*)(.*)");
    private final OwlScriptContext context;
-   private final OwlSchema schema;
-   private final OntModel ontModel;
+   private OwlSchema schema;
    private Script script;
    private IndividualsHelper individualsHelper = null;
 
    public OwlScriptHelper(OwlScriptContext context) {
       this.context = context;
       this.schema = context.getSchema();
-      this.ontModel = schema.getOntModel();
    }
 
    void setScript(Script script) {
@@ -103,36 +101,59 @@ public class OwlScriptHelper implements ScriptHelper {
    }
 
    /**
-    * Return the data properties of a Class.
+    * Use the version of the schema which can be modified by the Script. The schema shown in the diagram is not modified until the end
+    * of the Script, and the modifications of the OntModel are done in the writable model of this version.
+    */
+   private void getWritableSchema() {
+      OwlSchema writableSchema = context.getWritableSchema();
+      if (writableSchema != schema) {
+         schema = writableSchema;
+         individualsHelper = null;
+      }
+   }
+
+   /**
+    * Return the data properties of a Class. The result is a copy which can be modified by the Script.
     *
     * @param theClass the Class
     * @param filter the request filter
     * @return the data properties
     */
    public static Map<ElementKey, OwlProperty> getDataProperties(OwlClass theClass, ElementFilter filter) {
-      return SchemaUtils.getDataProperties(theClass, filter);
+      return new HashMap<>(SchemaUtils.getDataProperties(theClass, filter));
    }
 
    /**
-    * Return the properties for which this Class is in their domain.
+    * Return the properties for which this Class is in their domain. The result is a copy which can be modified by the Script.
     *
     * @param theClass the Class
     * @param filter the request properties
     * @return the properties for which this Class is in their domain
     */
    public static Map<ElementKey, OwlProperty> getDomainProperties(OwlClass theClass, ElementFilter filter) {
-      return SchemaUtils.getDomainProperties(theClass, filter);
+      return new HashMap<>(SchemaUtils.getDomainProperties(theClass, filter));
    }
 
    /**
-    * Return the properties for which this Class is in their range.
+    * Return the properties for which this Class is in their range. The result is a copy which can be modified by the Script.
     *
     * @param theClass the Class
     * @param filter the request filter
     * @return the properties for which this Class is in their range
     */
    public Map<ElementKey, OwlProperty> getRangeProperties(OwlClass theClass, ElementFilter filter) {
-      return SchemaUtils.getRangeProperties(theClass, filter);
+      return new HashMap<>(SchemaUtils.getRangeProperties(theClass, filter));
+   }
+
+   /**
+    * Return true if a Class is a direct or indirect subclass of another Class.
+    *
+    * @param subClass the subclass
+    * @param superClass the superclass
+    * @return true if the Class is a subclass of the other Class
+    */
+   public boolean isSubClassOf(OwlClass subClass, OwlClass superClass) {
+      return schema.isSubClassOf(subClass, superClass);
    }
 
    /**
@@ -202,6 +223,20 @@ public class OwlScriptHelper implements ScriptHelper {
       return ElementKey.create(schema.getDefaultNamespace(), name);
    }
 
+   /**
+    * Return the individual, Class, or property corresponding to a full IRI or to a prefixed name.
+    *
+    * @param iri the IRI or the prefixed name
+    * @return the element, or null if there is no element for this IRI
+    */
+   public NamedOwlElement getElement(String iri) {
+      NamedOwlElement element = schema.getElement(iri);
+      if (element == null) {
+         element = schema.getElementFromPrefixedName(iri);
+      }
+      return element;
+   }
+
    /**
     * Return the Owl Class corresponding to a name or key.
     *
@@ -449,12 +484,7 @@ public class OwlScriptHelper implements ScriptHelper {
       OwlIndividual individual = getIndividual(individualKey);
       OwlProperty property = getOwlProperty(propertyKey);
       if (individual != null && property != null && property.isObjectProperty()) {
-         Map<ElementKey, List<ObjectPropertyValue>> map = individual.getObjectPropertyValues();
-         if (map.containsKey(propertyKey)) {
-            return !map.isEmpty();
-         } else {
-            return false;
-         }
+         return individual.hasObjectPropertyValues(propertyKey);
       } else {
          return false;
       }
@@ -568,12 +598,7 @@ public class OwlScriptHelper implements ScriptHelper {
       OwlIndividual individual = getIndividual(individualKey);
       OwlProperty property = getOwlProperty(propertyKey);
       if (individual != null && property != null && property.isDatatypeProperty()) {
-         Map<ElementKey, List<ObjectPropertyValue>> map = individual.getDatatypePropertyValues();
-         if (map.containsKey(propertyKey)) {
-            return !map.isEmpty();
-         } else {
-            return false;
-         }
+         return individual.hasDatatypePropertyValues(propertyKey);
       } else {
          return false;
       }
@@ -653,13 +678,14 @@ public class OwlScriptHelper implements ScriptHelper {
     * @return the individual, or null if it was not possible to create the individual
     */
    private ElementKey addIndividualFromKey(ElementKey classKey, ElementKey individualKey) {
+      getWritableSchema();
       if (schema.hasOwlClass(classKey)) {
          if (schema.hasIndividual(individualKey)) {
             return null;
          }
          OwlClass owlClass = schema.getOwlClass(classKey);
          // see https://stackoverflow.com/questions/43719469/create-individuals-using-jena
-         Individual individual = ontModel.createIndividual(individualKey.toURI().toString(), owlClass.getOntClass());
+         Individual individual = schema.getWritableModel().createIndividual(individualKey.toURI().toString(), owlClass.getOntClass());
          OwlIndividual owlIndividual = new OwlIndividual(owlClass, individual);
          schema.addIndividual(owlIndividual);
          return owlIndividual.getKey();
@@ -749,6 +775,7 @@ public class OwlScriptHelper implements ScriptHelper {
          context.echo("Tried to add a DatatypeProperty on an Individual, Individual key is null", "red");
          return false;
       }
+      getWritableSchema();
       getIndividualsHelper();
       if (schema.hasIndividual(individualKey)) {
          if (schema.hasOwlProperty(propertyKey)) {
@@ -756,7 +783,7 @@ public class OwlScriptHelper implements ScriptHelper {
             if (owlproperty instanceof OwlDatatypeProperty) {
                OntProperty property = owlproperty.getProperty();
                OwlIndividual owlIndividual = schema.getIndividual(individualKey);
-               Resource resource = owlIndividual.getIndividual();
+               Resource resource = owlIndividual.getIndividual().inModel(schema.getWritableModel());
                resource.addProperty(property, value);
                OwlDatatypeProperty datatypeproperty = (OwlDatatypeProperty) owlproperty;
                OwlDatatype datatype = datatypeproperty.getFirstType();
@@ -849,6 +876,7 @@ public class OwlScriptHelper implements ScriptHelper {
          context.echo("Tried to add an ObjectProperty on an Individual, ObjectProperty key is null", "red");
          return false;
       }
+      getWritableSchema();
       getIndividualsHelper();
       if (schema.hasIndividual(individualKey) && schema.hasIndividual(targetKey)) {
          if (schema.hasOwlProperty(propertyKey)) {
@@ -861,7 +889,7 @@ public class OwlScriptHelper implements ScriptHelper {
                ObjectPropertyValue propValue = new ObjectPropertyValue(objectproperty, owlIndividual, owlTargetIndividual);
                owlIndividual.addObjectPropertyValue(propValue);
 
-               Resource individual = owlIndividual.getIndividual();
+               Resource individual = owlIndividual.getIndividual().inModel(schema.getWritableModel());
                Resource individual2 = owlTargetIndividual.getIndividual();
                individual.addProperty(property, individual2);
                return true;
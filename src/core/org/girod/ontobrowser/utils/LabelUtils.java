@@ -33,30 +33,19 @@ the project website at the project page on https://github.com/hervegirod/ontolog
 package org.girod.ontobrowser.utils;
 
 import java.awt.Dimension;
-import java.awt.Font;
-import java.awt.font.FontRenderContext;
-import java.awt.geom.AffineTransform;
+import java.util.ArrayList;
+import java.util.List;
 import org.girod.ontobrowser.BrowserConfiguration;
 
 /**
- * Utilities methods to handle labels in the output graph.
+ * Utilities methods to handle labels in the output graph. The labels are measured by the shared {@link TextMetrics}.
  *
- * @version 0.4
+ * @version 0.16
  */
 public class LabelUtils {
-   private static final AffineTransform TRANSFORM = new AffineTransform();
-   private static final FontRenderContext FRC = new FontRenderContext(TRANSFORM, true, true);
-
    private LabelUtils() {
    }
 
-   private static Dimension getMinimumSize(String label, int fontSize, String fontFamily) {
-      Font font = new Font(fontFamily, Font.PLAIN, fontSize);
-      int textwidth = (int) (font.getStringBounds(label, FRC).getWidth());
-      int textheight = (int) (font.getStringBounds(label, FRC).getHeight());
-      return new Dimension(textwidth, textheight);
-   }
-
    /**
     * Return the dimension of a label.
     *
@@ -68,7 +57,7 @@ public class LabelUtils {
    public static Dimension getDimension(String label, int fontSize, String fontFamily) {
       BrowserConfiguration conf = BrowserConfiguration.getInstance();
       if (label != null && !label.isEmpty()) {
-         Dimension size = getMinimumSize(label, fontSize, fontFamily);
+         Dimension size = TextMetrics.getInstance().getSize(label, fontSize, fontFamily);
          int width = size.width + conf.padWidth;
          int height = size.height + conf.padHeight;
          return new Dimension(width, height);
@@ -76,4 +65,37 @@ public class LabelUtils {
          return new Dimension(conf.padWidth, conf.padHeight);
       }
    }
+
+   /**
+    * Return the dimensions of a list of labels. The labels are measured at once, so this method should be used rather than
+    * {@link #getDimension(String, int, String)} when there are many labels.
+    *
+    * @param labels the labels
+    * @param fontSize the font size
+    * @param fontFamily the font family
+    * @return the dimensions, in the order of the labels
+    */
+   public static Dimension[] getDimensions(List<String> labels, int fontSize, String fontFamily) {
+      BrowserConfiguration conf = BrowserConfiguration.getInstance();
+      List<String> measuredLabels = new ArrayList<>(labels.size());
+      for (int i = 0; i < labels.size(); i++) {
+         String label = labels.get(i);
+         if (label != null && !label.isEmpty()) {
+            measuredLabels.add(label);
+         }
+      }
+      Dimension[] sizes = TextMetrics.getInstance().getSizes(measuredLabels, fontSize, fontFamily);
+      Dimension[] dimensions = new Dimension[labels.size()];
+      int index = 0;
+      for (int i = 0; i < labels.size(); i++) {
+         String label = labels.get(i);
+         if (label != null && !label.isEmpty()) {
+            Dimension size = sizes[index++];
+            dimensions[i] = new Dimension(size.width + conf.padWidth, size.height + conf.padHeight);
+         } else {
+            dimensions[i] = new Dimension(conf.padWidth, conf.padHeight);
+         }
+      }
+      return dimensions;
+   }
 }
@@ -33,22 +33,27 @@ the project website at the project page on https://github.com/hervegirod/ontolog
 package org.girod.ontobrowser.utils;
 
 import org.girod.ontobrowser.model.ElementFilter;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.girod.ontobrowser.model.ElementKey;
+import org.girod.ontobrowser.model.InheritedMembers;
 import org.girod.ontobrowser.model.OwlClass;
 import org.girod.ontobrowser.model.OwlDatatypeProperty;
 import org.girod.ontobrowser.model.OwlObjectProperty;
 import org.girod.ontobrowser.model.OwlProperty;
+import org.girod.ontobrowser.model.SchemaGraph;
 import org.girod.ontobrowser.model.restriction.OwlRestriction;
 
 /**
  * Provides utilities to use with elements in a Schema.
  *
- * @version 0.12
+ * @version 0.16
  */
 public class SchemaUtils {
    private SchemaUtils() {
@@ -102,171 +107,129 @@ public class SchemaUtils {
    }
 
    /**
-    * Return the data properties of a Class.
+    * Return the properties inherited by the classes of the graph of a class, or null if the class is not bound to an up-to-date
+    * graph.
     *
-    * @param theClass the Class
-    * @param filter the request properties
-    * @return the data properties
+    * @param theClass the class
+    * @param filter the filter
+    * @return the inherited properties
     */
-   public static Map<ElementKey, OwlProperty> getDataProperties(OwlClass theClass, ElementFilter filter) {
-      return getDataProperties(theClass, new HashSet<>(), filter);
+   private static InheritedMembers getInheritedMembers(OwlClass theClass, ElementFilter filter) {
+      SchemaGraph graph = theClass.getSchemaGraph();
+      if (graph == null || graph.isStale()) {
+         return null;
+      } else {
+         return graph.getInheritedMembers(filter.includeParentRelations, filter.includeAlias);
+      }
    }
 
    /**
-    * Return the data properties of a Class.
+    * Return a class and all the classes from which it inherits its properties, following the superclasses and alias classes
+    * depending on the filter. Each class is only visited once.
     *
-    * @param theClass the Class
-    * @param filter the request properties
-    * @return the data properties
+    * @param theClass the class
+    * @param filter the filter
+    * @return the classes
     */
-   private static Map<ElementKey, OwlProperty> getDataProperties(OwlClass theClass, Set<ElementKey> excluded, ElementFilter filter) {
-      Map<ElementKey, OwlProperty> map = new HashMap<>(theClass.getOwlProperties());
-      if (filter == null) {
-         filter = new ElementFilter();
-      }
-      if (filter.includeParentRelations) {
-         Iterator<OwlClass> it = theClass.getSuperClasses().values().iterator();
-         while (it.hasNext()) {
-            OwlClass superClass = it.next();
-            if (!superClass.isThing()) {
-               Map<ElementKey, OwlProperty> map2 = getDataProperties(superClass, filter);
-               map.putAll(map2);
-            }
+   private static List<OwlClass> getInheritedClasses(OwlClass theClass, ElementFilter filter) {
+      List<OwlClass> classes = new ArrayList<>();
+      Set<ElementKey> visited = new HashSet<>();
+      classes.add(theClass);
+      visited.add(theClass.getKey());
+      for (int i = 0; i < classes.size(); i++) {
+         OwlClass owlClass = classes.get(i);
+         if (filter.includeParentRelations) {
+            addInheritedClasses(owlClass.getSuperClasses(), classes, visited);
+         }
+         if (filter.includeAlias) {
+            addInheritedClasses(owlClass.getAliasClasses(), classes, visited);
          }
       }
-      if (filter.includeAlias) {
-         Set<ElementKey> excluded2 = new HashSet<>(excluded);
-         excluded2.add(theClass.getKey());
-         Iterator<OwlClass> it = theClass.getAliasClasses().values().iterator();
-         while (it.hasNext()) {
-            OwlClass aliasClass = it.next();
-            if (!aliasClass.isThing()) {
-               Map<ElementKey, OwlProperty> map2 = getDataProperties(aliasClass, excluded2, filter);
-               map.putAll(map2);
-            }
+      return classes;
+   }
+
+   private static void addInheritedClasses(Map<ElementKey, OwlClass> map, List<OwlClass> classes, Set<ElementKey> visited) {
+      Iterator<OwlClass> it = map.values().iterator();
+      while (it.hasNext()) {
+         OwlClass owlClass = it.next();
+         if (!owlClass.isThing() && visited.add(owlClass.getKey())) {
+            classes.add(owlClass);
          }
       }
-      Map<ElementKey, OwlProperty> map2 = new HashMap<>();
-      Iterator<Map.Entry<ElementKey, OwlProperty>> it = map.entrySet().iterator();
+   }
+
+   private static Map<ElementKey, OwlProperty> getProperties(List<OwlClass> classes, boolean isRange, boolean isObjectProperty) {
+      Map<ElementKey, OwlProperty> map = new HashMap<>();
+      Iterator<OwlClass> it = classes.iterator();
       while (it.hasNext()) {
-         Map.Entry<ElementKey, OwlProperty> entry = it.next();
-         if (entry.getValue() instanceof OwlDatatypeProperty) {
-            map2.put(entry.getKey(), entry.getValue());
+         OwlClass owlClass = it.next();
+         Map<ElementKey, ? extends OwlProperty> properties = isRange ? owlClass.getRangeOwlProperties() : owlClass.getOwlProperties();
+         Iterator<? extends OwlProperty> it2 = properties.values().iterator();
+         while (it2.hasNext()) {
+            OwlProperty property = it2.next();
+            if (isObjectProperty ? property instanceof OwlObjectProperty : property instanceof OwlDatatypeProperty) {
+               map.put(property.getKey(), property);
+            }
          }
       }
-      return map2;
+      return map;
    }
 
    /**
-    * Return the properties for which this Class is in their domain.
+    * Return the data properties of a Class. The result is unmodifiable, and may be shared with other callers.
     *
     * @param theClass the Class
     * @param filter the request properties
-    * @return the properties for which this Class is in their domain
+    * @return the data properties
     */
-   public static Map<ElementKey, OwlProperty> getDomainProperties(OwlClass theClass, ElementFilter filter) {
-      return getDomainProperties(theClass, new HashSet<>(), filter);
+   public static Map<ElementKey, OwlProperty> getDataProperties(OwlClass theClass, ElementFilter filter) {
+      if (filter == null) {
+         filter = new ElementFilter();
+      }
+      InheritedMembers members = getInheritedMembers(theClass, filter);
+      if (members != null) {
+         return members.getDataProperties(theClass.getGraphId());
+      } else {
+         return Collections.unmodifiableMap(getProperties(getInheritedClasses(theClass, filter), false, false));
+      }
    }
 
    /**
-    * Return the properties for which this Class is in their domain.
+    * Return the properties for which this Class is in their domain. The result is unmodifiable, and may be shared with other callers.
     *
     * @param theClass the Class
     * @param filter the request properties
     * @return the properties for which this Class is in their domain
     */
-   private static Map<ElementKey, OwlProperty> getDomainProperties(OwlClass theClass, Set<ElementKey> excluded, ElementFilter filter) {
+   public static Map<ElementKey, OwlProperty> getDomainProperties(OwlClass theClass, ElementFilter filter) {
       if (filter == null) {
          filter = new ElementFilter();
       }
-      Map<ElementKey, OwlProperty> map = new HashMap<>(theClass.getOwlProperties());
-      if (filter.includeParentRelations) {
-         Iterator<OwlClass> it = theClass.getSuperClasses().values().iterator();
-         while (it.hasNext()) {
-            OwlClass superClass = it.next();
-            if (!superClass.isThing()) {
-               Map<ElementKey, OwlProperty> map2 = getDomainProperties(superClass, filter);
-               map.putAll(map2);
-            }
-         }
+      InheritedMembers members = getInheritedMembers(theClass, filter);
+      if (members != null) {
+         return members.getDomainProperties(theClass.getGraphId());
+      } else {
+         return Collections.unmodifiableMap(getProperties(getInheritedClasses(theClass, filter), false, true));
       }
-      if (filter.includeAlias) {
-         Set<ElementKey> excluded2 = new HashSet<>(excluded);
-         excluded2.add(theClass.getKey());
-         Iterator<OwlClass> it = theClass.getAliasClasses().values().iterator();
-         while (it.hasNext()) {
-            OwlClass aliasClass = it.next();
-            if (!aliasClass.isThing() && !excluded2.contains(aliasClass.getKey())) {
-               Map<ElementKey, OwlProperty> map2 = getDomainProperties(aliasClass, excluded2, filter);
-               map.putAll(map2);
-            }
-         }
-      }
-      Map<ElementKey, OwlProperty> map2 = new HashMap<>();
-      Iterator<Map.Entry<ElementKey, OwlProperty>> it = map.entrySet().iterator();
-      while (it.hasNext()) {
-         Map.Entry<ElementKey, OwlProperty> entry = it.next();
-         if (entry.getValue() instanceof OwlObjectProperty) {
-            map2.put(entry.getKey(), entry.getValue());
-         }
-      }
-      return map2;
    }
 
    /**
-    * Return the properties for which this Class is in their range.
+    * Return the properties for which this Class is in their range. The result is unmodifiable, and may be shared with other callers.
     *
     * @param theClass the Class
     * @param filter the request properties
     * @return the properties for which this Class is in their range
     */
    public static Map<ElementKey, OwlProperty> getRangeProperties(OwlClass theClass, ElementFilter filter) {
-      return getRangeProperties(theClass, new HashSet<>(), filter);
-   }
-
-   /**
-    * Return the properties for which this Class is in their range.
-    *
-    * @param theClass the Class
-    * @param filter the request properties
-    * @return the properties for which this Class is in their range
-    */
-   private static Map<ElementKey, OwlProperty> getRangeProperties(OwlClass theClass, Set<ElementKey> excluded, ElementFilter filter) {
       if (filter == null) {
          filter = new ElementFilter();
       }
-      Map<ElementKey, OwlProperty> map = new HashMap<>(theClass.getRangeOwlProperties());
-      if (filter.includeParentRelations) {
-         Iterator<OwlClass> it = theClass.getSuperClasses().values().iterator();
-         while (it.hasNext()) {
-            OwlClass superClass = it.next();
-            if (!superClass.isThing()) {
-               Map<ElementKey, OwlProperty> map2 = getRangeProperties(superClass, filter);
-               map.putAll(map2);
-            }
-         }
-      }
-      if (filter.includeAlias) {
-         Set<ElementKey> excluded2 = new HashSet<>(excluded);
-         excluded2.add(theClass.getKey());
-         Iterator<OwlClass> it = theClass.getAliasClasses().values().iterator();
-         while (it.hasNext()) {
-            OwlClass aliasClass = it.next();
-            if (!aliasClass.isThing()) {
-               Map<ElementKey, OwlProperty> map2 = getRangeProperties(aliasClass, excluded2, filter);
-               map.putAll(map2);
-            }
-         }
-      }
-      Map<ElementKey, OwlProperty> map2 = new HashMap<>();
-      Iterator<Map.Entry<ElementKey, OwlProperty>> it = map.entrySet().iterator();
-      while (it.hasNext()) {
-         Map.Entry<ElementKey, OwlProperty> entry = it.next();
-         if (entry.getValue() instanceof OwlObjectProperty) {
-            map2.put(entry.getKey(), entry.getValue());
-         }
+      InheritedMembers members = getInheritedMembers(theClass, filter);
+      if (members != null) {
+         return members.getRangeProperties(theClass.getGraphId());
+      } else {
+         return Collections.unmodifiableMap(getProperties(getInheritedClasses(theClass, filter), true, true));
       }
-      return map2;
    }
 
    /**
@@ -0,0 +1,274 @@
+/*
+Copyright (c) 2021, 2023 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.utils;
+
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.AffineTransform;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A shared service which measures the size of labels.
+ * <ul>
+ * <li>The fonts are created only once for each family and size</li>
+ * <li>The advances of the Latin-1 characters are kept in a table for each font, so that most labels are measured without calling the font.
+ * The other labels are measured by the font</li>
+ * <li>The last measured labels are kept in a LRU cache for each font</li>
+ * <li>Many labels can be measured at once, and they are then measured in parallel. This is possible because the font render context
+ * and the fonts are immutable</li>
+ * </ul>
+ * The sizes are the same as the sizes of the string bounds computed by the font.
+ *
+ * @since 0.16
+ */
+public class TextMetrics {
+   /**
+    * The number of labels under which the labels are not measured in parallel.
+    */
+   private static final int THRESHOLD = 512;
+   private static final int CACHE_SIZE = 8192;
+   private static final int TABLE_SIZE = 256;
+   private static final FontRenderContext FRC = new FontRenderContext(new AffineTransform(), true, true);
+   private static final TextMetrics INSTANCE = new TextMetrics();
+   private final Map<String, FontTable> tables = new ConcurrentHashMap<>();
+
+   private TextMetrics() {
+   }
+
+   /**
+    * Return the unique instance.
+    *
+    * @return the instance
+    */
+   public static TextMetrics getInstance() {
+      return INSTANCE;
+   }
+
+   /**
+    * Return the size of a label.
+    *
+    * @param label the label
+    * @param fontSize the font size
+    * @param fontFamily the font family
+    * @return the size
+    */
+   public Dimension getSize(String label, int fontSize, String fontFamily) {
+      FontTable table = getTable(fontSize, fontFamily);
+      long size = table.getCachedSize(label);
+      if (size < 0) {
+         size = table.measure(label);
+         table.putSize(label, size);
+      }
+      return toDimension(size);
+   }
+
+   /**
+    * Return the sizes of a list of labels. The labels which are not in the cache are measured in parallel if there are many of them.
+    *
+    * @param labels the labels
+    * @param fontSize the font size
+    * @param fontFamily the font family
+    * @return the sizes, in the order of the labels
+    */
+   public Dimension[] getSizes(List<String> labels, int fontSize, String fontFamily) {
+      FontTable table = getTable(fontSize, fontFamily);
+      String[] array = labels.toArray(new String[labels.size()]);
+      long[] sizes = new long[array.length];
+      int missing = table.getCachedSizes(array, sizes);
+      if (missing > THRESHOLD) {
+         ForkJoinPool.commonPool().invoke(new MeasureAction(table, array, sizes, 0, array.length));
+      } else if (missing > 0) {
+         table.measure(array, sizes, 0, array.length);
+      }
+      if (missing > 0) {
+         table.putSizes(array, sizes);
+      }
+      Dimension[] dimensions = new Dimension[array.length];
+      for (int i = 0; i < array.length; i++) {
+         dimensions[i] = toDimension(sizes[i]);
+      }
+      return dimensions;
+   }
+
+   private FontTable getTable(int fontSize, String fontFamily) {
+      String key = fontFamily + "/" + fontSize;
+      FontTable table = tables.get(key);
+      if (table == null) {
+         table = tables.computeIfAbsent(key, (String k) -> new FontTable(fontFamily, fontSize));
+      }
+      return table;
+   }
+
+   private static Dimension toDimension(long size) {
+      return new Dimension((int) (size >>> 32), (int) size);
+   }
+
+   private static long toSize(int width, int height) {
+      return ((long) width << 32) | (height & 0xffffffffL);
+   }
+
+   /**
+    * The metrics of a font.
+    */
+   private static class FontTable {
+      private final Font font;
+      private final float[] advances = new float[TABLE_SIZE];
+      private final int height;
+      private final Map<String, Long> cache = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+         @Override
+         protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > CACHE_SIZE;
+         }
+      };
+
+      private FontTable(String fontFamily, int fontSize) {
+         this.font = new Font(fontFamily, Font.PLAIN, fontSize);
+         char[] chars = new char[1];
+         for (int i = 0; i < TABLE_SIZE; i++) {
+            chars[0] = (char) i;
+            advances[i] = (float) font.getStringBounds(chars, 0, 1, FRC).getWidth();
+         }
+         // the height of the bounds does not depend on the characters
+         this.height = (int) font.getStringBounds("X", FRC).getHeight();
+      }
+
+      /**
+       * Return the cached size of a label, or -1 if the label is not in the cache.
+       */
+      private long getCachedSize(String label) {
+         synchronized (cache) {
+            Long size = cache.get(label);
+            return size == null ? -1 : size;
+         }
+      }
+
+      /**
+       * Fill the cached sizes of labels, and set -1 for the labels which are not in the cache.
+       *
+       * @return the number of labels which are not in the cache
+       */
+      private int getCachedSizes(String[] labels, long[] sizes) {
+         int missing = 0;
+         synchronized (cache) {
+            for (int i = 0; i < labels.length; i++) {
+               Long size = cache.get(labels[i]);
+               if (size == null) {
+                  sizes[i] = -1;
+                  missing++;
+               } else {
+                  sizes[i] = size;
+               }
+            }
+         }
+         return missing;
+      }
+
+      private void putSize(String label, long size) {
+         synchronized (cache) {
+            cache.put(label, size);
+         }
+      }
+
+      private void putSizes(String[] labels, long[] sizes) {
+         synchronized (cache) {
+            for (int i = 0; i < labels.length; i++) {
+               cache.put(labels[i], sizes[i]);
+            }
+         }
+      }
+
+      /**
+       * Measure the labels of a range which are not in the cache.
+       */
+      private void measure(String[] labels, long[] sizes, int from, int to) {
+         for (int i = from; i < to; i++) {
+            if (sizes[i] < 0) {
+               sizes[i] = measure(labels[i]);
+            }
+         }
+      }
+
+      /**
+       * Measure a label. The advances are summed as floats in the order of the characters, as the font does for simple texts, so that
+       * the result is the same.
+       */
+      private long measure(String label) {
+         float width = 0;
+         int length = label.length();
+         for (int i = 0; i < length; i++) {
+            char c = label.charAt(i);
+            if (c >= TABLE_SIZE) {
+               // the text may need a complex layout
+               return toSize((int) font.getStringBounds(label, FRC).getWidth(), height);
+            }
+            width += advances[c];
+         }
+         return toSize((int) width, height);
+      }
+   }
+
+   /**
+    * The action which measures a range of labels.
+    */
+   private static class MeasureAction extends RecursiveAction {
+      private final FontTable table;
+      private final String[] labels;
+      private final long[] sizes;
+      private final int from;
+      private final int to;
+
+      private MeasureAction(FontTable table, String[] labels, long[] sizes, int from, int to) {
+         this.table = table;
+         this.labels = labels;
+         this.sizes = sizes;
+         this.from = from;
+         this.to = to;
+      }
+
+      @Override
+      protected void compute() {
+         if (to - from <= THRESHOLD) {
+            table.measure(labels, sizes, from, to);
+         } else {
+            int middle = (from + to) >>> 1;
+            invokeAll(new MeasureAction(table, labels, sizes, from, middle), new MeasureAction(table, labels, sizes, middle, to));
+         }
+      }
+   }
+}
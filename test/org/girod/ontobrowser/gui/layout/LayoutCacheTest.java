@@ -0,0 +1,157 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.gui.layout;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import com.mxgraph.util.mxPoint;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+import org.girod.ontobrowser.BrowserConfiguration;
+import org.girod.ontobrowser.model.ElementKey;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mdiutil.junit.Order;
+import org.mdiutil.junit.OrderedRunner;
+
+/**
+ *
+ * @since 0.16
+ */
+@RunWith(OrderedRunner.class)
+public class LayoutCacheTest {
+   private static final String NS = "http://test/layout#";
+   private static File directory;
+   private static LayoutCache cache;
+
+   public LayoutCacheTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() throws Exception {
+      directory = Files.createTempDirectory("layouts").toFile();
+      cache = new LayoutCache(directory);
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+      cache.clear();
+      directory.delete();
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Test that the positions read from the cache are the positions which were put in the cache.
+    */
+   @Test
+   @Order(order = 1)
+   public void testRoundTrip() throws Exception {
+      System.out.println("LayoutCacheTest : testRoundTrip");
+      String key = cache.getKey(new File("roundTrip.owl"));
+      assertNull("Must have no positions", cache.getPositions(key));
+      Map<ElementKey, mxPoint> positions = new HashMap<>();
+      positions.put(new ElementKey(NS, "Class"), new mxPoint(10.5, 20));
+      positions.put(new ElementKey(null, "NoNamespace"), new mxPoint(-3, 4.25));
+      positions.put(new ElementKey(NS, null), new mxPoint(1, 1));
+      assertTrue("Positions must be put in the cache", cache.putPositions(key, positions));
+
+      Map<ElementKey, mxPoint> cachedPositions = cache.getPositions(key);
+      assertNotNull("Must have positions", cachedPositions);
+      assertEquals("Must have 2 positions", 2, cachedPositions.size());
+      mxPoint point = cachedPositions.get(new ElementKey(NS, "Class"));
+      assertEquals("Must have the same x", 10.5, point.getX(), 0);
+      assertEquals("Must have the same y", 20, point.getY(), 0);
+      point = cachedPositions.get(new ElementKey(null, "NoNamespace"));
+      assertEquals("Must have the same x", -3, point.getX(), 0);
+      assertEquals("Must have the same y", 4.25, point.getY(), 0);
+      assertFalse("Must not have the position of the key without name", cachedPositions.containsKey(new ElementKey(NS, null)));
+   }
+
+   /**
+    * Test that the positions are discarded when the configuration which has an impact on the layout changes.
+    */
+   @Test
+   @Order(order = 2)
+   public void testChangedConfiguration() throws Exception {
+      System.out.println("LayoutCacheTest : testChangedConfiguration");
+      String key = cache.getKey(new File("roundTrip.owl"));
+      assertNotNull("Must have positions", cache.getPositions(key));
+      BrowserConfiguration conf = BrowserConfiguration.getInstance();
+      boolean showAlias = conf.showAlias;
+      try {
+         conf.showAlias = !showAlias;
+         assertNull("Positions must be discarded", cache.getPositions(key));
+      } finally {
+         conf.showAlias = showAlias;
+      }
+   }
+
+   /**
+    * Test that only the last positions are written when they are put several times in a short time.
+    */
+   @Test
+   @Order(order = 3)
+   public void testPutPositionsLater() throws Exception {
+      System.out.println("LayoutCacheTest : testPutPositionsLater");
+      String key = cache.getKey(new File("later.owl"));
+      Map<ElementKey, mxPoint> positions = new HashMap<>();
+      positions.put(new ElementKey(NS, "Class"), new mxPoint(1, 2));
+      Future<?> first = cache.putPositionsLater(key, positions);
+      positions = new HashMap<>();
+      positions.put(new ElementKey(NS, "Class"), new mxPoint(3, 4));
+      Future<?> last = cache.putPositionsLater(key, positions);
+      assertTrue("The first save must be cancelled", first.isCancelled());
+      assertNull("Positions must not be written yet", cache.getPositions(key));
+      last.get();
+      Map<ElementKey, mxPoint> cachedPositions = cache.getPositions(key);
+      assertNotNull("Must have positions", cachedPositions);
+      assertEquals("Must have the last x", 3, cachedPositions.get(new ElementKey(NS, "Class")).getX(), 0);
+   }
+}
@@ -0,0 +1,175 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.gui.layout;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.Random;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mdiutil.junit.Order;
+import org.mdiutil.junit.OrderedRunner;
+
+/**
+ *
+ * @since 0.16
+ */
+@RunWith(OrderedRunner.class)
+public class QuadTreeTest {
+   private static final int VERTICES = 500;
+   private static final double K2 = 100 * 100;
+
+   public QuadTreeTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Return the exact repulsive force on a vertex, computed with all the pairs of vertices.
+    */
+   private static double[] getExactRepulsion(int vertex, double[] x, double[] y, double[] radius) {
+      double[] force = new double[2];
+      for (int i = 0; i < x.length; i++) {
+         if (i == vertex) {
+            continue;
+         }
+         double dx = x[vertex] - x[i];
+         double dy = y[vertex] - y[i];
+         double d = Math.sqrt(dx * dx + dy * dy);
+         double free = Math.max(d - radius[vertex] - radius[i], 1);
+         double f = K2 / (free * d);
+         force[0] += dx * f;
+         force[1] += dy * f;
+      }
+      return force;
+   }
+
+   private static double[] getRandom(Random random, double scale) {
+      double[] values = new double[VERTICES];
+      for (int i = 0; i < VERTICES; i++) {
+         values[i] = random.nextDouble() * scale;
+      }
+      return values;
+   }
+
+   /**
+    * Test that the forces are exact when the cells are never approximated.
+    */
+   @Test
+   @Order(order = 1)
+   public void testExactForces() throws Exception {
+      System.out.println("QuadTreeTest : testExactForces");
+      Random random = new Random(1);
+      double[] x = getRandom(random, 5000);
+      double[] y = getRandom(random, 5000);
+      double[] radius = getRandom(random, 20);
+      QuadTree tree = new QuadTree(0);
+      tree.build(x, y, VERTICES);
+      for (int i = 0; i < VERTICES; i++) {
+         double[] force = new double[2];
+         tree.addRepulsion(i, radius, K2, force);
+         double[] exact = getExactRepulsion(i, x, y, radius);
+         assertEquals("Must have the exact x force", exact[0], force[0], Math.abs(exact[0]) * 1e-9 + 1e-9);
+         assertEquals("Must have the exact y force", exact[1], force[1], Math.abs(exact[1]) * 1e-9 + 1e-9);
+      }
+   }
+
+   /**
+    * Test that the approximated forces are close to the exact forces.
+    */
+   @Test
+   @Order(order = 2)
+   public void testApproximatedForces() throws Exception {
+      System.out.println("QuadTreeTest : testApproximatedForces");
+      Random random = new Random(2);
+      double[] x = getRandom(random, 5000);
+      double[] y = getRandom(random, 5000);
+      double[] radius = new double[VERTICES];
+      QuadTree tree = new QuadTree(0.5);
+      tree.build(x, y, VERTICES);
+      double error = 0;
+      double total = 0;
+      for (int i = 0; i < VERTICES; i++) {
+         double[] force = new double[2];
+         tree.addRepulsion(i, radius, K2, force);
+         double[] exact = getExactRepulsion(i, x, y, radius);
+         error += Math.hypot(force[0] - exact[0], force[1] - exact[1]);
+         total += Math.hypot(exact[0], exact[1]);
+      }
+      assertTrue("The relative error must be less than 5%, was " + (error / total), error / total < 0.05);
+   }
+
+   /**
+    * Test the vertices which are at the same position.
+    */
+   @Test
+   @Order(order = 3)
+   public void testSamePositions() throws Exception {
+      System.out.println("QuadTreeTest : testSamePositions");
+      double[] x = new double[VERTICES];
+      double[] y = new double[VERTICES];
+      double[] radius = new double[VERTICES];
+      x[VERTICES - 1] = 1000;
+      y[VERTICES - 1] = 1000;
+      QuadTree tree = new QuadTree(0.5);
+      tree.build(x, y, VERTICES);
+      for (int i = 0; i < VERTICES; i++) {
+         double[] force = new double[2];
+         tree.addRepulsion(i, radius, K2, force);
+         assertFalse("The force must be defined", Double.isNaN(force[0]) || Double.isNaN(force[1]));
+         assertFalse("The force must be finite", Double.isInfinite(force[0]) || Double.isInfinite(force[1]));
+      }
+      double[] force = new double[2];
+      tree.addRepulsion(VERTICES - 1, radius, K2, force);
+      assertTrue("The isolated vertex must be pushed away", force[0] > 0 && force[1] > 0);
+   }
+}
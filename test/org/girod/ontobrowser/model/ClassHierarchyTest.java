@@ -0,0 +1,244 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mdiutil.junit.Order;
+import org.mdiutil.junit.OrderedRunner;
+
+/**
+ *
+ * @since 0.16
+ */
+@RunWith(OrderedRunner.class)
+public class ClassHierarchyTest {
+   private static final String NS = "http://test/hierarchy#";
+
+   public ClassHierarchyTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   private static OwlClass addClass(OwlSchema schema, String name) {
+      OwlClass owlClass = new OwlClass(NS, name);
+      schema.addOwlClass(owlClass);
+      return owlClass;
+   }
+
+   private static void addSubClassOf(OwlClass subClass, OwlClass superClass) {
+      subClass.addSuperClass(superClass.getKey(), superClass, null);
+      superClass.addSubClass(subClass.getKey(), subClass);
+   }
+
+   private static Set<OwlClass> getAncestors(OwlClass theClass) {
+      Set<OwlClass> ancestors = new HashSet<>();
+      List<OwlClass> toVisit = new ArrayList<>(theClass.getSuperClasses().values());
+      while (!toVisit.isEmpty()) {
+         OwlClass owlClass = toVisit.remove(toVisit.size() - 1);
+         if (ancestors.add(owlClass)) {
+            toVisit.addAll(owlClass.getSuperClasses().values());
+         }
+      }
+      return ancestors;
+   }
+
+   private static Set<OwlClass> toSet(List<OwlClass> list) {
+      return new HashSet<>(list);
+   }
+
+   /**
+    * Test the transitive closure of a hierarchy without cycles.
+    */
+   @Test
+   @Order(order = 1)
+   public void testClosure() throws Exception {
+      System.out.println("ClassHierarchyTest : testClosure");
+      OwlSchema schema = new OwlSchema(ModelFactory.createOntologyModel());
+      OwlClass classA = addClass(schema, "A");
+      OwlClass classB = addClass(schema, "B");
+      OwlClass classC = addClass(schema, "C");
+      OwlClass classD = addClass(schema, "D");
+      OwlClass classE = addClass(schema, "E");
+      addSubClassOf(classB, classA);
+      addSubClassOf(classC, classB);
+      addSubClassOf(classD, classC);
+      addSubClassOf(classD, classE);
+      schema.compact();
+      ClassHierarchy hierarchy = schema.getClassHierarchy();
+      assertNotNull("Must have a hierarchy", hierarchy);
+      assertEquals("Must have 5 classes", 5, hierarchy.getClassesCount());
+
+      assertTrue("D must be a subclass of A", hierarchy.isSubClassOf(classD, classA));
+      assertTrue("D must be a subclass of E", hierarchy.isSubClassOf(classD, classE));
+      assertFalse("A must not be a subclass of D", hierarchy.isSubClassOf(classA, classD));
+      assertFalse("C must not be a subclass of E", hierarchy.isSubClassOf(classC, classE));
+      assertFalse("A must not be a subclass of itself", hierarchy.isSubClassOf(classA, classA));
+      assertFalse("A must not be in a cycle", hierarchy.isInCycle(classA));
+
+      Set<OwlClass> expected = new HashSet<>();
+      expected.add(classA);
+      expected.add(classB);
+      expected.add(classC);
+      expected.add(classE);
+      assertEquals("Must have the ancestors of D", expected, toSet(hierarchy.getAncestors(classD)));
+      expected.clear();
+      expected.add(classB);
+      expected.add(classC);
+      expected.add(classD);
+      assertEquals("Must have the descendants of A", expected, toSet(hierarchy.getDescendants(classA)));
+      assertTrue("The schema must use the hierarchy", schema.isSubClassOf(classD, classA));
+   }
+
+   /**
+    * Test the transitive closure of a hierarchy with a cycle.
+    */
+   @Test
+   @Order(order = 2)
+   public void testCycle() throws Exception {
+      System.out.println("ClassHierarchyTest : testCycle");
+      OwlSchema schema = new OwlSchema(ModelFactory.createOntologyModel());
+      OwlClass classA = addClass(schema, "A");
+      OwlClass classB = addClass(schema, "B");
+      OwlClass classC = addClass(schema, "C");
+      OwlClass classD = addClass(schema, "D");
+      addSubClassOf(classB, classA);
+      addSubClassOf(classC, classB);
+      addSubClassOf(classA, classC);
+      addSubClassOf(classD, classC);
+      schema.compact();
+      ClassHierarchy hierarchy = schema.getClassHierarchy();
+
+      assertTrue("A must be in a cycle", hierarchy.isInCycle(classA));
+      assertTrue("B must be in a cycle", hierarchy.isInCycle(classB));
+      assertTrue("C must be in a cycle", hierarchy.isInCycle(classC));
+      assertFalse("D must not be in a cycle", hierarchy.isInCycle(classD));
+      assertTrue("A must be a subclass of B", hierarchy.isSubClassOf(classA, classB));
+      assertTrue("D must be a subclass of A", hierarchy.isSubClassOf(classD, classA));
+      assertFalse("A must not be a subclass of D", hierarchy.isSubClassOf(classA, classD));
+      assertEquals("D must have 3 ancestors", 3, hierarchy.getAncestors(classD).size());
+      assertEquals("A must have 4 descendants", 4, hierarchy.getDescendants(classA).size());
+   }
+
+   /**
+    * Test the update of the index when a superclass is added after the compaction of the schema.
+    */
+   @Test
+   @Order(order = 3)
+   public void testIncrementalUpdate() throws Exception {
+      System.out.println("ClassHierarchyTest : testIncrementalUpdate");
+      OwlSchema schema = new OwlSchema(ModelFactory.createOntologyModel());
+      OwlClass classA = addClass(schema, "A");
+      OwlClass classB = addClass(schema, "B");
+      OwlClass classC = addClass(schema, "C");
+      addSubClassOf(classB, classA);
+      schema.compact();
+      ClassHierarchy hierarchy = schema.getClassHierarchy();
+      assertFalse("C must not be a subclass of A", hierarchy.isSubClassOf(classC, classA));
+
+      addSubClassOf(classC, classB);
+      assertTrue("C must be a subclass of A", hierarchy.isSubClassOf(classC, classA));
+      assertTrue("A must have C as a descendant", hierarchy.getDescendants(classA).contains(classC));
+
+      OwlClass classD = new OwlClass(NS, "D");
+      addSubClassOf(classD, classC);
+      assertTrue("D must be in the index", hierarchy.contains(classD));
+      assertTrue("D must be a subclass of A", hierarchy.isSubClassOf(classD, classA));
+      assertEquals("Must have 4 classes", 4, hierarchy.getClassesCount());
+   }
+
+   /**
+    * Test the transitive closure of a hierarchy with multiple inheritance and cycles, against a traversal of the superclasses.
+    */
+   @Test
+   @Order(order = 4)
+   public void testMultipleInheritance() throws Exception {
+      System.out.println("ClassHierarchyTest : testMultipleInheritance");
+      OwlSchema schema = new OwlSchema(ModelFactory.createOntologyModel());
+      Random random = new Random(42);
+      OwlClass[] classes = new OwlClass[200];
+      for (int i = 0; i < classes.length; i++) {
+         classes[i] = addClass(schema, "Class" + i);
+         if (i > 0) {
+            int parents = 1 + random.nextInt(3);
+            for (int j = 0; j < parents; j++) {
+               addSubClassOf(classes[i], classes[random.nextInt(i)]);
+            }
+         }
+      }
+      // a few cycles
+      addSubClassOf(classes[10], classes[150]);
+      addSubClassOf(classes[60], classes[199]);
+      schema.compact();
+      ClassHierarchy hierarchy = schema.getClassHierarchy();
+      for (int i = 0; i < classes.length; i++) {
+         Set<OwlClass> ancestors = getAncestors(classes[i]);
+         assertEquals("Must have the ancestors of Class" + i, ancestors, toSet(hierarchy.getAncestors(classes[i])));
+         for (int j = 0; j < classes.length; j++) {
+            assertEquals("Class" + i + " subclass of Class" + j, ancestors.contains(classes[j]),
+               hierarchy.isSubClassOf(classes[i], classes[j]));
+            if (ancestors.contains(classes[j])) {
+               assertTrue("Class" + i + " must be a descendant of Class" + j, hierarchy.getDescendants(classes[j]).contains(classes[i]));
+            }
+         }
+      }
+   }
+}
@@ -0,0 +1,134 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.StringReader;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.girod.ontobrowser.BrowserConfiguration;
+import org.girod.ontobrowser.parsers.graph.GraphExtractor;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mdiutil.junit.Order;
+import org.mdiutil.junit.OrderedRunner;
+
+/**
+ *
+ * @since 0.16
+ */
+@RunWith(OrderedRunner.class)
+public class DetachModelTest {
+   private static final String NS = "http://test/detach#";
+   private static boolean includeIndividuals;
+
+   public DetachModelTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+      BrowserConfiguration conf = BrowserConfiguration.getInstance();
+      includeIndividuals = conf.includeIndividuals;
+      conf.includeIndividuals = true;
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+      BrowserConfiguration.getInstance().includeIndividuals = includeIndividuals;
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   private static OntModel createModel() {
+      StringBuilder buf = new StringBuilder();
+      buf.append("@prefix owl: <http://www.w3.org/2002/07/owl#> .\n");
+      buf.append("@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n");
+      buf.append("@prefix : <").append(NS).append("> .\n");
+      buf.append(":Class a owl:Class ; rdfs:comment \"the class\" .\n");
+      buf.append(":prop a owl:DatatypeProperty ; rdfs:domain :Class ; rdfs:comment \"the property\" .\n");
+      buf.append(":individual a owl:NamedIndividual, :Class .\n");
+      OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM);
+      model.read(new StringReader(buf.toString()), null, "TURTLE");
+      return model;
+   }
+
+   /**
+    * Test that a detached schema keeps its annotations, and is attached again to the model loaded by the provider.
+    */
+   @Test
+   @Order(order = 1)
+   public void testDetachAndAttach() throws Exception {
+      System.out.println("DetachModelTest : testDetachAndAttach");
+      OwlSchema schema = new GraphExtractor(new File("detach.ttl"), createModel(), true, false).getGraph();
+      AtomicInteger loads = new AtomicInteger(0);
+      schema.detach(() -> {
+         loads.incrementAndGet();
+         return createModel();
+      });
+      assertFalse("The model must be released", schema.hasOntModel());
+      OwlClass owlClass = schema.getOwlClass(new ElementKey(NS, "Class"));
+      OwlIndividual individual = schema.getIndividual(new ElementKey(NS, "individual"));
+      assertNull("The class must be detached", owlClass.getOntClass());
+      assertNull("The individual must be detached", individual.getIndividual());
+      assertEquals("The annotations must be kept", "the class", owlClass.getComments());
+      assertEquals("The model must not be loaded", 0, loads.get());
+
+      OntModel model = schema.getOntModel();
+      assertNotNull("The model must be loaded", model);
+      assertEquals("The model must be loaded once", 1, loads.get());
+      assertTrue("The class must be attached to the model", owlClass.getOntClass() != null && owlClass.getOntClass().getModel() == model);
+      assertTrue("The individual must be attached to the model", individual.getIndividual() != null
+         && individual.getIndividual().getModel() == model);
+      OwlProperty property = schema.getOwlProperty(new ElementKey(NS, "prop"));
+      assertEquals("The property must be attached to the model", model, property.getProperty().getModel());
+      assertTrue("The model must not be loaded again", schema.getOntModel() == model);
+      assertEquals("The model must be loaded once", 1, loads.get());
+   }
+}
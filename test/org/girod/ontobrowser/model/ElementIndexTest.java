@@ -0,0 +1,178 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StringReader;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.girod.ontobrowser.parsers.graph.GraphExtractor;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mdiutil.junit.Order;
+import org.mdiutil.junit.OrderedRunner;
+
+/**
+ *
+ * @since 0.16
+ */
+@RunWith(OrderedRunner.class)
+public class ElementIndexTest {
+   private static final String NS = "http://test/index#";
+   private static final String SLASH_NS = "http://test/slash/";
+
+   public ElementIndexTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Test the lookup of the elements of an extracted schema from their IRI and from their prefixed name.
+    */
+   @Test
+   @Order(order = 1)
+   public void testLookup() throws Exception {
+      System.out.println("ElementIndexTest : testLookup");
+      StringBuilder buf = new StringBuilder();
+      buf.append("@prefix owl: <http://www.w3.org/2002/07/owl#> .\n");
+      buf.append("@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n");
+      buf.append("@prefix ex: <").append(NS).append("> .\n");
+      buf.append("@prefix sl: <").append(SLASH_NS).append("> .\n");
+      buf.append("ex:Class a owl:Class .\n");
+      buf.append("sl:Other a owl:Class .\n");
+      buf.append("ex:prop a owl:ObjectProperty ; rdfs:domain ex:Class ; rdfs:range sl:Other .\n");
+      buf.append("sl:value a owl:DatatypeProperty ; rdfs:domain ex:Class .\n");
+      OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM);
+      model.read(new StringReader(buf.toString()), null, "TURTLE");
+      OwlSchema schema = new GraphExtractor(new File("index.ttl"), model, true, false).getGraph();
+      ElementIndex index = schema.getElementIndex();
+      assertNotNull("Must have an index", index);
+
+      ElementIndex.Entry entry = index.getEntry(NS + "Class");
+      assertNotNull("Must have the class", entry);
+      assertEquals("Must only be a class", ElementIndex.CLASS, entry.getKinds());
+      assertTrue("Must be the class of the schema", entry.getOwlClass() == schema.getOwlClass(new ElementKey(NS, "Class")));
+      assertTrue("Must return the class", schema.getElement(SLASH_NS + "Other") == schema.getOwlClass(new ElementKey(SLASH_NS, "Other")));
+      assertTrue("Must return the property", schema.getElement(NS + "prop") == schema.getOwlProperty(new ElementKey(NS, "prop")));
+      assertTrue("Must return the property", schema.getElement(SLASH_NS + "value") == schema.getOwlProperty(new ElementKey(SLASH_NS, "value")));
+      assertNull("Must not return an unknown element", schema.getElement(NS + "Unknown"));
+
+      assertTrue("Must return the class from its prefixed name",
+         schema.getElementFromPrefixedName("ex:Class") == schema.getOwlClass(new ElementKey(NS, "Class")));
+      assertNull("Must not return an unknown prefix", schema.getElementFromPrefixedName("unknown:Class"));
+   }
+
+   /**
+    * Test an IRI which is used for a class and an individual, and an individual added after the creation of the index.
+    */
+   @Test
+   @Order(order = 2)
+   public void testKinds() throws Exception {
+      System.out.println("ElementIndexTest : testKinds");
+      OntModel model = ModelFactory.createOntologyModel();
+      OwlSchema schema = new OwlSchema(model);
+      OwlClass owlClass = new OwlClass(NS, "Pun");
+      schema.addOwlClass(owlClass);
+      schema.compact();
+      ElementIndex index = schema.getElementIndex();
+      assertFalse("Must not have an individual", index.getEntry(NS + "Pun").hasKind(ElementIndex.INDIVIDUAL));
+
+      Resource resource = model.createResource(NS + "Pun");
+      OwlIndividual individual = new OwlIndividual(owlClass, resource);
+      schema.addIndividual(individual);
+      ElementIndex.Entry entry = index.getEntry(NS + "Pun");
+      assertTrue("Must have a class", entry.hasKind(ElementIndex.CLASS));
+      assertTrue("Must have an individual", entry.hasKind(ElementIndex.INDIVIDUAL));
+      assertFalse("Must not have a property", entry.hasKind(ElementIndex.PROPERTY));
+      assertTrue("Must return the individual first", entry.getElement() == individual);
+      assertTrue("Must return the class", entry.getOwlClass() == owlClass);
+   }
+
+   /**
+    * Test that the index is only created when an element is looked up, and that it is created again for a serialized schema.
+    */
+   @Test
+   @Order(order = 3)
+   public void testLazyIndex() throws Exception {
+      System.out.println("ElementIndexTest : testLazyIndex");
+      OntModel model = ModelFactory.createOntologyModel();
+      OwlSchema schema = new OwlSchema(model);
+      assertNull("Must not have an index before the schema is compacted", schema.getElementIndex());
+      schema.addOwlClass(new OwlClass(NS, "First"));
+      schema.compact();
+      // added after the compaction but before the first lookup
+      OwlClass second = new OwlClass(NS, "Second");
+      schema.addOwlClass(second);
+      assertTrue("Must return the class added after the compaction", schema.getElement(NS + "Second") == second);
+
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+         out.writeObject(schema);
+      }
+      OwlSchema readSchema;
+      try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+         readSchema = (OwlSchema) in.readObject();
+      }
+      assertTrue("Must return the class of the serialized schema",
+         readSchema.getElement(NS + "First") == readSchema.getOwlClass(new ElementKey(NS, "First")));
+   }
+}
@@ -0,0 +1,209 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.StringReader;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.girod.ontobrowser.parsers.graph.GraphExtractor;
+import org.girod.ontobrowser.utils.SchemaUtils;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mdiutil.junit.Order;
+import org.mdiutil.junit.OrderedRunner;
+
+/**
+ *
+ * @since 0.16
+ */
+@RunWith(OrderedRunner.class)
+public class EquivalenceGroupsTest {
+   private static final String NS = "http://test/equivalence#";
+
+   public EquivalenceGroupsTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Test the union of groups.
+    */
+   @Test
+   @Order(order = 1)
+   public void testUnion() throws Exception {
+      System.out.println("EquivalenceGroupsTest : testUnion");
+      EquivalenceGroups<OwlClass> groups = new EquivalenceGroups<>();
+      OwlClass[] classes = new OwlClass[40];
+      for (int i = 0; i < classes.length; i++) {
+         classes[i] = new OwlClass(NS, "Class" + i);
+      }
+      // two chains of equivalences: the even classes and the odd classes
+      for (int i = 2; i < classes.length; i++) {
+         assertTrue("The classes must not be equivalent yet", groups.union(classes[i - 2], classes[i]));
+      }
+      assertFalse("The classes must already be equivalent", groups.union(classes[0], classes[38]));
+      assertEquals("Must have 2 groups", 2, groups.getGroupsCount());
+      assertTrue("Class0 and Class38 must be equivalent", groups.isEquivalent(classes[0], classes[38]));
+      assertFalse("Class0 and Class1 must not be equivalent", groups.isEquivalent(classes[0], classes[1]));
+      assertTrue("The representative must be the same",
+         groups.getRepresentative(classes[0]) == groups.getRepresentative(classes[20]));
+      assertEquals("The group must have 20 members", 20, groups.getGroup(classes[4]).size());
+
+      assertTrue("The groups must be merged", groups.union(classes[3], classes[10]));
+      assertEquals("Must have 1 group", 1, groups.getGroupsCount());
+      assertTrue("Class1 and Class0 must be equivalent", groups.isEquivalent(classes[1], classes[0]));
+      List<OwlClass> group = groups.getGroup(classes[39]);
+      assertEquals("The group must have all the classes", classes.length, new HashSet<>(group).size());
+      Map<ElementKey, OwlClass> equivalent = groups.getEquivalentElements(classes[5]);
+      assertEquals("Must have the other classes", classes.length - 1, equivalent.size());
+      assertFalse("Must not have the class itself", equivalent.containsKey(classes[5].getKey()));
+   }
+
+   /**
+    * Test the elements which are not in any group.
+    */
+   @Test
+   @Order(order = 2)
+   public void testSingleElement() throws Exception {
+      System.out.println("EquivalenceGroupsTest : testSingleElement");
+      EquivalenceGroups<OwlClass> groups = new EquivalenceGroups<>();
+      OwlClass classA = new OwlClass(NS, "A");
+      OwlClass classB = new OwlClass(NS, "B");
+      assertTrue("The class must be equivalent to itself", groups.isEquivalent(classA, classA));
+      assertFalse("The classes must not be equivalent", groups.isEquivalent(classA, classB));
+      assertTrue("The class must be its own representative", groups.getRepresentative(classA) == classA);
+      assertEquals("The group must only have the class", 1, groups.getGroup(classA).size());
+      assertTrue("Must have no equivalent classes", groups.getEquivalentElements(classA).isEmpty());
+      assertEquals("Must have no groups", 0, groups.getGroupsCount());
+   }
+
+   /**
+    * Test the equivalent classes of an extracted schema, which are equivalent through another class.
+    */
+   @Test
+   @Order(order = 3)
+   public void testExtractedEquivalence() throws Exception {
+      System.out.println("EquivalenceGroupsTest : testExtractedEquivalence");
+      StringBuilder buf = new StringBuilder();
+      buf.append("@prefix owl: <http://www.w3.org/2002/07/owl#> .\n");
+      buf.append("@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n");
+      buf.append("@prefix : <").append(NS).append("> .\n");
+      buf.append(":A a owl:Class ; owl:equivalentClass :B .\n");
+      buf.append(":B a owl:Class .\n");
+      buf.append(":C a owl:Class ; owl:equivalentClass :B .\n");
+      buf.append(":D a owl:Class .\n");
+      OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM);
+      model.read(new StringReader(buf.toString()), null, "TURTLE");
+      OwlSchema schema = new GraphExtractor(new File("equivalence.ttl"), model, true, false).getGraph();
+
+      OwlClass classA = schema.getOwlClass(new ElementKey(NS, "A"));
+      OwlClass classC = schema.getOwlClass(new ElementKey(NS, "C"));
+      OwlClass classD = schema.getOwlClass(new ElementKey(NS, "D"));
+      EquivalenceGroups<OwlClass> groups = schema.getEquivalentClassesGroups();
+      assertTrue("A and C must be equivalent", groups.isEquivalent(classA, classC));
+      assertFalse("A and D must not be equivalent", groups.isEquivalent(classA, classD));
+      Set<ElementKey> expected = new HashSet<>();
+      expected.add(new ElementKey(NS, "A"));
+      expected.add(new ElementKey(NS, "B"));
+      assertEquals("Must have the classes equivalent to C", expected, schema.getEquivalentClasses(classC).keySet());
+   }
+
+   /**
+    * Test the mutual equivalences of an extracted schema: each class must keep its alias, and the properties of the alias class
+    * must be visible from both classes.
+    */
+   @Test
+   @Order(order = 4)
+   public void testMutualEquivalence() throws Exception {
+      System.out.println("EquivalenceGroupsTest : testMutualEquivalence");
+      StringBuilder buf = new StringBuilder();
+      buf.append("@prefix owl: <http://www.w3.org/2002/07/owl#> .\n");
+      buf.append("@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n");
+      buf.append("@prefix : <").append(NS).append("> .\n");
+      buf.append(":A a owl:Class ; owl:equivalentClass :B .\n");
+      buf.append(":B a owl:Class ; owl:equivalentClass :A .\n");
+      buf.append(":C a owl:Class .\n");
+      buf.append(":pa a owl:ObjectProperty ; rdfs:domain :A ; rdfs:range :C .\n");
+      buf.append(":pb a owl:ObjectProperty ; rdfs:domain :B ; rdfs:range :C .\n");
+      buf.append(":qa a owl:ObjectProperty ; owl:equivalentProperty :qb .\n");
+      buf.append(":qb a owl:ObjectProperty ; owl:equivalentProperty :qa .\n");
+      OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM);
+      model.read(new StringReader(buf.toString()), null, "TURTLE");
+      OwlSchema schema = new GraphExtractor(new File("equivalence.ttl"), model, true, false).getGraph();
+
+      OwlClass classA = schema.getOwlClass(new ElementKey(NS, "A"));
+      OwlClass classB = schema.getOwlClass(new ElementKey(NS, "B"));
+      assertTrue("A must have an alias", classA.getAliasClasses().containsKey(classB.getKey()));
+      assertTrue("B must have an alias", classB.getAliasClasses().containsKey(classA.getKey()));
+      assertEquals("Must have 1 group of classes", 1, schema.getEquivalentClassesGroups().getGroupsCount());
+
+      Set<ElementKey> expected = new HashSet<>();
+      expected.add(new ElementKey(NS, "pa"));
+      expected.add(new ElementKey(NS, "pb"));
+      ElementFilter filter = new ElementFilter(false, true);
+      assertEquals("Must have the domain properties of A and B", expected, SchemaUtils.getDomainProperties(classA, filter).keySet());
+      assertEquals("Must have the domain properties of A and B", expected, SchemaUtils.getDomainProperties(classB, filter).keySet());
+
+      OwlProperty propertyA = schema.getOwlProperty(new ElementKey(NS, "qa"));
+      OwlProperty propertyB = schema.getOwlProperty(new ElementKey(NS, "qb"));
+      assertTrue("qa must have an alias", propertyA.getAliasProperties().containsKey(propertyB.getKey()));
+      assertTrue("qb must have an alias", propertyB.getAliasProperties().containsKey(propertyA.getKey()));
+   }
+}
@@ -0,0 +1,147 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.StringReader;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.girod.ontobrowser.parsers.graph.GraphExtractor;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mdiutil.junit.Order;
+import org.mdiutil.junit.OrderedRunner;
+
+/**
+ *
+ * @since 0.16
+ */
+@RunWith(OrderedRunner.class)
+public class IRIDictionaryTest {
+   private static final String NS = "http://test/dictionary#";
+
+   public IRIDictionaryTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Test the canonical keys.
+    */
+   @Test
+   @Order(order = 1)
+   public void testCanonicalKeys() throws Exception {
+      System.out.println("IRIDictionaryTest : testCanonicalKeys");
+      IRIDictionary dictionary = new IRIDictionary();
+      ElementKey key = dictionary.getKey(NS, "Class");
+      assertTrue("Key must be canonical", key.isCanonical());
+      assertTrue("Must return the same key", key == dictionary.getKey(NS, "Class"));
+      assertTrue("Must return the canonical key", key == dictionary.getKey(new ElementKey(NS, "Class")));
+      assertTrue("Must return the canonical key", key == dictionary.getKeyFromIRI(NS + "Class"));
+      assertTrue("Must return the key from its id", key == dictionary.getKey(key.getId()));
+      assertFalse("Keys must be different", key == dictionary.getKey(NS, "Other"));
+      assertEquals("Must have 2 keys", 2, dictionary.size());
+      assertEquals("Must have 1 namespace", 1, dictionary.getNamespacesCount());
+   }
+
+   /**
+    * Test the keys without namespace or without name.
+    */
+   @Test
+   @Order(order = 2)
+   public void testNullKeys() throws Exception {
+      System.out.println("IRIDictionaryTest : testNullKeys");
+      IRIDictionary dictionary = new IRIDictionary();
+      ElementKey noNameKey = dictionary.getKey(NS, null);
+      assertNotNull("Key must exist", noNameKey);
+      assertNull("Key must have no name", noNameKey.getName());
+      assertTrue("Must return the same key", noNameKey == dictionary.getKey(NS, null));
+      assertEquals("Key must be equal to a non canonical key", new ElementKey(NS, null), noNameKey);
+      ElementKey emptyNameKey = dictionary.getKey(NS, "");
+      assertFalse("An empty name must not be confused with no name", noNameKey.equals(emptyNameKey));
+
+      ElementKey anonymousKey = dictionary.getKey(null, null);
+      assertNull("Key must have no namespace", anonymousKey.getNamespace());
+      assertNull("Key must have no name", anonymousKey.getName());
+      assertTrue("Must return the same key", anonymousKey == dictionary.getKey(null, null));
+      assertEquals("Must have 3 keys", 3, dictionary.size());
+   }
+
+   /**
+    * Test the extraction of a property with an anonymous super-property.
+    */
+   @Test
+   @Order(order = 3)
+   public void testAnonymousSuperProperty() throws Exception {
+      System.out.println("IRIDictionaryTest : testAnonymousSuperProperty");
+      StringBuilder buf = new StringBuilder();
+      buf.append("@prefix owl: <http://www.w3.org/2002/07/owl#> .\n");
+      buf.append("@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n");
+      buf.append("@prefix : <").append(NS).append("> .\n");
+      buf.append(":Class a owl:Class .\n");
+      buf.append(":prop a owl:ObjectProperty ; rdfs:domain :Class ; rdfs:range :Class ; rdfs:subPropertyOf [ a owl:ObjectProperty ] .\n");
+      OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM);
+      model.read(new StringReader(buf.toString()), null, "TURTLE");
+      OwlSchema schema = new GraphExtractor(new File("dictionary.ttl"), model, true, false).getGraph();
+      assertNotNull("Schema must exist", schema);
+
+      ElementKey key = schema.getElementKey(NS, "prop");
+      OwlProperty property = schema.getOwlProperty(key);
+      assertNotNull("Property must exist", property);
+      assertFalse("Property must not have a named super-property", property.getSuperProperties().containsKey(new ElementKey(NS, null)));
+   }
+}
@@ -0,0 +1,238 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StringReader;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.girod.ontobrowser.parsers.graph.GraphExtractor;
+import org.girod.ontobrowser.script.OwlScriptHelper;
+import org.girod.ontobrowser.utils.SchemaUtils;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mdiutil.junit.Order;
+import org.mdiutil.junit.OrderedRunner;
+
+/**
+ *
+ * @since 0.16
+ */
+@RunWith(OrderedRunner.class)
+public class SchemaGraphTest {
+   private static final String NS = "http://test/graph#";
+
+   public SchemaGraphTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   private static OwlSchema getSchema() {
+      StringBuilder buf = new StringBuilder();
+      buf.append("@prefix owl: <http://www.w3.org/2002/07/owl#> .\n");
+      buf.append("@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n");
+      buf.append("@prefix : <").append(NS).append("> .\n");
+      buf.append(":B a owl:Class .\n");
+      buf.append(":A a owl:Class ; rdfs:subClassOf :B .\n");
+      buf.append(":C a owl:Class ; rdfs:subClassOf :B .\n");
+      buf.append(":prop a owl:ObjectProperty ; rdfs:domain :A ; rdfs:range :C .\n");
+      buf.append(":subProp a owl:ObjectProperty ; rdfs:subPropertyOf :prop .\n");
+      OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM);
+      model.read(new StringReader(buf.toString()), null, "TURTLE");
+      return new GraphExtractor(new File("graph.ttl"), model, true, false).getGraph();
+   }
+
+   private static Set<ElementKey> getTargets(SchemaGraph graph, SchemaGraph.Relation relation, int id, boolean isClass) {
+      Set<ElementKey> keys = new HashSet<>();
+      for (int i = relation.getStart(id); i < relation.getEnd(id); i++) {
+         int target = relation.getTarget(i);
+         keys.add(isClass ? graph.getOwlClass(target).getKey() : graph.getOwlProperty(target).getKey());
+      }
+      return keys;
+   }
+
+   /**
+    * Test the relations of the graph.
+    */
+   @Test
+   @Order(order = 1)
+   public void testRelations() throws Exception {
+      System.out.println("SchemaGraphTest : testRelations");
+      OwlSchema schema = getSchema();
+      SchemaGraph graph = schema.getSchemaGraph();
+      assertNotNull("Must have a graph", graph);
+      OwlClass classB = schema.getOwlClass(new ElementKey(NS, "B"));
+      OwlClass classA = schema.getOwlClass(new ElementKey(NS, "A"));
+      int idB = graph.getId(classB);
+      assertTrue("B must be bound to the graph", idB >= 0);
+      assertTrue("Must return the class of the id", graph.getOwlClass(idB) == classB);
+
+      SchemaGraph.Relation subClasses = graph.getClassRelation(SchemaGraph.SUB_CLASSES);
+      assertEquals("B must have 2 subclasses", 2, subClasses.getDegree(idB));
+      Set<ElementKey> expected = new HashSet<>();
+      expected.add(new ElementKey(NS, "A"));
+      expected.add(new ElementKey(NS, "C"));
+      assertEquals("Must have the subclasses of B", expected, getTargets(graph, subClasses, idB, true));
+      assertEquals("The subclasses view must have the same keys", expected, classB.getSubClasses().keySet());
+      assertTrue("The subclasses view must have the classes", classB.getSubClasses().get(new ElementKey(NS, "A")) == classA);
+
+      SchemaGraph.Relation domain = graph.getClassRelation(SchemaGraph.DOMAIN_PROPERTIES);
+      Set<ElementKey> properties = getTargets(graph, domain, graph.getId(classA), false);
+      assertTrue("A must be the domain of prop", properties.contains(new ElementKey(NS, "prop")));
+
+      OwlProperty subProp = schema.getOwlProperty(new ElementKey(NS, "subProp"));
+      SchemaGraph.Relation superProperties = graph.getPropertyRelation(SchemaGraph.SUPER_PROPERTIES);
+      Set<ElementKey> superKeys = getTargets(graph, superProperties, graph.getId(subProp), false);
+      assertTrue("prop must be a super property of subProp", superKeys.contains(new ElementKey(NS, "prop")));
+      assertEquals("The super properties view must have the same keys", superKeys, subProp.getSuperProperties().keySet());
+   }
+
+   /**
+    * Test that the graph is created again when an element is modified after its creation.
+    */
+   @Test
+   @Order(order = 2)
+   public void testStaleGraph() throws Exception {
+      System.out.println("SchemaGraphTest : testStaleGraph");
+      OwlSchema schema = getSchema();
+      SchemaGraph graph = schema.getSchemaGraph();
+      OwlClass classB = schema.getOwlClass(new ElementKey(NS, "B"));
+      OwlClass classC = schema.getOwlClass(new ElementKey(NS, "C"));
+      OwlClass classA = schema.getOwlClass(new ElementKey(NS, "A"));
+      classC.addSubClass(classA.getKey(), classA);
+      assertTrue("The graph must be stale", graph.isStale());
+      assertEquals("C must not be bound to the graph", -1, graph.getId(classC));
+      assertTrue("C must have the new subclass", classC.getSubClasses().containsKey(classA.getKey()));
+      assertEquals("B must still have 2 subclasses", 2, classB.getSubClasses().size());
+
+      SchemaGraph newGraph = schema.getSchemaGraph();
+      assertFalse("The graph must be created again", newGraph == graph);
+      assertFalse("The new graph must not be stale", newGraph.isStale());
+      int idC = newGraph.getId(classC);
+      assertTrue("C must be bound to the new graph", idC >= 0);
+      assertEquals("C must have 1 subclass in the new graph", 1, newGraph.getClassRelation(SchemaGraph.SUB_CLASSES).getDegree(idC));
+   }
+
+   /**
+    * Test that the graph is kept when the schema is serialized.
+    */
+   @Test
+   @Order(order = 3)
+   public void testSerialization() throws Exception {
+      System.out.println("SchemaGraphTest : testSerialization");
+      OwlSchema schema = getSchema();
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+         out.writeObject(schema);
+      }
+      OwlSchema readSchema;
+      try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+         readSchema = (OwlSchema) in.readObject();
+      }
+      SchemaGraph graph = readSchema.getSchemaGraph();
+      assertNotNull("Must have a graph", graph);
+      OwlClass classB = readSchema.getOwlClass(new ElementKey(NS, "B"));
+      assertTrue("B must be bound to the graph", graph.getId(classB) >= 0);
+      assertEquals("B must have 2 subclasses", 2, classB.getSubClasses().size());
+      assertTrue("The subclasses must be the classes of the schema",
+         classB.getSubClasses().get(new ElementKey(NS, "A")) == readSchema.getOwlClass(new ElementKey(NS, "A")));
+   }
+
+   /**
+    * Test that the inherited properties are unmodifiable, and that the Script helper returns a copy.
+    */
+   @Test
+   @Order(order = 4)
+   public void testInheritedProperties() throws Exception {
+      System.out.println("SchemaGraphTest : testInheritedProperties");
+      OwlSchema schema = getSchema();
+      OwlClass classA = schema.getOwlClass(new ElementKey(NS, "A"));
+      OwlClass classC = schema.getOwlClass(new ElementKey(NS, "C"));
+      ElementKey propKey = new ElementKey(NS, "prop");
+      ElementFilter filter = new ElementFilter();
+      Map<ElementKey, OwlProperty> properties = SchemaUtils.getDomainProperties(classA, filter);
+      assertTrue("A must be the domain of prop", properties.containsKey(propKey));
+      assertTrue("The properties must be unmodifiable", isUnmodifiable(properties));
+
+      Map<ElementKey, OwlProperty> copy = OwlScriptHelper.getDomainProperties(classA, filter);
+      assertFalse("The copy must be modifiable", isUnmodifiable(copy));
+      copy.clear();
+      assertTrue("The copy must not change the properties", SchemaUtils.getDomainProperties(classA, filter).containsKey(propKey));
+
+      // the properties are computed without the graph when the graph is stale
+      classC.addSubClass(classA.getKey(), classA);
+      assertTrue("The graph must be stale", classA.getSchemaGraph().isStale());
+      properties = SchemaUtils.getDomainProperties(classA, filter);
+      assertTrue("A must still be the domain of prop", properties.containsKey(propKey));
+      assertTrue("The properties of a stale graph must be unmodifiable", isUnmodifiable(properties));
+   }
+
+   private static boolean isUnmodifiable(Map<ElementKey, OwlProperty> map) {
+      try {
+         map.put(new ElementKey(NS, "other"), null);
+         return false;
+      } catch (UnsupportedOperationException ex) {
+         return true;
+      }
+   }
+}
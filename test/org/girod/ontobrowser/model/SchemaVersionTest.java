@@ -0,0 +1,174 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.io.File;
+import java.io.StringReader;
+import org.apache.jena.ontology.Individual;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.RDFS;
+import org.girod.ontobrowser.parsers.graph.GraphExtractor;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mdiutil.junit.Order;
+import org.mdiutil.junit.OrderedRunner;
+
+/**
+ *
+ * @since 0.16
+ */
+@RunWith(OrderedRunner.class)
+public class SchemaVersionTest {
+   private static final String NS = "http://test/version#";
+
+   public SchemaVersionTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   private static OwlSchema getSchema() {
+      StringBuilder buf = new StringBuilder();
+      buf.append("@prefix owl: <http://www.w3.org/2002/07/owl#> .\n");
+      buf.append("@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n");
+      buf.append("@prefix : <").append(NS).append("> .\n");
+      buf.append(":Class a owl:Class ; rdfs:label \"Class\" ; rdfs:comment \"the class\" ; rdfs:seeAlso <http://test/other> .\n");
+      buf.append(":Other a owl:Class ; rdfs:comment \"the other class\" .\n");
+      OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM);
+      model.read(new StringReader(buf.toString()), null, "TURTLE");
+      OwlSchema schema = new GraphExtractor(new File("version.ttl"), model, true, false).getGraph();
+      schema.setReadOnly();
+      return schema;
+   }
+
+   /**
+    * Test that a new version does not materialize the annotations which are still pending.
+    */
+   @Test
+   @Order(order = 1)
+   public void testPendingAnnotations() throws Exception {
+      System.out.println("SchemaVersionTest : testPendingAnnotations");
+      OwlSchema schema = getSchema();
+      OwlClass owlClass = schema.getOwlClass(new ElementKey(NS, "Class"));
+      OwlClass otherClass = schema.getOwlClass(new ElementKey(NS, "Other"));
+      assertEquals("Must have the comment", "the other class", otherClass.getDocumentation().getComments());
+      assertTrue("Annotations must be pending", owlClass.hasPendingAnnotations());
+
+      OwlSchema version = schema.newVersion();
+      assertEquals("Must have a new snapshot version", schema.getSnapshotVersion() + 1, version.getSnapshotVersion());
+      assertTrue("Annotations must still be pending in the schema", owlClass.hasPendingAnnotations());
+      OwlClass versionClass = version.getOwlClass(new ElementKey(NS, "Class"));
+      OwlClass versionOther = version.getOwlClass(new ElementKey(NS, "Other"));
+      assertTrue("Annotations must be pending in the new version", versionClass.hasPendingAnnotations());
+      assertFalse("Materialized annotations must be copied", versionOther.hasPendingAnnotations());
+      assertEquals("Must have the comment", "the other class", versionOther.getDocumentation().getComments());
+      assertEquals("Must have the label", "Class", versionClass.getLabel());
+
+      assertEquals("Must have the comment", "the class", versionClass.getDocumentation().getComments());
+      AnnotationValue seeAlso = versionClass.getAnnotation(AnnotatedElement.SEE_ALSO);
+      assertNotNull("Must have a seeAlso annotation", seeAlso);
+      assertTrue("The annotation must be the one of the new version",
+         seeAlso.getAnnotation() == version.getElementAnnotation(AnnotatedElement.SEE_ALSO));
+      assertTrue("Annotations must still be pending in the schema", owlClass.hasPendingAnnotations());
+   }
+
+   /**
+    * Test that the modifications of the model of a new version are only added to the model when they are committed.
+    */
+   @Test
+   @Order(order = 2)
+   public void testWritableModel() throws Exception {
+      System.out.println("SchemaVersionTest : testWritableModel");
+      OwlSchema schema = getSchema();
+      OntModel model = schema.getOntModel();
+      long size = model.size();
+      OwlSchema version = schema.newVersion();
+      OwlClass owlClass = version.getOwlClass(new ElementKey(NS, "Class"));
+      Individual individual = version.getWritableModel().createIndividual(NS + "individual", owlClass.getOntClass());
+      version.addIndividual(new OwlIndividual(owlClass, individual));
+      Resource classResource = owlClass.getOntClass().inModel(version.getWritableModel());
+      classResource.addProperty(RDFS.comment, "added");
+      assertEquals("The model must not be modified", size, model.size());
+      assertFalse("The schema must not have the individual", schema.hasIndividual(new ElementKey(NS, "individual")));
+
+      version.setReadOnly();
+      version.commitModel();
+      assertEquals("The model must be modified", size + 2, model.size());
+      OwlIndividual owlIndividual = version.getIndividual(new ElementKey(NS, "individual"));
+      assertTrue("The individual must be attached to the model", owlIndividual.getIndividual().getModel() == model);
+   }
+
+   /**
+    * Test that the annotations can not be added to a read-only schema.
+    */
+   @Test
+   @Order(order = 3)
+   public void testReadOnlyAnnotations() throws Exception {
+      System.out.println("SchemaVersionTest : testReadOnlyAnnotations");
+      OwlSchema schema = getSchema();
+      try {
+         schema.addElementAnnotation(new OwlAnnotation(new ElementKey(NS, "note")));
+         fail("Must not add an annotation to a read-only schema");
+      } catch (IllegalStateException ex) {
+      }
+      OwlSchema version = schema.newVersion();
+      version.addElementAnnotation(new OwlAnnotation(new ElementKey(NS, "note")));
+      assertTrue("Must have the annotation", version.hasElementAnnotation(new ElementKey(NS, "note")));
+      assertFalse("Must not have the annotation", schema.hasElementAnnotation(new ElementKey(NS, "note")));
+   }
+}
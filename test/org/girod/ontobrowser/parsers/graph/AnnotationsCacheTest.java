@@ -0,0 +1,182 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.parsers.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.girod.ontobrowser.model.AnnotatedElement;
+import org.girod.ontobrowser.model.AnnotationValue;
+import org.girod.ontobrowser.model.ElementKey;
+import org.girod.ontobrowser.model.OwlClass;
+import org.girod.ontobrowser.model.OwlSchema;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mdiutil.junit.Order;
+import org.mdiutil.junit.OrderedRunner;
+
+/**
+ *
+ * @since 0.16
+ */
+@RunWith(OrderedRunner.class)
+public class AnnotationsCacheTest {
+   private static final String NS = "http://test/annotations#";
+   private static final int CLASSES = 50;
+   private static OwlSchema schema;
+
+   public AnnotationsCacheTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+      StringBuilder buf = new StringBuilder();
+      buf.append("@prefix owl: <http://www.w3.org/2002/07/owl#> .\n");
+      buf.append("@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n");
+      buf.append("@prefix : <").append(NS).append("> .\n");
+      buf.append(":note a owl:AnnotationProperty .\n");
+      for (int i = 0; i < CLASSES; i++) {
+         buf.append(":Class").append(i).append(" a owl:Class ; rdfs:label \"Class ").append(i).append("\" ; rdfs:comment \"comment ")
+            .append(i).append("\" ; :note \"note ").append(i).append("\" ; rdfs:seeAlso <http://test/other> ; rdfs:isDefinedBy <")
+            .append(NS).append("> .\n");
+      }
+      OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM);
+      model.read(new StringReader(buf.toString()), null, "TURTLE");
+      schema = new GraphExtractor(new File("annotations.ttl"), model, true, false).getGraph();
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+      schema = null;
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Test that the materialization of the annotations does not register new annotations in the schema.
+    */
+   @Test
+   @Order(order = 1)
+   public void testRegisteredAnnotations() throws Exception {
+      System.out.println("AnnotationsCacheTest : testRegisteredAnnotations");
+      Set<ElementKey> registered = new HashSet<>(schema.getElementAnnotations().keySet());
+      assertTrue("seeAlso must be registered at extraction", registered.contains(AnnotatedElement.SEE_ALSO));
+      assertTrue("isDefinedBy must be registered at extraction", registered.contains(AnnotatedElement.DEFINED_BY));
+      assertTrue("note must be registered at extraction", registered.contains(new ElementKey(NS, "note")));
+
+      OwlClass owlClass = schema.getOwlClass(new ElementKey(NS, "Class0"));
+      assertTrue("The annotations must not be materialized yet", owlClass.hasPendingAnnotations());
+      AnnotationValue seeAlso = owlClass.getAnnotation(AnnotatedElement.SEE_ALSO);
+      assertNotNull("Class0 must have a seeAlso annotation", seeAlso);
+      assertTrue("The seeAlso annotation must be the registered one",
+         seeAlso.getAnnotation() == schema.getElementAnnotation(AnnotatedElement.SEE_ALSO));
+      Iterator<OwlClass> it = schema.getOwlClasses().values().iterator();
+      while (it.hasNext()) {
+         it.next().getAnnotations();
+      }
+      assertEquals("The materialization must not register annotations", registered, schema.getElementAnnotations().keySet());
+   }
+
+   /**
+    * Test the access to the annotations while they are evicted by other threads.
+    */
+   @Test
+   @Order(order = 2)
+   public void testConcurrentEviction() throws Exception {
+      System.out.println("AnnotationsCacheTest : testConcurrentEviction");
+      AnnotationsCache cache = new AnnotationsCache(schema, new AnnotationsHelper(schema, null), 2);
+      List<OwlClass> classes = new ArrayList<>();
+      Iterator<OwlClass> it = schema.getOwlClasses().values().iterator();
+      while (it.hasNext()) {
+         OwlClass owlClass = it.next();
+         if (!owlClass.isThing()) {
+            owlClass.evictAnnotations(cache);
+            classes.add(owlClass);
+         }
+      }
+      AtomicReference<Throwable> failure = new AtomicReference<>();
+      List<Thread> threads = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+         Thread thread = new Thread(() -> {
+            try {
+               for (int round = 0; round < 1000; round++) {
+                  for (int i = 0; i < classes.size(); i++) {
+                     OwlClass owlClass = classes.get(i);
+                     Map<ElementKey, AnnotationValue> annotations = owlClass.getAnnotations();
+                     int count = 0;
+                     Iterator<AnnotationValue> it2 = annotations.values().iterator();
+                     while (it2.hasNext()) {
+                        assertNotNull(it2.next());
+                        count++;
+                     }
+                     assertTrue("The annotations must be complete", count >= 4);
+                     assertNotNull("The comments must be materialized", owlClass.getComments());
+                  }
+               }
+            } catch (Throwable ex) {
+               failure.compareAndSet(null, ex);
+            }
+         });
+         threads.add(thread);
+         thread.start();
+      }
+      for (int i = 0; i < threads.size(); i++) {
+         threads.get(i).join();
+      }
+      assertNull("No thread must fail", failure.get());
+      assertTrue("The cache must keep at most 2 elements", cache.size() <= 2);
+   }
+}
@@ -0,0 +1,169 @@
+/*
+Copyright (c) 2024 Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.parsers.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.StringReader;
+import java.util.List;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.girod.ontobrowser.model.AnnotatedElement;
+import org.girod.ontobrowser.model.ElementKey;
+import org.girod.ontobrowser.model.OwlClass;
+import org.girod.ontobrowser.model.OwlProperty;
+import org.girod.ontobrowser.model.OwlSchema;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mdiutil.junit.Order;
+import org.mdiutil.junit.OrderedRunner;
+
+/**
+ *
+ * @since 0.16
+ */
+@RunWith(OrderedRunner.class)
+public class AnnotationsPatchTest {
+   private static final String NS = "http://test/patch#";
+   private static final String PREFIXES = "@prefix owl: <http://www.w3.org/2002/07/owl#> .\n"
+      + "@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n"
+      + "@prefix : <" + NS + "> .\n";
+
+   public AnnotationsPatchTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   private static String getContent(String comment, String note, String extra) {
+      StringBuilder buf = new StringBuilder();
+      buf.append(PREFIXES);
+      buf.append(":note a owl:AnnotationProperty .\n");
+      buf.append(":A a owl:Class ; rdfs:label \"A\" ; rdfs:comment \"").append(comment).append("\" .\n");
+      buf.append(":B a owl:Class ; rdfs:subClassOf :A .\n");
+      buf.append(":p a owl:ObjectProperty ; rdfs:domain :A ; :note \"").append(note).append("\" .\n");
+      buf.append(extra);
+      return buf.toString();
+   }
+
+   private static Model parse(String content) {
+      Model model = ModelFactory.createDefaultModel();
+      model.read(new StringReader(content), null, "TURTLE");
+      return model;
+   }
+
+   /**
+    * Test the refresh of the annotations of a class and a property.
+    */
+   @Test
+   @Order(order = 1)
+   public void testAnnotationsChanges() throws Exception {
+      System.out.println("AnnotationsPatchTest : testAnnotationsChanges");
+      OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM);
+      model.read(new StringReader(getContent("first", "first note", "")), null, "TURTLE");
+      OwlSchema schema = new GraphExtractor(new File("patch.ttl"), model, true, false).getGraph();
+      OwlClass classA = schema.getOwlClass(new ElementKey(NS, "A"));
+      OwlProperty property = schema.getOwlProperty(new ElementKey(NS, "p"));
+      ElementKey noteKey = new ElementKey(NS, "note");
+      // the annotations of the class are pinned, so they could not be evicted
+      classA.pinAnnotations();
+      assertEquals("Comment of A", "first", classA.getComments());
+      assertEquals("Note of p", "first note", property.getAnnotation(noteKey).getLiteral());
+
+      Model current = parse(getContent("second", "second note", ""));
+      ModelDiff diff = new ModelDiff(model.getBaseModel(), current);
+      AnnotationsPatch patch = new AnnotationsPatch(schema, diff);
+      assertTrue("The patch must be applicable", patch.isApplicable());
+      List<AnnotatedElement> elements = patch.getElements();
+      assertEquals("Must have 2 changed elements", 2, elements.size());
+      assertTrue("A must have changed", elements.contains(classA));
+      assertTrue("p must have changed", elements.contains(property));
+
+      diff.apply(model.getBaseModel());
+      model.rebind();
+      patch.apply();
+      assertEquals("Comment of A", "second", classA.getComments());
+      assertEquals("Label of A", "A", classA.getLabel());
+      assertEquals("Note of p", "second note", property.getAnnotation(noteKey).getLiteral());
+      assertTrue("A must still be a superclass of B", schema.isSubClassOf(schema.getOwlClass(new ElementKey(NS, "B")), classA));
+   }
+
+   /**
+    * Test the changes which need the schema to be extracted again.
+    */
+   @Test
+   @Order(order = 2)
+   public void testStructuralChanges() throws Exception {
+      System.out.println("AnnotationsPatchTest : testStructuralChanges");
+      String content = getContent("first", "first note", "");
+      OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM);
+      model.read(new StringReader(content), null, "TURTLE");
+      OwlSchema schema = new GraphExtractor(new File("patch.ttl"), model, true, false).getGraph();
+
+      ModelDiff diff = new ModelDiff(model.getBaseModel(), parse(getContent("first", "first note", ":C a owl:Class .\n")));
+      assertFalse("A new class must not be patched", new AnnotationsPatch(schema, diff).isApplicable());
+
+      diff = new ModelDiff(model.getBaseModel(), parse(getContent("first", "first note", ":B rdfs:subClassOf :C .\n")));
+      assertFalse("A new superclass must not be patched", new AnnotationsPatch(schema, diff).isApplicable());
+
+      diff = new ModelDiff(model.getBaseModel(), parse(content.replace("rdfs:label \"A\"", "rdfs:label \"Other\"")));
+      assertFalse("A new label must not be patched", new AnnotationsPatch(schema, diff).isApplicable());
+
+      diff = new ModelDiff(model.getBaseModel(), parse(getContent("first", "first note", ":B rdfs:comment [ a owl:Class ] .\n")));
+      assertFalse("A blank node must not be patched", new AnnotationsPatch(schema, diff).isApplicable());
+
+      diff = new ModelDiff(model.getBaseModel(), parse(getContent("first", "first note", ":B :other \"value\" .\n")));
+      assertFalse("An unknown annotation must not be patched", new AnnotationsPatch(schema, diff).isApplicable());
+   }
+}
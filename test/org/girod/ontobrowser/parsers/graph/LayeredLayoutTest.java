@@ -0,0 +1,206 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.parsers.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.Random;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mdiutil.junit.Order;
+import org.mdiutil.junit.OrderedRunner;
+
+/**
+ *
+ * @since 0.16
+ */
+@RunWith(OrderedRunner.class)
+public class LayeredLayoutTest {
+   private static final double WIDTH = 80;
+   private static final double HEIGHT = 20;
+
+   public LayeredLayoutTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   private static LayeredLayout createLayout(int count) {
+      LayeredLayout layout = new LayeredLayout(count);
+      for (int i = 0; i < count; i++) {
+         layout.setSize(i, WIDTH, HEIGHT);
+      }
+      return layout;
+   }
+
+   private static void checkPositions(LayeredLayout layout, int count) {
+      for (int i = 0; i < count; i++) {
+         assertFalse("The position must be defined", Double.isNaN(layout.getX(i)) || Double.isNaN(layout.getY(i)));
+         for (int j = i + 1; j < count; j++) {
+            boolean separated = layout.getX(i) + WIDTH <= layout.getX(j) || layout.getX(j) + WIDTH <= layout.getX(i)
+               || layout.getY(i) + HEIGHT <= layout.getY(j) || layout.getY(j) + HEIGHT <= layout.getY(i);
+            assertTrue("The nodes " + i + " and " + j + " must not overlap", separated);
+         }
+      }
+   }
+
+   private static boolean isUnder(LayeredLayout layout, int upper, int lower) {
+      return layout.getY(upper) + HEIGHT <= layout.getY(lower);
+   }
+
+   /**
+    * Test the layout of a tree.
+    */
+   @Test
+   @Order(order = 1)
+   public void testTree() throws Exception {
+      System.out.println("LayeredLayoutTest : testTree");
+      int count = 15;
+      LayeredLayout layout = createLayout(count);
+      for (int i = 1; i < count; i++) {
+         layout.addEdge((i - 1) / 2, i);
+      }
+      layout.apply();
+      checkPositions(layout, count);
+      for (int i = 1; i < count; i++) {
+         assertTrue("The node " + i + " must be under its parent", isUnder(layout, (i - 1) / 2, i));
+      }
+      assertEquals("Must have no crossings", 0, layout.getCrossings());
+   }
+
+   /**
+    * Test the layout of a hierarchy with a cycle.
+    */
+   @Test
+   @Order(order = 2)
+   public void testCycle() throws Exception {
+      System.out.println("LayeredLayoutTest : testCycle");
+      int count = 5;
+      LayeredLayout layout = createLayout(count);
+      int[][] edges = {{0, 1}, {1, 2}, {2, 3}, {3, 1}, {2, 4}};
+      for (int i = 0; i < edges.length; i++) {
+         layout.addEdge(edges[i][0], edges[i][1]);
+      }
+      layout.addEdge(4, 4);
+      layout.apply();
+      checkPositions(layout, count);
+      int upwardEdges = 0;
+      for (int i = 0; i < edges.length; i++) {
+         if (!isUnder(layout, edges[i][0], edges[i][1])) {
+            upwardEdges++;
+         }
+      }
+      assertEquals("Only one edge of the cycle must be reversed", 1, upwardEdges);
+      assertTrue("The root must be above the cycle", isUnder(layout, 0, 1));
+      assertTrue("The node 4 must be under the node 2", isUnder(layout, 2, 4));
+   }
+
+   /**
+    * Test that the crossings are removed when the layers can be ordered without crossings.
+    */
+   @Test
+   @Order(order = 3)
+   public void testCrossings() throws Exception {
+      System.out.println("LayeredLayoutTest : testCrossings");
+      int count = 9;
+      LayeredLayout layout = createLayout(count);
+      // three crossed parents with their children in the reverse order
+      layout.addEdge(0, 1);
+      layout.addEdge(0, 2);
+      layout.addEdge(0, 3);
+      layout.addEdge(1, 8);
+      layout.addEdge(2, 7);
+      layout.addEdge(3, 6);
+      layout.addEdge(3, 5);
+      layout.addEdge(1, 4);
+      layout.apply();
+      checkPositions(layout, count);
+      assertEquals("Must have no crossings", 0, layout.getCrossings());
+   }
+
+   /**
+    * Test the layout of a large hierarchy with cycles and several parts, in parallel and sequentially.
+    */
+   @Test
+   @Order(order = 4)
+   public void testLargeHierarchy() throws Exception {
+      System.out.println("LayeredLayoutTest : testLargeHierarchy");
+      int count = 600;
+      Random random = new Random(3);
+      int[][] edges = new int[count - 2 + 20][2];
+      // two trees: the even nodes under the node 0, and the odd nodes under the node 1
+      for (int node = 2; node < count; node++) {
+         edges[node - 2][0] = node - 2 * (1 + random.nextInt(node / 2));
+         edges[node - 2][1] = node;
+      }
+      // edges from nodes to the root of their tree, which create cycles
+      for (int i = count - 2; i < edges.length; i++) {
+         int node = 2 + random.nextInt(count - 2);
+         edges[i][0] = node;
+         edges[i][1] = node % 2;
+      }
+      LayeredLayout parallelLayout = createLayout(count);
+      LayeredLayout sequentialLayout = createLayout(count);
+      sequentialLayout.setPool(null);
+      for (int i = 0; i < edges.length; i++) {
+         parallelLayout.addEdge(edges[i][0], edges[i][1]);
+         sequentialLayout.addEdge(edges[i][0], edges[i][1]);
+      }
+      parallelLayout.apply();
+      sequentialLayout.apply();
+      checkPositions(parallelLayout, count);
+      for (int i = 0; i < count; i++) {
+         assertEquals("Must have the same X position", sequentialLayout.getX(i), parallelLayout.getX(i), 1e-9);
+         assertEquals("Must have the same Y position", sequentialLayout.getY(i), parallelLayout.getY(i), 1e-9);
+      }
+      assertEquals("Must have the same crossings", sequentialLayout.getCrossings(), parallelLayout.getCrossings());
+   }
+}
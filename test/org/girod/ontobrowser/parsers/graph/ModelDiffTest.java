@@ -0,0 +1,180 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.parsers.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.io.StringReader;
+import java.util.Set;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.girod.ontobrowser.model.ElementKey;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mdiutil.junit.Order;
+import org.mdiutil.junit.OrderedRunner;
+
+/**
+ *
+ * @since 0.16
+ */
+@RunWith(OrderedRunner.class)
+public class ModelDiffTest {
+   private static final String NS = "http://test/diff#";
+   private static final String PREFIXES = "@prefix owl: <http://www.w3.org/2002/07/owl#> .\n"
+      + "@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n"
+      + "@prefix : <" + NS + "> .\n";
+   private static final int LIST_SIZE = 5000;
+
+   public ModelDiffTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   private static Model parse(String content) {
+      Model model = ModelFactory.createDefaultModel();
+      model.read(new StringReader(PREFIXES + content), null, "TURTLE");
+      return model;
+   }
+
+   /**
+    * Return an Ontology with a class which is the union of a long list of classes.
+    */
+   private static String getUnion(int changedIndex) {
+      StringBuilder buf = new StringBuilder();
+      buf.append(":Union a owl:Class ; owl:unionOf (");
+      for (int i = 0; i < LIST_SIZE; i++) {
+         buf.append(" :Member").append(i == changedIndex ? "Changed" : "").append(i);
+      }
+      buf.append(" ) .\n");
+      buf.append(":Other a owl:Class ; rdfs:subClassOf [ a owl:Restriction ; owl:onProperty :prop ; owl:someValuesFrom :Member0 ] .\n");
+      return buf.toString();
+   }
+
+   /**
+    * Test that two parses of the same long list are identical.
+    */
+   @Test
+   @Order(order = 1)
+   public void testSameLongList() throws Exception {
+      System.out.println("ModelDiffTest : testSameLongList");
+      Model previous = parse(getUnion(-1));
+      Model current = parse(getUnion(-1));
+      ModelDiff diff = new ModelDiff(previous, current);
+      assertTrue("The difference must be empty", diff.isEmpty());
+   }
+
+   /**
+    * Test the difference when one element of a long list changes.
+    */
+   @Test
+   @Order(order = 2)
+   public void testChangedLongList() throws Exception {
+      System.out.println("ModelDiffTest : testChangedLongList");
+      Model previous = parse(getUnion(-1));
+      Model original = parse(getUnion(-1));
+      Model current = parse(getUnion(LIST_SIZE - 1));
+      ModelDiff diff = new ModelDiff(previous, current);
+      assertFalse("The difference must not be empty", diff.isEmpty());
+      Set<ElementKey> changed = diff.getChangedElements();
+      assertTrue("Union must have changed", changed.contains(new ElementKey(NS, "Union")));
+      assertFalse("Other must not have changed", changed.contains(new ElementKey(NS, "Other")));
+
+      diff.apply(previous);
+      assertTrue("The patched model must be the current model", previous.isIsomorphicWith(current));
+      diff.revert(previous);
+      assertTrue("The reverted model must be the original model", previous.isIsomorphicWith(original));
+   }
+
+   /**
+    * Test the difference of a restriction and of a blank node which is not reachable from a named subject.
+    */
+   @Test
+   @Order(order = 3)
+   public void testRestrictions() throws Exception {
+      System.out.println("ModelDiffTest : testRestrictions");
+      String axiom = "[ a owl:Axiom ; owl:annotatedSource :A ; owl:annotatedProperty rdfs:subClassOf ; owl:annotatedTarget :B ; "
+         + "rdfs:comment \"comment\" ] .\n";
+      Model previous = parse(":A a owl:Class ; rdfs:subClassOf :B .\n" + axiom
+         + ":C a owl:Class ; rdfs:subClassOf [ a owl:Restriction ; owl:onProperty :prop ; owl:someValuesFrom :A ] .\n");
+      Model current = parse(":A a owl:Class ; rdfs:subClassOf :B .\n" + axiom
+         + ":C a owl:Class ; rdfs:subClassOf [ a owl:Restriction ; owl:onProperty :prop ; owl:allValuesFrom :A ] .\n");
+      ModelDiff diff = new ModelDiff(previous, current);
+      Set<ElementKey> changed = diff.getChangedElements();
+      assertTrue("C must have changed", changed.contains(new ElementKey(NS, "C")));
+      assertEquals("Number of removed triples", 4, diff.getRemovedTriples().size());
+      assertEquals("Number of added triples", 4, diff.getAddedTriples().size());
+      diff.apply(previous);
+      assertTrue("The patched model must be the current model", previous.isIsomorphicWith(current));
+   }
+
+   /**
+    * Test that the standard prefixes which are added by an OntModel are not a change of the prefixes.
+    */
+   @Test
+   @Order(order = 4)
+   public void testStandardPrefixes() throws Exception {
+      System.out.println("ModelDiffTest : testStandardPrefixes");
+      Model previous = parse(":A a owl:Class .\n");
+      ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM, previous);
+      assertTrue("The OntModel must have added the xsd prefix", previous.getNsPrefixMap().containsKey("xsd"));
+      ModelDiff diff = new ModelDiff(previous, parse(":A a owl:Class .\n"));
+      assertFalse("The prefixes must not have changed", diff.hasPrefixChanges());
+      assertTrue("The difference must be empty", diff.isEmpty());
+
+      Model current = ModelFactory.createDefaultModel();
+      current.read(new StringReader("@prefix other: <" + NS + "> .\n" + PREFIXES + ":A a owl:Class .\n"), null, "TURTLE");
+      diff = new ModelDiff(previous, current);
+      assertTrue("The prefixes must have changed", diff.hasPrefixChanges());
+   }
+}
@@ -0,0 +1,240 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.parsers.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.girod.ontobrowser.BrowserConfiguration;
+import org.girod.ontobrowser.model.ElementKey;
+import org.girod.ontobrowser.model.OwlSchema;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mdiutil.junit.Order;
+import org.mdiutil.junit.OrderedRunner;
+
+/**
+ *
+ * @since 0.16
+ */
+@RunWith(OrderedRunner.class)
+public class SchemaCacheTest {
+   private static final String PREFIXES = "@prefix owl: <http://www.w3.org/2002/07/owl#> .\n"
+      + "@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n";
+   private static File dir;
+   private static File mainFile;
+   private static File importedFile;
+   private static SchemaCache cache;
+
+   public SchemaCacheTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() throws IOException {
+      dir = Files.createTempDirectory("schemaCache").toFile();
+      importedFile = new File(dir, "imported.ttl");
+      mainFile = new File(dir, "main.ttl");
+      write(importedFile, "<http://test/imported> a owl:Ontology .\n"
+         + "<http://test/imported#Imported> a owl:Class .\n");
+      write(mainFile, "<http://test/main> a owl:Ontology ; owl:imports <" + importedFile.toURI() + "> .\n"
+         + "<http://test/main#Main> a owl:Class ; rdfs:subClassOf <http://test/imported#Imported> .\n");
+      cache = new SchemaCache(new File(dir, "cache"));
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+      cache.clear();
+      File[] files = dir.listFiles();
+      for (int i = 0; i < files.length; i++) {
+         files[i].delete();
+      }
+      new File(dir, "cache").delete();
+      dir.delete();
+      cache = null;
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   private static void write(File file, String content) throws IOException {
+      Files.write(file.toPath(), (PREFIXES + content).getBytes(StandardCharsets.UTF_8));
+   }
+
+   private static OntModel loadModel() {
+      OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM);
+      model.read(mainFile.toURI().toString(), "TURTLE");
+      return model;
+   }
+
+   /**
+    * Test of the round-trip of a schema in the cache.
+    */
+   @Test
+   @Order(order = 1)
+   public void testPutSchema() throws Exception {
+      System.out.println("SchemaCacheTest : testPutSchema");
+      OntModel model = loadModel();
+      List<File> dependencies = ImportsResolver.getImportedFiles(mainFile, model);
+      assertTrue("The imported file must be a dependency", dependencies.contains(importedFile));
+
+      OwlSchema schema = new GraphExtractor(mainFile, model, true, false).getGraph();
+      String key = cache.getKey(mainFile);
+      assertTrue("The schema must be put in the cache", cache.putSchema(key, schema, dependencies));
+      OwlSchema cachedSchema = cache.getSchema(key);
+      assertNotNull("The schema must be in the cache", cachedSchema);
+      assertEquals("Number of classes", schema.getOwlClasses().size(), cachedSchema.getOwlClasses().size());
+      assertTrue("Must have Main", cachedSchema.hasOwlClass(new ElementKey("http://test/main#", "Main")));
+   }
+
+   /**
+    * Test that the cached schema is not used anymore if an imported document changes.
+    */
+   @Test
+   @Order(order = 2)
+   public void testChangedImport() throws Exception {
+      System.out.println("SchemaCacheTest : testChangedImport");
+      String key = cache.getKey(mainFile);
+      assertNotNull("The schema must be in the cache", cache.getSchema(key));
+
+      write(importedFile, "<http://test/imported> a owl:Ontology .\n"
+         + "<http://test/imported#Imported> a owl:Class .\n"
+         + "<http://test/imported#Other> a owl:Class .\n");
+      assertEquals("The key only depends on the main file", key, cache.getKey(mainFile));
+      assertNull("The schema must not be used after a change of an import", cache.getSchema(key));
+   }
+
+   /**
+    * Test that the key depends on the use of the builtin schemas.
+    */
+   @Test
+   @Order(order = 3)
+   public void testBuiltinSchemasKey() throws Exception {
+      System.out.println("SchemaCacheTest : testBuiltinSchemasKey");
+      BrowserConfiguration conf = BrowserConfiguration.getInstance();
+      boolean useBuiltinSchemas = conf.useBuiltinSchemas;
+      try {
+         String key = cache.getKey(mainFile);
+         conf.useBuiltinSchemas = !useBuiltinSchemas;
+         assertNotEquals("The key must depend on the use of the builtin schemas", key, cache.getKey(mainFile));
+      } finally {
+         conf.useBuiltinSchemas = useBuiltinSchemas;
+      }
+   }
+
+   private static int countSchemas() {
+      File[] files = cache.getDirectory().listFiles((File file, String name) -> name.endsWith(".schema"));
+      return files == null ? 0 : files.length;
+   }
+
+   /**
+    * Test that the previous schema of a file is removed when the file changes, and that the schema is written on a background thread.
+    */
+   @Test
+   @Order(order = 4)
+   public void testReplaceSchema() throws Exception {
+      System.out.println("SchemaCacheTest : testReplaceSchema");
+      cache.clear();
+      OwlSchema schema = new GraphExtractor(mainFile, loadModel(), true, false).getGraph();
+      String key = cache.getKey(mainFile);
+      assertTrue("The schema must be put in the cache", cache.putSchema(key, schema));
+      assertEquals("Must have 1 schema", 1, countSchemas());
+
+      write(mainFile, "<http://test/main> a owl:Ontology .\n"
+         + "<http://test/main#Main> a owl:Class .\n"
+         + "<http://test/main#Other> a owl:Class .\n");
+      String key2 = cache.getKey(mainFile);
+      assertNotEquals("The key must depend on the content of the file", key, key2);
+      OwlSchema schema2 = new GraphExtractor(mainFile, loadModel(), true, false).getGraph();
+      cache.putSchemaLater(key2, schema2, new ArrayList<>()).get(10, TimeUnit.SECONDS);
+      assertEquals("The previous schema of the file must be removed", 1, countSchemas());
+      assertFalse("The previous schema of the file must be removed", cache.hasSchema(key));
+      assertNotNull("Must have the new schema", cache.getSchema(key2));
+   }
+
+   /**
+    * Test that the least recently used schemas are removed when the cache exceeds its maximum size.
+    */
+   @Test
+   @Order(order = 5)
+   public void testMaximumSize() throws Exception {
+      System.out.println("SchemaCacheTest : testMaximumSize");
+      cache.clear();
+      OwlSchema schema = new GraphExtractor(mainFile, loadModel(), true, false).getGraph();
+      File[] files = new File[3];
+      String[] keys = new String[files.length];
+      for (int i = 0; i < files.length; i++) {
+         files[i] = new File(dir, "copy" + i + ".ttl");
+         Files.copy(mainFile.toPath(), files[i].toPath());
+         keys[i] = cache.getKey(files[i]);
+         assertTrue("The schema must be put in the cache", cache.putSchema(keys[i], schema));
+         new File(cache.getDirectory(), keys[i] + ".schema").setLastModified(System.currentTimeMillis() - 10000 * (files.length - i));
+      }
+      assertEquals("Must have 3 schemas", 3, countSchemas());
+      long length = new File(cache.getDirectory(), keys[0] + ".schema").length();
+      cache.setMaximumSize(length * 3);
+      try {
+         File file = new File(dir, "copy3.ttl");
+         Files.copy(mainFile.toPath(), file.toPath());
+         String key = cache.getKey(file);
+         assertTrue("The schema must be put in the cache", cache.putSchema(key, schema));
+         assertEquals("Must have 3 schemas", 3, countSchemas());
+         assertFalse("The least recently used schema must be removed", cache.hasSchema(keys[0]));
+         assertTrue("The new schema must be kept", cache.hasSchema(key));
+         assertTrue("The most recently used schema must be kept", cache.hasSchema(keys[2]));
+      } finally {
+         cache.setMaximumSize(SchemaCache.DEFAULT_MAXIMUM_SIZE);
+      }
+   }
+}
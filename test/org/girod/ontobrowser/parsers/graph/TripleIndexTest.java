@@ -0,0 +1,151 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/ontologyBrowser
+ */
+package org.girod.ontobrowser.parsers.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.StringReader;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.StmtIterator;
+import org.girod.ontobrowser.BrowserConfiguration;
+import org.girod.ontobrowser.model.ElementKey;
+import org.girod.ontobrowser.model.OwlClass;
+import org.girod.ontobrowser.model.OwlIndividual;
+import org.girod.ontobrowser.model.OwlSchema;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mdiutil.junit.Order;
+import org.mdiutil.junit.OrderedRunner;
+
+/**
+ *
+ * @since 0.16
+ */
+@RunWith(OrderedRunner.class)
+public class TripleIndexTest {
+   private static final String NS = "http://test/index#";
+   private static boolean includeIndividuals;
+
+   public TripleIndexTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+      BrowserConfiguration conf = BrowserConfiguration.getInstance();
+      includeIndividuals = conf.includeIndividuals;
+      conf.includeIndividuals = true;
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+      BrowserConfiguration.getInstance().includeIndividuals = includeIndividuals;
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   private static OntModel createModel() {
+      StringBuilder buf = new StringBuilder();
+      buf.append("@prefix owl: <http://www.w3.org/2002/07/owl#> .\n");
+      buf.append("@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n");
+      buf.append("@prefix : <").append(NS).append("> .\n");
+      buf.append(":A a owl:Class .\n");
+      buf.append(":B a owl:Class ; rdfs:subClassOf :A .\n");
+      buf.append(":C a owl:Class .\n");
+      buf.append(":i1 a owl:NamedIndividual, :A, :B ; rdfs:comment \"first\" .\n");
+      buf.append(":i2 a :B, :C .\n");
+      OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM);
+      model.read(new StringReader(buf.toString()), null, "TURTLE");
+      return model;
+   }
+
+   private static Set<ElementKey> getParentKeys(OwlSchema schema, String name) {
+      OwlIndividual individual = schema.getIndividual(new ElementKey(NS, name));
+      Map<ElementKey, OwlClass> parentClasses = individual.getParentClasses();
+      return new HashSet<>(parentClasses.keySet());
+   }
+
+   /**
+    * Test that the index only keeps the rdf:type statements.
+    */
+   @Test
+   @Order(order = 1)
+   public void testIndex() throws Exception {
+      System.out.println("TripleIndexTest : testIndex");
+      OntModel model = createModel();
+      TripleIndex index = new TripleIndex();
+      StmtIterator it = model.listStatements();
+      while (it.hasNext()) {
+         index.add(it.next());
+      }
+      assertEquals("Must have the rdf:type statements", 8, index.size());
+      assertEquals("Must have the typed subjects", 5, index.getSubjects().size());
+      Resource individual = model.getResource(NS + "i1");
+      assertEquals("Must have the types of i1", 3, index.getTypes(individual).size());
+      assertEquals("Must have the subjects of B", 2, index.getSubjects(model.getResource(NS + "B")).size());
+      assertTrue("Must have no types for an unknown resource", index.getTypes(model.getResource(NS + "unknown")).isEmpty());
+   }
+
+   /**
+    * Test that the parent classes of the individuals are their direct types.
+    */
+   @Test
+   @Order(order = 2)
+   public void testDirectTypes() throws Exception {
+      System.out.println("TripleIndexTest : testDirectTypes");
+      OwlSchema schema = new GraphExtractor(new File("index.ttl"), createModel(), true, false).getGraph();
+      assertEquals("Must have 2 individuals", 2, schema.getIndividuals().size());
+
+      Set<ElementKey> expected = new HashSet<>();
+      expected.add(new ElementKey(NS, "B"));
+      assertEquals("i1 must only be an individual of B", expected, getParentKeys(schema, "i1"));
+      expected.add(new ElementKey(NS, "C"));
+      assertEquals("i2 must be an individual of B and C", expected, getParentKeys(schema, "i2"));
+   }
+}